@@ -1,7 +1,11 @@
 package com.example.demo.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,8 +18,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.FlashSaleStatus;
 import com.example.demo.model.Event;
 import com.example.demo.service.EventService;
+import com.example.demo.service.FlashSaleService;
 import com.example.demo.exception.EventNotFoundException;
 
 import jakarta.validation.Valid;
@@ -28,6 +35,7 @@ import lombok.AllArgsConstructor;
 public class EventController {
 
     private EventService service;
+    private FlashSaleService flashSaleService;
 
     @PostMapping("/create")
     public ResponseEntity<String> createEvent(@RequestBody @Valid Event event) {
@@ -45,11 +53,24 @@ public class EventController {
         return ResponseEntity.ok(service.getEventById(eventId));
     }
 
+    // Multi-get for other services; unknown IDs are left out of the map
+    @GetMapping("/getEventsByIds")
+    public ResponseEntity<Map<Integer, Event>> getEventsByIds(@RequestParam("ids") Set<Integer> eventIds) {
+        return ResponseEntity.ok(service.getEventsByIds(eventIds));
+    }
+
     @GetMapping("/getAllEvents")
     public ResponseEntity<List<Event>> getAllEvents() {
         return ResponseEntity.ok(service.getAllEvents());
     }
 
+    // Pass the returned nextCursor back to get the following page
+    @GetMapping("/getAllEventsPaged")
+    public ResponseEntity<CursorPage<Event>> getAllEventsPaged(@RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.getAllEventsPaged(cursor, limit));
+    }
+
     @PutMapping("/update/{eventId}")
     public ResponseEntity<String> updateEvent(@PathVariable("eventId") int eventId, @RequestBody @Valid Event event) {
         if (eventId <= 0) {
@@ -82,12 +103,13 @@ public class EventController {
         return ResponseEntity.ok(service.filterByLocation(location));
     }
     
+    // Ranked, prefix-matching search; category and location narrow the results to exact values
     @GetMapping("/search")
-    public ResponseEntity<List<Event>> searchEventsByName(@RequestParam("keyword") String keyword) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            throw new IllegalArgumentException("Search keyword cannot be empty");
-        }
-        return ResponseEntity.ok(service.searchEventsByName(keyword));
+    public ResponseEntity<List<Event>> searchEvents(@RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return ResponseEntity.ok(service.searchEvents(keyword, category, location, limit));
     }
     
     @GetMapping("/organizer/{organizerId}")
@@ -98,13 +120,22 @@ public class EventController {
         return ResponseEntity.ok(service.getEventsByOrganizer(organizerId));
     }
 
+    // Used by the reminder job to find events starting soon
+    @GetMapping("/getEventsStartingBetween")
+    public ResponseEntity<List<Event>> getEventsStartingBetween(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.getEventsStartingBetween(from, to));
+    }
+
     @PutMapping("/decreaseTicketCount/{eventId}")
     public ResponseEntity<String> decreaseTicketCount(
             @PathVariable("eventId") @Min(value = 1, message = "Event ID must be greater than 0") int eventId,
-            @RequestParam(value = "quantity", defaultValue = "1") @Min(value = 1, message = "Quantity must be greater than 0") int quantity) {
+            @RequestParam(value = "quantity", defaultValue = "1") @Min(value = 1, message = "Quantity must be greater than 0") int quantity,
+            @RequestParam(value = "reservationToken", required = false) String reservationToken) {
         
         try {
-            service.decreaseTicketCount(eventId, quantity);
+            service.decreaseTicketCount(eventId, quantity, reservationToken);
             return ResponseEntity.ok("Ticket count decreased successfully");
         } catch (EventNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -116,13 +147,61 @@ public class EventController {
     @PutMapping("/increaseTicketCount/{eventId}")
     public ResponseEntity<String> increaseTicketCount(
             @PathVariable("eventId") @Min(value = 1, message = "Event ID must be greater than 0") int eventId,
-            @RequestParam(value = "quantity", defaultValue = "1") @Min(value = 1, message = "Quantity must be greater than 0") int quantity) {
+            @RequestParam(value = "quantity", defaultValue = "1") @Min(value = 1, message = "Quantity must be greater than 0") int quantity,
+            @RequestParam(value = "reservationToken", required = false) String reservationToken) {
         
         try {
-            service.increaseTicketCount(eventId, quantity);
+            service.increaseTicketCount(eventId, quantity, reservationToken);
             return ResponseEntity.ok("Ticket count increased successfully");
         } catch (EventNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // For a caller that lost the response to a ticket-count change: APPLIED, or VOIDED so it can never apply later
+    @PutMapping("/reservations/{token}/settle")
+    public ResponseEntity<String> settleReservation(@PathVariable("token") String token,
+            @RequestParam("eventId") int eventId) {
+        try {
+            return ResponseEntity.ok(service.settleReservation(token, eventId).name());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/flashSale/{eventId}/enable")
+    public ResponseEntity<?> enableFlashSale(@PathVariable("eventId") int eventId) {
+        if (eventId <= 0) {
+            throw new IllegalArgumentException("Event ID must be greater than 0");
+        }
+        try {
+            return ResponseEntity.ok(flashSaleService.enableFlashSale(eventId));
+        } catch (EventNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/flashSale/{eventId}/disable")
+    public ResponseEntity<?> disableFlashSale(@PathVariable("eventId") int eventId) {
+        if (eventId <= 0) {
+            throw new IllegalArgumentException("Event ID must be greater than 0");
+        }
+        try {
+            return ResponseEntity.ok(flashSaleService.disableFlashSale(eventId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/flashSale/{eventId}")
+    public ResponseEntity<FlashSaleStatus> getFlashSaleStatus(@PathVariable("eventId") int eventId) {
+        if (eventId <= 0) {
+            throw new IllegalArgumentException("Event ID must be greater than 0");
         }
+        return ResponseEntity.ok(flashSaleService.getStatus(eventId));
     }
 }
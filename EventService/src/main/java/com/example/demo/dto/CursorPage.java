@@ -0,0 +1,76 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated list, ordered by the entity ID.
+ *
+ * {@code nextCursor} is opaque to clients: pass it back unchanged to get the following page. It
+ * encodes the last ID returned, so the next query seeks past it on the primary key or a
+ * composite index instead of skipping rows, and each page costs the same however deep it is.
+ * It is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String CURSOR_PREFIX = "1:";
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Builds a page from up to {@code limit + 1} rows in key order; the extra row only tells that more follow.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, ToIntFunction<T> key) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(items), encodeCursor(key.applyAsInt(items.get(limit - 1))), true);
+    }
+
+    public static String encodeCursor(int lastKey) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the last key of the previous page, or 0 for a missing cursor (first page)
+     */
+    public static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                int lastKey = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+                if (lastKey >= 0) {
+                    return lastKey;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64 or not a number; reported below
+        }
+        throw new IllegalArgumentException("Invalid page cursor.");
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+    }
+}
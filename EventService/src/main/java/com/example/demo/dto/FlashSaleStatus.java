@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStatus {
+
+    private int eventId;
+    private boolean active;
+    private int stripes;
+    private long remainingTickets;
+    private long ticketsGranted;
+    private long ticketsReturned;
+    private long flushedTickets;
+}
@@ -43,6 +43,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(KEY_TIMESTAMP, LocalDateTime.now());
+        response.put(KEY_STATUS, HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put(KEY_ERROR, "Service Unavailable");
+        response.put(KEY_MESSAGE, ex.getMessage());
+        response.put(KEY_PATH, request.getDescription(false).replace("uri=", ""));
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex, WebRequest request) {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,21 @@
+package com.example.demo.feignclient;
+
+import java.time.LocalDateTime;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "NOTIFICATIONSERVICE", path = "/notification", fallbackFactory = NotificationClientFallbackFactory.class)
+public interface NotificationClient {
+
+    @PutMapping("/reminders/events/{eventId}")
+    public void rescheduleReminders(@PathVariable("eventId") int eventId,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date);
+
+    @DeleteMapping("/reminders/events/{eventId}")
+    public void cancelReminders(@PathVariable("eventId") int eventId);
+}
@@ -0,0 +1,26 @@
+package com.example.demo.feignclient;
+
+import java.time.LocalDateTime;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NotificationClientFallbackFactory implements FallbackFactory<NotificationClient> {
+
+    @Override
+    public NotificationClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("NOTIFICATIONSERVICE", cause);
+        return new NotificationClient() {
+            @Override
+            public void rescheduleReminders(int eventId, LocalDateTime date) {
+                throw failure;
+            }
+
+            @Override
+            public void cancelReminders(int eventId) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 import com.example.demo.dto.User;
 
-@FeignClient(name="USERSERVICE",path="/user")
+@FeignClient(name="USERSERVICE",path="/user",fallbackFactory=UserClientFallbackFactory.class)
 public interface UserClient
 {
 	@GetMapping("/getUserById/{id}")
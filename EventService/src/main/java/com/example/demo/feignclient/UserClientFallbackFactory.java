@@ -0,0 +1,21 @@
+package com.example.demo.feignclient;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.User;
+
+@Component
+public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
+
+    @Override
+    public UserClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("USERSERVICE", cause);
+        return new UserClient() {
+            @Override
+            public User getUserById(int userId) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -2,10 +2,15 @@ package com.example.demo.model;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +20,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = @Index(name = "idx_event_date", columnList = "date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,5 +51,11 @@ public class Event {
     
     @Min(value=1, message = "Ticket price must be greater than 0")
     private int ticketPrice;
+
+    // Instance serving this event from its flash-sale counters, null otherwise; written only by the flash-sale
+    // queries in EventRepository, so saving an event from a request body can never set or clear it
+    @JsonIgnore
+    @Column(length = 255, insertable = false, updatable = false)
+    private String flashSaleOwner;
 }
 
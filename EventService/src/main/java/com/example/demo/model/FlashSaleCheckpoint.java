@@ -0,0 +1,28 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many flash-sale tickets (grants minus returns) have already been written back to
+ * the event row. Saved in the same transaction as each flush, so on restart the journal
+ * total minus this value is exactly what still has to be applied.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleCheckpoint {
+
+    @Id
+    private int eventId;
+
+    private long flushedTickets;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A ticket-count change made under a caller's reservation token, saved in the same
+ * transaction as the change. A caller that never saw the response can ask afterwards
+ * whether the change happened, and repeating the call with the same token changes nothing.
+ *
+ * APPLIED: the change was made. VOIDED: the caller settled the token before any call
+ * with it was applied, and every later call with it is refused.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_inventory_reservation_created", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservation {
+
+    @Id
+    @Column(length = 64)
+    private String token;
+
+    private int eventId;
+
+    // Tickets returned to the event (positive) or taken from it (negative); 0 for a voided token
+    private int ticketChange;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Status status;
+
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        APPLIED, VOIDED
+    }
+}
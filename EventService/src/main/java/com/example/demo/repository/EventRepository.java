@@ -2,14 +2,24 @@ package com.example.demo.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.Event;
 
+import jakarta.persistence.LockModeType;
+
 public interface EventRepository extends JpaRepository<Event, Integer> {
+
+    // Keyset page: events after the given ID, in ID order
+    List<Event> findByEventIdGreaterThanOrderByEventIdAsc(int eventId, Limit limit);
     
     // Case-insensitive search by category
     List<Event> findByCategoryIgnoreCase(String category);
@@ -20,6 +30,9 @@ public interface EventRepository extends JpaRepository<Event, Integer> {
     // Find events between two dates (inclusive)
     List<Event> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    // Same range, in start order (served by the index on date)
+    List<Event> findByDateBetweenOrderByDateAsc(LocalDateTime startDate, LocalDateTime endDate);
+    
     // Find upcoming events (where date is after the current time)
     @Query("SELECT e FROM Event e WHERE e.date > :currentDate ORDER BY e.date ASC")
     List<Event> findUpcomingEvents(@Param("currentDate") LocalDateTime currentDate);
@@ -33,4 +46,58 @@ public interface EventRepository extends JpaRepository<Event, Integer> {
     // Find events with available tickets
     @Query("SELECT e FROM Event e WHERE e.ticketCount > 0")
     List<Event> findEventsWithAvailableTickets();
+    
+    // Atomically take tickets only while enough remain and no instance serves the event from flash-sale counters;
+    // returns the number of rows updated (0 or 1)
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketCount = e.ticketCount - :quantity WHERE e.eventId = :eventId "
+            + "AND e.ticketCount >= :quantity AND e.flashSaleOwner IS NULL")
+    int decrementTicketCount(@Param("eventId") int eventId, @Param("quantity") int quantity);
+    
+    // Atomically return tickets to an event; returns the number of rows updated (0 or 1). Allowed during another
+    // instance's flash sale: its flush only subtracts its own grants, so the returned tickets wait in the row
+    // until the sale ends
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketCount = e.ticketCount + :quantity WHERE e.eventId = :eventId")
+    int incrementTicketCount(@Param("eventId") int eventId, @Param("quantity") int quantity);
+    
+    // Read only the ticket count column (used to report the count right after a conditional update)
+    @Query("SELECT e.ticketCount FROM Event e WHERE e.eventId = :eventId")
+    Integer findTicketCountByEventId(@Param("eventId") int eventId);
+    
+    // Write back a flash-sale flush. The owner seeded its counters from this row and no other instance takes
+    // tickets from it while it is owned, so the result is not negative
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketCount = e.ticketCount - :tickets WHERE e.eventId = :eventId")
+    int subtractTicketCount(@Param("eventId") int eventId, @Param("tickets") int tickets);
+    
+    // Who serves the event from flash-sale counters; null when it is booked through the database
+    @Query("SELECT e.flashSaleOwner FROM Event e WHERE e.eventId = :eventId")
+    String findFlashSaleOwnerByEventId(@Param("eventId") int eventId);
+    
+    // Record that the given instance serves the event from flash-sale counters, unless one already does
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.flashSaleOwner = :owner WHERE e.eventId = :eventId AND e.flashSaleOwner IS NULL")
+    int claimFlashSale(@Param("eventId") int eventId, @Param("owner") String owner);
+    
+    // Hand the event back to database bookings, only if the given instance still owns its flash sale
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.flashSaleOwner = NULL WHERE e.eventId = :eventId AND e.flashSaleOwner = :owner")
+    int releaseFlashSale(@Param("eventId") int eventId, @Param("owner") String owner);
+    
+    // Hand back every flash sale the given instance still owns
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.flashSaleOwner = NULL WHERE e.flashSaleOwner = :owner")
+    int releaseFlashSales(@Param("owner") String owner);
+    
+    // Lock the event row so no database booking can slip in while flash-sale counters are seeded
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.eventId = :eventId")
+    Optional<Event> findByIdForUpdate(@Param("eventId") int eventId);
 }
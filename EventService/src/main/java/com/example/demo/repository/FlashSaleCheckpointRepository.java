@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.FlashSaleCheckpoint;
+
+public interface FlashSaleCheckpointRepository extends JpaRepository<FlashSaleCheckpoint, Integer> {
+}
@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.InventoryReservation;
+
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, String> {
+
+    // A plain INSERT, never a merge: a concurrent call with the same token must fail on the key, not overwrite it
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO inventory_reservation (token, event_id, ticket_change, status, created_at) "
+            + "VALUES (:token, :eventId, :ticketChange, :status, :createdAt)", nativeQuery = true)
+    int insert(@Param("token") String token, @Param("eventId") int eventId, @Param("ticketChange") int ticketChange,
+            @Param("status") String status, @Param("createdAt") LocalDateTime createdAt);
+
+    // Forget tokens older than any caller still resolving them
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM InventoryReservation r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,410 @@
+package com.example.demo.service;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Event;
+import com.example.demo.repository.EventRepository;
+
+/**
+ * In-memory inverted index over event name, category and location, so a search costs a few
+ * map lookups per query term instead of a LIKE or LOWER() scan of the event table.
+ *
+ * Text is split on anything that is not a letter or digit, lower-cased and stripped of accents.
+ * Every query term must match a term of the event, either exactly or as a prefix of at least
+ * {@value #MIN_PREFIX_LENGTH} characters; exact matches and matches in the name rank higher.
+ * Category and location filters compare the whole value, like filterByCategory and
+ * filterByLocation.
+ *
+ * EventServiceImpl updates the index after each create, update and delete on this instance, and
+ * a periodic rebuild from the database picks up changes made through other instances. Until the
+ * first build finishes {@link #isReady} is false and callers query the repository instead. Only
+ * IDs are kept; callers load the rows by primary key, so results show the current ticket count.
+ */
+@Component
+public class EventSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSearchIndex.class);
+
+    public static final int MAX_RESULTS = 100;
+    static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    enum Field {
+        NAME(4), CATEGORY(2), LOCATION(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    // What an event contributed to the index, kept so an update or delete can take exactly that out again
+    private record Entry(int eventId, long startsAt, String category, String location,
+            Map<Field, Set<String>> terms) {
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Field, ConcurrentSkipListMap<String, Set<Integer>>> postings = new EnumMap<>(Field.class);
+        private final Map<String, Set<Integer>> byCategory = new ConcurrentHashMap<>();
+        private final Map<String, Set<Integer>> byLocation = new ConcurrentHashMap<>();
+        private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+        private Snapshot() {
+            for (Field field : Field.values()) {
+                postings.put(field, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        private void put(Entry entry) {
+            Entry previous = entries.put(entry.eventId(), entry);
+            // Add the new terms before dropping the old ones, so a concurrent search never misses a term both share
+            for (Field field : Field.values()) {
+                for (String term : entry.terms().get(field)) {
+                    add(postings.get(field), term, entry.eventId());
+                }
+            }
+            add(byCategory, entry.category(), entry.eventId());
+            add(byLocation, entry.location(), entry.eventId());
+            if (previous != null) {
+                removeStale(previous, entry);
+            }
+        }
+
+        private void remove(int eventId) {
+            Entry previous = entries.remove(eventId);
+            if (previous != null) {
+                removeStale(previous, null);
+            }
+        }
+
+        private void removeStale(Entry previous, Entry current) {
+            int eventId = previous.eventId();
+            for (Field field : Field.values()) {
+                for (String term : previous.terms().get(field)) {
+                    if (current == null || !current.terms().get(field).contains(term)) {
+                        remove(postings.get(field), term, eventId);
+                    }
+                }
+            }
+            if (current == null || !previous.category().equals(current.category())) {
+                remove(byCategory, previous.category(), eventId);
+            }
+            if (current == null || !previous.location().equals(current.location())) {
+                remove(byLocation, previous.location(), eventId);
+            }
+        }
+
+        private static void add(Map<String, Set<Integer>> map, String key, int eventId) {
+            map.compute(key, (k, ids) -> {
+                Set<Integer> set = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                set.add(eventId);
+                return set;
+            });
+        }
+
+        private static void remove(Map<String, Set<Integer>> map, String key, int eventId) {
+            map.computeIfPresent(key, (k, ids) -> {
+                ids.remove(eventId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private final EventRepository repository;
+    private final int rebuildBatchSize;
+
+    // Swapped whole by a rebuild; incremental changes are applied to it in place
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile boolean ready;
+
+    // Changes made while a rebuild is reading the table, replayed onto the new snapshot; null when no rebuild runs
+    private Map<Integer, Event> changesDuringRebuild;
+
+    public EventSearchIndex(EventRepository repository,
+            @Value("${event.search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        if (rebuildBatchSize < 1) {
+            throw new IllegalArgumentException("Search index rebuild batch size must be positive");
+        }
+        this.repository = repository;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    public synchronized void index(Event event) {
+        snapshot.put(entryOf(event));
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.put(event.getEventId(), event);
+        }
+    }
+
+    public synchronized void remove(int eventId) {
+        snapshot.remove(eventId);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.put(eventId, null);
+        }
+    }
+
+    /**
+     * Reloads every event from the database into a new snapshot and swaps it in. Runs once at
+     * startup and then on a fixed delay.
+     *
+     * @return the number of events indexed
+     */
+    @Scheduled(initialDelayString = "${event.search.initial-delay-ms:0}",
+            fixedDelayString = "${event.search.rebuild-interval-ms:300000}")
+    public int rebuild() {
+        long started = System.nanoTime();
+        synchronized (this) {
+            changesDuringRebuild = new LinkedHashMap<>();
+        }
+        try {
+            Snapshot fresh = new Snapshot();
+            int afterEventId = 0;
+            List<Event> page;
+            do {
+                page = repository.findByEventIdGreaterThanOrderByEventIdAsc(afterEventId, Limit.of(rebuildBatchSize));
+                for (Event event : page) {
+                    fresh.put(entryOf(event));
+                    afterEventId = event.getEventId();
+                }
+            } while (page.size() == rebuildBatchSize);
+
+            synchronized (this) {
+                // A page may have been read before one of these changes committed
+                changesDuringRebuild.forEach((eventId, event) -> {
+                    if (event == null) {
+                        fresh.remove(eventId);
+                    } else {
+                        fresh.put(entryOf(event));
+                    }
+                });
+                snapshot = fresh;
+                ready = true;
+            }
+            logger.info("Search index rebuilt with {} events in {} ms", fresh.entries.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return fresh.entries.size();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot; the next run tries again
+            logger.error("Search index rebuild failed: {}", e.getMessage(), e);
+            return -1;
+        } finally {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of events that match every term of {@code query} and both filters, best match
+     * first, then soonest first. Any argument may be null or blank, but not all of them.
+     */
+    public List<Integer> search(String query, String category, String location, int limit) {
+        Snapshot current = snapshot;
+        Set<Integer> filter = null;
+        if (category != null && !category.isBlank()) {
+            filter = current.byCategory.getOrDefault(normalizeValue(category), Collections.emptySet());
+        }
+        if (location != null && !location.isBlank()) {
+            Set<Integer> byLocation = current.byLocation.getOrDefault(normalizeValue(location), Collections.emptySet());
+            filter = filter == null ? byLocation : intersect(filter, byLocation);
+        }
+
+        Set<String> terms = tokenize(query);
+        Map<Integer, Integer> scores;
+        if (terms.isEmpty()) {
+            if (filter == null) {
+                return Collections.emptyList();
+            }
+            scores = new HashMap<>();
+            for (Integer eventId : filter) {
+                scores.put(eventId, 0);
+            }
+        } else {
+            scores = null;
+            int counted = 0;
+            for (String term : terms) {
+                if (counted++ == MAX_QUERY_TERMS) {
+                    break;
+                }
+                Map<Integer, Integer> termScores = scoreTerm(current, term, filter);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((eventId, score) -> score + termScores.get(eventId));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        }
+        return rank(current, scores, limit);
+    }
+
+    private static Map<Integer, Integer> scoreTerm(Snapshot current, String term, Set<Integer> filter) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Field field : Field.values()) {
+            ConcurrentSkipListMap<String, Set<Integer>> postings = current.postings.get(field);
+            // An event scores once per field: the exact term counts double, any longer term it prefixes once
+            Map<Integer, Integer> fieldScores = new HashMap<>();
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                for (Set<Integer> ids : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                    addScores(fieldScores, ids, filter, field.weight);
+                }
+            }
+            Set<Integer> exact = postings.get(term);
+            if (exact != null) {
+                addScores(fieldScores, exact, filter, field.weight * 2);
+            }
+            fieldScores.forEach((eventId, score) -> scores.merge(eventId, score, Integer::sum));
+        }
+        return scores;
+    }
+
+    private static void addScores(Map<Integer, Integer> scores, Set<Integer> ids, Set<Integer> filter, int score) {
+        for (Integer eventId : ids) {
+            if (filter == null || filter.contains(eventId)) {
+                scores.merge(eventId, score, Math::max);
+            }
+        }
+    }
+
+    // Best score first, then the event starting soonest, then the lowest ID
+    private record Hit(int eventId, int score, long startsAt) implements Comparable<Hit> {
+
+        @Override
+        public int compareTo(Hit other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            if (startsAt != other.startsAt) {
+                return Long.compare(startsAt, other.startsAt);
+            }
+            return Integer.compare(eventId, other.eventId);
+        }
+    }
+
+    private static List<Integer> rank(Snapshot current, Map<Integer, Integer> scores, int limit) {
+        List<Hit> hits;
+        if (limit >= scores.size()) {
+            hits = new ArrayList<>(scores.size());
+            scores.forEach((eventId, score) -> hits.add(hitOf(current, eventId, score)));
+        } else {
+            // Keep only the best limit hits, with the worst of them at the head to be pushed out
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+            scores.forEach((eventId, score) -> {
+                Hit hit = hitOf(current, eventId, score);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (hit.compareTo(best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            });
+            hits = new ArrayList<>(best);
+        }
+        Collections.sort(hits);
+        List<Integer> eventIds = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            eventIds.add(hit.eventId());
+        }
+        return eventIds;
+    }
+
+    private static Hit hitOf(Snapshot current, int eventId, int score) {
+        Entry entry = current.entries.get(eventId);
+        return new Hit(eventId, score, entry == null ? Long.MAX_VALUE : entry.startsAt());
+    }
+
+    private static Set<Integer> intersect(Set<Integer> first, Set<Integer> second) {
+        Set<Integer> smaller = first.size() <= second.size() ? first : second;
+        Set<Integer> larger = smaller == first ? second : first;
+        Set<Integer> result = new LinkedHashSet<>();
+        for (Integer eventId : smaller) {
+            if (larger.contains(eventId)) {
+                result.add(eventId);
+            }
+        }
+        return result;
+    }
+
+    private static Entry entryOf(Event event) {
+        Map<Field, Set<String>> terms = new EnumMap<>(Field.class);
+        terms.put(Field.NAME, tokenize(event.getName()));
+        terms.put(Field.CATEGORY, tokenize(event.getCategory()));
+        terms.put(Field.LOCATION, tokenize(event.getLocation()));
+        LocalDateTime date = event.getDate();
+        long startsAt = date == null ? Long.MAX_VALUE : date.toEpochSecond(ZoneOffset.UTC);
+        return new Entry(event.getEventId(), startsAt, normalizeValue(event.getCategory()),
+                normalizeValue(event.getLocation()), terms);
+    }
+
+    // Distinct terms in order of appearance
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean termChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String normalizeValue(String value) {
+        return value == null ? "" : fold(value.trim());
+    }
+
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.demo.service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.model.Event;
+import com.example.demo.model.InventoryReservation;
 
 public interface EventService {
 
@@ -11,8 +16,14 @@ public interface EventService {
 
     Event getEventById(int eventId) throws EventNotFoundException;
 
+    // Unknown IDs are left out of the result
+    Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds);
+
     List<Event> getAllEvents() throws EventNotFoundException;
 
+    // Keyset-paginated getAllEvents; an empty page instead of an exception when there are no events
+    CursorPage<Event> getAllEventsPaged(String cursor, int limit);
+
     String updateEvent(int eventId, Event event) throws EventNotFoundException;
 
     String deleteEvent(int eventId) throws EventNotFoundException;
@@ -22,10 +33,26 @@ public interface EventService {
     List<Event> filterByLocation(String location) throws EventNotFoundException;
     
     List<Event> searchEventsByName(String keyword) throws EventNotFoundException;
+
+    // Ranked search by keyword with optional category and location filters; at least one criterion is required
+    List<Event> searchEvents(String keyword, String category, String location, int limit) throws EventNotFoundException;
     
     List<Event> getEventsByOrganizer(int organizerId) throws EventNotFoundException;
 
-    void decreaseTicketCount(int eventId,int quantity) throws EventNotFoundException, IllegalArgumentException;
+    // Events starting in [from, to], ordered by start time; empty when none
+    List<Event> getEventsStartingBetween(LocalDateTime from, LocalDateTime to);
+
+    int decreaseTicketCount(int eventId, int quantity) throws EventNotFoundException, IllegalArgumentException;
+
+    int increaseTicketCount(int eventId, int quantity) throws EventNotFoundException, IllegalArgumentException;
+
+    // Applied at most once per reservation token; a null token behaves like the methods above
+    int decreaseTicketCount(int eventId, int quantity, String reservationToken)
+            throws EventNotFoundException, IllegalArgumentException;
+
+    int increaseTicketCount(int eventId, int quantity, String reservationToken)
+            throws EventNotFoundException, IllegalArgumentException;
 
-    void increaseTicketCount(int eventId,int quantity) throws EventNotFoundException, IllegalArgumentException;
+    // APPLIED if a change was made under the token; otherwise voids it, so no later call with it can apply
+    InventoryReservation.Status settleReservation(String reservationToken, int eventId);
 }
@@ -1,17 +1,35 @@
 package com.example.demo.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.User;
 import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.feignclient.NotificationClient;
 import com.example.demo.feignclient.UserClient;
 import com.example.demo.model.Event;
+import com.example.demo.model.InventoryReservation;
+import com.example.demo.model.InventoryReservation.Status;
 import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.InventoryReservationRepository;
 
 @Service
 public class EventServiceImpl implements EventService {
@@ -25,20 +43,53 @@ public class EventServiceImpl implements EventService {
     private static final String LOG_DELETE_ATTEMPT = "Attempting to delete event with ID: {}";
     private static final String LOG_TICKET_COUNT_DECREASE = "Attempting to decrease ticket count for event ID: {}";
     private static final String LOG_TICKET_COUNT_INCREASE = "Attempting to increase ticket count for event ID: {}";
+    private static final String LOG_REMINDER_SYNC_FAILED = "Could not update reminders for event ID: {}, the notification service resync will catch up: {}";
+    
+    private static final int MAX_IDS_PER_LOOKUP = 500;
+    private static final int MAX_TOKEN_LENGTH = 64;
     
     // Error message constants
     private static final String ERR_EVENT_NOT_FOUND = "Event not found with ID: ";
+    private static final String ERR_INVALID_RANGE = "Start and end time are required and end must not be before start";
+    private static final String ERR_TOO_MANY_IDS = "At most " + MAX_IDS_PER_LOOKUP + " event IDs can be requested at once";
     private static final String ERR_CANNOT_UPDATE = "Cannot update: Event not found with ID: ";
     private static final String ERR_NO_TICKETS = "No tickets available for event with ID: ";
     private static final String ERR_DB_DECREASE = "Failed to decrease ticket count due to database error";
     private static final String ERR_DB_INCREASE = "Failed to increase ticket count due to database error";
+    private static final String ERR_QUANTITY_INVALID = "Quantity must be greater than 0";
+    private static final String ERR_FLASH_SALE_ACTIVE = "Flash sale is active for event with ID: ";
+    private static final String ERR_FLASH_SALE_ELSEWHERE = "Flash sale is served by another instance for event with ID: ";
+    private static final String ERR_NO_SEARCH_CRITERIA = "A search keyword, category or location is required";
+    private static final String ERR_TOKEN_INVALID = "Reservation token must be 1 to " + MAX_TOKEN_LENGTH + " characters";
+    private static final String ERR_TOKEN_VOIDED = "Reservation was voided: ";
+    private static final String ERR_TOKEN_REUSED = "Reservation token was already used for a different change: ";
+    private static final String ERR_SEARCH_LIMIT = "Search limit must be between 1 and " + EventSearchIndex.MAX_RESULTS;
 
     private final EventRepository repository;
+    private final InventoryReservationRepository reservationRepository;
     private final UserClient userClient;
+    private final FlashSaleService flashSaleService;
+    private final NotificationClient notificationClient;
+    private final EventSearchIndex searchIndex;
+    private final TicketCacheInvalidator ticketCacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+
+    // Must outlast the ticket service's saga recovery, which settles the tokens of interrupted calls
+    @Value("${inventory.reservation-retention-hours:72}")
+    private long reservationRetentionHours = 72;
 
-    public EventServiceImpl(EventRepository repository, UserClient userClient) {
+    public EventServiceImpl(EventRepository repository, InventoryReservationRepository reservationRepository,
+            UserClient userClient, FlashSaleService flashSaleService,
+            NotificationClient notificationClient, EventSearchIndex searchIndex, TicketCacheInvalidator ticketCacheInvalidator,
+            PlatformTransactionManager transactionManager) {
         this.repository = repository;
+        this.reservationRepository = reservationRepository;
         this.userClient = userClient;
+        this.flashSaleService = flashSaleService;
+        this.notificationClient = notificationClient;
+        this.searchIndex = searchIndex;
+        this.ticketCacheInvalidator = ticketCacheInvalidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -67,6 +118,8 @@ public class EventServiceImpl implements EventService {
         logger.debug("Saving event to database: {}", event.getName());
         repository.save(event);
         logger.info("Event created successfully: ID={}, name={}", event.getEventId(), event.getName());
+        searchIndex.index(event);
+        rescheduleReminders(event);
         return "Event created successfully.";
     }
 
@@ -81,6 +134,21 @@ public class EventServiceImpl implements EventService {
                 });
     }
 
+    @Override
+    public Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds) {
+        logger.debug("Fetching {} events by ID", eventIds.size());
+        if (eventIds.size() > MAX_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException(ERR_TOO_MANY_IDS);
+        }
+
+        Map<Integer, Event> events = new LinkedHashMap<>();
+        for (Event event : repository.findAllById(eventIds)) {
+            events.put(event.getEventId(), event);
+        }
+        logger.info("Found {} of {} requested events", events.size(), eventIds.size());
+        return events;
+    }
+
     @Override
     public List<Event> getAllEvents() throws EventNotFoundException {
         logger.debug("Retrieving all events");
@@ -95,18 +163,37 @@ public class EventServiceImpl implements EventService {
         return events;
     }
 
+    @Override
+    public CursorPage<Event> getAllEventsPaged(String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        int afterEventId = CursorPage.decodeCursor(cursor);
+        logger.debug("Retrieving up to {} events after ID: {}", limit, afterEventId);
+
+        List<Event> events = repository.findByEventIdGreaterThanOrderByEventIdAsc(afterEventId, Limit.of(limit + 1));
+        return CursorPage.of(events, limit, Event::getEventId);
+    }
+
     @Override
     public String updateEvent(int eventId, Event event) throws EventNotFoundException {
         logger.info(LOG_UPDATE_ATTEMPT, eventId);
         
-        if (!repository.existsById(eventId)) {
-            logger.error(LOG_EVENT_NOT_FOUND, eventId);
-            throw new EventNotFoundException(ERR_CANNOT_UPDATE + eventId);
-        }
-        
-        event.setEventId(eventId); // Ensure the ID matches
-        repository.save(event);
+        // The ticket count in the request would overwrite the live flash-sale counters, so no flash sale may
+        // start between the check and the save: not here (mode lock) and not on another instance (row lock)
+        flashSaleService.whileModeFixed(eventId, () -> transactionTemplate.execute(status -> {
+            Event current = repository.findByIdForUpdate(eventId)
+                    .orElseThrow(() -> {
+                        logger.error(LOG_EVENT_NOT_FOUND, eventId);
+                        return new EventNotFoundException(ERR_CANNOT_UPDATE + eventId);
+                    });
+            rejectDuringFlashSale(current, "update");
+            
+            event.setEventId(eventId); // Ensure the ID matches
+            return repository.save(event);
+        }));
         logger.info("Event updated successfully: ID={}, name={}", eventId, event.getName());
+        searchIndex.index(event);
+        ticketCacheInvalidator.invalidateEvent(eventId);
+        rescheduleReminders(event);
         return "Event updated successfully.";
     }
 
@@ -114,14 +201,25 @@ public class EventServiceImpl implements EventService {
     public String deleteEvent(int eventId) throws EventNotFoundException {
         logger.info(LOG_DELETE_ATTEMPT, eventId);
         
-        Event event = repository.findById(eventId)
-                .orElseThrow(() -> {
-                    logger.error(LOG_EVENT_NOT_FOUND, eventId);
-                    return new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
-                });
-                
-        repository.delete(event);
+        Event event = flashSaleService.whileModeFixed(eventId, () -> transactionTemplate.execute(status -> {
+            Event current = repository.findByIdForUpdate(eventId)
+                    .orElseThrow(() -> {
+                        logger.error(LOG_EVENT_NOT_FOUND, eventId);
+                        return new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
+                    });
+            rejectDuringFlashSale(current, "delete");
+            
+            repository.delete(current);
+            return current;
+        }));
         logger.info("Event deleted successfully: ID={}, name={}", eventId, event.getName());
+        searchIndex.remove(eventId);
+        ticketCacheInvalidator.invalidateEvent(eventId);
+        try {
+            notificationClient.cancelReminders(eventId);
+        } catch (Exception e) {
+            logger.warn(LOG_REMINDER_SYNC_FAILED, eventId, e.getMessage());
+        }
         return "Event deleted successfully.";
     }
 
@@ -129,7 +227,9 @@ public class EventServiceImpl implements EventService {
     public List<Event> filterByCategory(String category) throws EventNotFoundException {
         logger.debug("Filtering events by category: {}", category);
         
-        List<Event> events = repository.findByCategoryIgnoreCase(category);
+        List<Event> events = searchIndex.isReady()
+                ? findAllInOrder(searchIndex.search(null, category, null, Integer.MAX_VALUE))
+                : repository.findByCategoryIgnoreCase(category);
         if (events.isEmpty()) {
             logger.warn("No events found for category: {}", category);
             throw new EventNotFoundException("No events found for category: " + category);
@@ -143,7 +243,9 @@ public class EventServiceImpl implements EventService {
     public List<Event> filterByLocation(String location) throws EventNotFoundException {
         logger.debug("Filtering events by location: {}", location);
         
-        List<Event> events = repository.findByLocationIgnoreCase(location);
+        List<Event> events = searchIndex.isReady()
+                ? findAllInOrder(searchIndex.search(null, null, location, Integer.MAX_VALUE))
+                : repository.findByLocationIgnoreCase(location);
         if (events.isEmpty()) {
             logger.warn("No events found for location: {}", location);
             throw new EventNotFoundException("No events found for location: " + location);
@@ -157,7 +259,9 @@ public class EventServiceImpl implements EventService {
     public List<Event> searchEventsByName(String keyword) throws EventNotFoundException {
         logger.debug("Searching events by keyword: {}", keyword);
         
-        List<Event> events = repository.findByNameContainingIgnoreCase(keyword);
+        List<Event> events = searchIndex.isReady()
+                ? findAllInOrder(searchIndex.search(keyword, null, null, EventSearchIndex.MAX_RESULTS))
+                : repository.findByNameContainingIgnoreCase(keyword);
         if (events.isEmpty()) {
             logger.warn("No events found matching keyword: {}", keyword);
             throw new EventNotFoundException("No events found matching keyword: " + keyword);
@@ -166,6 +270,63 @@ public class EventServiceImpl implements EventService {
         logger.info("Found {} events matching keyword: {}", events.size(), keyword);
         return events;
     }
+
+    @Override
+    public List<Event> searchEvents(String keyword, String category, String location, int limit) {
+        logger.debug("Searching events by keyword: {}, category: {}, location: {}", keyword, category, location);
+        if (isBlank(keyword) && isBlank(category) && isBlank(location)) {
+            throw new IllegalArgumentException(ERR_NO_SEARCH_CRITERIA);
+        }
+        if (limit < 1 || limit > EventSearchIndex.MAX_RESULTS) {
+            throw new IllegalArgumentException(ERR_SEARCH_LIMIT);
+        }
+
+        List<Event> events = searchIndex.isReady()
+                ? findAllInOrder(searchIndex.search(keyword, category, location, limit))
+                : searchInDatabase(keyword, category, location, limit);
+        if (events.isEmpty()) {
+            logger.warn("No events found for keyword: {}, category: {}, location: {}", keyword, category, location);
+            throw new EventNotFoundException("No events found matching the search criteria");
+        }
+
+        logger.info("Found {} events for keyword: {}, category: {}, location: {}", events.size(), keyword, category, location);
+        return events;
+    }
+
+    // Until the search index is built: one derived query for the first criterion given, the others checked in memory
+    private List<Event> searchInDatabase(String keyword, String category, String location, int limit) {
+        List<Event> candidates = !isBlank(keyword) ? repository.findByNameContainingIgnoreCase(keyword.trim())
+                : !isBlank(category) ? repository.findByCategoryIgnoreCase(category.trim())
+                : repository.findByLocationIgnoreCase(location.trim());
+        return candidates.stream()
+                .filter(event -> isBlank(category) || category.trim().equalsIgnoreCase(event.getCategory()))
+                .filter(event -> isBlank(location) || location.trim().equalsIgnoreCase(event.getLocation()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // Loads search hits by primary key, in the index's ranking order; hits deleted since the last rebuild are skipped
+    private List<Event> findAllInOrder(List<Integer> eventIds) {
+        List<Event> events = new ArrayList<>(eventIds.size());
+        for (int from = 0; from < eventIds.size(); from += MAX_IDS_PER_LOOKUP) {
+            List<Integer> chunk = eventIds.subList(from, Math.min(eventIds.size(), from + MAX_IDS_PER_LOOKUP));
+            Map<Integer, Event> loaded = new HashMap<>();
+            for (Event event : repository.findAllById(chunk)) {
+                loaded.put(event.getEventId(), event);
+            }
+            for (Integer eventId : chunk) {
+                Event event = loaded.get(eventId);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
     
     @Override
     public List<Event> getEventsByOrganizer(int organizerId) throws EventNotFoundException {
@@ -182,67 +343,195 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    @Transactional
-    public void decreaseTicketCount(int eventId,int quantity) throws EventNotFoundException, IllegalArgumentException {
+    public List<Event> getEventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        logger.debug("Retrieving events starting between {} and {}", from, to);
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException(ERR_INVALID_RANGE);
+        }
+
+        List<Event> events = repository.findByDateBetweenOrderByDateAsc(from, to);
+        logger.info("Found {} events starting between {} and {}", events.size(), from, to);
+        return events;
+    }
+
+    @Override
+    public int decreaseTicketCount(int eventId, int quantity) throws EventNotFoundException, IllegalArgumentException {
+        return decreaseTicketCount(eventId, quantity, null);
+    }
+
+    @Override
+    public int decreaseTicketCount(int eventId, int quantity, String reservationToken)
+            throws EventNotFoundException, IllegalArgumentException {
         logger.info(LOG_TICKET_COUNT_DECREASE, eventId);
         
-        // Use pessimistic locking to prevent race conditions
-        Event event = repository.findById(eventId)
-                .orElseThrow(() -> {
-                    logger.error(LOG_EVENT_NOT_FOUND, eventId);
-                    return new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
-                });
-                
-        // Validate ticket availability
-        int currentCount = event.getTicketCount();
-        logger.debug("Current ticket count for event ID {}: {}", eventId, currentCount);
-        
-        if (currentCount <= 0) {
-            logger.warn("No tickets available for event ID: {}", eventId);
-            throw new IllegalArgumentException(ERR_NO_TICKETS + eventId);
+        if (quantity <= 0) {
+            logger.warn("Invalid quantity {} for event ID: {}", quantity, eventId);
+            throw new IllegalArgumentException(ERR_QUANTITY_INVALID);
         }
         
-        // Update ticket count
-        event.setTicketCount(currentCount - quantity);
-        logger.debug("Decreasing ticket count from {} to {} for event ID: {}", 
-                currentCount, currentCount - quantity, eventId);
-        
+        // Flash-sale events are served from in-memory counters; without a token no transaction is opened on that path
+        IntSupplier change = () -> flashSaleService.routeDecrease(eventId, quantity, () -> decreaseInDatabase(eventId, quantity));
+        return reservationToken == null ? change.getAsInt() : applyOnce(reservationToken, eventId, -quantity, change);
+    }
+
+    private int decreaseInDatabase(int eventId, int quantity) {
+        // Single conditional UPDATE: the row lock taken by the update serializes concurrent bookers,
+        // and the WHERE clause guarantees the count can never go below zero
+        int updated;
         try {
-            repository.save(event);
-            logger.info("Ticket count decreased successfully for event ID: {}, new count: {}", 
-                    eventId, currentCount - quantity);
+            updated = repository.decrementTicketCount(eventId, quantity);
         } catch (Exception e) {
             logger.error("Database error decreasing ticket count for event ID {}: {}", eventId, e.getMessage(), e);
             throw new RuntimeException(ERR_DB_DECREASE, e);
         }
+        
+        if (updated == 0) {
+            // Nothing changed: either the event does not exist or there are not enough tickets left
+            if (!repository.existsById(eventId)) {
+                logger.error(LOG_EVENT_NOT_FOUND, eventId);
+                throw new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
+            }
+            // Another instance holds the tickets in its flash-sale counters; refuse rather than sell them twice
+            if (repository.findFlashSaleOwnerByEventId(eventId) != null) {
+                logger.warn("Refused database booking for event ID: {} while another instance serves its flash sale", eventId);
+                throw new IllegalStateException(ERR_FLASH_SALE_ELSEWHERE + eventId);
+            }
+            logger.warn("Not enough tickets available for event ID: {}, requested: {}", eventId, quantity);
+            throw new IllegalArgumentException(ERR_NO_TICKETS + eventId);
+        }
+        
+        int newCount = repository.findTicketCountByEventId(eventId);
+        logger.info("Ticket count decreased successfully for event ID: {}, new count: {}", eventId, newCount);
+        return newCount;
     }
 
     @Override
-    @Transactional
-    public void increaseTicketCount(int eventId,int quantity) throws EventNotFoundException {
+    public int increaseTicketCount(int eventId, int quantity) throws EventNotFoundException {
+        return increaseTicketCount(eventId, quantity, null);
+    }
+
+    @Override
+    public int increaseTicketCount(int eventId, int quantity, String reservationToken) throws EventNotFoundException {
         logger.info(LOG_TICKET_COUNT_INCREASE, eventId);
         
-        // Use pessimistic locking to prevent race conditions
-        Event event = repository.findById(eventId)
-                .orElseThrow(() -> {
-                    logger.error(LOG_EVENT_NOT_FOUND, eventId);
-                    return new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
-                });
-                
-        int currentCount = event.getTicketCount();
-        logger.debug("Current ticket count for event ID {}: {}", eventId, currentCount);
-        
-        event.setTicketCount(currentCount + quantity);
-        logger.debug("Increasing ticket count from {} to {} for event ID: {}", 
-                currentCount, currentCount + quantity, eventId);
+        if (quantity <= 0) {
+            logger.warn("Invalid quantity {} for event ID: {}", quantity, eventId);
+            throw new IllegalArgumentException(ERR_QUANTITY_INVALID);
+        }
         
+        IntSupplier change = () -> flashSaleService.routeIncrease(eventId, quantity, () -> increaseInDatabase(eventId, quantity));
+        return reservationToken == null ? change.getAsInt() : applyOnce(reservationToken, eventId, quantity, change);
+    }
+
+    @Override
+    public Status settleReservation(String reservationToken, int eventId) {
+        checkToken(reservationToken);
+        try {
+            return transactionTemplate.execute(status -> {
+                InventoryReservation existing = reservationRepository.findById(reservationToken).orElse(null);
+                if (existing != null) {
+                    return existing.getStatus();
+                }
+                reservationRepository.insert(reservationToken, eventId, 0, Status.VOIDED.name(), LocalDateTime.now());
+                logger.info("Voided reservation {} for event ID: {}", reservationToken, eventId);
+                return Status.VOIDED;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A call with the same token committed while we waited on its key; it was applied
+            logger.info("Reservation {} was applied while being settled", reservationToken);
+            return reservationRepository.findById(reservationToken).map(InventoryReservation::getStatus).orElseThrow(() -> e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation-purge-interval-ms:3600000}")
+    public void purgeReservations() {
+        int purged = reservationRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(reservationRetentionHours));
+        if (purged > 0) {
+            logger.info("Purged {} inventory reservations older than {} hours", purged, reservationRetentionHours);
+        }
+    }
+
+    // The token is written in the same transaction as the count change, so a repeated call finds it and changes
+    // nothing, and a voided token can never be applied. In flash-sale mode the counters are not part of the
+    // transaction: if the commit fails after a grant, the event is left short, never oversold
+    private int applyOnce(String reservationToken, int eventId, int ticketChange, IntSupplier change) {
+        checkToken(reservationToken);
+        try {
+            return transactionTemplate.execute(status -> {
+                InventoryReservation existing = reservationRepository.findById(reservationToken).orElse(null);
+                if (existing != null) {
+                    return alreadyApplied(existing, eventId, ticketChange);
+                }
+                reservationRepository.insert(reservationToken, eventId, ticketChange, Status.APPLIED.name(),
+                        LocalDateTime.now());
+                return change.getAsInt();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race for the token to a call that committed first
+            InventoryReservation existing = reservationRepository.findById(reservationToken).orElseThrow(() -> e);
+            return alreadyApplied(existing, eventId, ticketChange);
+        }
+    }
+
+    private int alreadyApplied(InventoryReservation existing, int eventId, int ticketChange) {
+        if (existing.getStatus() == Status.VOIDED) {
+            logger.warn("Refused change under voided reservation {} for event ID: {}", existing.getToken(), eventId);
+            throw new IllegalArgumentException(ERR_TOKEN_VOIDED + existing.getToken());
+        }
+        if (existing.getEventId() != eventId || existing.getTicketChange() != ticketChange) {
+            logger.warn("Reservation {} reused for event ID: {} with change {}", existing.getToken(), eventId, ticketChange);
+            throw new IllegalArgumentException(ERR_TOKEN_REUSED + existing.getToken());
+        }
+        logger.info("Reservation {} already applied to event ID: {}, nothing changed", existing.getToken(), eventId);
+        Integer count = repository.findTicketCountByEventId(eventId);
+        if (count == null) {
+            throw new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
+        }
+        return count;
+    }
+
+    private static void checkToken(String reservationToken) {
+        if (reservationToken == null || reservationToken.isBlank() || reservationToken.length() > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException(ERR_TOKEN_INVALID);
+        }
+    }
+
+    private int increaseInDatabase(int eventId, int quantity) {
+        int updated;
         try {
-            repository.save(event);
-            logger.info("Ticket count increased successfully for event ID: {}, new count: {}", 
-                    eventId, currentCount + quantity);
+            updated = repository.incrementTicketCount(eventId, quantity);
         } catch (Exception e) {
             logger.error("Database error increasing ticket count for event ID {}: {}", eventId, e.getMessage(), e);
             throw new RuntimeException(ERR_DB_INCREASE, e);
         }
+        
+        if (updated == 0) {
+            logger.error(LOG_EVENT_NOT_FOUND, eventId);
+            throw new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId);
+        }
+        
+        int newCount = repository.findTicketCountByEventId(eventId);
+        logger.info("Ticket count increased successfully for event ID: {}, new count: {}", eventId, newCount);
+        return newCount;
+    }
+
+    private void rejectDuringFlashSale(Event event, String action) {
+        if (event.getFlashSaleOwner() != null || flashSaleService.isActive(event.getEventId())) {
+            logger.warn("Rejected {} of event ID: {} while its flash sale is active on {}",
+                    action, event.getEventId(), event.getFlashSaleOwner());
+            throw new IllegalArgumentException(ERR_FLASH_SALE_ACTIVE + event.getEventId());
+        }
+    }
+
+    // Best effort: the event change is already committed and reminders converge on the next resync
+    private void rescheduleReminders(Event event) {
+        if (event.getDate() == null) {
+            return;
+        }
+        try {
+            notificationClient.rescheduleReminders(event.getEventId(), event.getDate());
+        } catch (Exception e) {
+            logger.warn(LOG_REMINDER_SYNC_FAILED, event.getEventId(), e.getMessage());
+        }
     }
 }
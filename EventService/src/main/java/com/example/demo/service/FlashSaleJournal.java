@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only local journal of flash-sale grants and returns for one event.
+ *
+ * Every grant is written here before it is acknowledged, so grants that were not yet
+ * flushed to the database can be replayed after a crash. There is one file per
+ * counter stripe to keep writers from queueing on a single channel. Each record is a
+ * signed ticket delta on its own line ("+2", "-1"); the journal is bounded by the
+ * event's inventory and is deleted when flash-sale mode is switched off.
+ */
+public class FlashSaleJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleJournal.class);
+
+    private static final String FILE_PREFIX = "stripe-";
+    private static final String FILE_SUFFIX = ".log";
+
+    private final Path directory;
+    private final FileChannel[] channels;
+    private final boolean fsync;
+
+    private FlashSaleJournal(Path directory, FileChannel[] channels, boolean fsync) {
+        this.directory = directory;
+        this.channels = channels;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Starts a fresh journal for the event, discarding any previous files.
+     */
+    public static FlashSaleJournal create(Path root, int eventId, int stripes, boolean fsync) throws IOException {
+        Path directory = directoryFor(root, eventId);
+        delete(directory);
+        Files.createDirectories(directory);
+
+        FileChannel[] channels = new FileChannel[stripes];
+        try {
+            for (int i = 0; i < stripes; i++) {
+                channels[i] = FileChannel.open(directory.resolve(FILE_PREFIX + i + FILE_SUFFIX),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            closeQuietly(channels);
+            throw e;
+        }
+        return new FlashSaleJournal(directory, channels, fsync);
+    }
+
+    public static Path directoryFor(Path root, int eventId) {
+        return root.resolve(String.valueOf(eventId));
+    }
+
+    /**
+     * Records a signed ticket delta: positive for a grant, negative for a return.
+     */
+    public void append(int stripe, int delta) throws IOException {
+        byte[] record = ((delta >= 0 ? "+" : "") + delta + "\n").getBytes(StandardCharsets.US_ASCII);
+        FileChannel channel = channels[stripe % channels.length];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Sums all records in an event's journal directory. A torn last line (the process
+     * died mid-write, so the grant was never acknowledged) is ignored.
+     */
+    public static long replay(Path directory) throws IOException {
+        long total = 0;
+        if (!Files.isDirectory(directory)) {
+            return total;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                total += replayFile(file);
+            }
+        }
+        return total;
+    }
+
+    public static void delete(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(channels);
+    }
+
+    private static long replayFile(Path file) throws IOException {
+        long total = 0;
+        byte[] content = Files.readAllBytes(file);
+        int completeLength = content.length;
+        while (completeLength > 0 && content[completeLength - 1] != '\n') {
+            completeLength--;
+        }
+        if (completeLength < content.length) {
+            logger.warn("Ignoring torn trailing record in flash-sale journal {}", file);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new StringReader(
+                new String(content, 0, completeLength, StandardCharsets.US_ASCII)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    total += Long.parseLong(line.trim());
+                }
+            }
+        }
+        return total;
+    }
+
+    private static void closeQuietly(FileChannel[] channels) {
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close flash-sale journal channel: {}", e.getMessage());
+            }
+        }
+    }
+}
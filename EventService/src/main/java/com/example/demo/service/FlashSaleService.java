@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import com.example.demo.dto.FlashSaleStatus;
+import com.example.demo.exception.EventNotFoundException;
+
+public interface FlashSaleService {
+
+    FlashSaleStatus enableFlashSale(int eventId) throws EventNotFoundException;
+
+    FlashSaleStatus disableFlashSale(int eventId);
+
+    FlashSaleStatus getStatus(int eventId);
+
+    boolean isActive(int eventId);
+
+    // Runs action while the event cannot be switched in or out of flash-sale mode on this instance
+    <T> T whileModeFixed(int eventId, Supplier<T> action);
+
+    // Takes tickets from the in-memory counters when the event is in flash-sale mode, otherwise runs databasePath
+    int routeDecrease(int eventId, int quantity, IntSupplier databasePath);
+
+    // Returns tickets to the in-memory counters when the event is in flash-sale mode, otherwise runs databasePath
+    int routeIncrease(int eventId, int quantity, IntSupplier databasePath);
+
+    void flushAll();
+}
@@ -0,0 +1,479 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.FlashSaleStatus;
+import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.model.Event;
+import com.example.demo.model.FlashSaleCheckpoint;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.FlashSaleCheckpointRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opt-in flash-sale mode for headline events.
+ *
+ * While an event is in flash-sale mode its remaining tickets live in a
+ * {@link StripedTicketCounter} on this instance, every grant and return is appended to
+ * a local {@link FlashSaleJournal} before it is acknowledged, and the aggregate is
+ * written back to the event row on a fixed delay. The event row therefore lags the
+ * live count by at most one flush interval. The counters live on one instance only, so
+ * enabling also records that instance as the owner on the event row; every other
+ * instance's conditional decrement then refuses the event instead of selling tickets
+ * the owner has already granted. Route bookings for the event to the owner.
+ *
+ * Switching an event in or out of flash-sale mode only waits for bookings of events
+ * that share its lock stripe, never for the whole service.
+ */
+@Service
+public class FlashSaleServiceImpl implements FlashSaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleServiceImpl.class);
+
+    // Log message constants
+    private static final String LOG_ENABLED = "Flash sale enabled for event ID: {} with {} tickets across {} stripes";
+    private static final String LOG_DISABLED = "Flash sale disabled for event ID: {}, tickets granted: {}, returned: {}";
+    private static final String LOG_FLUSHED = "Flushed flash sale for event ID: {}, delta: {}, total flushed: {}";
+    private static final String LOG_RECOVERED = "Recovered flash sale journal for event ID: {}, journaled: {}, already flushed: {}, applied: {}";
+    private static final String LOG_RELEASED_ORPHANS = "Released {} flash sales owned by {} that had no journal left";
+
+    // Error message constants
+    private static final String ERR_EVENT_NOT_FOUND = "Event not found with ID: ";
+    private static final String ERR_NO_TICKETS = "No tickets available for event with ID: ";
+    private static final String ERR_ALREADY_ACTIVE = "Flash sale is already active for event with ID: ";
+    private static final String ERR_OWNED_ELSEWHERE = "Flash sale is served by another instance for event with ID: ";
+    private static final String ERR_NOT_ACTIVE = "No active flash sale for event with ID: ";
+    private static final String ERR_JOURNAL = "Failed to write flash sale journal for event with ID: ";
+    private static final String ERR_RECOVERY = "Failed to recover flash sale journals";
+    private static final String ERR_DRAIN_TIMEOUT = "Flash sale bookings still in progress, try again for event with ID: ";
+
+    private static final int MODE_LOCK_STRIPES = 64;
+    // How long disabling waits for bookings already on the counters before giving up
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long DRAIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final EventRepository eventRepository;
+    private final FlashSaleCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Events currently in flash-sale mode on this instance
+    private final Map<Integer, FlashSaleEvent> activeSales = new ConcurrentHashMap<>();
+
+    // Database-path bookings hold their event's read lock, switching an event in or out of flash-sale mode
+    // takes its write lock; striped by event ID so one event's switch does not stall bookings for the rest
+    private final StampedLock[] modeLocks = new StampedLock[MODE_LOCK_STRIPES];
+
+    @Value("${flashsale.stripes:16}")
+    private int stripes;
+
+    @Value("${flashsale.journal-dir:flash-sale-journal}")
+    private String journalDir;
+
+    @Value("${flashsale.journal-fsync:true}")
+    private boolean journalFsync;
+
+    @Value("${flashsale.owner-id:${spring.cloud.client.hostname:localhost}:${server.port:8086}}")
+    private String ownerId;
+
+    public FlashSaleServiceImpl(EventRepository eventRepository, FlashSaleCheckpointRepository checkpointRepository,
+            PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < modeLocks.length; i++) {
+            modeLocks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * Applies whatever a previous run journaled but never flushed and hands the events
+     * this instance owned back to database bookings. Runs before the service takes
+     * traffic, so every event starts out in normal (database) mode.
+     */
+    @PostConstruct
+    public void recover() {
+        Path root = journalRoot();
+        if (Files.isDirectory(root)) {
+            try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path directory : directories) {
+                    recoverEvent(directory);
+                }
+            } catch (IOException e) {
+                logger.error("{}: {}", ERR_RECOVERY, e.getMessage(), e);
+                throw new IllegalStateException(ERR_RECOVERY, e);
+            }
+        }
+
+        // A checkpoint without a journal belongs to a flash sale that was switched off after its journal was deleted
+        for (FlashSaleCheckpoint checkpoint : checkpointRepository.findAll()) {
+            if (!Files.isDirectory(FlashSaleJournal.directoryFor(root, checkpoint.getEventId()))) {
+                checkpointRepository.deleteById(checkpoint.getEventId());
+            }
+        }
+
+        // Ownership is recorded after the journal is created and cleared before it is deleted, so these had no grants
+        int orphans = eventRepository.releaseFlashSales(ownerId);
+        if (orphans > 0) {
+            logger.warn(LOG_RELEASED_ORPHANS, orphans, ownerId);
+        }
+    }
+
+    @Override
+    public FlashSaleStatus enableFlashSale(int eventId) throws EventNotFoundException {
+        logger.info("Attempting to enable flash sale for event ID: {}", eventId);
+
+        StampedLock modeLock = modeLock(eventId);
+        long stamp = modeLock.writeLock();
+        try {
+            if (activeSales.containsKey(eventId)) {
+                logger.warn("Flash sale already active for event ID: {}", eventId);
+                throw new IllegalArgumentException(ERR_ALREADY_ACTIVE + eventId);
+            }
+
+            FlashSaleJournal journal = openJournal(eventId);
+            int tickets;
+            try {
+                // Seed from the locked row and record an empty checkpoint in the same transaction
+                tickets = transactionTemplate.execute(status -> {
+                    Event event = eventRepository.findByIdForUpdate(eventId)
+                            .orElseThrow(() -> new EventNotFoundException(ERR_EVENT_NOT_FOUND + eventId));
+                    if (eventRepository.claimFlashSale(eventId, ownerId) == 0) {
+                        logger.warn("Flash sale for event ID: {} is already owned by {}", eventId, event.getFlashSaleOwner());
+                        throw new IllegalArgumentException(ERR_OWNED_ELSEWHERE + eventId);
+                    }
+                    checkpointRepository.save(new FlashSaleCheckpoint(eventId, 0, LocalDateTime.now()));
+                    return event.getTicketCount();
+                });
+            } catch (RuntimeException e) {
+                journal.close();
+                deleteJournal(journal.getDirectory());
+                throw e;
+            }
+
+            FlashSaleEvent sale = new FlashSaleEvent(eventId, new StripedTicketCounter(stripes, tickets), journal);
+            activeSales.put(eventId, sale);
+            logger.info(LOG_ENABLED, eventId, tickets, stripes);
+            return toStatus(sale);
+        } finally {
+            modeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public FlashSaleStatus disableFlashSale(int eventId) {
+        logger.info("Attempting to disable flash sale for event ID: {}", eventId);
+
+        StampedLock modeLock = modeLock(eventId);
+        long stamp = modeLock.writeLock();
+        try {
+            FlashSaleEvent sale = activeSales.remove(eventId);
+            if (sale == null) {
+                logger.warn("No active flash sale for event ID: {}", eventId);
+                throw new IllegalArgumentException(ERR_NOT_ACTIVE + eventId);
+            }
+
+            // New bookings now wait on the write lock; let the ones already on the counters finish
+            sale.closing = true;
+            if (!awaitDrained(sale)) {
+                logger.warn("Bookings for event ID: {} did not finish in time, keeping flash sale active", eventId);
+                sale.closing = false;
+                activeSales.put(eventId, sale);
+                throw new IllegalStateException(ERR_DRAIN_TIMEOUT + eventId);
+            }
+
+            try {
+                flush(sale);
+                eventRepository.releaseFlashSale(eventId, ownerId);
+            } catch (RuntimeException e) {
+                logger.error("Final flush failed for event ID: {}, keeping flash sale active: {}", eventId, e.getMessage());
+                sale.closing = false;
+                activeSales.put(eventId, sale);
+                throw e;
+            }
+
+            // The journal goes first: a leftover checkpoint without a journal is harmless, the reverse would replay twice
+            sale.journal.close();
+            if (deleteJournal(sale.journal.getDirectory())) {
+                checkpointRepository.deleteById(eventId);
+            }
+
+            logger.info(LOG_DISABLED, eventId, sale.granted.sum(), sale.returned.sum());
+            FlashSaleStatus status = toStatus(sale);
+            status.setActive(false);
+            return status;
+        } finally {
+            modeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public FlashSaleStatus getStatus(int eventId) {
+        FlashSaleEvent sale = activeSales.get(eventId);
+        if (sale == null) {
+            FlashSaleStatus status = new FlashSaleStatus();
+            status.setEventId(eventId);
+            return status;
+        }
+        return toStatus(sale);
+    }
+
+    @Override
+    public boolean isActive(int eventId) {
+        return activeSales.containsKey(eventId);
+    }
+
+    @Override
+    public <T> T whileModeFixed(int eventId, Supplier<T> action) {
+        StampedLock modeLock = modeLock(eventId);
+        long stamp = modeLock.readLock();
+        try {
+            return action.get();
+        } finally {
+            modeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int routeDecrease(int eventId, int quantity, IntSupplier databasePath) {
+        FlashSaleEvent sale = enter(eventId);
+        if (sale == null) {
+            StampedLock modeLock = modeLock(eventId);
+            long stamp = modeLock.readLock();
+            try {
+                // The mode may have changed while we waited for the lock
+                sale = enter(eventId);
+                if (sale == null) {
+                    return databasePath.getAsInt();
+                }
+            } finally {
+                modeLock.unlockRead(stamp);
+            }
+        }
+
+        try {
+            return grant(sale, quantity);
+        } finally {
+            sale.inFlight.decrement();
+        }
+    }
+
+    @Override
+    public int routeIncrease(int eventId, int quantity, IntSupplier databasePath) {
+        FlashSaleEvent sale = enter(eventId);
+        if (sale == null) {
+            StampedLock modeLock = modeLock(eventId);
+            long stamp = modeLock.readLock();
+            try {
+                sale = enter(eventId);
+                if (sale == null) {
+                    return databasePath.getAsInt();
+                }
+            } finally {
+                modeLock.unlockRead(stamp);
+            }
+        }
+
+        try {
+            return giveBack(sale, quantity);
+        } finally {
+            sale.inFlight.decrement();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${flashsale.flush-interval-ms:250}")
+    public void flushAll() {
+        for (FlashSaleEvent sale : activeSales.values()) {
+            try {
+                flush(sale);
+            } catch (RuntimeException e) {
+                // The journal still holds the grants, the next run retries the same delta
+                logger.error("Failed to flush flash sale for event ID: {}: {}", sale.eventId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+        activeSales.values().forEach(sale -> sale.journal.close());
+    }
+
+    private StampedLock modeLock(int eventId) {
+        return modeLocks[Math.floorMod(eventId, MODE_LOCK_STRIPES)];
+    }
+
+    // In-flight bookings only touch the counters and the journal, so they finish within a journal write
+    private static boolean awaitDrained(FlashSaleEvent sale) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (sale.inFlight.sum() != 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(DRAIN_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private FlashSaleEvent enter(int eventId) {
+        FlashSaleEvent sale = activeSales.get(eventId);
+        if (sale == null) {
+            return null;
+        }
+        sale.inFlight.increment();
+        if (sale.closing) {
+            sale.inFlight.decrement();
+            return null;
+        }
+        return sale;
+    }
+
+    private int grant(FlashSaleEvent sale, int quantity) {
+        int stripe = sale.counter.tryAllocate(quantity);
+        if (stripe < 0) {
+            logger.warn("Not enough flash sale tickets for event ID: {}, requested: {}", sale.eventId, quantity);
+            throw new IllegalArgumentException(ERR_NO_TICKETS + sale.eventId);
+        }
+
+        try {
+            sale.journal.append(stripe, quantity);
+        } catch (IOException e) {
+            sale.counter.release(stripe, quantity);
+            logger.error("Failed to journal grant for event ID: {}: {}", sale.eventId, e.getMessage(), e);
+            throw new RuntimeException(ERR_JOURNAL + sale.eventId, e);
+        }
+        sale.granted.add(quantity);
+        return (int) sale.counter.remaining();
+    }
+
+    private int giveBack(FlashSaleEvent sale, int quantity) {
+        // Journal before the tickets become visible to other bookers
+        int stripe = ThreadLocalRandom.current().nextInt(sale.counter.getStripes());
+        try {
+            sale.journal.append(stripe, -quantity);
+        } catch (IOException e) {
+            logger.error("Failed to journal return for event ID: {}: {}", sale.eventId, e.getMessage(), e);
+            throw new RuntimeException(ERR_JOURNAL + sale.eventId, e);
+        }
+        sale.counter.release(stripe, quantity);
+        sale.returned.add(quantity);
+        return (int) sale.counter.remaining();
+    }
+
+    private void flush(FlashSaleEvent sale) {
+        synchronized (sale) {
+            // Read grants before returns so a concurrent booking can only make this flush too small, never too large
+            long granted = sale.granted.sum();
+            long net = granted - sale.returned.sum();
+            long delta = net - sale.flushed;
+            if (delta == 0) {
+                return;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                eventRepository.subtractTicketCount(sale.eventId, Math.toIntExact(delta));
+                checkpointRepository.save(new FlashSaleCheckpoint(sale.eventId, net, LocalDateTime.now()));
+            });
+            sale.flushed = net;
+            logger.debug(LOG_FLUSHED, sale.eventId, delta, net);
+        }
+    }
+
+    private void recoverEvent(Path directory) throws IOException {
+        int eventId;
+        try {
+            eventId = Integer.parseInt(directory.getFileName().toString());
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping unexpected directory in flash sale journal root: {}", directory);
+            return;
+        }
+
+        long journaled = FlashSaleJournal.replay(directory);
+        long flushed = checkpointRepository.findById(eventId)
+                .map(FlashSaleCheckpoint::getFlushedTickets)
+                .orElse(0L);
+        long delta = journaled - flushed;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (delta != 0) {
+                eventRepository.subtractTicketCount(eventId, Math.toIntExact(delta));
+            }
+            checkpointRepository.save(new FlashSaleCheckpoint(eventId, journaled, LocalDateTime.now()));
+            eventRepository.releaseFlashSale(eventId, ownerId);
+        });
+        logger.info(LOG_RECOVERED, eventId, journaled, flushed, delta);
+
+        if (deleteJournal(directory)) {
+            checkpointRepository.deleteById(eventId);
+        }
+    }
+
+    private FlashSaleJournal openJournal(int eventId) {
+        try {
+            return FlashSaleJournal.create(journalRoot(), eventId, stripes, journalFsync);
+        } catch (IOException e) {
+            logger.error("Failed to create flash sale journal for event ID: {}: {}", eventId, e.getMessage(), e);
+            throw new RuntimeException(ERR_JOURNAL + eventId, e);
+        }
+    }
+
+    private boolean deleteJournal(Path directory) {
+        try {
+            FlashSaleJournal.delete(directory);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to delete flash sale journal {}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private Path journalRoot() {
+        return Paths.get(journalDir);
+    }
+
+    private FlashSaleStatus toStatus(FlashSaleEvent sale) {
+        return new FlashSaleStatus(sale.eventId, true, sale.counter.getStripes(), sale.counter.remaining(),
+                sale.granted.sum(), sale.returned.sum(), sale.flushed);
+    }
+
+    private static class FlashSaleEvent {
+        final int eventId;
+        final StripedTicketCounter counter;
+        final FlashSaleJournal journal;
+        final LongAdder granted = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final LongAdder inFlight = new LongAdder();
+        volatile boolean closing;
+        volatile long flushed;
+
+        FlashSaleEvent(int eventId, StripedTicketCounter counter, FlashSaleJournal journal) {
+            this.eventId = eventId;
+            this.counter = counter;
+            this.journal = journal;
+        }
+    }
+}
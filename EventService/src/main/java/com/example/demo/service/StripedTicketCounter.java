@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ticket counter split into N stripes so that concurrent bookers mostly
+ * CAS on different cache lines instead of all contending on a single value.
+ */
+public class StripedTicketCounter {
+
+    // 16 longs = 128 bytes between stripes, so two stripes never share a cache line
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedTicketCounter(int stripes, long initialTickets) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0");
+        }
+        if (initialTickets < 0) {
+            throw new IllegalArgumentException("Ticket count cannot be negative");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+
+        // Spread the inventory evenly, the first stripes take the remainder
+        long share = initialTickets / stripes;
+        long remainder = initialTickets % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * Takes {@code quantity} tickets. Returns the stripe the tickets were taken from,
+     * or -1 when not enough tickets are left.
+     */
+    public int tryAllocate(int quantity) {
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+
+        // Fast path: one stripe that can satisfy the whole request
+        for (int i = 0; i < stripes; i++) {
+            int stripe = (home + i) % stripes;
+            if (takeFromStripe(stripe, quantity)) {
+                return stripe;
+            }
+        }
+
+        // Slow path: the tickets are fragmented across stripes, gather them piece by piece
+        return gather(home, quantity);
+    }
+
+    /**
+     * Puts {@code quantity} tickets back into the given stripe.
+     */
+    public void release(int stripe, int quantity) {
+        cells.addAndGet(index(stripe), quantity);
+    }
+
+    /**
+     * Sum of all stripes. Not an atomic snapshot while bookers are active, but never
+     * reports tickets that do not exist.
+     */
+    public long remaining() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(index(i));
+        }
+        return total;
+    }
+
+    private boolean takeFromStripe(int stripe, long quantity) {
+        int index = index(stripe);
+        long current = cells.get(index);
+        while (current >= quantity) {
+            if (cells.compareAndSet(index, current, current - quantity)) {
+                return true;
+            }
+            current = cells.get(index);
+        }
+        return false;
+    }
+
+    private int gather(int home, int quantity) {
+        if (remaining() < quantity) {
+            return -1;
+        }
+
+        long needed = quantity;
+        long[] taken = new long[stripes];
+        for (int i = 0; i < stripes && needed > 0; i++) {
+            int stripe = (home + i) % stripes;
+            int index = index(stripe);
+            long current = cells.get(index);
+            while (current > 0) {
+                long take = Math.min(current, needed);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken[stripe] = take;
+                    needed -= take;
+                    break;
+                }
+                current = cells.get(index);
+            }
+        }
+
+        if (needed > 0) {
+            // Other bookers won the race for the last tickets, give back what we collected
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (taken[stripe] > 0) {
+                    cells.addAndGet(index(stripe), taken[stripe]);
+                }
+            }
+            return -1;
+        }
+        return home;
+    }
+
+    private static int index(int stripe) {
+        return stripe * PADDING;
+    }
+}
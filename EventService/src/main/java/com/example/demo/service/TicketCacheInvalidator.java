@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tells every TicketService instance to drop its cached copy of a changed event.
+ *
+ * Each TicketService instance keeps its own lookup cache, so a load-balanced call would
+ * clear only one of them; the instances are listed from the discovery server and called
+ * one by one. Calls run on a background thread so updates do not wait for them, and they
+ * are best effort: an instance that misses one serves the old entry until its TTL runs out.
+ *
+ * UserService has the same class for users. The services are built and deployed on
+ * their own and share no library, so change both copies together.
+ */
+@Component
+public class TicketCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCacheInvalidator.class);
+
+    private static final String TICKET_SERVICE = "TICKETSERVICE";
+
+    private final DiscoveryClient discoveryClient;
+    private final RestClient restClient;
+
+    // One thread keeps invalidations in order; a bounded queue keeps an outage from piling them up
+    private final ExecutorService executor;
+
+    public TicketCacheInvalidator(DiscoveryClient discoveryClient,
+            @Value("${ticket-cache.invalidation-timeout-ms:1000}") int timeoutMs,
+            @Value("${ticket-cache.invalidation-queue-size:1000}") int queueSize) {
+        this.discoveryClient = discoveryClient;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ticket-cache-invalidator");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void invalidateEvent(int eventId) {
+        fanOut("/ticket/cache/event/" + eventId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void fanOut(String path) {
+        try {
+            executor.execute(() -> send(path));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Dropped cache invalidation {}, ticket service instances keep it until their TTL", path);
+        }
+    }
+
+    private void send(String path) {
+        List<ServiceInstance> instances;
+        try {
+            instances = discoveryClient.getInstances(TICKET_SERVICE);
+        } catch (RuntimeException e) {
+            logger.warn("Could not list ticket service instances to invalidate {}: {}", path, e.getMessage());
+            return;
+        }
+        for (ServiceInstance instance : instances) {
+            try {
+                restClient.delete().uri(instance.getUri() + path).retrieve().toBodilessEntity();
+            } catch (RuntimeException e) {
+                logger.warn("Could not invalidate {} on {}: {}", path, instance.getUri(), e.getMessage());
+            }
+        }
+        logger.debug("Sent cache invalidation {} to {} ticket service instances", path, instances.size());
+    }
+}
@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -24,13 +28,28 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.User;
 import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.feignclient.NotificationClient;
+import com.example.demo.feignclient.NotificationClientFallbackFactory;
 import com.example.demo.feignclient.UserClient;
+import com.example.demo.feignclient.UserClientFallbackFactory;
 import com.example.demo.model.Event;
+import com.example.demo.model.InventoryReservation;
 import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.InventoryReservationRepository;
+import com.example.demo.service.EventSearchIndex;
 import com.example.demo.service.EventServiceImpl;
+import com.example.demo.service.FlashSaleService;
+import com.example.demo.service.TicketCacheInvalidator;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
 @ExtendWith(MockitoExtension.class)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -44,7 +63,23 @@ class EventServiceApplicationTests {
     @Mock
     private UserClient userClient;
     
+    @Mock
+    private FlashSaleService flashSaleService;
+    
+    @Mock
+    private NotificationClient notificationClient;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private InventoryReservationRepository reservationRepository;
+    
+    @Mock
+    private TicketCacheInvalidator ticketCacheInvalidator;
+    
     private EventServiceImpl service;
+    private EventSearchIndex searchIndex;
     
     private AutoCloseable closeable;
     private Event testEvent;
@@ -61,7 +96,17 @@ class EventServiceApplicationTests {
         closeable = MockitoAnnotations.openMocks(this);
         
         // Manually create the service instance with constructor parameters
-        service = new EventServiceImpl(repository, userClient);
+        searchIndex = new EventSearchIndex(repository, 2);
+        service = new EventServiceImpl(repository, reservationRepository, userClient, flashSaleService, notificationClient, searchIndex,
+                ticketCacheInvalidator, transactionManager);
+        
+        // No event is in flash-sale mode: ticket count changes go straight to the database path
+        lenient().when(flashSaleService.routeDecrease(anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<IntSupplier>getArgument(2).getAsInt());
+        lenient().when(flashSaleService.routeIncrease(anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<IntSupplier>getArgument(2).getAsInt());
+        lenient().when(flashSaleService.whileModeFixed(anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
         
         // Create test event
         testEvent = new Event();
@@ -165,6 +210,39 @@ class EventServiceApplicationTests {
         verify(repository).findById(999);
     }
     
+    @Test
+    @DisplayName("Get Events By IDs - Skips Unknown IDs")
+    void testGetEventsByIds() {
+        // Arrange
+        when(repository.findAllById(Set.of(1, 999))).thenReturn(List.of(testEvent));
+        
+        // Act
+        Map<Integer, Event> result = service.getEventsByIds(Set.of(1, 999));
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Sample Event", result.get(1).getName());
+        assertFalse(result.containsKey(999));
+        verify(repository, never()).findById(anyInt());
+    }
+    
+    @Test
+    @DisplayName("Get Events Starting Between - Uses Date Range Query")
+    void testGetEventsStartingBetween() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusHours(24);
+        when(repository.findByDateBetweenOrderByDateAsc(from, to)).thenReturn(List.of(testEvent));
+        
+        // Act
+        List<Event> result = service.getEventsStartingBetween(from, to);
+        
+        // Assert
+        assertEquals(1, result.size());
+        verify(repository, never()).findAll();
+        assertThrows(IllegalArgumentException.class, () -> service.getEventsStartingBetween(to, from));
+    }
+    
     @Test
     @DisplayName("Get All Events - Success")
     void testGetAllEvents_Success() {
@@ -200,11 +278,30 @@ class EventServiceApplicationTests {
         verify(repository).findAll();
     }
     
+    @Test
+    @DisplayName("Get All Events Paged - Walks Pages With Cursor")
+    void testGetAllEventsPaged() {
+        Event second = new Event();
+        second.setEventId(7);
+        when(repository.findByEventIdGreaterThanOrderByEventIdAsc(0, Limit.of(2))).thenReturn(List.of(testEvent, second));
+        
+        CursorPage<Event> first = service.getAllEventsPaged(null, 1);
+        assertEquals(List.of(testEvent), first.getItems());
+        assertTrue(first.isHasMore());
+        
+        when(repository.findByEventIdGreaterThanOrderByEventIdAsc(1, Limit.of(2))).thenReturn(List.of(second));
+        CursorPage<Event> last = service.getAllEventsPaged(first.getNextCursor(), 1);
+        assertEquals(List.of(second), last.getItems());
+        assertNull(last.getNextCursor());
+        
+        assertThrows(IllegalArgumentException.class, () -> service.getAllEventsPaged("%%%", 1));
+    }
+    
     @Test
     @DisplayName("Update Event - Success")
     void testUpdateEvent_Success() {
         // Arrange
-        when(repository.existsById(1)).thenReturn(true);
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
         when(repository.save(any(Event.class))).thenReturn(testEvent);
         
         // Create updated event
@@ -223,13 +320,14 @@ class EventServiceApplicationTests {
         Event capturedEvent = eventCaptor.getValue();
         assertEquals(1, capturedEvent.getEventId());
         assertEquals("Updated Event", capturedEvent.getName());
+        verify(ticketCacheInvalidator).invalidateEvent(1);
     }
     
     @Test
     @DisplayName("Update Event - Not Found")
     void testUpdateEvent_NotFound() {
         // Arrange
-        when(repository.existsById(999)).thenReturn(false);
+        when(repository.findByIdForUpdate(999)).thenReturn(Optional.empty());
         
         // Create updated event
         Event updatedEvent = new Event();
@@ -242,15 +340,16 @@ class EventServiceApplicationTests {
         assertEquals("Cannot update: Event not found with ID: 999", exception.getMessage());
         
         // Verify
-        verify(repository).existsById(999);
+        verify(repository).findByIdForUpdate(999);
         verify(repository, never()).save(any(Event.class));
+        verify(ticketCacheInvalidator, never()).invalidateEvent(anyInt());
     }
     
     @Test
     @DisplayName("Delete Event - Success")
     void testDeleteEvent_Success() {
         // Arrange
-        when(repository.findById(1)).thenReturn(Optional.of(testEvent));
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
         doNothing().when(repository).delete(any(Event.class));
         
         // Act
@@ -260,15 +359,38 @@ class EventServiceApplicationTests {
         assertEquals("Event deleted successfully.", result);
         
         // Verify
-        verify(repository).findById(1);
+        verify(repository).findByIdForUpdate(1);
         verify(repository).delete(testEvent);
+        verify(notificationClient).cancelReminders(1);
+        verify(ticketCacheInvalidator).invalidateEvent(1);
+    }
+    
+    @Test
+    @DisplayName("Update Event - Reminders Rescheduled, Notification Failure Tolerated")
+    void testUpdateEvent_ReschedulesReminders() {
+        // Arrange
+        LocalDateTime newDate = LocalDateTime.now().plusDays(2);
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
+        doThrow(new RuntimeException("Notification service down"))
+                .when(notificationClient).rescheduleReminders(1, newDate);
+        Event updatedEvent = new Event();
+        updatedEvent.setName("Updated Event");
+        updatedEvent.setDate(newDate);
+        
+        // Act
+        String result = service.updateEvent(1, updatedEvent);
+        
+        // Assert - the update stands; the notification service resync catches up later
+        assertEquals("Event updated successfully.", result);
+        verify(repository).save(updatedEvent);
+        verify(notificationClient).rescheduleReminders(1, newDate);
     }
     
     @Test
     @DisplayName("Delete Event - Not Found")
     void testDeleteEvent_NotFound() {
         // Arrange
-        when(repository.findById(999)).thenReturn(Optional.empty());
+        when(repository.findByIdForUpdate(999)).thenReturn(Optional.empty());
         
         // Act & Assert
         EventNotFoundException exception = assertThrows(EventNotFoundException.class, 
@@ -277,7 +399,7 @@ class EventServiceApplicationTests {
         assertEquals("Event not found with ID: 999", exception.getMessage());
         
         // Verify
-        verify(repository).findById(999);
+        verify(repository).findByIdForUpdate(999);
         verify(repository, never()).delete(any(Event.class));
     }
     
@@ -339,6 +461,178 @@ class EventServiceApplicationTests {
 //        assertEquals(11, savedEvent.getTicketCount());
 //    }
     
+    @Test
+    @DisplayName("Decrease Ticket Count - Conditional Update Success")
+    void testDecreaseTicketCount_ConditionalUpdateSuccess() {
+        // Arrange
+        when(repository.decrementTicketCount(1, 2)).thenReturn(1);
+        when(repository.findTicketCountByEventId(1)).thenReturn(8);
+        
+        // Act
+        int remaining = service.decreaseTicketCount(1, 2);
+        
+        // Assert
+        assertEquals(8, remaining);
+        
+        // Verify no entity load or save happens on the hot path
+        verify(repository).decrementTicketCount(1, 2);
+        verify(repository, never()).findById(anyInt());
+        verify(repository, never()).save(any(Event.class));
+    }
+    
+    @Test
+    @DisplayName("Decrease Ticket Count - Not Enough Tickets")
+    void testDecreaseTicketCount_NotEnoughTickets() {
+        // Arrange
+        when(repository.decrementTicketCount(1, 5)).thenReturn(0);
+        when(repository.existsById(1)).thenReturn(true);
+        
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
+                () -> service.decreaseTicketCount(1, 5));
+        
+        assertEquals("No tickets available for event with ID: 1", exception.getMessage());
+        verify(repository, never()).findTicketCountByEventId(anyInt());
+    }
+    
+    @Test
+    @DisplayName("Decrease Ticket Count - Event Not Found")
+    void testDecreaseTicketCount_EventNotFound() {
+        // Arrange
+        when(repository.decrementTicketCount(999, 1)).thenReturn(0);
+        when(repository.existsById(999)).thenReturn(false);
+        
+        // Act & Assert
+        EventNotFoundException exception = assertThrows(EventNotFoundException.class, 
+                () -> service.decreaseTicketCount(999, 1));
+        
+        assertEquals("Event not found with ID: 999", exception.getMessage());
+    }
+    
+    @Test
+    @DisplayName("Increase Ticket Count - Conditional Update Success")
+    void testIncreaseTicketCount_ConditionalUpdateSuccess() {
+        // Arrange
+        when(repository.incrementTicketCount(1, 3)).thenReturn(1);
+        when(repository.findTicketCountByEventId(1)).thenReturn(13);
+        
+        // Act
+        int remaining = service.increaseTicketCount(1, 3);
+        
+        // Assert
+        assertEquals(13, remaining);
+        verify(repository, never()).save(any(Event.class));
+    }
+    
+    @Test
+    @DisplayName("Increase Ticket Count - Event Not Found")
+    void testIncreaseTicketCount_EventNotFound() {
+        // Arrange
+        when(repository.incrementTicketCount(999, 1)).thenReturn(0);
+        
+        // Act & Assert
+        assertThrows(EventNotFoundException.class, () -> service.increaseTicketCount(999, 1));
+        verify(repository, never()).findTicketCountByEventId(anyInt());
+    }
+    
+    @Test
+    @DisplayName("Decrease Ticket Count - Reservation Token Applied Once")
+    void testDecreaseTicketCount_ReservationTokenAppliedOnce() {
+        // Arrange: the first call records the token, the retry finds it
+        when(repository.decrementTicketCount(1, 2)).thenReturn(1);
+        when(repository.findTicketCountByEventId(1)).thenReturn(8);
+        when(reservationRepository.findById("saga-7"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new InventoryReservation("saga-7", 1, -2,
+                        InventoryReservation.Status.APPLIED, LocalDateTime.now())));
+        
+        // Act
+        int first = service.decreaseTicketCount(1, 2, "saga-7");
+        int retried = service.decreaseTicketCount(1, 2, "saga-7");
+        
+        // Assert
+        assertEquals(8, first);
+        assertEquals(8, retried);
+        verify(repository, times(1)).decrementTicketCount(1, 2);
+        verify(reservationRepository, times(1)).insert(eq("saga-7"), eq(1), eq(-2), eq("APPLIED"), any(LocalDateTime.class));
+        assertThrows(IllegalArgumentException.class, () -> service.decreaseTicketCount(1, 3, "saga-7"));
+    }
+    
+    @Test
+    @DisplayName("Settle Reservation - Unknown Token Voided, Later Calls Refused")
+    void testSettleReservation_VoidsUnknownToken() {
+        // Arrange
+        InventoryReservation voided = new InventoryReservation("saga-8", 1, 0,
+                InventoryReservation.Status.VOIDED, LocalDateTime.now());
+        when(reservationRepository.findById("saga-8"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(voided));
+        
+        // Act
+        InventoryReservation.Status settled = service.settleReservation("saga-8", 1);
+        
+        // Assert: a late call with the token takes nothing
+        assertEquals(InventoryReservation.Status.VOIDED, settled);
+        verify(reservationRepository).insert(eq("saga-8"), eq(1), eq(0), eq("VOIDED"), any(LocalDateTime.class));
+        assertThrows(IllegalArgumentException.class, () -> service.decreaseTicketCount(1, 2, "saga-8"));
+        verify(repository, never()).decrementTicketCount(anyInt(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Decrease Ticket Count - Flash Sale Skips Database")
+    void testDecreaseTicketCount_FlashSaleSkipsDatabase() {
+        // Arrange
+        doReturn(98).when(flashSaleService).routeDecrease(eq(1), eq(2), any());
+        
+        // Act
+        int remaining = service.decreaseTicketCount(1, 2);
+        
+        // Assert
+        assertEquals(98, remaining);
+        verify(repository, never()).decrementTicketCount(anyInt(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Update Event - Rejected During Flash Sale")
+    void testUpdateEvent_FlashSaleActive() {
+        // Arrange
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
+        when(flashSaleService.isActive(1)).thenReturn(true);
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.updateEvent(1, testEvent));
+        verify(repository, never()).save(any(Event.class));
+    }
+    
+    @Test
+    @DisplayName("Update And Delete Event - Rejected While Another Instance Owns The Flash Sale")
+    void testUpdateAndDeleteEvent_FlashSaleOwnedElsewhere() {
+        // Arrange
+        testEvent.setFlashSaleOwner("other-host:8086");
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.updateEvent(1, new Event()));
+        assertThrows(IllegalArgumentException.class, () -> service.deleteEvent(1));
+        verify(flashSaleService, times(2)).whileModeFixed(eq(1), any());
+        verify(repository, never()).save(any(Event.class));
+        verify(repository, never()).delete(any(Event.class));
+    }
+    
+    @Test
+    @DisplayName("Decrease Ticket Count - Refused While Another Instance Owns The Flash Sale")
+    void testDecreaseTicketCount_FlashSaleOwnedElsewhere() {
+        // Arrange
+        when(repository.decrementTicketCount(1, 1)).thenReturn(0);
+        when(repository.existsById(1)).thenReturn(true);
+        when(repository.findFlashSaleOwnerByEventId(1)).thenReturn("other-host:8086");
+        
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> service.decreaseTicketCount(1, 1));
+        assertEquals("Flash sale is served by another instance for event with ID: 1", exception.getMessage());
+    }
+    
     @Test
     @DisplayName("Filter By Category - Success")
     void testFilterByCategory_Success() {
@@ -412,6 +706,90 @@ class EventServiceApplicationTests {
         verify(repository).findByNameContainingIgnoreCase("Sample");
     }
     
+    @Test
+    @DisplayName("Search Index - Prefix, Accent And Case Folding With Name Hits Ranked First")
+    void testSearchIndex_Ranking() {
+        // Arrange
+        searchIndex.index(event(1, "Jazz Night", "Music", "Café Central", 3));
+        searchIndex.index(event(2, "Summer Concerts", "Music", "City Arena", 2));
+        searchIndex.index(event(3, "Food Fair", "Concerts And More", "City Arena", 1));
+        searchIndex.index(event(4, "Concert", "Music", "Old Town", 4));
+        
+        // Act & Assert
+        assertEquals(List.of(4, 2, 3), searchIndex.search("concert", null, null, 10));
+        assertEquals(List.of(2, 4, 3), searchIndex.search("conc", null, null, 10));
+        assertEquals(List.of(4, 2), searchIndex.search("CONCERT music", null, null, 10));
+        assertEquals(List.of(1), searchIndex.search("cafe", null, null, 10));
+        assertEquals(List.of(2), searchIndex.search("conc", "music", "city arena", 10));
+        assertEquals(List.of(3, 2), searchIndex.search(null, null, "City Arena", 10));
+        assertEquals(List.of(2), searchIndex.search("conc", null, null, 1));
+        assertTrue(searchIndex.search("c", null, null, 10).isEmpty());
+        assertTrue(searchIndex.search("cert", null, null, 10).isEmpty());
+        assertTrue(searchIndex.search(" ", null, null, 10).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Search Index - Updates And Deletes Apply Incrementally")
+    void testSearchIndex_IncrementalUpdates() {
+        // Arrange
+        when(userClient.getUserById(101)).thenReturn(testUser);
+        when(repository.findByIdForUpdate(1)).thenReturn(Optional.of(testEvent));
+        service.createEvent(testEvent);
+        assertEquals(List.of(1), searchIndex.search("sample", "tech", null, 10));
+        
+        // Act: rename and move the event, then delete it
+        Event renamed = event(1, "Robotics Expo", "Tech", "Boston", 7);
+        service.updateEvent(1, renamed);
+        
+        // Assert
+        assertTrue(searchIndex.search("sample", null, null, 10).isEmpty());
+        assertTrue(searchIndex.search(null, null, "New York", 10).isEmpty());
+        assertEquals(List.of(1), searchIndex.search("robo", "tech", "boston", 10));
+        
+        service.deleteEvent(1);
+        assertTrue(searchIndex.search("robo", null, null, 10).isEmpty());
+        assertTrue(searchIndex.search(null, "tech", null, 10).isEmpty());
+        assertEquals(0, searchIndex.size());
+    }
+    
+    @Test
+    @DisplayName("Search Events - Served From Index Once Built")
+    void testSearchEvents_UsesIndexAfterRebuild() {
+        // Arrange
+        Event second = event(2, "Sample Meetup", "Tech", "Boston", 1);
+        Event third = event(3, "Cooking Class", "Food", "Boston", 2);
+        when(repository.findByEventIdGreaterThanOrderByEventIdAsc(0, Limit.of(2))).thenReturn(List.of(testEvent, second));
+        when(repository.findByEventIdGreaterThanOrderByEventIdAsc(2, Limit.of(2))).thenReturn(List.of(third));
+        when(repository.findAllById(List.of(2, 1))).thenReturn(List.of(testEvent, second));
+        
+        // Before the first build, searches go to the repository
+        when(repository.findByNameContainingIgnoreCase("Sample")).thenReturn(List.of(testEvent, second));
+        assertEquals(List.of(second), service.searchEvents("Sample", null, "boston", 10));
+        
+        // Act
+        assertEquals(3, searchIndex.rebuild());
+        List<Event> result = service.searchEvents("samp", "TECH", null, 10);
+        
+        // Assert: second starts sooner, so it ranks first on an equal score
+        assertEquals(List.of(second, testEvent), result);
+        verify(repository, times(1)).findByNameContainingIgnoreCase(anyString());
+        assertThrows(EventNotFoundException.class, () -> service.searchEvents("samp", "Food", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.searchEvents(null, " ", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.searchEvents("samp", null, null, 101));
+    }
+    
+    private static Event event(int eventId, String name, String category, String location, int daysAhead) {
+        Event event = new Event();
+        event.setEventId(eventId);
+        event.setName(name);
+        event.setCategory(category);
+        event.setLocation(location);
+        event.setDate(LocalDateTime.now().plusDays(daysAhead));
+        event.setOrganizerId(101);
+        event.setTicketCount(10);
+        return event;
+    }
+    
     @Test
     @DisplayName("Get Events By Organizer - Success")
     void testGetEventsByOrganizer_Success() {
@@ -430,4 +808,29 @@ class EventServiceApplicationTests {
         // Verify
         verify(repository).findByOrganizerId(101);
     }
+    
+    @Test
+    @DisplayName("Feign Fallback - Open Circuit Fails Fast As Service Unavailable")
+    void testFeignFallback_OpenCircuitIsServiceUnavailable() {
+        // Arrange
+        UserClient fallback = new UserClientFallbackFactory().create(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("USERSERVICE")));
+
+        // Act & Assert
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> fallback.getUserById(1));
+        assertTrue(exception.getMessage().startsWith("USERSERVICE is unavailable"));
+    }
+
+    @Test
+    @DisplayName("Feign Fallback - Remote Errors Are Rethrown Unchanged")
+    void testFeignFallback_RemoteErrorRethrown() {
+        // Arrange
+        RuntimeException remoteError = new IllegalStateException("connection refused");
+        NotificationClient fallback = new NotificationClientFallbackFactory().create(remoteError);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> fallback.cancelReminders(1));
+        assertSame(remoteError, exception);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,328 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.feignclient.NotificationClient;
+import com.example.demo.feignclient.UserClient;
+import com.example.demo.model.Event;
+import com.example.demo.model.InventoryReservation.Status;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.service.EventService;
+import com.example.demo.service.EventSearchIndex;
+import com.example.demo.service.EventServiceImpl;
+import com.example.demo.service.FlashSaleService;
+import com.example.demo.service.FlashSaleServiceImpl;
+import com.example.demo.service.TicketCacheInvalidator;
+
+/**
+ * Stress test for the conditional ticket-count update: hundreds of bookers race for
+ * a limited number of tickets against a real (embedded) database and the event must
+ * never be oversold, both on the database path and in flash-sale mode.
+ */
+@DataJpaTest
+@Import({ EventServiceImpl.class, FlashSaleServiceImpl.class, EventSearchIndex.class })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:eventdb;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "flashsale.journal-dir=target/flash-sale-journal",
+        "flashsale.flush-interval-ms=20"
+})
+class EventTicketCountConcurrencyTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventTicketCountConcurrencyTests.class);
+
+    private static final int BOOKERS = 400;
+    private static final int AVAILABLE_TICKETS = 150;
+
+    @Autowired
+    private EventService service;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private EventRepository repository;
+
+    @MockitoBean
+    private UserClient userClient;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    @MockitoBean
+    private TicketCacheInvalidator ticketCacheInvalidator;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent single-ticket bookings never oversell")
+    void testConcurrentDecrease_NoOversell() throws Exception {
+        // Arrange
+        int eventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+
+        // Act
+        BookingOutcome outcome = runBookers(eventId, () -> 1);
+
+        // Assert
+        int remaining = repository.findTicketCountByEventId(eventId);
+        logger.info("Single-ticket run: granted={}, rejected={}, remaining={}",
+                outcome.granted.get(), outcome.rejected.get(), remaining);
+
+        assertEquals(0, outcome.failed.get(), "No booker should hit an unexpected error");
+        assertEquals(AVAILABLE_TICKETS, outcome.granted.get());
+        assertEquals(BOOKERS - AVAILABLE_TICKETS, outcome.rejected.get());
+        assertEquals(0, remaining);
+    }
+
+    @Test
+    @DisplayName("Concurrent multi-ticket bookings and returns keep inventory exact")
+    void testConcurrentDecreaseAndIncrease_InventoryConserved() throws Exception {
+        // Arrange
+        int eventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+        AtomicInteger returned = new AtomicInteger();
+
+        // Act: every fifth booker returns a ticket instead of taking some
+        BookingOutcome outcome = runBookers(eventId, () -> ThreadLocalRandom.current().nextInt(1, 5),
+                index -> {
+                    if (index % 5 == 0) {
+                        service.increaseTicketCount(eventId, 1);
+                        returned.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                });
+
+        // Assert
+        int remaining = repository.findTicketCountByEventId(eventId);
+        logger.info("Mixed run: tickets granted={}, returned={}, remaining={}",
+                outcome.ticketsGranted.get(), returned.get(), remaining);
+
+        assertEquals(0, outcome.failed.get(), "No booker should hit an unexpected error");
+        assertTrue(remaining >= 0, "Ticket count must never go negative");
+        assertEquals(AVAILABLE_TICKETS + returned.get() - outcome.ticketsGranted.get(), remaining);
+    }
+
+    @Test
+    @DisplayName("Flash sale bookings never oversell and are written back exactly")
+    void testFlashSale_NoOversellAndExactWriteBack() throws Exception {
+        // Arrange
+        int eventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+        flashSaleService.enableFlashSale(eventId);
+        AtomicInteger returned = new AtomicInteger();
+
+        // Act
+        BookingOutcome outcome = runBookers(eventId, () -> ThreadLocalRandom.current().nextInt(1, 4),
+                index -> {
+                    if (index % 7 == 0) {
+                        service.increaseTicketCount(eventId, 1);
+                        returned.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                });
+        flashSaleService.disableFlashSale(eventId);
+
+        // Assert
+        int remaining = repository.findTicketCountByEventId(eventId);
+        logger.info("Flash sale run: tickets granted={}, returned={}, remaining={}",
+                outcome.ticketsGranted.get(), returned.get(), remaining);
+
+        assertEquals(0, outcome.failed.get(), "No booker should hit an unexpected error");
+        assertTrue(outcome.rejected.get() > 0, "The flash sale should sell out");
+        assertTrue(remaining >= 0, "Ticket count must never go negative");
+        assertEquals(AVAILABLE_TICKETS + returned.get() - outcome.ticketsGranted.get(), remaining);
+        assertFalse(flashSaleService.isActive(eventId));
+    }
+
+    @Test
+    @DisplayName("Concurrent calls with one reservation token take tickets once, settled tokens answer for them")
+    void testReservationToken_AppliedOnceAndSettled() throws Exception {
+        // Arrange
+        int eventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+
+        // Act: the same booking arrives many times at once, as a retry storm would deliver it
+        BookingOutcome outcome = runBookers(eventId, () -> 2, index -> {
+            service.decreaseTicketCount(eventId, 2, "booking-1");
+            return true;
+        });
+
+        // Assert
+        assertEquals(0, outcome.failed.get(), "Duplicates must not fail");
+        assertEquals(0, outcome.rejected.get(), "Duplicates must not be refused");
+        assertEquals(AVAILABLE_TICKETS - 2, repository.findTicketCountByEventId(eventId));
+        assertEquals(Status.APPLIED, service.settleReservation("booking-1", eventId));
+        assertEquals(Status.VOIDED, service.settleReservation("booking-2", eventId));
+        assertThrows(IllegalArgumentException.class, () -> service.decreaseTicketCount(eventId, 2, "booking-2"));
+        assertEquals(AVAILABLE_TICKETS - 2, repository.findTicketCountByEventId(eventId));
+    }
+
+    @Test
+    @DisplayName("Other replicas refuse database bookings while an instance owns the flash sale")
+    void testFlashSale_OtherReplicasRefuseDatabaseBookings() {
+        // Arrange
+        int ownedHere = saveEvent(AVAILABLE_TICKETS).getEventId();
+        int ownedElsewhere = saveEvent(AVAILABLE_TICKETS).getEventId();
+        flashSaleService.enableFlashSale(ownedHere);
+        assertEquals(1, repository.claimFlashSale(ownedElsewhere, "other-replica:8086"));
+
+        try {
+            // Act & Assert: the conditional update another replica runs takes nothing from an owned event
+            assertNotNull(repository.findFlashSaleOwnerByEventId(ownedHere));
+            assertEquals(0, repository.decrementTicketCount(ownedHere, 1));
+            assertThrows(IllegalStateException.class, () -> service.decreaseTicketCount(ownedElsewhere, 1));
+            assertThrows(IllegalArgumentException.class, () -> flashSaleService.enableFlashSale(ownedElsewhere));
+            assertThrows(IllegalArgumentException.class, () -> service.deleteEvent(ownedElsewhere));
+            assertEquals(AVAILABLE_TICKETS, repository.findTicketCountByEventId(ownedElsewhere));
+        } finally {
+            flashSaleService.disableFlashSale(ownedHere);
+            repository.releaseFlashSale(ownedElsewhere, "other-replica:8086");
+        }
+
+        // Disabling hands the event back to database bookings on every replica
+        assertNull(repository.findFlashSaleOwnerByEventId(ownedHere));
+        assertEquals(1, repository.decrementTicketCount(ownedHere, 1));
+    }
+
+    @Test
+    @DisplayName("Switching one event to flash sale does not wait for another event's bookings")
+    void testFlashSaleSwitch_DoesNotWaitForOtherEvents() throws Exception {
+        // Arrange: consecutive IDs land on different lock stripes
+        int busyEventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+        int saleEventId = saveEvent(AVAILABLE_TICKETS).getEventId();
+        CountDownLatch insideDatabasePath = new CountDownLatch(1);
+        CountDownLatch finishBooking = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Integer> slowBooking = pool.submit(() -> flashSaleService.routeDecrease(busyEventId, 1, () -> {
+            insideDatabasePath.countDown();
+            try {
+                finishBooking.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }));
+        assertTrue(insideDatabasePath.await(5, TimeUnit.SECONDS));
+
+        try {
+            // Act: both switches complete while the other event's booking is still in its database call
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                flashSaleService.enableFlashSale(saleEventId);
+                flashSaleService.disableFlashSale(saleEventId);
+            });
+
+            // Assert
+            assertFalse(slowBooking.isDone());
+            assertFalse(flashSaleService.isActive(saleEventId));
+        } finally {
+            finishBooking.countDown();
+            slowBooking.get(5, TimeUnit.SECONDS);
+            pool.shutdown();
+        }
+    }
+
+    private Event saveEvent(int ticketCount) {
+        Event event = new Event();
+        event.setName("Flash Sale Concert");
+        event.setCategory("Music");
+        event.setLocation("Chennai");
+        event.setDate(LocalDateTime.now().plusDays(30));
+        event.setOrganizerId(1);
+        event.setTicketCount(ticketCount);
+        event.setTicketPrice(500);
+        return repository.save(event);
+    }
+
+    private BookingOutcome runBookers(int eventId, QuantitySource quantities) throws Exception {
+        return runBookers(eventId, quantities, index -> false);
+    }
+
+    private BookingOutcome runBookers(int eventId, QuantitySource quantities, AlternateAction alternate)
+            throws Exception {
+        BookingOutcome outcome = new BookingOutcome();
+        ExecutorService pool = Executors.newFixedThreadPool(BOOKERS);
+        CountDownLatch ready = new CountDownLatch(BOOKERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BOOKERS; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                start.await();
+                try {
+                    if (alternate.run(index)) {
+                        return null;
+                    }
+                    int quantity = quantities.next();
+                    service.decreaseTicketCount(eventId, quantity);
+                    outcome.granted.incrementAndGet();
+                    outcome.ticketsGranted.addAndGet(quantity);
+                } catch (IllegalArgumentException e) {
+                    outcome.rejected.incrementAndGet();
+                } catch (Exception e) {
+                    logger.error("Unexpected booking failure: {}", e.getMessage(), e);
+                    outcome.failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        ready.await();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return outcome;
+    }
+
+    @FunctionalInterface
+    private interface QuantitySource {
+        int next();
+    }
+
+    @FunctionalInterface
+    private interface AlternateAction {
+        boolean run(int index);
+    }
+
+    private static class BookingOutcome {
+        final AtomicInteger granted = new AtomicInteger();
+        final AtomicInteger ticketsGranted = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+    }
+}
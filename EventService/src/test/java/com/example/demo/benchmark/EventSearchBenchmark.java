@@ -0,0 +1,227 @@
+package com.example.demo.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.model.Event;
+import com.example.demo.service.EventSearchIndex;
+
+/**
+ * Compares the event searches as the derived queries {@code findByNameContainingIgnoreCase},
+ * {@code findByCategoryIgnoreCase} and {@code findByLocationIgnoreCase} run them, a
+ * {@code LOWER(...) LIKE} or {@code LOWER(...) =} over the table, with the same lookups on
+ * {@link EventSearchIndex}, for tables of {@code events} rows.
+ *
+ * The SQL is what Hibernate generates, run over plain JDBC on an embedded H2 database. The index
+ * side returns ranked IDs only; the service then loads at most one page of rows by primary key,
+ * which costs the same at any table size. Not run by the build; start {@link #main} on the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class EventSearchBenchmark {
+
+    private static final String DB_URL = "jdbc:h2:mem:eventsearchbench;DB_CLOSE_DELAY=-1";
+    private static final int LIMIT = 50;
+
+    private static final String[] ADJECTIVES = { "Summer", "Winter", "Grand", "Indie", "Classic", "Late", "Open",
+            "Annual", "Global", "Local", "Midnight", "Spring" };
+    private static final String[] NOUNS = { "Concert", "Festival", "Meetup", "Workshop", "Conference", "Expo",
+            "Marathon", "Showcase", "Summit", "Gala", "Fair", "Hackathon", "Screening", "Tournament" };
+    private static final String[] CATEGORIES = { "Music", "Tech", "Sports", "Food", "Art", "Business", "Film",
+            "Education" };
+    private static final String[] CITIES = { "New York", "London", "Berlin", "Paris", "Tokyo", "Sydney", "Toronto",
+            "Madrid", "Chennai", "Bangalore", "Lisbon", "Dublin" };
+
+    private static final String SELECT_COLUMNS =
+            "SELECT e1_0.event_id, e1_0.category, e1_0.date, e1_0.location, e1_0.name, e1_0.organizer_id, "
+                    + "e1_0.ticket_count, e1_0.ticket_price FROM event e1_0 ";
+    private static final String NAME_CONTAINING_SQL = SELECT_COLUMNS + "WHERE LOWER(e1_0.name) LIKE LOWER(?) ESCAPE '\\'";
+    private static final String CATEGORY_SQL = SELECT_COLUMNS + "WHERE LOWER(e1_0.category) = LOWER(?)";
+    private static final String LOCATION_SQL = SELECT_COLUMNS + "WHERE LOWER(e1_0.location) = LOWER(?)";
+
+    @State(Scope.Benchmark)
+    public static class Events {
+
+        @Param({ "10000", "100000" })
+        int events;
+
+        Connection schemaConnection;
+        EventSearchIndex index;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            // Keep one connection open so the in-memory database lives for the whole trial
+            schemaConnection = DriverManager.getConnection(DB_URL);
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS event");
+                statement.execute("CREATE TABLE event (event_id INT PRIMARY KEY, category VARCHAR(255), date TIMESTAMP, "
+                        + "location VARCHAR(255), name VARCHAR(255), organizer_id INT NOT NULL, ticket_count INT NOT NULL, "
+                        + "ticket_price INT NOT NULL)");
+                statement.execute("CREATE INDEX idx_event_date ON event (date)");
+            }
+
+            index = new EventSearchIndex(null, 1000);
+            SplittableRandom random = new SplittableRandom(42);
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 18, 0);
+            schemaConnection.setAutoCommit(false);
+            try (PreparedStatement insert = schemaConnection.prepareStatement(
+                    "INSERT INTO event VALUES (?, ?, ?, ?, ?, 1, 100, 25)")) {
+                for (int eventId = 1; eventId <= events; eventId++) {
+                    Event event = new Event(eventId,
+                            pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " " + eventId,
+                            pick(random, CATEGORIES), pick(random, CITIES), start.plusHours(random.nextInt(24 * 365)),
+                            1, 100, 25, null);
+                    insert.setInt(1, eventId);
+                    insert.setString(2, event.getCategory());
+                    insert.setTimestamp(3, Timestamp.valueOf(event.getDate()));
+                    insert.setString(4, event.getLocation());
+                    insert.setString(5, event.getName());
+                    insert.addBatch();
+                    index.index(event);
+                    if (eventId % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+                schemaConnection.commit();
+            }
+            schemaConnection.setAutoCommit(true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS event");
+            }
+            schemaConnection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Queries {
+
+        Connection connection;
+        PreparedStatement nameContaining;
+        PreparedStatement byCategory;
+        PreparedStatement byLocation;
+        SplittableRandom random = new SplittableRandom(7);
+
+        @Setup(Level.Trial)
+        public void setUp(Events events) throws SQLException {
+            connection = DriverManager.getConnection(DB_URL);
+            nameContaining = connection.prepareStatement(NAME_CONTAINING_SQL);
+            byCategory = connection.prepareStatement(CATEGORY_SQL);
+            byLocation = connection.prepareStatement(LOCATION_SQL);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        String noun() {
+            return pick(random, NOUNS).toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public int nameContainingQuery(Queries queries) throws SQLException {
+        queries.nameContaining.setString(1, "%" + queries.noun() + "%");
+        return drain(queries.nameContaining);
+    }
+
+    @Benchmark
+    public List<Integer> nameIndex(Events events, Queries queries) {
+        return events.index.search(queries.noun(), null, null, LIMIT);
+    }
+
+    @Benchmark
+    public int categoryQuery(Queries queries) throws SQLException {
+        queries.byCategory.setString(1, pick(queries.random, CATEGORIES));
+        return drain(queries.byCategory);
+    }
+
+    @Benchmark
+    public List<Integer> categoryIndex(Events events, Queries queries) {
+        return events.index.search(null, pick(queries.random, CATEGORIES), null, LIMIT);
+    }
+
+    // The database has no way to combine the filters short of scanning; the index intersects posting sets
+    @Benchmark
+    public int combinedQuery(Queries queries) throws SQLException {
+        String noun = queries.noun();
+        String category = pick(queries.random, CATEGORIES);
+        queries.byLocation.setString(1, pick(queries.random, CITIES));
+        int matches = 0;
+        try (ResultSet resultSet = queries.byLocation.executeQuery()) {
+            while (resultSet.next()) {
+                if (resultSet.getString(5).toLowerCase().contains(noun) && resultSet.getString(2).equalsIgnoreCase(category)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<Integer> combinedIndex(Events events, Queries queries) {
+        return events.index.search(queries.noun(), pick(queries.random, CATEGORIES), pick(queries.random, CITIES), LIMIT);
+    }
+
+    // Reads every column of every row, as mapping the entities would
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int checksum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                checksum += resultSet.getInt(1) + resultSet.getInt(6) + resultSet.getInt(7) + resultSet.getInt(8);
+                resultSet.getString(2);
+                resultSet.getTimestamp(3);
+                resultSet.getString(4);
+                resultSet.getString(5);
+            }
+        }
+        return checksum;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EventSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.service.FlashSaleJournal;
+import com.example.demo.service.StripedTicketCounter;
+
+/**
+ * Compares taking one ticket through the conditional row update used by
+ * {@code EventServiceImpl.decreaseTicketCount} with taking it from the flash-sale
+ * striped counters plus journal append, with many bookers on the same event.
+ *
+ * The database path runs the same UPDATE statement against an embedded H2 database,
+ * so it shows row-lock contention without network latency; against MySQL the gap is
+ * larger. The striped path runs once with the journal forced to disk on every append
+ * (the default, {@code flashsale.journal-fsync=true}) and once without. Not run by the
+ * build; start {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+public class FlashSaleInventoryBenchmark {
+
+    private static final int EVENT_ID = 1;
+    private static final int STRIPES = 16;
+    private static final String DB_URL = "jdbc:h2:mem:flashsalebench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000";
+    private static final String DECREMENT_SQL =
+            "UPDATE event SET ticket_count = ticket_count - ? WHERE event_id = ? AND ticket_count >= ?";
+
+    @State(Scope.Benchmark)
+    public static class Inventory {
+
+        @Param({ "true", "false" })
+        boolean journalFsync;
+
+        Connection schemaConnection;
+        StripedTicketCounter counter;
+        FlashSaleJournal journal;
+        Path journalRoot;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException, IOException {
+            // Keep one connection open so the in-memory database lives for the whole trial
+            schemaConnection = DriverManager.getConnection(DB_URL);
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS event");
+                statement.execute("CREATE TABLE event (event_id INT PRIMARY KEY, ticket_count INT NOT NULL)");
+                statement.execute("INSERT INTO event VALUES (" + EVENT_ID + ", " + Integer.MAX_VALUE + ")");
+            }
+
+            counter = new StripedTicketCounter(STRIPES, Long.MAX_VALUE / 2);
+            journalRoot = Files.createTempDirectory("flash-sale-bench");
+            journal = FlashSaleJournal.create(journalRoot, EVENT_ID, STRIPES, journalFsync);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException, IOException {
+            journal.close();
+            FlashSaleJournal.delete(journal.getDirectory());
+            Files.deleteIfExists(journalRoot);
+            schemaConnection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Booker {
+
+        Connection connection;
+        PreparedStatement decrement;
+
+        // Taking the Inventory makes JMH create the schema before any booker connects
+        @Setup(Level.Trial)
+        public void setUp(Inventory inventory) throws SQLException {
+            connection = DriverManager.getConnection(DB_URL);
+            connection.setAutoCommit(true);
+            decrement = connection.prepareStatement(DECREMENT_SQL);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            decrement.close();
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int databaseConditionalUpdate(Inventory inventory, Booker booker) throws SQLException {
+        booker.decrement.setInt(1, 1);
+        booker.decrement.setInt(2, EVENT_ID);
+        booker.decrement.setInt(3, 1);
+        return booker.decrement.executeUpdate();
+    }
+
+    @Benchmark
+    public int flashSaleStripedCounter(Inventory inventory) throws IOException {
+        int stripe = inventory.counter.tryAllocate(1);
+        inventory.journal.append(stripe, 1);
+        return stripe;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FlashSaleInventoryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
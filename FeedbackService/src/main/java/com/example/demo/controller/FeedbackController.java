@@ -7,8 +7,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.model.Feedback;
 import com.example.demo.service.FeedbackService;
 
@@ -54,6 +56,14 @@ public class FeedbackController {
         return service.getAllFeedbacksByEvent(eventId);
     }
 
+    // Pass the returned nextCursor back to get the following page
+    @GetMapping("/getAllFeedbacksByEventPaged/{eid}")
+    public CursorPage<Feedback> getAllFeedbacksByEventPaged(@PathVariable("eid") int eventId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return service.getAllFeedbacksByEventPaged(eventId, cursor, limit);
+    }
+
     @GetMapping("/getAverageRatingByEvent/{eid}")
     public String getAverageRatingByEvent(@PathVariable("eid") int eventId) {
         float averageRating = service.getAverageRatingByEvent(eventId);
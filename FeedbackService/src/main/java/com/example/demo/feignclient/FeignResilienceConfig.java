@@ -0,0 +1,41 @@
+package com.example.demo.feignclient;
+
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.exception.ServiceUnavailableException;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+/**
+ * Every Feign client gets one circuit breaker and one semaphore bulkhead, named after the client
+ * (EVENTSERVICE, USERSERVICE, ...), rather than one per method, so a slow dependency is cut off
+ * as a whole and can only ever tie up its own share of request threads. Limits are under
+ * {@code resilience4j.*} in application.properties; state is at {@code /actuator/circuitbreakers}
+ * and {@code /actuator/bulkheads}.
+ */
+@Configuration
+public class FeignResilienceConfig {
+
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    /**
+     * What a fallback throws. A call the breaker or bulkhead refused never reached the service and
+     * fails fast as {@link ServiceUnavailableException}; any other failure is rethrown unchanged, so
+     * callers still see the {@code FeignException} they handle today.
+     */
+    static RuntimeException fallbackFailure(String service, Throwable cause) {
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            return new ServiceUnavailableException(service + " is unavailable: " + cause.getMessage());
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
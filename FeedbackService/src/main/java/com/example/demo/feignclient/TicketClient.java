@@ -9,7 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 import com.example.demo.dto.Ticket;
 
-@FeignClient(name="TICKETSERVICE", path ="/ticket") 
+@FeignClient(name="TICKETSERVICE", path ="/ticket",fallbackFactory=TicketClientFallbackFactory.class) 
 public interface TicketClient {
 
     @GetMapping("/getTicketByUserId/{uid}")
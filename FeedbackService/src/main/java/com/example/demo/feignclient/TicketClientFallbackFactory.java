@@ -0,0 +1,23 @@
+package com.example.demo.feignclient;
+
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Ticket;
+
+@Component
+public class TicketClientFallbackFactory implements FallbackFactory<TicketClient> {
+
+    @Override
+    public TicketClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("TICKETSERVICE", cause);
+        return new TicketClient() {
+            @Override
+            public List<Ticket> getTicketsByUserId(int userId) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,6 +17,9 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Integer> {
     // Find feedback by eventId
     List<Feedback> findByEventId(int eventId);
 
+    // Keyset page of an event's feedback after the given ID, in ID order; served by idx_feedback_event
+    List<Feedback> findByEventIdAndFeedbackIdGreaterThanOrderByFeedbackIdAsc(int eventId, int feedbackId, Limit limit);
+
     // Calculate the average rating for a given eventId
     @Query("SELECT COALESCE(AVG(f.rating), 0) FROM Feedback f WHERE f.eventId = :eventId")
     double findAverageRatingByEventId(@Param("eventId") int eventId);
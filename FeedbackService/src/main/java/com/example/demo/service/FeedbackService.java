@@ -2,6 +2,7 @@ package com.example.demo.service;
 
 import java.util.List;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.model.Feedback;
 
 public interface FeedbackService {
@@ -17,5 +18,8 @@ public interface FeedbackService {
     
     public abstract List<Feedback> getAllFeedbacksByEvent(int eventId);
 
+    // Keyset-paginated getAllFeedbacksByEvent; an empty page instead of an exception when there is no feedback
+    public abstract CursorPage<Feedback> getAllFeedbacksByEventPaged(int eventId, String cursor, int limit);
+
     public abstract float getAverageRatingByEvent(int eventId);
 }
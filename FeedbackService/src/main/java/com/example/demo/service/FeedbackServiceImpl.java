@@ -5,8 +5,10 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.Event;
 import com.example.demo.dto.Ticket;
 import com.example.demo.dto.User;
@@ -211,6 +213,21 @@ public class FeedbackServiceImpl implements FeedbackService {
         return feedbacks;
     }
 
+    @Override
+    public CursorPage<Feedback> getAllFeedbacksByEventPaged(int eventId, String cursor, int limit) {
+        if (eventId <= 0) {
+            logger.warn(LOG_INVALID_EVENT_ID, eventId);
+            throw new IllegalArgumentException(ERR_EVENT_ID_INVALID);
+        }
+        CursorPage.checkLimit(limit);
+        int afterFeedbackId = CursorPage.decodeCursor(cursor);
+        logger.debug("Fetching up to {} feedback entries for event ID: {} after ID: {}", limit, eventId, afterFeedbackId);
+
+        List<Feedback> feedbacks = feedbackRepository.findByEventIdAndFeedbackIdGreaterThanOrderByFeedbackIdAsc(
+                eventId, afterFeedbackId, Limit.of(limit + 1));
+        return CursorPage.of(feedbacks, limit, Feedback::getFeedbackId);
+    }
+
     @Override
     public float getAverageRatingByEvent(int eventId) {
         logger.info("Calculating average rating for event ID: {}", eventId);
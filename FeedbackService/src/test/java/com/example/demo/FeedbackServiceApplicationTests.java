@@ -24,20 +24,28 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.Event;
 import com.example.demo.dto.User;
 import com.example.demo.dto.Ticket;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.FeedbackNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.feignclient.EventClient;
+import com.example.demo.feignclient.EventClientFallbackFactory;
+import com.example.demo.feignclient.TicketClientFallbackFactory;
 import com.example.demo.feignclient.UserClient;
 import com.example.demo.feignclient.TicketClient;
 import com.example.demo.model.Feedback;
 import com.example.demo.repository.FeedbackRepository;
 import com.example.demo.service.FeedbackServiceImpl;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
 @ExtendWith(MockitoExtension.class)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class FeedbackServiceApplicationTests {
@@ -403,6 +411,28 @@ class FeedbackServiceApplicationTests {
         verify(feedbackRepository).findByEventId(1);
     }
     
+    @Test
+    @DisplayName("Get All Feedbacks By Event Paged - Walks Pages With Cursor")
+    void testGetAllFeedbacksByEventPaged() {
+        Feedback second = new Feedback();
+        second.setFeedbackId(4);
+        second.setEventId(1);
+        when(feedbackRepository.findByEventIdAndFeedbackIdGreaterThanOrderByFeedbackIdAsc(1, 0, Limit.of(2)))
+            .thenReturn(List.of(testFeedback, second));
+        when(feedbackRepository.findByEventIdAndFeedbackIdGreaterThanOrderByFeedbackIdAsc(1, 1, Limit.of(2)))
+            .thenReturn(List.of(second));
+        
+        CursorPage<Feedback> first = feedbackService.getAllFeedbacksByEventPaged(1, null, 1);
+        assertEquals(List.of(testFeedback), first.getItems());
+        assertTrue(first.isHasMore());
+        
+        CursorPage<Feedback> last = feedbackService.getAllFeedbacksByEventPaged(1, first.getNextCursor(), 1);
+        assertEquals(List.of(second), last.getItems());
+        assertNull(last.getNextCursor());
+        
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.getAllFeedbacksByEventPaged(0, null, 1));
+    }
+    
     @Test
     @DisplayName("Get Average Rating By Event - Success")
     void testGetAverageRatingByEvent_Success() {
@@ -435,4 +465,28 @@ class FeedbackServiceApplicationTests {
         verify(feedbackRepository).findAverageRatingByEventId(1);
     }
     
+    @Test
+    @DisplayName("Feign Fallback - Open Circuit Fails Fast As Service Unavailable")
+    void testFeignFallback_OpenCircuitIsServiceUnavailable() {
+        // Arrange
+        TicketClient fallback = new TicketClientFallbackFactory().create(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("TICKETSERVICE")));
+
+        // Act & Assert
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> fallback.getTicketsByUserId(1));
+        assertTrue(exception.getMessage().startsWith("TICKETSERVICE is unavailable"));
+    }
+
+    @Test
+    @DisplayName("Feign Fallback - Remote Errors Are Rethrown Unchanged")
+    void testFeignFallback_RemoteErrorRethrown() {
+        // Arrange
+        RuntimeException remoteError = new IllegalStateException("connection refused");
+        EventClient fallback = new EventClientFallbackFactory().create(remoteError);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> fallback.getEventById(1));
+        assertSame(remoteError, exception);
+    }
 }
\ No newline at end of file
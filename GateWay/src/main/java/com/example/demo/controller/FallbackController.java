@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Where a route's {@code CircuitBreaker} filter forwards when the call fails, e.g.
+ * {@code fallbackUri=forward:/fallback/EVENTSERVICE}. The caller gets 504 if the service did not
+ * answer within the route's time limit, and 503 if it could not be reached or its breaker is open.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public Mono<ResponseEntity<String>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        HttpStatus status = cause instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        String error = status == HttpStatus.GATEWAY_TIMEOUT ? service + " timed out" : service + " is unavailable";
+        return Mono.just(ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"error\": \"" + error + "\"}"));
+    }
+}
@@ -31,7 +31,9 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
-            if (validator.isSecured.test(exchange.getRequest())) {
+            String requestedPath = exchange.getRequest().getPath().toString();
+            long match = validator.match(requestedPath);
+            if (validator.isSecured(match)) {
                 if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
                     return handleUnauthorized(exchange.getResponse(), "Missing authorization header", HttpStatus.UNAUTHORIZED);
                 }
@@ -43,10 +45,9 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
                 String token = authHeader.substring(7); // Extract token after "Bearer "
                 try {
-                    String role = util.extractRolesFromToken(token);
-                    String requestedPath = exchange.getRequest().getPath().toString();
+                    String roles = util.extractRolesFromToken(token);
 
-                    if (!isAuthorized(role, requestedPath)) {
+                    if (!validator.isAuthorized(match, roles)) {
                         return handleUnauthorized(exchange.getResponse(), "Unauthorized access", HttpStatus.FORBIDDEN);
                     }
 
@@ -58,52 +59,6 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         };
     }
 
-
-    private boolean isAuthorized(String role, String path) {
-        if ("ADMIN".equalsIgnoreCase(role)) {
-            return path.startsWith("/user") || path.startsWith("/event")
-            || path.startsWith("/ticket") || path.startsWith("/feedback") 
-            || path.startsWith("/notification"); 
-        } 
-        else if ("ORGANIZER".equalsIgnoreCase(role)) {
-            return path.startsWith("/user/update") || path.startsWith("/user/getUserById") 
-          
-            || path.startsWith("/event/create")  || path.startsWith("/event/update") 
-            || path.startsWith("/event/delete")  || path.startsWith("/event/getEventById") 
-            || path.startsWith("/event/organizer") 
-            
-            || path.startsWith("/feedback/getByFeedbackId") || path.startsWith("/feedback/getAllFeedbacksByUser") 
-            || path.startsWith("/feedback/getAllFeedbacksByEvent") || path.startsWith("/feedback/getAverageRatingByEvent") 
-            
-            || path.startsWith("/notification/getAllNotificationsByEventId")
-
-            
-            || path.startsWith("/ticket/getTicketByEventId") ;
-
-        }
-        else if ("USER".equalsIgnoreCase(role)) {
-            return path.startsWith("/user/update") || path.startsWith("/user/getUserById") 
-            || path.startsWith("/event/getEventById")   
-            
-            || path.startsWith("/ticket/book")  || path.startsWith("/ticket/cancel")
-            || path.startsWith("/ticket/getTicketById") || path.startsWith("/ticket/getTicketByUserId") 
-        
-            || path.startsWith("/event/filterByLocation") 
-            || path.startsWith("/event/getTicketByUserId") || path.startsWith("/ticket/cancel") 
-           
-            || path.startsWith("/feedback/save") || path.startsWith("/feedback/update")
-            || path.startsWith("/feedback/delete") || path.startsWith("/feedback/getByFeedbackId")
-            || path.startsWith("/feedback/getAllFeedbacksByUser") || path.startsWith("/feedback/getAllFeedbacksByEvent") 
-            || path.startsWith("/feedback/getAverageRatingByEvent")
-           
-            || path.startsWith("/notification/getAllNotificationsByUserId")
-            
-            || path.startsWith("/pay/createOrder");
-        }
-
-        return false;
-    }
-
     private Mono<Void> handleUnauthorized(ServerHttpResponse response, String message, HttpStatus status) {
         response.setStatusCode(status);
         response.getHeaders().add("Content-Type", "application/json");
@@ -0,0 +1,37 @@
+package com.example.demo.filter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The gateway's route rules, bound from {@code gateway.authorization.*}. {@code open-paths} are
+ * matched exactly and need no token; a role in {@code role-prefixes} may call any path that
+ * starts with one of its prefixes. Compiled once into a {@link PathAuthorizationTable}.
+ */
+@ConfigurationProperties(prefix = "gateway.authorization")
+public class AuthorizationProperties {
+
+    private List<String> openPaths = new ArrayList<>();
+
+    private Map<String, List<String>> rolePrefixes = new LinkedHashMap<>();
+
+    public List<String> getOpenPaths() {
+        return openPaths;
+    }
+
+    public void setOpenPaths(List<String> openPaths) {
+        this.openPaths = openPaths;
+    }
+
+    public Map<String, List<String>> getRolePrefixes() {
+        return rolePrefixes;
+    }
+
+    public void setRolePrefixes(Map<String, List<String>> rolePrefixes) {
+        this.rolePrefixes = rolePrefixes;
+    }
+}
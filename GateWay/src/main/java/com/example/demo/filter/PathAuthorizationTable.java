@@ -0,0 +1,190 @@
+package com.example.demo.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The route rules compiled into a character trie. Every node carries the bitmask of roles whose
+ * prefix ends there, so a single walk over the path ORs together every role that may call it and
+ * notes whether the whole path is an open endpoint.
+ *
+ * Chains of characters with no rule ending in between are folded into one edge, so the walk takes
+ * a step per path segment or so and compares each edge with {@code startsWith}. A match is a
+ * {@code long}: bits 0-62 are roles, bit 63 marks an open path. Immutable once compiled, so it is
+ * safe to share between event-loop threads.
+ */
+public final class PathAuthorizationTable {
+
+    public static final int MAX_ROLES = 63;
+
+    private static final long OPEN = Long.MIN_VALUE;
+
+    // Only used while compiling; compress() folds it into edges
+    private static final class Node {
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private long prefixRoles;
+        private boolean open;
+
+        private Node child(char label) {
+            char[] keys = labels;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(char label) {
+            Node child = child(label);
+            if (child == null) {
+                int size = labels.length;
+                labels = Arrays.copyOf(labels, size + 1);
+                children = Arrays.copyOf(children, size + 1);
+                child = new Node();
+                labels[size] = label;
+                children[size] = child;
+            }
+            return child;
+        }
+    }
+
+    // Edges start with distinct characters; no rule ends inside an edge
+    private static final class Edge {
+
+        private final String label;
+        private final Edge[] children;
+        private final char[] firsts;
+        // Roles of this node and every shorter prefix, plus OPEN if a path ends exactly here
+        private final long match;
+
+        private Edge(String label, Edge[] children, long match) {
+            this.label = label;
+            this.children = children;
+            this.match = match;
+            this.firsts = new char[children.length];
+            for (int i = 0; i < children.length; i++) {
+                firsts[i] = children[i].label.charAt(0);
+            }
+        }
+    }
+
+    private final Map<String, Long> roleBits = new HashMap<>();
+    private Edge root;
+
+    private PathAuthorizationTable() {
+    }
+
+    /**
+     * @param openPaths paths that need no token, matched exactly
+     * @param rolePrefixes for each role, the path prefixes it may call; role names are case-insensitive
+     * @throws IllegalArgumentException if there are more than {@value #MAX_ROLES} roles
+     */
+    public static PathAuthorizationTable compile(Collection<String> openPaths, Map<String, List<String>> rolePrefixes) {
+        PathAuthorizationTable table = new PathAuthorizationTable();
+        Node root = new Node();
+        for (String path : openPaths) {
+            insert(root, path).open = true;
+        }
+        for (Map.Entry<String, List<String>> entry : rolePrefixes.entrySet()) {
+            String role = entry.getKey().trim().toUpperCase(Locale.ROOT);
+            Long bit = table.roleBits.get(role);
+            if (bit == null) {
+                if (table.roleBits.size() == MAX_ROLES) {
+                    throw new IllegalArgumentException("At most " + MAX_ROLES + " roles are supported");
+                }
+                bit = 1L << table.roleBits.size();
+                table.roleBits.put(role, bit);
+            }
+            for (String prefix : entry.getValue()) {
+                insert(root, prefix).prefixRoles |= bit;
+            }
+        }
+        table.root = compress(root, "", 0);
+        return table;
+    }
+
+    private static Node insert(Node root, String path) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrAddChild(path.charAt(i));
+        }
+        return node;
+    }
+
+    // Folds every chain of single-child, unmarked nodes into one edge
+    private static Edge compress(Node node, String label, long inherited) {
+        long roles = inherited | node.prefixRoles;
+        Edge[] children = new Edge[node.labels.length];
+        for (int i = 0; i < children.length; i++) {
+            StringBuilder childLabel = new StringBuilder().append(node.labels[i]);
+            Node child = node.children[i];
+            while (child.labels.length == 1 && child.prefixRoles == 0 && !child.open) {
+                childLabel.append(child.labels[0]);
+                child = child.children[0];
+            }
+            children[i] = compress(child, childLabel.toString(), roles);
+        }
+        return new Edge(label, children, node.open ? roles | OPEN : roles);
+    }
+
+    public long match(String path) {
+        Edge edge = root;
+        int position = 0;
+        while (position < path.length()) {
+            Edge next = null;
+            char c = path.charAt(position);
+            char[] firsts = edge.firsts;
+            for (int i = 0; i < firsts.length; i++) {
+                if (firsts[i] == c) {
+                    next = edge.children[i];
+                    break;
+                }
+            }
+            if (next == null || !path.startsWith(next.label, position)) {
+                // Went past the last rule node: only prefix grants apply, the path cannot be an open one
+                return edge.match & ~OPEN;
+            }
+            position += next.label.length();
+            edge = next;
+        }
+        return edge.match;
+    }
+
+    public static boolean isOpen(long match) {
+        return (match & OPEN) != 0;
+    }
+
+    public boolean isAuthorized(long match, String roles) {
+        return (match & ~OPEN & roleMask(roles)) != 0;
+    }
+
+    // Tokens carry roles joined with commas; unknown roles grant nothing
+    public long roleMask(String roles) {
+        if (roles == null) {
+            return 0;
+        }
+        Long single = roleBits.get(roles);
+        if (single != null) {
+            return single;
+        }
+        long mask = 0;
+        int start = 0;
+        while (start <= roles.length()) {
+            int comma = roles.indexOf(',', start);
+            int end = comma < 0 ? roles.length() : comma;
+            Long bit = roleBits.get(roles.substring(start, end).trim().toUpperCase(Locale.ROOT));
+            if (bit != null) {
+                mask |= bit;
+            }
+            start = end + 1;
+        }
+        return mask;
+    }
+}
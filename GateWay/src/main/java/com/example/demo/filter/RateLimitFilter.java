@@ -0,0 +1,145 @@
+package com.example.demo.filter;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.util.JwtUtil;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-route admission control, e.g. {@code filters[1]=RateLimitFilter=20,10} for bursts of 20
+ * requests refilled at 10 per second. Callers are told apart by the user id in their bearer token,
+ * or by their remote address when they have no valid token, as on the open endpoints. Requests
+ * over the limit get 429 with {@code Retry-After} in seconds.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    @Autowired
+    private JwtUtil util;
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int capacity;
+        private double refillPerSecond;
+        private long maxKeys = 100_000;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public long getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(long maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+
+    private record Settings(int capacity, double refillPerSecond, long maxKeys) {
+    }
+
+    private record RouteLimiter(Settings settings, TokenBucketRateLimiter limiter) {
+    }
+
+    // Routes are rebuilt on every refresh (e.g. discovery heartbeats); keep each route's buckets across them
+    private final ConcurrentMap<String, RouteLimiter> routeLimiters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("capacity", "refillPerSecond", "maxKeys");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Settings settings = new Settings(config.getCapacity(), config.getRefillPerSecond(), config.getMaxKeys());
+        // One set of buckets per route the filter is declared on, replaced only if the route's limits change
+        TokenBucketRateLimiter limiter = config.getRouteId() == null ? newLimiter(settings).limiter()
+                : routeLimiters.compute(config.getRouteId(), (routeId, existing) ->
+                        existing != null && existing.settings().equals(settings) ? existing : newLimiter(settings))
+                        .limiter();
+        return (exchange, chain) -> {
+            long waitNanos = limiter.tryAcquire(clientKey(exchange.getRequest()));
+            if (waitNanos > 0) {
+                return handleTooManyRequests(exchange.getResponse(), waitNanos);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    private static RouteLimiter newLimiter(Settings settings) {
+        return new RouteLimiter(settings, new TokenBucketRateLimiter(settings.capacity(), settings.refillPerSecond(),
+                settings.maxKeys()));
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Integer userId = util.verify(authHeader.substring(7)).userId();
+                if (userId != null) {
+                    return "user:" + userId;
+                }
+            } catch (Exception e) {
+                // Not a usable token; fall back to the address so it cannot dodge the limit
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString());
+    }
+
+    private Mono<Void> handleTooManyRequests(ServerHttpResponse response, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add("Content-Type", "application/json");
+        response.getHeaders().add(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        String responseBody = "{\"error\": \"Too many requests\"}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(responseBody.getBytes())));
+    }
+}
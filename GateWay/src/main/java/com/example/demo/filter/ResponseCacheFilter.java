@@ -0,0 +1,302 @@
+package com.example.demo.filter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Caches successful GET responses of the route's open endpoints (as {@link RouteValidator} knows
+ * them) for {@code ttlSeconds}, in a per-route cache bounded to {@code maxBytes} of bodies.
+ *
+ * Every 200 that fits in {@code maxEntryBytes} carries a strong {@code ETag}, and a request whose
+ * {@code If-None-Match} matches is answered 304 without a body. A larger body is held only up to
+ * that size and then streamed through untagged and uncached, so no response is buffered whole. On
+ * a miss only the first request goes upstream; concurrent requests for the same URI wait up to
+ * {@code coalesceTimeoutMillis} for its response and otherwise, or if it fails or is not a 200,
+ * make their own call.
+ *
+ * The filter runs ahead of the route's other filters, since it has to decorate the response before
+ * {@code NettyWriteResponseFilter} takes hold of it; cache hits are therefore answered without
+ * going through {@code RateLimitFilter}. Only open paths are cached, so authentication is unaffected.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final List<String> CACHED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE);
+
+    @Autowired
+    private RouteValidator validator;
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private long ttlSeconds = 5;
+        private long maxBytes = 32L * 1024 * 1024;
+        private int maxEntryBytes = 2 * 1024 * 1024;
+        private long coalesceTimeoutMillis = 5_000;
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getMaxEntryBytes() {
+            return maxEntryBytes;
+        }
+
+        public void setMaxEntryBytes(int maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+        }
+
+        public long getCoalesceTimeoutMillis() {
+            return coalesceTimeoutMillis;
+        }
+
+        public void setCoalesceTimeoutMillis(long coalesceTimeoutMillis) {
+            this.coalesceTimeoutMillis = coalesceTimeoutMillis;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, String etag) {
+    }
+
+    private record Settings(long ttlSeconds, long maxBytes, int maxEntryBytes, long coalesceTimeoutMillis) {
+    }
+
+    private record RouteCache(Settings settings, Cache<String, CachedResponse> cache,
+            ConcurrentMap<String, Mono<CachedResponse>> inFlight) {
+    }
+
+    // Routes are rebuilt on every refresh (e.g. discovery heartbeats); keep each route's cache across them
+    private final ConcurrentMap<String, RouteCache> routeCaches = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttlSeconds", "maxBytes");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getTtlSeconds() < 1 || config.getMaxBytes() < 1 || config.getMaxEntryBytes() < 1) {
+            throw new IllegalArgumentException("Response cache TTL and sizes must be positive");
+        }
+        Settings settings = new Settings(config.getTtlSeconds(), config.getMaxBytes(), config.getMaxEntryBytes(),
+                config.getCoalesceTimeoutMillis());
+        // One cache per route the filter is declared on, replaced only if the route's settings change
+        RouteCache routeCache = config.getRouteId() == null ? newRouteCache(settings)
+                : routeCaches.compute(config.getRouteId(), (routeId, existing) ->
+                        existing != null && existing.settings().equals(settings) ? existing : newRouteCache(settings));
+        Cache<String, CachedResponse> cache = routeCache.cache();
+        ConcurrentMap<String, Mono<CachedResponse>> inFlight = routeCache.inFlight();
+        Duration coalesceTimeout = Duration.ofMillis(config.getCoalesceTimeoutMillis());
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET
+                    || validator.isSecured(validator.match(request.getPath().toString()))) {
+                return chain.filter(exchange);
+            }
+            String key = request.getURI().getRawPath() + "?" + Optional.ofNullable(request.getURI().getRawQuery()).orElse("");
+
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Mono<CachedResponse> pending = sink.asMono();
+            Mono<CachedResponse> leader = inFlight.putIfAbsent(key, pending);
+            if (leader != null) {
+                // Someone is already fetching this URI; reuse their response, or go upstream if none comes
+                return leader.timeout(coalesceTimeout, Mono.empty())
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent() ? writeCached(exchange, response.get())
+                                : chain.filter(exchange));
+            }
+
+            Consumer<CachedResponse> onCached = response -> {
+                cache.put(key, response);
+                sink.tryEmitValue(response);
+            };
+            CachingResponse caching = new CachingResponse(exchange, config.getMaxEntryBytes(), onCached);
+            return chain.filter(exchange.mutate().response(caching).build())
+                    .doFinally(signal -> {
+                        inFlight.remove(key, pending);
+                        sink.tryEmitEmpty();
+                    });
+        };
+        // Must wrap the response before NettyWriteResponseFilter captures it, as ModifyResponseBody does
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static RouteCache newRouteCache(Settings settings) {
+        Cache<String, CachedResponse> cache = Caffeine.newBuilder()
+                .maximumWeight(settings.maxBytes())
+                .weigher((String key, CachedResponse response) -> response.body().length + key.length() * 2
+                        + ENTRY_OVERHEAD_BYTES)
+                .expireAfterWrite(Duration.ofSeconds(settings.ttlSeconds()))
+                .build();
+        return new RouteCache(settings, cache, new ConcurrentHashMap<>());
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        if (matchesETag(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        cached.headers().forEach((name, values) -> response.getHeaders().put(name, values));
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matchesETag(ServerHttpRequest request, String etag) {
+        for (String candidates : request.getHeaders().getOrEmpty(HttpHeaders.IF_NONE_MATCH)) {
+            for (String candidate : candidates.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.startsWith("W/")) {
+                    trimmed = trimmed.substring(2);
+                }
+                if (trimmed.equals("*") || trimmed.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Buffers the upstream body of a 200 so it can be tagged, answered with 304 if it matches, and cached;
+    // a body that outgrows maxEntryBytes is streamed through as it is, untagged and uncached
+    private static final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final int maxEntryBytes;
+        private final Consumer<CachedResponse> onCached;
+
+        private CachingResponse(ServerWebExchange exchange, int maxEntryBytes, Consumer<CachedResponse> onCached) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.maxEntryBytes = maxEntryBytes;
+            this.onCached = onCached;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            // The first batch holds the whole body if it fits, otherwise everything up to the buffer that
+            // overflowed; after an overflow every later buffer comes through on its own
+            AtomicLong seen = new AtomicLong();
+            Flux<List<DataBuffer>> batches = Flux.from(body)
+                    .map(DataBuffer.class::cast)
+                    .bufferUntil(buffer -> seen.addAndGet(buffer.readableByteCount()) > maxEntryBytes);
+            return batches.switchOnFirst((first, all) -> {
+                Flux<DataBuffer> buffers = all.concatMapIterable(batch -> batch);
+                if (seen.get() > maxEntryBytes) {
+                    return super.writeWith(buffers);
+                }
+                return buffers.collectList().flatMap(this::cacheAndWrite);
+            }).then();
+        }
+
+        private Mono<Void> cacheAndWrite(List<DataBuffer> buffers) {
+            byte[] bytes = new byte[buffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+            int offset = 0;
+            for (DataBuffer buffer : buffers) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+
+            String etag = etag(bytes);
+            getHeaders().setETag(etag);
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : CACHED_HEADERS) {
+                List<String> values = getHeaders().get(name);
+                if (values != null) {
+                    headers.put(name, List.copyOf(values));
+                }
+            }
+            onCached.accept(new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), bytes, etag));
+            if (matchesETag(exchange.getRequest(), etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+    }
+}
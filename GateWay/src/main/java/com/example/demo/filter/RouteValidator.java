@@ -1,20 +1,34 @@
 package com.example.demo.filter;
 
-import java.util.Arrays;
 import java.util.function.Predicate;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 
 @Component
+@EnableConfigurationProperties(AuthorizationProperties.class)
 public class RouteValidator {
 
-    public static final String[] OPEN_API_ENDPOINTS = { "/auth/register", "/auth/new", "/auth/validate", "/eureka" ,"/event/getAllEvents","/event/filterByLocation","/event/filterByCategory","/event/search"};
+    private final PathAuthorizationTable table;
 
-    public Predicate<ServerHttpRequest> isSecured = request -> {
-        String path = request.getPath().toString();
-        return Arrays.stream(OPEN_API_ENDPOINTS)
-                     .noneMatch(endpoint -> path.equals(endpoint)); // Match exact paths only
-    };
+    public Predicate<ServerHttpRequest> isSecured = request ->
+            !PathAuthorizationTable.isOpen(match(request.getPath().toString())); // Open paths match exactly
 
+    public RouteValidator(AuthorizationProperties properties) {
+        this.table = PathAuthorizationTable.compile(properties.getOpenPaths(), properties.getRolePrefixes());
+    }
+
+    // One walk over the path yields both whether it is open and which roles may call it
+    public long match(String path) {
+        return table.match(path);
+    }
+
+    public boolean isSecured(long match) {
+        return !PathAuthorizationTable.isOpen(match);
+    }
+
+    public boolean isAuthorized(long match, String roles) {
+        return table.isAuthorized(match, roles);
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.demo.filter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets for one route, one bucket per caller key, each allowing bursts of
+ * {@code capacity} requests refilled at {@code refillPerSecond}.
+ *
+ * A bucket is kept as a single {@code AtomicLong}, the time at which it will be full again (the
+ * generic cell rate algorithm), and updated with one CAS, so callers never lock. Buckets live in
+ * a Caffeine cache bounded by {@code maxKeys} and dropped once idle long enough to have refilled,
+ * so forgetting one loses nothing; a key evicted early by size pressure simply starts full again.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, long maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, long maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0 || maxKeys < 1) {
+            throw new IllegalArgumentException("Rate limit capacity, refill rate and key limit must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if a token was taken, otherwise how many nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long getTrackedKeyCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
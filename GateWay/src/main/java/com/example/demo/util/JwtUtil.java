@@ -1,47 +1,137 @@
 package com.example.demo.util;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
+/**
+ * Verifies bearer tokens for {@code AuthenticationFilter}. The signing key and parser are built
+ * once; a token that verified is remembered, keyed by its SHA-256 digest, until its {@code exp}
+ * (or {@code jwt.cache.max-ttl-seconds} if sooner), so repeat requests with the same token skip
+ * the HMAC check and claim parsing on the event loop. Failed tokens are never cached.
+ */
 @Service
 public class JwtUtil {
 
     public static final String SECRET = "d3780ec3d1cfaba271e0538d4fae686d8367e10155ee424691fbf191eabec53d";
 
+    // What the gateway needs from a verified token
+    public record VerifiedToken(String roles, Integer userId, long expiresAtMillis) {
+    }
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtParser parser;
+    private final long maxTtlMillis;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.cache.max-size:10000}") long maxSize,
+            @Value("${jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        Key signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        this.maxTtlMillis = TimeUnit.SECONDS.toMillis(maxTtlSeconds);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long remainingMillis = token.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public void validateToken(final String token) {
-        Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token);
+        verify(token);
     }
 
     public String extractRolesFromToken(final String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token).getBody();
-        System.out.println("Step2: " + claims);
+        return verify(token).roles();
+    }
+
+    /**
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     * @throws IllegalArgumentException if the token carries no usable roles claim
+     */
+    public VerifiedToken verify(final String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        // The cache may hold an entry for a moment past its expiry; never accept an expired token
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+        VerifiedToken verified = parse(token);
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    public long getCachedTokenCount() {
+        verifiedTokens.cleanUp();
+        return verifiedTokens.estimatedSize();
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
         // Safely extract roles from the claims
+        String roles;
         Object rolesClaim = claims.get("roles");
         if (rolesClaim instanceof List) {
             @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) rolesClaim;
-            System.out.println("Step3: " + roles);
-            // Return the first role or concatenate roles as needed
-            return String.join(",", roles);
+            List<String> roleList = (List<String>) rolesClaim;
+            roles = String.join(",", roleList);
         } else if (rolesClaim instanceof String) {
-            System.out.println("Step3: " + rolesClaim);
-            return (String) rolesClaim;
+            roles = (String) rolesClaim;
         } else {
             throw new IllegalArgumentException("Invalid roles format in token");
         }
+
+        Object userIdClaim = claims.get("userid");
+        Integer userId = userIdClaim instanceof Number ? ((Number) userIdClaim).intValue() : null;
+
+        long cacheUntil = System.currentTimeMillis() + maxTtlMillis;
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration == null ? cacheUntil : Math.min(expiration.getTime(), cacheUntil);
+        return new VerifiedToken(roles, userId, expiresAt);
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
 }
-
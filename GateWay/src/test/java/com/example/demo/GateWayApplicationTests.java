@@ -1,14 +1,550 @@
 package com.example.demo;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.demo.controller.FallbackController;
+import com.example.demo.filter.PathAuthorizationTable;
+import com.example.demo.filter.RateLimitFilter;
+import com.example.demo.filter.ResponseCacheFilter;
+import com.example.demo.filter.RouteValidator;
+import com.example.demo.filter.TokenBucketRateLimiter;
+import com.example.demo.util.JwtUtil;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @SpringBootTest
 class GateWayApplicationTests {
 
+	// Stands in for EVENTSERVICE behind the real route, found through the simple discovery client
+	private static final AtomicInteger eventServiceCalls = new AtomicInteger();
+	private static final HttpServer eventService = startEventService();
+
+	@DynamicPropertySource
+	static void eventServiceInstance(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances.EVENTSERVICE[0].uri",
+				() -> "http://localhost:" + eventService.getAddress().getPort());
+	}
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private RouteValidator routeValidator;
+
+	@Autowired
+	private RateLimitFilter rateLimitFilter;
+
+	@Autowired
+	private ResponseCacheFilter responseCacheFilter;
+
+	@Autowired
+	private FallbackController fallbackController;
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 		// Test is successful if application context loads without errors
 	}
 
+	@Test
+	void testVerifyCachesVerifiedToken() {
+		String token = token("ORGANIZER", 42, 3_600_000);
+
+		JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+		JwtUtil.VerifiedToken second = jwtUtil.verify(token);
+
+		assertEquals("ORGANIZER", first.roles());
+		assertEquals(42, first.userId());
+		assertSame(first, second);
+		assertEquals("ORGANIZER", jwtUtil.extractRolesFromToken(token));
+	}
+
+	@Test
+	void testVerifyRejectsBadSignatureAndDoesNotCacheIt() {
+		String token = Jwts.builder()
+				.setClaims(Map.of("roles", "ADMIN", "userid", 1))
+				.setSubject("mallory")
+				.setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+				.signWith(Keys.hmacShaKeyFor(new byte[32]), SignatureAlgorithm.HS256)
+				.compact();
+		long cached = jwtUtil.getCachedTokenCount();
+
+		assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+		assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+		assertEquals(cached, jwtUtil.getCachedTokenCount());
+	}
+
+	@Test
+	void testVerifyRejectsExpiredToken() {
+		String token = token("USER", 7, -1_000);
+
+		assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+	}
+
+	@Test
+	void testCachedTokenIsRejectedOnceExpired() throws InterruptedException {
+		JwtUtil shortLived = new JwtUtil(100, 300);
+		String token = token("USER", 7, 1_500);
+
+		assertEquals("USER", shortLived.verify(token).roles());
+		Thread.sleep(1_600);
+
+		assertThrows(ExpiredJwtException.class, () -> shortLived.verify(token));
+	}
+
+	// The rules as they were hard-coded in RouteValidator and AuthenticationFilter before they moved to configuration
+	private static final String[] LEGACY_OPEN_ENDPOINTS = { "/auth/register", "/auth/new", "/auth/validate", "/eureka",
+			"/event/getAllEvents", "/event/filterByLocation", "/event/filterByCategory", "/event/search" };
+	private static final String[] LEGACY_ADMIN = { "/user", "/event", "/ticket", "/feedback", "/notification" };
+	private static final String[] LEGACY_ORGANIZER = { "/user/update", "/user/getUserById", "/event/create",
+			"/event/update", "/event/delete", "/event/getEventById", "/event/organizer", "/feedback/getByFeedbackId",
+			"/feedback/getAllFeedbacksByUser", "/feedback/getAllFeedbacksByEvent", "/feedback/getAverageRatingByEvent",
+			"/notification/getAllNotificationsByEventId", "/ticket/getTicketByEventId" };
+	private static final String[] LEGACY_USER = { "/user/update", "/user/getUserById", "/event/getEventById",
+			"/ticket/book", "/ticket/cancel", "/ticket/getTicketById", "/ticket/getTicketByUserId",
+			"/event/filterByLocation", "/event/getTicketByUserId", "/feedback/save", "/feedback/update",
+			"/feedback/delete", "/feedback/getByFeedbackId", "/feedback/getAllFeedbacksByUser",
+			"/feedback/getAllFeedbacksByEvent", "/feedback/getAverageRatingByEvent",
+			"/notification/getAllNotificationsByUserId", "/pay/createOrder" };
+	// Prefixes granted since the rules moved to configuration: the route table must match the legacy rules plus these
+	private static final String[] ADDED_OPEN_ENDPOINTS = { "/event/getAllEventsPaged" };
+	private static final String[] ADDED_ORGANIZER = { "/ticket/export" };
+	private static final String[] ADDED_USER = { "/ticket/hold" };
+	private static final String[] SINGLE_ROLES = { "ADMIN", "admin", "ORGANIZER", "Organizer", "USER", "user", "GUEST", "" };
+
+	private static boolean legacyIsSecured(String path) {
+		return Stream.concat(Arrays.stream(LEGACY_OPEN_ENDPOINTS), Arrays.stream(ADDED_OPEN_ENDPOINTS)).noneMatch(path::equals);
+	}
+
+	private static boolean expectedIsAuthorized(String role, String path) {
+		String[] prefixes;
+		if ("ADMIN".equalsIgnoreCase(role)) {
+			prefixes = LEGACY_ADMIN;
+		} else if ("ORGANIZER".equalsIgnoreCase(role)) {
+			prefixes = Stream.concat(Arrays.stream(LEGACY_ORGANIZER), Arrays.stream(ADDED_ORGANIZER)).toArray(String[]::new);
+		} else if ("USER".equalsIgnoreCase(role)) {
+			prefixes = Stream.concat(Arrays.stream(LEGACY_USER), Arrays.stream(ADDED_USER)).toArray(String[]::new);
+		} else {
+			return false;
+		}
+		return Arrays.stream(prefixes).anyMatch(path::startsWith);
+	}
+
+	// Every prefix of every rule, each with a few continuations, plus random noise
+	private static List<String> equivalencePaths() {
+		Set<String> rules = new LinkedHashSet<>();
+		for (String[] group : List.of(LEGACY_OPEN_ENDPOINTS, ADDED_OPEN_ENDPOINTS, LEGACY_ADMIN, LEGACY_ORGANIZER, ADDED_ORGANIZER, LEGACY_USER, ADDED_USER)) {
+			rules.addAll(Arrays.asList(group));
+		}
+		Set<String> paths = new LinkedHashSet<>();
+		String[] continuations = { "", "/", "/42", "s", "Paged", "X", "?x=1" };
+		for (String rule : rules) {
+			for (int length = 0; length <= rule.length(); length++) {
+				String stem = rule.substring(0, length);
+				for (String continuation : continuations) {
+					paths.add(stem + continuation);
+					paths.add((stem + continuation).toUpperCase());
+					paths.add((stem + continuation).toLowerCase());
+				}
+			}
+		}
+		SplittableRandom random = new SplittableRandom(11);
+		List<String> ruleList = new ArrayList<>(rules);
+		String alphabet = "/abcdeUTXy1-_";
+		for (int i = 0; i < 5_000; i++) {
+			StringBuilder path = new StringBuilder(ruleList.get(random.nextInt(ruleList.size())));
+			path.setLength(random.nextInt(path.length() + 1));
+			for (int extra = random.nextInt(6); extra > 0; extra--) {
+				path.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			paths.add(path.toString());
+		}
+		return new ArrayList<>(paths);
+	}
+
+	@Test
+	void testRouteRulesMatchLegacyRulesForEverySingleRole() {
+		List<String> paths = equivalencePaths();
+
+		for (String path : paths) {
+			long match = routeValidator.match(path);
+			assertEquals(legacyIsSecured(path), routeValidator.isSecured(match), path);
+			for (String role : SINGLE_ROLES) {
+				assertEquals(expectedIsAuthorized(role, path), routeValidator.isAuthorized(match, role), role + " " + path);
+			}
+		}
+	}
+
+	@Test
+	void testOrganizerMayExportTicketsButUserMayNot() {
+		long match = routeValidator.match("/ticket/export/7");
+
+		assertTrue(routeValidator.isSecured(match));
+		assertTrue(routeValidator.isAuthorized(match, "ORGANIZER"));
+		assertTrue(routeValidator.isAuthorized(match, "ADMIN"));
+		assertFalse(routeValidator.isAuthorized(match, "USER"));
+	}
+
+	@Test
+	void testUserMayCreateConfirmAndReleaseHolds() {
+		for (String path : List.of("/ticket/hold", "/ticket/hold/4f1c", "/ticket/hold/4f1c/confirm")) {
+			long match = routeValidator.match(path);
+
+			assertTrue(routeValidator.isSecured(match), path);
+			assertTrue(routeValidator.isAuthorized(match, "USER"), path);
+			assertTrue(routeValidator.isAuthorized(match, "ADMIN"), path);
+			assertFalse(routeValidator.isAuthorized(match, "ORGANIZER"), path);
+		}
+	}
+
+	@Test
+	void testMultiRoleTokenIsAuthorizedIfAnyRoleIs() {
+		String[] roleSets = { "USER,ORGANIZER", "ORGANIZER, USER", "user,GUEST", "GUEST,ADMIN", "GUEST,", ",", "USER,ORGANIZER,ADMIN" };
+
+		for (String path : equivalencePaths()) {
+			long match = routeValidator.match(path);
+			for (String roles : roleSets) {
+				boolean expected = Arrays.stream(roles.split(",")).map(String::trim)
+						.anyMatch(role -> expectedIsAuthorized(role, path));
+				assertEquals(expected, routeValidator.isAuthorized(match, roles), roles + " " + path);
+			}
+		}
+	}
+
+	@Test
+	void testRouteTableWithoutRulesSecuresEverythingAndAuthorizesNothing() {
+		PathAuthorizationTable table = PathAuthorizationTable.compile(List.of(), Map.of());
+		long match = table.match("/event/getAllEvents");
+
+		assertFalse(PathAuthorizationTable.isOpen(match));
+		assertFalse(table.isAuthorized(match, "ADMIN"));
+		assertFalse(table.isAuthorized(match, null));
+	}
+
+	@Test
+	void testRateLimiterAllowsBurstThenRefills() {
+		AtomicLong clock = new AtomicLong(1_000);
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 2, 100, clock::get);
+
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("user:1"));
+		assertEquals(0, limiter.tryAcquire("user:2"));
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("user:1"));
+
+		// A long idle spell refills the bucket to its capacity and no further
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertEquals(0, limiter.tryAcquire("user:1"));
+		assertFalse(limiter.tryAcquire("user:1") == 0);
+	}
+
+	@Test
+	void testRateLimiterBoundsTrackedKeys() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100);
+
+		for (int i = 0; i < 1_000; i++) {
+			limiter.tryAcquire("ip:10.0.0." + i);
+		}
+
+		assertFalse(limiter.getTrackedKeyCount() > 100);
+	}
+
+	@Test
+	void testRateLimitFilterKeepsBucketsWhenRouteIsRebuilt() {
+		RateLimitFilter.Config config = new RateLimitFilter.Config();
+		config.setRouteId("rebuilt-route");
+		config.setCapacity(1);
+		config.setRefillPerSecond(0.1);
+		String userToken = token("USER", 11, 3_600_000);
+
+		MockServerWebExchange first = bearerExchange(userToken);
+		rateLimitFilter.apply(config).filter(first, exchange -> Mono.empty()).block();
+		// A route refresh applies the same config again; the spent bucket must carry over
+		MockServerWebExchange second = bearerExchange(userToken);
+		rateLimitFilter.apply(config).filter(second, exchange -> Mono.empty()).block();
+
+		assertNull(first.getResponse().getStatusCode());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+	}
+
+	@Test
+	void testRateLimitFilterKeysOnUserIdAndReturns429WithRetryAfter() {
+		RateLimitFilter.Config config = new RateLimitFilter.Config();
+		config.setCapacity(2);
+		config.setRefillPerSecond(0.1);
+		GatewayFilter filter = rateLimitFilter.apply(config);
+		AtomicInteger forwarded = new AtomicInteger();
+		String firstToken = token("USER", 5, 3_600_000);
+		// A second token for the same user shares the bucket
+		String secondToken = token("USER", 5, 7_200_000);
+
+		MockServerWebExchange first = bearerExchange(firstToken);
+		filter.filter(first, exchange -> Mono.fromRunnable(forwarded::incrementAndGet)).block();
+		MockServerWebExchange second = bearerExchange(secondToken);
+		filter.filter(second, exchange -> Mono.fromRunnable(forwarded::incrementAndGet)).block();
+		MockServerWebExchange third = bearerExchange(firstToken);
+		filter.filter(third, exchange -> Mono.fromRunnable(forwarded::incrementAndGet)).block();
+		MockServerWebExchange otherUser = bearerExchange(token("USER", 6, 3_600_000));
+		filter.filter(otherUser, exchange -> Mono.fromRunnable(forwarded::incrementAndGet)).block();
+
+		assertEquals(3, forwarded.get());
+		assertNull(first.getResponse().getStatusCode());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, third.getResponse().getStatusCode());
+		assertEquals("10", third.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertNull(otherUser.getResponse().getStatusCode());
+	}
+
+	private static MockServerWebExchange bearerExchange(String token) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("/ticket/book")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+	}
+
+	@Test
+	void testResponseCacheCoalescesConcurrentMissesIntoOneUpstreamCall() {
+		GatewayFilter filter = responseCacheFilter.apply(new ResponseCacheFilter.Config());
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		List<MockServerWebExchange> exchanges = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			exchanges.add(MockServerWebExchange.from(MockServerHttpRequest.get("/event/getAllEvents")));
+		}
+
+		Flux.fromIterable(exchanges)
+				.flatMap(exchange -> filter.filter(exchange, upstream(upstreamCalls, "[{\"eventId\":1}]", Duration.ofMillis(200))))
+				.blockLast();
+
+		assertEquals(1, upstreamCalls.get());
+		for (MockServerWebExchange exchange : exchanges) {
+			assertEquals("[{\"eventId\":1}]", exchange.getResponse().getBodyAsString().block());
+			assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+		}
+		String etag = exchanges.get(0).getResponse().getHeaders().getETag();
+		assertEquals(etag, exchanges.get(9).getResponse().getHeaders().getETag());
+	}
+
+	@Test
+	void testResponseCacheAnswersMatchingIfNoneMatchWith304() {
+		GatewayFilter filter = responseCacheFilter.apply(new ResponseCacheFilter.Config());
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/event/search?keyword=jazz"));
+		filter.filter(first, upstream(upstreamCalls, "[3]", Duration.ZERO)).block();
+		String etag = first.getResponse().getHeaders().getETag();
+
+		MockServerWebExchange revalidated = MockServerWebExchange.from(MockServerHttpRequest.get("/event/search?keyword=jazz")
+				.header(HttpHeaders.IF_NONE_MATCH, etag));
+		filter.filter(revalidated, upstream(upstreamCalls, "[3]", Duration.ZERO)).block();
+		MockServerWebExchange otherQuery = MockServerWebExchange.from(MockServerHttpRequest.get("/event/search?keyword=rock"));
+		filter.filter(otherQuery, upstream(upstreamCalls, "[4]", Duration.ZERO)).block();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+		assertEquals(etag, revalidated.getResponse().getHeaders().getETag());
+		assertEquals("[4]", otherQuery.getResponse().getBodyAsString().block());
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void testResponseCacheStreamsBodiesOverEntryLimitUncached() {
+		ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+		config.setMaxEntryBytes(16);
+		GatewayFilter filter = responseCacheFilter.apply(config);
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		GatewayFilterChain chunkedUpstream = exchange -> {
+			upstreamCalls.incrementAndGet();
+			exchange.getResponse().setStatusCode(HttpStatus.OK);
+			return exchange.getResponse().writeWith(Flux.just("[{\"id\":1},", "{\"id\":2},", "{\"id\":3}]")
+					.map(chunk -> exchange.getResponse().bufferFactory().wrap(chunk.getBytes())));
+		};
+
+		for (int i = 0; i < 2; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/event/getAllEvents?size=3"));
+			filter.filter(exchange, chunkedUpstream).block();
+			assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", exchange.getResponse().getBodyAsString().block());
+			assertNull(exchange.getResponse().getHeaders().getETag());
+		}
+
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void testResponseCacheServesPagedCatalogPerCursor() {
+		GatewayFilter filter = responseCacheFilter.apply(new ResponseCacheFilter.Config());
+		AtomicInteger upstreamCalls = new AtomicInteger();
+
+		for (String uri : List.of("/event/getAllEventsPaged?limit=20", "/event/getAllEventsPaged?limit=20",
+				"/event/getAllEventsPaged?cursor=MjA&limit=20")) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+			filter.filter(exchange, upstream(upstreamCalls, "{\"items\":[]}", Duration.ZERO)).block();
+			assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+		}
+
+		assertFalse(routeValidator.isSecured(routeValidator.match("/event/getAllEventsPaged")));
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void testResponseCacheSkipsSecuredPaths() {
+		GatewayFilter filter = responseCacheFilter.apply(new ResponseCacheFilter.Config());
+		AtomicInteger upstreamCalls = new AtomicInteger();
+
+		for (int i = 0; i < 3; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/event/getEventById/1"));
+			filter.filter(exchange, upstream(upstreamCalls, "{}", Duration.ZERO)).block();
+		}
+
+		assertEquals(3, upstreamCalls.get());
+	}
+
+	@Test
+	void testOpenCircuitBreakerAnswersFromFallbackWithoutCallingTheService() {
+		CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("EVENTSERVICE");
+		breaker.transitionToOpenState();
+		try {
+			WebTestClient.bindToApplicationContext(context).build()
+					.get().uri("/event/getAllEvents")
+					.exchange()
+					.expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+					.expectBody().json("{\"error\": \"EVENTSERVICE is unavailable\"}");
+
+			assertEquals(1, breaker.getMetrics().getNumberOfNotPermittedCalls());
+		} finally {
+			breaker.reset();
+		}
+	}
+
+	@Test
+	void testFallbackReportsTimeoutAs504() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/fallback/TICKETSERVICE"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR,
+				new TimeoutException("Did not observe any item or terminal signal within 10000ms"));
+
+		ResponseEntity<String> response = fallbackController.fallback("TICKETSERVICE", exchange).block();
+
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+		assertEquals("{\"error\": \"TICKETSERVICE timed out\"}", response.getBody());
+	}
+
+	@Test
+	void testResponseCacheServesRoutedRequestsFromCache() {
+		WebTestClient client = WebTestClient.bindToApplicationContext(context).build();
+		int before = eventServiceCalls.get();
+
+		String etag = client.get().uri("/event/filterByCategory?category=jazz")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).isEqualTo("[{\"eventId\":7}]")
+				.returnResult().getResponseHeaders().getETag();
+		client.get().uri("/event/filterByCategory?category=jazz")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+				.expectBody(String.class).isEqualTo("[{\"eventId\":7}]");
+		client.get().uri("/event/filterByCategory?category=jazz")
+				.header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange()
+				.expectStatus().isNotModified();
+
+		assertEquals(before + 1, eventServiceCalls.get());
+	}
+
+	// Stands in for the proxied service: counts the call, then writes a JSON 200 after the delay
+	private static GatewayFilterChain upstream(AtomicInteger calls, String body,
+			Duration delay) {
+		return exchange -> Mono.delay(delay).then(Mono.defer(() -> {
+			calls.incrementAndGet();
+			exchange.getResponse().setStatusCode(HttpStatus.OK);
+			exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+					.wrap(body.getBytes())));
+		}));
+	}
+
+	private static HttpServer startEventService() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/event", exchange -> {
+				eventServiceCalls.incrementAndGet();
+				byte[] body = "[{\"eventId\":7}]".getBytes();
+				exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+				exchange.sendResponseHeaders(200, body.length);
+				exchange.getResponseBody().write(body);
+				exchange.close();
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String token(String roles, int userId, long expiresInMillis) {
+		return Jwts.builder()
+				.setClaims(Map.of("roles", roles, "userid", userId))
+				.setSubject("user" + userId)
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtUtil.SECRET)), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
 }
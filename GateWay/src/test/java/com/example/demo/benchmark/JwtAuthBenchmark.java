@@ -0,0 +1,138 @@
+package com.example.demo.benchmark;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request cost of getting the roles out of a bearer token, as {@code AuthenticationFilter}
+ * does, before and after the verified-token cache.
+ *
+ * {@code legacy} is the old {@code extractRolesFromToken}: decode the secret, build the key and
+ * parser, verify and parse on every request. {@code cached} goes through {@link JwtUtil#verify}.
+ * {@code reuse} is the chance that a request carries a token seen before; the rest are tokens the
+ * gateway has never verified, as after a login or a restart. Not run by the build; start
+ * {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final int ACTIVE_TOKENS = 1_000;
+    private static final int FRESH_TOKENS = 100_000;
+    private static final String[] ROLES = { "USER", "ORGANIZER", "ADMIN" };
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        @Param({ "0.0", "0.9", "0.99" })
+        double reuse;
+
+        String[] active;
+        String[] fresh;
+        JwtUtil jwtUtil;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtUtil.SECRET));
+            active = new String[ACTIVE_TOKENS];
+            for (int i = 0; i < ACTIVE_TOKENS; i++) {
+                active[i] = token(key, i);
+            }
+            fresh = new String[FRESH_TOKENS];
+            for (int i = 0; i < FRESH_TOKENS; i++) {
+                fresh[i] = token(key, ACTIVE_TOKENS + i);
+            }
+            jwtUtil = new JwtUtil(10_000, 300);
+            for (String token : active) {
+                jwtUtil.verify(token);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        SplittableRandom random = new SplittableRandom(7);
+        int nextFresh;
+
+        String next(Tokens tokens) {
+            if (random.nextDouble() < tokens.reuse) {
+                return tokens.active[random.nextInt(ACTIVE_TOKENS)];
+            }
+            // Cycle through more tokens than the cache holds so these always miss
+            nextFresh = (nextFresh + 1) % FRESH_TOKENS;
+            return tokens.fresh[nextFresh];
+        }
+    }
+
+    @Benchmark
+    public String legacy(Tokens tokens, Requests requests) {
+        return legacyExtractRoles(requests.next(tokens));
+    }
+
+    @Benchmark
+    public String cached(Tokens tokens, Requests requests) {
+        return tokens.jwtUtil.extractRolesFromToken(requests.next(tokens));
+    }
+
+    private static String legacyExtractRoles(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtUtil.SECRET));
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        Object rolesClaim = claims.get("roles");
+        if (rolesClaim instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<String> roleList = (List<String>) rolesClaim;
+            return String.join(",", roleList);
+        }
+        return (String) rolesClaim;
+    }
+
+    private static String token(Key key, int userId) {
+        return Jwts.builder()
+                .setClaims(Map.of("roles", ROLES[userId % ROLES.length], "userid", userId))
+                .setSubject("user" + userId)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.filter.PathAuthorizationTable;
+
+/**
+ * The route check {@code AuthenticationFilter} makes on every request: is the path open, and
+ * may the token's role call it. {@code legacy} is the old {@code OPEN_API_ENDPOINTS} stream
+ * followed by the per-role {@code startsWith} chain; {@code table} is one walk of the compiled
+ * {@link PathAuthorizationTable}. Requests are a mix of real paths across all three roles.
+ * Not run by the build; start {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PathAuthorizationBenchmark {
+
+    private static final String[] OPEN = { "/auth/register", "/auth/new", "/auth/validate", "/eureka",
+            "/event/getAllEvents", "/event/filterByLocation", "/event/filterByCategory", "/event/search" };
+    private static final List<String> ADMIN = List.of("/user", "/event", "/ticket", "/feedback", "/notification");
+    private static final List<String> ORGANIZER = List.of("/user/update", "/user/getUserById", "/event/create",
+            "/event/update", "/event/delete", "/event/getEventById", "/event/organizer", "/feedback/getByFeedbackId",
+            "/feedback/getAllFeedbacksByUser", "/feedback/getAllFeedbacksByEvent", "/feedback/getAverageRatingByEvent",
+            "/notification/getAllNotificationsByEventId", "/ticket/getTicketByEventId");
+    private static final List<String> USER = List.of("/user/update", "/user/getUserById", "/event/getEventById",
+            "/ticket/book", "/ticket/cancel", "/ticket/getTicketById", "/ticket/getTicketByUserId",
+            "/event/filterByLocation", "/event/getTicketByUserId", "/feedback/save", "/feedback/update",
+            "/feedback/delete", "/feedback/getByFeedbackId", "/feedback/getAllFeedbacksByUser",
+            "/feedback/getAllFeedbacksByEvent", "/feedback/getAverageRatingByEvent",
+            "/notification/getAllNotificationsByUserId", "/pay/createOrder");
+
+    private static final String[] PATHS = { "/ticket/getTicketByUserId/17", "/event/getEventById/3",
+            "/feedback/getAllFeedbacksByEvent/3", "/notification/getAllNotificationsByUserId",
+            "/event/getAllEvents", "/ticket/book", "/user/getUserById/17", "/pay/createOrder",
+            "/event/update/3", "/ticket/export/3", "/feedback/getAverageRatingByEvent/3", "/event/search" };
+    private static final String[] ROLES = { "USER", "USER", "USER", "ORGANIZER", "ADMIN" };
+
+    @State(Scope.Benchmark)
+    public static class Rules {
+
+        PathAuthorizationTable table = PathAuthorizationTable.compile(Arrays.asList(OPEN),
+                Map.of("ADMIN", ADMIN, "ORGANIZER", ORGANIZER, "USER", USER));
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        SplittableRandom random = new SplittableRandom(7);
+
+        String path() {
+            return PATHS[random.nextInt(PATHS.length)];
+        }
+
+        String role() {
+            return ROLES[random.nextInt(ROLES.length)];
+        }
+    }
+
+    @Benchmark
+    public boolean legacy(Requests requests) {
+        String path = requests.path();
+        String role = requests.role();
+        if (Arrays.stream(OPEN).noneMatch(path::equals)) {
+            return legacyIsAuthorized(role, path);
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean table(Rules rules, Requests requests) {
+        String path = requests.path();
+        String role = requests.role();
+        long match = rules.table.match(path);
+        return PathAuthorizationTable.isOpen(match) || rules.table.isAuthorized(match, role);
+    }
+
+    // The chain as AuthenticationFilter had it, including its evaluation order
+    private static boolean legacyIsAuthorized(String role, String path) {
+        if ("ADMIN".equalsIgnoreCase(role)) {
+            return path.startsWith("/user") || path.startsWith("/event")
+                    || path.startsWith("/ticket") || path.startsWith("/feedback")
+                    || path.startsWith("/notification");
+        } else if ("ORGANIZER".equalsIgnoreCase(role)) {
+            return path.startsWith("/user/update") || path.startsWith("/user/getUserById")
+                    || path.startsWith("/event/create") || path.startsWith("/event/update")
+                    || path.startsWith("/event/delete") || path.startsWith("/event/getEventById")
+                    || path.startsWith("/event/organizer")
+                    || path.startsWith("/feedback/getByFeedbackId") || path.startsWith("/feedback/getAllFeedbacksByUser")
+                    || path.startsWith("/feedback/getAllFeedbacksByEvent") || path.startsWith("/feedback/getAverageRatingByEvent")
+                    || path.startsWith("/notification/getAllNotificationsByEventId")
+                    || path.startsWith("/ticket/getTicketByEventId");
+        } else if ("USER".equalsIgnoreCase(role)) {
+            return path.startsWith("/user/update") || path.startsWith("/user/getUserById")
+                    || path.startsWith("/event/getEventById")
+                    || path.startsWith("/ticket/book") || path.startsWith("/ticket/cancel")
+                    || path.startsWith("/ticket/getTicketById") || path.startsWith("/ticket/getTicketByUserId")
+                    || path.startsWith("/event/filterByLocation")
+                    || path.startsWith("/event/getTicketByUserId") || path.startsWith("/ticket/cancel")
+                    || path.startsWith("/feedback/save") || path.startsWith("/feedback/update")
+                    || path.startsWith("/feedback/delete") || path.startsWith("/feedback/getByFeedbackId")
+                    || path.startsWith("/feedback/getAllFeedbacksByUser") || path.startsWith("/feedback/getAllFeedbacksByEvent")
+                    || path.startsWith("/feedback/getAverageRatingByEvent")
+                    || path.startsWith("/notification/getAllNotificationsByUserId")
+                    || path.startsWith("/pay/createOrder");
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PathAuthorizationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,23 +1,31 @@
 package com.example.demo.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EmailDispatchStats;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.NotificationNotFoundException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.Notification;
+import com.example.demo.service.EmailDispatcher;
 import com.example.demo.service.NotificationService;
+import com.example.demo.service.RemainderScheduler;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -28,6 +36,8 @@ import lombok.AllArgsConstructor;
 public class NotificationController {
 
     private NotificationService service;
+    private RemainderScheduler reminderScheduler;
+    private EmailDispatcher emailDispatcher;
 
     @PostMapping("/sendNotification")
     public ResponseEntity<String> sendNotification(@RequestBody @Valid Notification notificationRequest) {
@@ -52,6 +62,18 @@ public class NotificationController {
         List<Notification> notifications = service.getAllNotificationsByUserId(userId);
         return ResponseEntity.ok(notifications);
     }
+
+    // Pass the returned nextCursor back to get the following page
+    @GetMapping("/getAllNotificationsByUserIdPaged")
+    public ResponseEntity<CursorPage<Notification>> getAllNotificationsByUserIdPaged(@RequestParam(name = "userId") int userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User ID must be greater than 0.");
+        }
+
+        return ResponseEntity.ok(service.getAllNotificationsByUserIdPaged(userId, cursor, limit));
+    }
     
     // Added missing endpoint to get notifications by event
     @GetMapping("/getAllNotificationsByEventId")
@@ -75,6 +97,36 @@ public class NotificationController {
         return ResponseEntity.ok(notification);
     }
 
+    // Called by EventService when an event is created or its date changes
+    @PutMapping("/reminders/events/{eventId}")
+    public ResponseEntity<String> rescheduleReminders(@PathVariable("eventId") int eventId,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
+        reminderScheduler.rescheduleEvent(eventId, date);
+        return ResponseEntity.ok("Reminders scheduled for event ID: " + eventId);
+    }
+    
+    // Called by EventService when an event is deleted
+    @DeleteMapping("/reminders/events/{eventId}")
+    public ResponseEntity<String> cancelReminders(@PathVariable("eventId") int eventId) {
+        reminderScheduler.cancelEvent(eventId);
+        return ResponseEntity.ok("Reminders cancelled for event ID: " + eventId);
+    }
+
+    @GetMapping("/email/stats")
+    public ResponseEntity<EmailDispatchStats> getEmailStats() {
+        return ResponseEntity.ok(emailDispatcher.getStats());
+    }
+    
+    // Re-queues dead-lettered emails, oldest first
+    @PostMapping("/email/deadLetters/redrive")
+    public ResponseEntity<String> redriveDeadLetters(@RequestParam(name = "limit", defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > 1000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 1000.");
+        }
+        int redriven = emailDispatcher.redriveDeadLetters(limit);
+        return ResponseEntity.ok("Redrove " + redriven + " dead-lettered emails");
+    }
+
     // Exception handlers to properly handle service exceptions
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
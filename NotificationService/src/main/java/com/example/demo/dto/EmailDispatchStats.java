@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailDispatchStats {
+
+    private int queued;
+    private int queueCapacity;
+    private int workers;
+    private long sent;
+    private long retried;
+    private long throttled;
+    private long deadLettered;
+    private long connectionsOpened;
+}
@@ -0,0 +1,59 @@
+package com.example.demo.feignclient;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Event;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * EventClient used by the services: concurrent getEventById calls are merged into
+ * getEventsByIds requests. A window of 0 turns coalescing off.
+ */
+@Component
+@Primary
+public class CoalescingEventClient implements EventClient {
+
+    private final EventClient delegate;
+    private final LookupCoalescer<Event> coalescer;
+
+    public CoalescingEventClient(@Qualifier("eventFeignClient") EventClient delegate,
+            @Value("${lookup.coalesce.window-ms:2}") long windowMs,
+            @Value("${lookup.coalesce.max-batch:100}") int maxBatch,
+            @Value("${lookup.coalesce.threads:4}") int threads) {
+        this.delegate = delegate;
+        this.coalescer = windowMs > 0
+                ? new LookupCoalescer<>("events", ids -> delegate.getEventsByIds(ids), windowMs, maxBatch, threads)
+                : null;
+    }
+
+    @Override
+    public Event getEventById(int eventId) {
+        return coalescer == null ? delegate.getEventById(eventId) : coalescer.get(eventId);
+    }
+
+    @Override
+    public Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds) {
+        return delegate.getEventsByIds(eventIds);
+    }
+
+    @Override
+    public List<Event> getEventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.getEventsStartingBetween(from, to);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.feignclient;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.User;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * UserClient used by the services: concurrent getUserById calls are merged into
+ * getUsersByIds requests. A window of 0 turns coalescing off.
+ */
+@Component
+@Primary
+public class CoalescingUserClient implements UserClient {
+
+    private final UserClient delegate;
+    private final LookupCoalescer<User> coalescer;
+
+    public CoalescingUserClient(@Qualifier("userFeignClient") UserClient delegate,
+            @Value("${lookup.coalesce.window-ms:2}") long windowMs,
+            @Value("${lookup.coalesce.max-batch:100}") int maxBatch,
+            @Value("${lookup.coalesce.threads:4}") int threads) {
+        this.delegate = delegate;
+        this.coalescer = windowMs > 0
+                ? new LookupCoalescer<>("users", ids -> delegate.getUsersByIds(ids), windowMs, maxBatch, threads)
+                : null;
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        return coalescer == null ? delegate.getUserById(userId) : coalescer.get(userId);
+    }
+
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) {
+        return delegate.getUsersByIds(userIds);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package com.example.demo.feignclient;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.demo.dto.Event;
 
-@FeignClient(name="EVENTSERVICE",path="/event")
+// Not primary: callers get CoalescingEventClient, which wraps this one
+@FeignClient(name="EVENTSERVICE",path="/event",qualifiers="eventFeignClient",primary=false,fallbackFactory=EventClientFallbackFactory.class)
 public interface EventClient {
 
     @GetMapping("/getEventById/{id}")
     public Event getEventById(@PathVariable("id") int eventId);
+
+    @GetMapping("/getEventsByIds")
+    public Map<Integer, Event> getEventsByIds(@RequestParam("ids") Collection<Integer> eventIds);
+
+    @GetMapping("/getEventsStartingBetween")
+    public List<Event> getEventsStartingBetween(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to);
     
     
 }
@@ -0,0 +1,36 @@
+package com.example.demo.feignclient;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Event;
+
+@Component
+public class EventClientFallbackFactory implements FallbackFactory<EventClient> {
+
+    @Override
+    public EventClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("EVENTSERVICE", cause);
+        return new EventClient() {
+            @Override
+            public Event getEventById(int eventId) {
+                throw failure;
+            }
+
+            @Override
+            public Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds) {
+                throw failure;
+            }
+
+            @Override
+            public List<Event> getEventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.feignclient;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges concurrent single-ID lookups into one multi-get call.
+ *
+ * The first lookup in a window starts a timer, and every lookup that arrives before it
+ * fires joins the same batch; a full batch is sent straight away. Callers block until
+ * their batch returns, so a lookup waits at most one window longer than a direct call.
+ * IDs missing from the batch response resolve to null.
+ *
+ * The same class lives in TicketService, FeedbackService and NotificationService. The
+ * services are built and deployed on their own and share no library, so change all three
+ * copies together.
+ */
+public class LookupCoalescer<V> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LookupCoalescer.class);
+
+    private final String name;
+    private final Function<Set<Integer>, Map<Integer, V>> batchLoader;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<V>> pending = new HashMap<>();
+
+    public LookupCoalescer(String name, Function<Set<Integer>, Map<Integer, V>> batchLoader,
+            long windowMillis, int maxBatchSize, int loaderThreads) {
+        this.name = name;
+        this.batchLoader = batchLoader;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newScheduledThreadPool(loaderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "lookup-coalescer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public V get(int id) {
+        CompletableFuture<V> future;
+        Map<Integer, CompletableFuture<V>> fullBatch = null;
+        boolean startWindow = false;
+        synchronized (lock) {
+            future = pending.get(id);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(id, future);
+                startWindow = pending.size() == 1;
+                if (pending.size() >= maxBatchSize) {
+                    fullBatch = pending;
+                    pending = new HashMap<>();
+                }
+            }
+        }
+
+        if (fullBatch != null) {
+            load(fullBatch);
+        } else if (startWindow) {
+            scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void flush() {
+        Map<Integer, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        load(batch);
+    }
+
+    private void load(Map<Integer, CompletableFuture<V>> batch) {
+        try {
+            Map<Integer, V> found = batchLoader.apply(batch.keySet());
+            logger.debug("Coalesced {} {} lookups into one call, {} found", batch.size(), name, found.size());
+            batch.forEach((id, future) -> future.complete(found.get(id)));
+        } catch (RuntimeException e) {
+            logger.warn("Batched {} lookup of {} IDs failed: {}", name, batch.size(), e.getMessage());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -1,14 +1,16 @@
 package com.example.demo.feignclient;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.demo.dto.Ticket;
 
-@FeignClient(name="TICKETSERVICE", path ="/ticket") 
+@FeignClient(name="TICKETSERVICE", path ="/ticket",fallbackFactory=TicketClientFallbackFactory.class) 
 public interface TicketClient {
 
     @GetMapping("/getTicketById/{id}")
@@ -16,4 +18,9 @@ public interface TicketClient {
 
     @GetMapping("/getAllTickets") 
     List<Ticket> getAllTickets();
+
+    // Keyset page of BOOKED tickets for the given events, in ticket ID order
+    @GetMapping("/getBookedTicketsByEventIds")
+    List<Ticket> getBookedTicketsByEventIds(@RequestParam("eventIds") Collection<Integer> eventIds,
+            @RequestParam("afterTicketId") int afterTicketId, @RequestParam("limit") int limit);
 }
@@ -0,0 +1,34 @@
+package com.example.demo.feignclient;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Ticket;
+
+@Component
+public class TicketClientFallbackFactory implements FallbackFactory<TicketClient> {
+
+    @Override
+    public TicketClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("TICKETSERVICE", cause);
+        return new TicketClient() {
+            @Override
+            public Ticket getTicketById(int ticketId) {
+                throw failure;
+            }
+
+            @Override
+            public List<Ticket> getAllTickets() {
+                throw failure;
+            }
+
+            @Override
+            public List<Ticket> getBookedTicketsByEventIds(Collection<Integer> eventIds, int afterTicketId, int limit) {
+                throw failure;
+            }
+        };
+    }
+}
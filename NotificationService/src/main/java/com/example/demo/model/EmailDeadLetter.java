@@ -0,0 +1,42 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Email the dispatcher gave up on: retries exhausted, a rejected address, or no room in the
+ * queue. Kept so it can be inspected and redriven instead of being lost.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long deadLetterId;
+
+    private String recipient;
+
+    private String subject;
+
+    @Lob
+    private String content;
+
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime failedAt;
+}
@@ -1,12 +1,23 @@
 package com.example.demo.model;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -18,6 +29,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_notification_user_event_message", columnNames = { "user_id", "event_id", "message_hash" }),
+        indexes = { @Index(name = "idx_notification_event_message", columnList = "event_id, message_hash"),
+                @Index(name = "idx_notification_user", columnList = "user_id, notification_id") })
 @Builder
 public class Notification {
 
@@ -38,4 +52,33 @@ public class Notification {
     @NotNull(message = "Timestamp cannot be null")
     @Builder.Default
     private LocalDateTime timestamp = LocalDateTime.now();
+
+    // Hash of the normalised message backing the duplicate check; null only on rows the backfill has not reached
+    @JsonIgnore
+    @Column(name = "message_hash")
+    private Long messageHash;
+
+    @PrePersist
+    @PreUpdate
+    void computeMessageHash() {
+        messageHash = message == null ? null : hashMessage(message);
+    }
+
+    /**
+     * First 64 bits of the SHA-256 of the trimmed, lower-cased message, so messages differing
+     * only in case or surrounding whitespace count as the same notification.
+     */
+    public static long hashMessage(String message) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(message.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Heartbeat of a running NotificationService replica; the number of live rows decides
+ * each replica's fair share of reminder partitions.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderNode {
+
+    @Id
+    private String nodeId;
+
+    private LocalDateTime lastSeenAt;
+}
@@ -0,0 +1,28 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ownership of one hash range of event IDs for reminder processing. A replica owns the
+ * partition while {@code owner} is its node ID and the lease has not expired; a free or
+ * expired partition can be claimed by any replica with a conditional update.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderPartitionLease {
+
+    @Id
+    private int partitionId;
+
+    private String owner;
+
+    private LocalDateTime leaseExpiresAt;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest known start of an event as pushed by EventService. Any replica may receive the push,
+ * so it is stored here and picked up by whichever replica owns the event's partition.
+ * A null {@code eventDate} means the event was deleted.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_reminder_schedule_updated", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderSchedule {
+
+    @Id
+    private int eventId;
+
+    private LocalDateTime eventDate;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.EmailDeadLetter;
+
+public interface EmailDeadLetterRepository extends JpaRepository<EmailDeadLetter, Long> {
+
+    // Oldest first, for redriving in batches
+    List<EmailDeadLetter> findAllByOrderByDeadLetterIdAsc(Limit limit);
+}
@@ -0,0 +1,86 @@
+package com.example.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.Notification;
+
+/**
+ * Plain JDBC writes for digest flushes and their duplicate-tolerant fallback. Hibernate cannot
+ * batch inserts of IDENTITY-keyed entities, so a flush would otherwise cost one round trip per notification.
+ */
+@Repository
+public class NotificationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (user_id, event_id, message, timestamp, message_hash) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts all notifications in one JDBC batch and sets their generated IDs; a failed batch leaves no rows behind
+    @Transactional
+    public List<Notification> insertAll(List<Notification> notifications) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] { "notification_id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        bind(statement, notifications.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+
+        // Key column names differ between drivers, so take the single generated value of each row
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < notifications.size(); i++) {
+            notifications.get(i).setNotificationId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        return notifications;
+    }
+
+    // Inserts one notification unless the unique (user, event, message) key already holds it; false for a duplicate
+    public boolean insertIfAbsent(Notification notification) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[] { "notification_id" });
+                bind(statement, notification);
+                return statement;
+            }, keyHolder);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        notification.setNotificationId(((Number) keyHolder.getKeyList().get(0).values().iterator().next()).intValue());
+        return true;
+    }
+
+    private static void bind(PreparedStatement statement, Notification notification) throws SQLException {
+        notification.setMessageHash(Notification.hashMessage(notification.getMessage()));
+        statement.setInt(1, notification.getUserId());
+        statement.setInt(2, notification.getEventId());
+        statement.setString(3, notification.getMessage());
+        statement.setTimestamp(4, Timestamp.valueOf(notification.getTimestamp()));
+        statement.setLong(5, notification.getMessageHash());
+    }
+}
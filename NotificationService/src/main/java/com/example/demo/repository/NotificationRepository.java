@@ -1,10 +1,14 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.Notification;
 
@@ -13,11 +17,53 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     // Find notifications by userId
     List<Notification> findByUserId(int userId);
 
-    // Check if a notification exists for a specific user, event, and message (case-insensitive)
-    @Query("SELECT CASE WHEN COUNT(n) > 0 THEN true ELSE false END FROM Notification n WHERE n.userId = :userId AND n.eventId = :eventId AND LOWER(TRIM(n.message)) = LOWER(TRIM(:message))")
-    boolean existsByUserIdAndEventIdAndMessage(@Param("userId") int userId, @Param("eventId") int eventId, @Param("message") String message);
+    // Keyset page of a user's notifications after the given ID, in ID order; served by idx_notification_user
+    List<Notification> findByUserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(int userId, int afterNotificationId, Limit limit);
+
+    // Check if a notification exists for a specific user, event, and message (case-insensitive); served by the unique index
+    default boolean existsByUserIdAndEventIdAndMessage(int userId, int eventId, String message) {
+        return existsByUserIdAndEventIdAndMessageHash(userId, eventId, Notification.hashMessage(message));
+    }
+
+    boolean existsByUserIdAndEventIdAndMessageHash(int userId, int eventId, Long messageHash);
 
     // Find notifications by eventId (optional additional method)
     List<Notification> findByEventId(int eventId);
+
+    // (userId, eventId) pairs that already got the given message for any of the events, in one query
+    default List<Recipient> findRecipientsByEventIdsAndMessage(Collection<Integer> eventIds, String message) {
+        return findRecipientsByEventIdsAndMessageHash(eventIds, Notification.hashMessage(message));
+    }
+
+    @Query("SELECT DISTINCT n.userId AS userId, n.eventId AS eventId FROM Notification n WHERE n.eventId IN :eventIds AND n.messageHash = :messageHash")
+    List<Recipient> findRecipientsByEventIdsAndMessageHash(@Param("eventIds") Collection<Integer> eventIds, @Param("messageHash") Long messageHash);
+
+    // Backfill: rows written before the hash column existed, in ID order
+    List<Notification> findByMessageHashIsNullAndNotificationIdGreaterThanOrderByNotificationIdAsc(int afterNotificationId, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.messageHash = :messageHash WHERE n.notificationId = :notificationId AND n.messageHash IS NULL")
+    int setMessageHash(@Param("notificationId") int notificationId, @Param("messageHash") long messageHash);
+
+    // Dedup filter warm-up: every hashed row, in ID order
+    @Query("SELECT n.notificationId AS notificationId, n.userId AS userId, n.eventId AS eventId, n.messageHash AS messageHash FROM Notification n WHERE n.messageHash IS NOT NULL AND n.notificationId > :afterNotificationId ORDER BY n.notificationId")
+    List<DedupKey> findDedupKeysAfter(@Param("afterNotificationId") int afterNotificationId, Limit limit);
+
+    interface Recipient {
+        int getUserId();
+
+        int getEventId();
+    }
+
+    interface DedupKey {
+        int getNotificationId();
+
+        int getUserId();
+
+        int getEventId();
+
+        long getMessageHash();
+    }
     
 }
@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.ReminderNode;
+
+public interface ReminderNodeRepository extends JpaRepository<ReminderNode, String> {
+
+    long countByLastSeenAtGreaterThanEqual(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReminderNode n WHERE n.lastSeenAt < :cutoff")
+    int deleteStale(@Param("cutoff") LocalDateTime cutoff);
+}
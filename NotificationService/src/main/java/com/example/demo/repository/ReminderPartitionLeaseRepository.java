@@ -0,0 +1,49 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.ReminderPartitionLease;
+
+public interface ReminderPartitionLeaseRepository extends JpaRepository<ReminderPartitionLease, Integer> {
+
+    // Partitions that are free or whose owner stopped renewing
+    @Query("SELECT l.partitionId FROM ReminderPartitionLease l WHERE l.owner IS NULL OR l.leaseExpiresAt < :now ORDER BY l.partitionId")
+    List<Integer> findClaimablePartitionIds(@Param("now") LocalDateTime now);
+
+    @Query("SELECT l.partitionId FROM ReminderPartitionLease l WHERE l.owner = :owner AND l.leaseExpiresAt >= :now ORDER BY l.partitionId")
+    List<Integer> findOwnedPartitionIds(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Plain insert so a concurrent replica's row is never overwritten; fails on duplicates
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO reminder_partition_lease (partition_id) VALUES (:partitionId)", nativeQuery = true)
+    int insertPartition(@Param("partitionId") int partitionId);
+
+    // Claim only if still free or expired; returns 0 if another replica got there first
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ReminderPartitionLease l SET l.owner = :owner, l.leaseExpiresAt = :expiresAt "
+            + "WHERE l.partitionId = :partitionId AND (l.owner IS NULL OR l.owner = :owner OR l.leaseExpiresAt < :now)")
+    int tryAcquire(@Param("partitionId") int partitionId, @Param("owner") String owner,
+            @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    // Extend every lease the owner still holds; expired ones may already belong to someone else
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ReminderPartitionLease l SET l.leaseExpiresAt = :expiresAt WHERE l.owner = :owner AND l.leaseExpiresAt >= :now")
+    int renew(@Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ReminderPartitionLease l SET l.owner = NULL, l.leaseExpiresAt = NULL "
+            + "WHERE l.owner = :owner AND l.partitionId IN :partitionIds")
+    int release(@Param("owner") String owner, @Param("partitionIds") Collection<Integer> partitionIds);
+}
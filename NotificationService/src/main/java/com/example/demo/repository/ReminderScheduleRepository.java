@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.ReminderSchedule;
+
+public interface ReminderScheduleRepository extends JpaRepository<ReminderSchedule, Integer> {
+
+    // Pushed event changes since the watermark, oldest first
+    List<ReminderSchedule> findByUpdatedAtGreaterThanEqualOrderByUpdatedAtAsc(LocalDateTime since, Limit limit);
+
+    // Deleted or long-finished events are only kept until every replica has seen them
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReminderSchedule s WHERE s.updatedAt < :cutoff AND (s.eventDate IS NULL OR s.eventDate < :cutoff)")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,402 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.EmailDispatchStats;
+import com.example.demo.model.EmailDeadLetter;
+import com.example.demo.repository.EmailDeadLetterRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends email from a bounded queue on a fixed pool of worker threads.
+ *
+ * Each worker keeps its own SMTP connection open while there is work and closes it after
+ * {@code idle-close-ms} without messages, so a burst costs one handshake per worker instead of
+ * one per message. Sends are rate limited per recipient domain with a token bucket; a message
+ * over the limit is set aside until a token is due rather than blocking the worker. Failed
+ * sends are retried with jittered exponential backoff, and messages that run out of attempts,
+ * have an invalid address or find no room end up in {@code email_dead_letter}.
+ *
+ * {@code queue-capacity} bounds every message not yet sent or dead-lettered, including those set
+ * aside for a retry or a token. A set-aside message therefore always finds room when it is due, and
+ * a backlog of retries pushes back on {@link #submit} instead of growing without limit. Buckets of
+ * domains that have gone quiet are dropped, so the limiters only cover recently used domains.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    // How long a producer waits for room before the message is dead-lettered
+    private static final long OFFER_TIMEOUT_MS = 50;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    // Many providers cap the messages accepted on one connection
+    private static final int MESSAGES_PER_CONNECTION = 100;
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long LIMITER_SWEEP_MS = 60_000;
+
+    private static final String ERR_QUEUE_FULL = "Email dispatch queue is full";
+    private static final String ERR_STOPPED = "Email dispatcher stopped before the message was sent";
+
+    private final JavaMailSenderImpl mailSender;
+    private final EmailDeadLetterRepository deadLetterRepository;
+    private final String fromEmail;
+    private final int queueCapacity;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final double domainRatePerSecond;
+    private final long idleCloseMillis;
+
+    private final BlockingQueue<EmailMessage> queue;
+    // One permit per message accepted and not yet sent or dead-lettered, wherever it currently is
+    private final Semaphore slots;
+    // Messages waiting for a retry or a rate limit token, outside the queue but holding their slot
+    private final Set<EmailMessage> delayedMessages = ConcurrentHashMap.newKeySet();
+    private final Map<String, DomainLimiter> limiters = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService delayedExecutor;
+    private volatile boolean running;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    private record EmailMessage(long id, String to, String subject, String content, int attempts) {
+
+        EmailMessage nextAttempt() {
+            return new EmailMessage(id, to, subject, content, attempts + 1);
+        }
+    }
+
+    public EmailDispatcher(JavaMailSenderImpl mailSender, EmailDeadLetterRepository deadLetterRepository,
+            @Value("${spring.mail.username:unknown}") String fromEmail,
+            @Value("${email.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${email.dispatch.workers:4}") int workerCount,
+            @Value("${email.dispatch.max-attempts:5}") int maxAttempts,
+            @Value("${email.dispatch.retry-backoff-ms:1000}") long retryBackoffMillis,
+            @Value("${email.dispatch.domain-rate-per-second:10}") double domainRatePerSecond,
+            @Value("${email.dispatch.idle-close-ms:5000}") long idleCloseMillis) {
+        if (queueCapacity <= 0 || workerCount <= 0 || maxAttempts <= 0 || domainRatePerSecond <= 0) {
+            throw new IllegalArgumentException("Email dispatch queue, workers, attempts and domain rate must be greater than 0");
+        }
+        this.mailSender = mailSender;
+        this.deadLetterRepository = deadLetterRepository;
+        this.fromEmail = fromEmail;
+        this.queueCapacity = queueCapacity;
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.domainRatePerSecond = domainRatePerSecond;
+        this.idleCloseMillis = idleCloseMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slots = new Semaphore(queueCapacity);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        delayedExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatch-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        delayedExecutor.scheduleWithFixedDelay(this::expireIdleLimiters, LIMITER_SWEEP_MS, LIMITER_SWEEP_MS,
+                TimeUnit.MILLISECONDS);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "email-dispatch-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Email dispatcher started with {} workers and a queue of {}", workerCount, queueCapacity);
+    }
+
+    // Nothing queued is dropped silently: whatever is left goes to the dead-letter table
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        delayedExecutor.shutdownNow();
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+
+        List<EmailMessage> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.addAll(delayedMessages);
+        delayedMessages.clear();
+        leftover.forEach(message -> finish(message, ERR_STOPPED));
+        logger.info("Email dispatcher stopped, {} unsent messages moved to the dead-letter table", leftover.size());
+    }
+
+    /**
+     * Queues an email. Blocks briefly when the dispatcher is full, counting messages waiting for a
+     * retry, and dead-letters the message if no room frees up, so producers slow down instead of
+     * piling up unbounded work.
+     *
+     * @return false if the message was dead-lettered instead of queued
+     */
+    public boolean submit(String to, String subject, String content) {
+        EmailMessage message = new EmailMessage(sequence.incrementAndGet(), to, subject, content, 0);
+        try {
+            if (slots.tryAcquire(OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                // Cannot fail: the queue is as large as the number of slots
+                queue.add(message);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.warn("Email queue full ({} messages), dead-lettering email to {}", queueCapacity, to);
+        deadLetter(message, ERR_QUEUE_FULL);
+        return false;
+    }
+
+    /**
+     * Puts up to {@code limit} dead letters back on the queue, oldest first.
+     */
+    public int redriveDeadLetters(int limit) {
+        int redriven = 0;
+        for (EmailDeadLetter deadLetter : deadLetterRepository.findAllByOrderByDeadLetterIdAsc(Limit.of(limit))) {
+            EmailMessage message = new EmailMessage(sequence.incrementAndGet(), deadLetter.getRecipient(),
+                    deadLetter.getSubject(), deadLetter.getContent(), 0);
+            if (!slots.tryAcquire()) {
+                break;
+            }
+            queue.add(message);
+            deadLetterRepository.deleteById(deadLetter.getDeadLetterId());
+            redriven++;
+        }
+        logger.info("Redrove {} dead-lettered emails", redriven);
+        return redriven;
+    }
+
+    public EmailDispatchStats getStats() {
+        return new EmailDispatchStats(queue.size() + delayedMessages.size(), queueCapacity, workerCount,
+                sent.get(), retried.get(), throttled.get(), deadLettered.get(), connectionsOpened.get());
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        int sentOnConnection = 0;
+        try {
+            while (running) {
+                EmailMessage message = queue.poll(idleCloseMillis, TimeUnit.MILLISECONDS);
+                if (message == null) {
+                    transport = close(transport);
+                    continue;
+                }
+
+                long waitNanos = acquireToken(message.to(), System.nanoTime());
+                if (waitNanos > 0) {
+                    throttled.incrementAndGet();
+                    delay(message, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+                    continue;
+                }
+
+                try {
+                    if (transport == null || sentOnConnection >= MESSAGES_PER_CONNECTION) {
+                        close(transport);
+                        transport = connect();
+                        sentOnConnection = 0;
+                    }
+                    send(transport, message);
+                    sentOnConnection++;
+                    sent.incrementAndGet();
+                    slots.release();
+                } catch (AddressException e) {
+                    logger.warn("Invalid email address {}: {}", message.to(), e.getMessage());
+                    finish(message.nextAttempt(), e.getMessage());
+                } catch (MessagingException | RuntimeException e) {
+                    // The connection may be half broken; start the next message on a fresh one
+                    transport = close(transport);
+                    retryOrDeadLetter(message.nextAttempt(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    private void send(Transport transport, EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(message.to());
+        helper.setSubject(message.subject());
+        helper.setText(message.content(), true); // true = HTML content
+        mimeMessage.saveChanges();
+        transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+        logger.debug("Email sent to: {}", message.to());
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void retryOrDeadLetter(EmailMessage message, Exception error) {
+        if (message.attempts() >= maxAttempts) {
+            logger.error("Giving up on email to {} after {} attempts: {}", message.to(), message.attempts(), error.getMessage());
+            finish(message, error.getMessage());
+            return;
+        }
+        // Full jitter keeps retries from many workers from hitting the server in step
+        long ceiling = Math.min(MAX_BACKOFF_MS, retryBackoffMillis << Math.min(message.attempts() - 1, 16));
+        long backoff = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        retried.incrementAndGet();
+        logger.warn("Email to {} failed (attempt {} of {}), retrying in {} ms: {}",
+                message.to(), message.attempts(), maxAttempts, backoff, error.getMessage());
+        delay(message, backoff);
+    }
+
+    private void delay(EmailMessage message, long delayMillis) {
+        delayedMessages.add(message);
+        try {
+            delayedExecutor.schedule(() -> {
+                // The message still holds its slot, so there is room for it
+                if (delayedMessages.remove(message) && !queue.offer(message)) {
+                    finish(message, ERR_QUEUE_FULL);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Shutting down; stop() dead-letters everything still in delayedMessages
+            logger.debug("Could not delay email to {}: {}", message.to(), e.getMessage());
+        }
+    }
+
+    // Dead-letters a message that holds a slot and frees the slot
+    private void finish(EmailMessage message, String reason) {
+        deadLetter(message, reason);
+        slots.release();
+    }
+
+    private void deadLetter(EmailMessage message, String reason) {
+        deadLettered.incrementAndGet();
+        try {
+            deadLetterRepository.save(new EmailDeadLetter(0, message.to(), message.subject(), message.content(),
+                    message.attempts(), truncate(reason), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            logger.error("Could not dead-letter email to {}: {}", message.to(), e.getMessage());
+        }
+    }
+
+    // Taken inside compute() so a sweep can never drop a bucket between lookup and use
+    private long acquireToken(String recipient, long now) {
+        int at = recipient == null ? -1 : recipient.lastIndexOf('@');
+        String domain = at < 0 ? "" : recipient.substring(at + 1).toLowerCase(Locale.ROOT);
+        long[] waitNanos = { 0 };
+        limiters.compute(domain, (key, limiter) -> {
+            DomainLimiter bucket = limiter != null ? limiter : new DomainLimiter(domainRatePerSecond);
+            waitNanos[0] = bucket.tryAcquire(now);
+            return bucket;
+        });
+        return waitNanos[0];
+    }
+
+    // A bucket that has refilled behaves exactly like a new one, so it can go
+    private void expireIdleLimiters() {
+        long now = System.nanoTime();
+        for (String domain : limiters.keySet()) {
+            limiters.computeIfPresent(domain, (key, limiter) -> limiter.isFull(now) ? null : limiter);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    // Token bucket refilled at the configured rate, allowing bursts of up to one second's worth
+    private static final class DomainLimiter {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        DomainLimiter(double ratePerSecond) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, ratePerSecond);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        // Returns 0 if a token was taken, otherwise the nanos until one is available
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            return tokens + (now - lastRefill) * tokensPerNano >= capacity;
+        }
+    }
+}
@@ -4,27 +4,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-
 @Service
 public class EmailService {
     
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
     
     @Autowired
-    private JavaMailSender mailSender;
-    
-    @Value("${spring.mail.username:unknown}")
-    private String fromEmail;
+    private EmailDispatcher emailDispatcher;
     
     @Value("${email.enabled:false}")
     private boolean emailEnabled;
     
+    // Hands the email to the dispatcher and returns immediately; delivery happens on its workers
     public void sendEmail(String to, String subject, String content) {
         if (!emailEnabled) {
             logger.info("Email sending is disabled. Would have sent to: {}, subject: {}", to, subject);
@@ -32,25 +25,11 @@ public class EmailService {
             return;
         }
         
-        try {
-            logger.info("Preparing to send email to: {}, from: {}", to, fromEmail);
-            
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(content, true); // true = HTML content
-            
-            logger.debug("Email properties configured, attempting to send...");
-            mailSender.send(message);
-            logger.info("Email notification sent successfully to: {}", to);
-        } catch (MessagingException e) {
-            logger.error("Failed to send email to {}: {}", to, e.getMessage(), e);
-            // Don't rethrow - email sending is non-critical
-        } catch (Exception e) {
-            logger.error("Unexpected error when sending email to {}: {}", to, e.getMessage(), e);
+        if (emailDispatcher.submit(to, subject, content)) {
+            logger.info("Email to: {} queued for delivery", to);
+        } else {
+            // Don't rethrow - email sending is non-critical and the message is kept as a dead letter
+            logger.warn("Email to: {} could not be queued and was dead-lettered", to);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email template parsed once into literal and placeholder fragments.
+ *
+ * {@code {{name}}} inserts the value HTML-escaped; {@code {{{name}}}} inserts it as is, for
+ * sections that were already rendered by another template. Callers resolve placeholder names to
+ * indexes once with {@link #indexOf} and pass values by index, so a render is a walk over the
+ * fragments into one exactly sized builder with no parsing or map lookups.
+ */
+public final class EmailTemplate {
+
+    private final List<Fragment> fragments;
+    private final List<String> placeholders;
+    private final int literalLength;
+
+    private record Fragment(String literal, int placeholder, boolean raw) {
+    }
+
+    private EmailTemplate(List<Fragment> fragments, List<String> placeholders) {
+        this.fragments = fragments;
+        this.placeholders = Collections.unmodifiableList(placeholders);
+        int length = 0;
+        for (Fragment fragment : fragments) {
+            if (fragment.literal() != null) {
+                length += fragment.literal().length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<Fragment> fragments = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", open);
+            String closing = raw ? "}}}" : "}}";
+            int nameStart = open + (raw ? 3 : 2);
+            int close = source.indexOf(closing, nameStart);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String name = source.substring(nameStart, close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset " + open);
+            }
+            if (open > position) {
+                fragments.add(new Fragment(source.substring(position, open), -1, false));
+            }
+            if (!placeholders.contains(name)) {
+                placeholders.add(name);
+            }
+            fragments.add(new Fragment(null, placeholders.indexOf(name), raw));
+            position = close + closing.length();
+        }
+        if (position < source.length()) {
+            fragments.add(new Fragment(source.substring(position), -1, false));
+        }
+        return new EmailTemplate(List.copyOf(fragments), placeholders);
+    }
+
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * @return the index to pass this placeholder's value at, or -1 if the template does not use it
+     */
+    public int indexOf(String placeholder) {
+        return placeholders.indexOf(placeholder);
+    }
+
+    /**
+     * Renders the template with values given in {@link #getPlaceholders()} order; a missing or
+     * null value renders as an empty string.
+     */
+    public String render(String... values) {
+        int length = literalLength;
+        for (String value : values) {
+            if (value != null) {
+                length += value.length();
+            }
+        }
+        StringBuilder out = new StringBuilder(length + 16);
+        for (Fragment fragment : fragments) {
+            if (fragment.literal() != null) {
+                out.append(fragment.literal());
+                continue;
+            }
+            String value = fragment.placeholder() < values.length ? values[fragment.placeholder()] : null;
+            if (value == null) {
+                continue;
+            }
+            if (fragment.raw()) {
+                out.append(value);
+            } else {
+                escapeHtml(value, out);
+            }
+        }
+        return out.toString();
+    }
+
+    public String render(Map<String, ?> values) {
+        String[] indexed = new String[placeholders.size()];
+        for (int i = 0; i < indexed.length; i++) {
+            Object value = values.get(placeholders.get(i));
+            indexed[i] = value == null ? null : String.valueOf(value);
+        }
+        return render(indexed);
+    }
+
+    static void escapeHtml(String value, StringBuilder out) {
+        // Copy the clean prefix in one go; most names and messages have nothing to escape
+        int start = 0;
+        while (start < value.length() && !needsEscape(value.charAt(start))) {
+            start++;
+        }
+        out.append(value, 0, start);
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static boolean needsEscape(char c) {
+        return c == '<' || c == '>' || c == '&' || c == '"' || c == '\'';
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.User;
+import com.example.demo.model.Notification;
+
+/**
+ * Renders notification emails from templates compiled once at startup.
+ *
+ * The event details section is rendered once per event and kept in a bounded cache; a cached
+ * section is reused only while the event's name, date and location are unchanged, so edits to an
+ * event are picked up on the next send. Per send only the greeting and message are escaped and
+ * spliced into the outer template. Lookups are lock-free; when the cache is full an arbitrary
+ * section is dropped, which is cheap enough since a miss only re-renders one small section.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    static final String NOTIFICATION_TEMPLATE = "templates/email/notification.html";
+    static final String EVENT_SECTION_TEMPLATE = "templates/email/notification-event.html";
+    static final String DIGEST_TEMPLATE = "templates/email/notification-digest.html";
+    static final String DIGEST_ITEM_TEMPLATE = "templates/email/notification-digest-item.html";
+
+    private final EmailTemplate notificationTemplate;
+    private final EmailTemplate eventSectionTemplate;
+    private final EmailTemplate digestTemplate;
+    private final EmailTemplate digestItemTemplate;
+    private final int userNameIndex;
+    private final int messageIndex;
+    private final int eventDetailsIndex;
+    private final int eventNameIndex;
+    private final int eventDateIndex;
+    private final int eventLocationIndex;
+    private final int digestUserNameIndex;
+    private final int digestCountIndex;
+    private final int digestItemsIndex;
+    private final int itemMessageIndex;
+    private final int itemEventDetailsIndex;
+    private final int eventCacheSize;
+    private final Map<Integer, EventSection> eventSections = new ConcurrentHashMap<>();
+
+    private record EventSection(String name, LocalDateTime date, String location, String html) {
+
+        boolean matches(Event event) {
+            return Objects.equals(name, event.getName())
+                    && Objects.equals(date, event.getDate())
+                    && Objects.equals(location, event.getLocation());
+        }
+    }
+
+    public EmailTemplateRenderer(@Value("${email.template.event-cache-size:1024}") int eventCacheSize) {
+        if (eventCacheSize < 1) {
+            throw new IllegalArgumentException("Event cache size must be positive");
+        }
+        this.notificationTemplate = EmailTemplate.compile(load(NOTIFICATION_TEMPLATE));
+        this.eventSectionTemplate = EmailTemplate.compile(load(EVENT_SECTION_TEMPLATE));
+        this.digestTemplate = EmailTemplate.compile(load(DIGEST_TEMPLATE));
+        this.digestItemTemplate = EmailTemplate.compile(load(DIGEST_ITEM_TEMPLATE));
+        this.userNameIndex = notificationTemplate.indexOf("userName");
+        this.messageIndex = notificationTemplate.indexOf("message");
+        this.eventDetailsIndex = notificationTemplate.indexOf("eventDetails");
+        this.eventNameIndex = eventSectionTemplate.indexOf("eventName");
+        this.eventDateIndex = eventSectionTemplate.indexOf("eventDate");
+        this.eventLocationIndex = eventSectionTemplate.indexOf("eventLocation");
+        this.digestUserNameIndex = digestTemplate.indexOf("userName");
+        this.digestCountIndex = digestTemplate.indexOf("count");
+        this.digestItemsIndex = digestTemplate.indexOf("items");
+        this.itemMessageIndex = digestItemTemplate.indexOf("message");
+        this.itemEventDetailsIndex = digestItemTemplate.indexOf("eventDetails");
+        this.eventCacheSize = eventCacheSize;
+    }
+
+    public String renderSubject(Event event) {
+        return "Event Notification: " + event.getName();
+    }
+
+    public String renderNotification(User user, Event event, String message) {
+        String[] values = new String[notificationTemplate.getPlaceholders().size()];
+        put(values, userNameIndex, user.getName());
+        put(values, messageIndex, message);
+        put(values, eventDetailsIndex, renderEventSection(event));
+        return notificationTemplate.render(values);
+    }
+
+    public String renderDigestSubject(int count) {
+        return "Event Notifications: " + count + " updates";
+    }
+
+    /**
+     * Renders one email for several notifications to the same user; {@code events} must hold the
+     * event of every notification, keyed by event ID.
+     */
+    public String renderDigest(User user, List<Notification> notifications, Map<Integer, Event> events) {
+        StringBuilder items = new StringBuilder();
+        String[] itemValues = new String[digestItemTemplate.getPlaceholders().size()];
+        for (Notification notification : notifications) {
+            put(itemValues, itemMessageIndex, notification.getMessage());
+            put(itemValues, itemEventDetailsIndex, renderEventSection(events.get(notification.getEventId())));
+            items.append(digestItemTemplate.render(itemValues));
+        }
+        String[] values = new String[digestTemplate.getPlaceholders().size()];
+        put(values, digestUserNameIndex, user.getName());
+        put(values, digestCountIndex, String.valueOf(notifications.size()));
+        put(values, digestItemsIndex, items.toString());
+        return digestTemplate.render(values);
+    }
+
+    String renderEventSection(Event event) {
+        EventSection cached = eventSections.get(event.getEventId());
+        if (cached != null && cached.matches(event)) {
+            return cached.html();
+        }
+        // Two senders racing on a new event both render the same HTML; the last one is kept
+        String[] values = new String[eventSectionTemplate.getPlaceholders().size()];
+        put(values, eventNameIndex, event.getName());
+        put(values, eventDateIndex, event.getDate() == null ? null : event.getDate().toString());
+        put(values, eventLocationIndex, event.getLocation());
+        String html = eventSectionTemplate.render(values);
+        if (cached == null && eventSections.size() >= eventCacheSize) {
+            Iterator<Integer> eventIds = eventSections.keySet().iterator();
+            if (eventIds.hasNext()) {
+                eventSections.remove(eventIds.next());
+            }
+        }
+        eventSections.put(event.getEventId(), new EventSection(event.getName(), event.getDate(), event.getLocation(), html));
+        return html;
+    }
+
+    public int getCachedEventCount() {
+        return eventSections.size();
+    }
+
+    // Templates may leave a placeholder out
+    private static void put(String[] values, int index, String value) {
+        if (index >= 0) {
+            values[index] = value;
+        }
+    }
+
+    private static String load(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load email template " + path, e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Notification;
+
+/**
+ * Bloom filter over (userId, eventId, messageHash) of saved notifications, checked before the
+ * duplicate query so most sends skip the database probe.
+ *
+ * A negative answer is trusted only once {@link NotificationHashBackfill} has loaded every
+ * existing row; until then every send probes. Rows saved by other replicas are not in this
+ * filter, so a negative can be wrong for them; the unique index on the table rejects those
+ * inserts instead. The false-positive rate grows past {@code expected-insertions} until the next
+ * restart rebuilds the filter.
+ */
+@Component
+public class NotificationDedupFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile boolean ready;
+
+    public NotificationDedupFilter(
+            @Value("${notification.dedup.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${notification.dedup.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false-positive rate between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public boolean mightContain(int userId, int eventId, String message) {
+        return mightContain(userId, eventId, Notification.hashMessage(message));
+    }
+
+    /**
+     * @return false only if no notification with this key was saved; always true before the filter is ready
+     */
+    public boolean mightContain(int userId, int eventId, long messageHash) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = mix(((long) userId << 32) | (eventId & 0xFFFFFFFFL));
+        long h2 = mix(messageHash ^ h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(Notification notification) {
+        put(notification.getUserId(), notification.getEventId(), Notification.hashMessage(notification.getMessage()));
+    }
+
+    public void put(int userId, int eventId, long messageHash) {
+        long h1 = mix(((long) userId << 32) | (eventId & 0xFFFFFFFFL));
+        long h2 = mix(messageHash ^ h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    // Called once every saved row has been put
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    // MurmurHash3 finaliser
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.User;
+import com.example.demo.model.Notification;
+import com.example.demo.repository.NotificationBatchRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional digest mode for {@code sendNotification}: notifications are held per user for a
+ * window that opens with the user's first pending notification, then every due user is written
+ * in one JDBC batch and gets one combined email.
+ *
+ * A user's digest is flushed early once it holds {@code max-per-user} notifications; when that
+ * many users are already buffered, or the user's digest is full, {@link #offer} refuses and the
+ * caller sends immediately instead. Pending notifications live only in memory until their flush,
+ * so anything buffered when the process dies is lost; shutdown flushes everything.
+ */
+@Component
+public class NotificationDigestBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDigestBuffer.class);
+
+    private final NotificationBatchRepository batchRepository;
+    private final EmailService emailService;
+    private final EmailTemplateRenderer templateRenderer;
+    private final NotificationDedupFilter dedupFilter;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxPerUser;
+    private final int maxBufferedUsers;
+    private final Map<Integer, PendingDigest> digests = new ConcurrentHashMap<>();
+
+    // Only mutated inside compute() on the digests map, so a removed digest is never changed again
+    private static final class PendingDigest {
+
+        private final User user;
+        private final long openedAt;
+        private final List<Notification> notifications = new ArrayList<>();
+        private final Map<Integer, Event> events = new HashMap<>();
+
+        private PendingDigest(User user, long openedAt) {
+            this.user = user;
+            this.openedAt = openedAt;
+        }
+    }
+
+    public NotificationDigestBuffer(NotificationBatchRepository batchRepository, EmailService emailService,
+            EmailTemplateRenderer templateRenderer, NotificationDedupFilter dedupFilter,
+            @Value("${notification.digest.enabled:false}") boolean enabled,
+            @Value("${notification.digest.window-ms:60000}") long windowMillis,
+            @Value("${notification.digest.max-per-user:20}") int maxPerUser,
+            @Value("${notification.digest.max-buffered-users:10000}") int maxBufferedUsers) {
+        if (windowMillis < 0 || maxPerUser < 1 || maxBufferedUsers < 1) {
+            throw new IllegalArgumentException("Digest window must not be negative and the limits must be positive");
+        }
+        this.batchRepository = batchRepository;
+        this.emailService = emailService;
+        this.templateRenderer = templateRenderer;
+        this.dedupFilter = dedupFilter;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxPerUser = maxPerUser;
+        this.maxBufferedUsers = maxBufferedUsers;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers the notification for the user's next digest.
+     *
+     * @return false if the buffer has no room; the caller then saves and sends it itself
+     */
+    public boolean offer(User user, Event event, Notification notification) {
+        boolean[] accepted = { false };
+        digests.compute(user.getUserId(), (userId, digest) -> {
+            if (digest == null) {
+                if (digests.size() >= maxBufferedUsers) {
+                    return null;
+                }
+                digest = new PendingDigest(user, System.currentTimeMillis());
+            }
+            if (digest.notifications.size() < maxPerUser) {
+                digest.notifications.add(notification);
+                digest.events.put(event.getEventId(), event);
+                accepted[0] = true;
+            }
+            return digest;
+        });
+        return accepted[0];
+    }
+
+    // True if the same notification, compared as the duplicate check does, is already waiting in the user's digest
+    public boolean contains(int userId, int eventId, String message) {
+        long messageHash = Notification.hashMessage(message);
+        boolean[] found = { false };
+        digests.computeIfPresent(userId, (id, digest) -> {
+            found[0] = digest.notifications.stream()
+                    .anyMatch(pending -> pending.getEventId() == eventId
+                            && Notification.hashMessage(pending.getMessage()) == messageHash);
+            return digest;
+        });
+        return found[0];
+    }
+
+    public int getBufferedCount() {
+        int count = 0;
+        for (Integer userId : digests.keySet()) {
+            PendingDigest digest = digests.get(userId);
+            count += digest == null ? 0 : digest.notifications.size();
+        }
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval-ms:1000}")
+    public void flush() {
+        if (enabled) {
+            flushDue(System.currentTimeMillis());
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Writes and emails every digest whose window has closed or that is full by {@code nowMillis}.
+     *
+     * @return the number of notifications saved
+     */
+    public int flushDue(long nowMillis) {
+        return flush(nowMillis, false);
+    }
+
+    private int flush(long nowMillis, boolean all) {
+        List<PendingDigest> due = new ArrayList<>();
+        for (Map.Entry<Integer, PendingDigest> entry : digests.entrySet()) {
+            PendingDigest digest = entry.getValue();
+            boolean ready = all || digest.notifications.size() >= maxPerUser
+                    || nowMillis - digest.openedAt >= windowMillis;
+            if (ready && digests.remove(entry.getKey(), digest)) {
+                due.add(digest);
+            }
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingDigest> saved = save(due);
+        int count = 0;
+        for (PendingDigest digest : saved) {
+            digest.notifications.forEach(dedupFilter::put);
+            count += digest.notifications.size();
+            sendEmail(digest);
+        }
+        logger.info("Flushed {} notifications for {} users", count, saved.size());
+        return count;
+    }
+
+    // One batch for all due users; if it fails, save row by row so a duplicate or bad row only loses itself
+    private List<PendingDigest> save(List<PendingDigest> due) {
+        List<Notification> rows = new ArrayList<>();
+        for (PendingDigest digest : due) {
+            rows.addAll(digest.notifications);
+        }
+        try {
+            batchRepository.insertAll(rows);
+            return due;
+        } catch (DataAccessException e) {
+            logger.warn("Digest batch insert of {} notifications failed, retrying per row: {}", rows.size(), e.getMessage());
+        }
+        List<PendingDigest> saved = new ArrayList<>();
+        for (PendingDigest digest : due) {
+            // Only what was actually stored goes into the email
+            PendingDigest stored = new PendingDigest(digest.user, digest.openedAt);
+            stored.events.putAll(digest.events);
+            for (Notification notification : digest.notifications) {
+                try {
+                    if (batchRepository.insertIfAbsent(notification)) {
+                        stored.notifications.add(notification);
+                    } else {
+                        logger.info("Skipping digest notification already saved for user ID: {} and event ID: {}",
+                                notification.getUserId(), notification.getEventId());
+                    }
+                } catch (DataAccessException e) {
+                    logger.error("Dropping digest notification for user ID: {} and event ID: {}: {}",
+                            notification.getUserId(), notification.getEventId(), e.getMessage(), e);
+                }
+            }
+            if (!stored.notifications.isEmpty()) {
+                saved.add(stored);
+            }
+        }
+        return saved;
+    }
+
+    private void sendEmail(PendingDigest digest) {
+        User user = digest.user;
+        if (user.getEmail() == null || user.getEmail().isEmpty()) {
+            logger.warn("User with ID: {} has no email address, digest saved to database only", user.getUserId());
+            return;
+        }
+        try {
+            if (digest.notifications.size() == 1) {
+                Notification notification = digest.notifications.get(0);
+                Event event = digest.events.get(notification.getEventId());
+                emailService.sendEmail(user.getEmail(), templateRenderer.renderSubject(event),
+                        templateRenderer.renderNotification(user, event, notification.getMessage()));
+            } else {
+                emailService.sendEmail(user.getEmail(), templateRenderer.renderDigestSubject(digest.notifications.size()),
+                        templateRenderer.renderDigest(user, digest.notifications, digest.events));
+            }
+        } catch (Exception e) {
+            // The notifications are already saved; email is best-effort as in the immediate path
+            logger.error("Error sending digest email to user ID: {}: {}", user.getUserId(), e.getMessage(), e);
+        }
+    }
+}
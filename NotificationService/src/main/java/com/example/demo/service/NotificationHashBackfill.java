@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Notification;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.NotificationRepository.DedupKey;
+
+/**
+ * Fills {@code message_hash} on notifications saved before the column existed, then loads every
+ * hashed row into {@link NotificationDedupFilter} and marks it ready.
+ *
+ * Runs in the background after startup; sends probe the database until it finishes. A legacy row
+ * that duplicates one already hashed would break the unique index, so it is left without a hash
+ * and is ignored by the duplicate check, which still finds its twin.
+ */
+@Component
+public class NotificationHashBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationHashBackfill.class);
+
+    private final NotificationRepository repository;
+    private final NotificationDedupFilter dedupFilter;
+    private final int batchSize;
+
+    public NotificationHashBackfill(NotificationRepository repository, NotificationDedupFilter dedupFilter,
+            @Value("${notification.dedup.backfill-batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Backfill batch size must be positive");
+        }
+        this.repository = repository;
+        this.dedupFilter = dedupFilter;
+        this.batchSize = batchSize;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void runOnStartup() {
+        try {
+            backfill();
+            warmFilter();
+        } catch (Exception e) {
+            // The filter stays not ready, so every send keeps probing the database
+            logger.error("Notification hash backfill failed, dedup filter disabled until restart: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of rows that got a hash
+     */
+    public int backfill() {
+        int updated = 0;
+        int skipped = 0;
+        int afterNotificationId = 0;
+        List<Notification> page;
+        do {
+            page = repository.findByMessageHashIsNullAndNotificationIdGreaterThanOrderByNotificationIdAsc(
+                    afterNotificationId, Limit.of(batchSize));
+            for (Notification notification : page) {
+                afterNotificationId = notification.getNotificationId();
+                try {
+                    updated += repository.setMessageHash(notification.getNotificationId(),
+                            Notification.hashMessage(notification.getMessage()));
+                } catch (DataIntegrityViolationException e) {
+                    logger.debug("Notification ID: {} duplicates an existing notification, left unhashed",
+                            notification.getNotificationId());
+                    skipped++;
+                }
+            }
+        } while (page.size() == batchSize);
+
+        if (updated > 0 || skipped > 0) {
+            logger.info("Backfilled message hash on {} notifications, skipped {} duplicates", updated, skipped);
+        }
+        return updated;
+    }
+
+    /**
+     * @return the number of rows loaded into the filter
+     */
+    public long warmFilter() {
+        long loaded = 0;
+        int afterNotificationId = 0;
+        List<DedupKey> page;
+        do {
+            page = repository.findDedupKeysAfter(afterNotificationId, Limit.of(batchSize));
+            for (DedupKey key : page) {
+                afterNotificationId = key.getNotificationId();
+                dedupFilter.put(key.getUserId(), key.getEventId(), key.getMessageHash());
+                loaded++;
+            }
+        } while (page.size() == batchSize);
+
+        dedupFilter.markReady();
+        logger.info("Dedup filter loaded with {} notifications", loaded);
+        return loaded;
+    }
+}
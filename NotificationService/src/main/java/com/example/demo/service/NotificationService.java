@@ -5,6 +5,7 @@ import java.util.List;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.NotificationNotFoundException;
 import com.example.demo.exception.UserNotFoundException;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.model.Notification;
 
 public interface NotificationService {
@@ -13,6 +14,9 @@ public interface NotificationService {
     Notification sendNotification(Notification notification) throws UserNotFoundException, EventNotFoundException;
 
     List<Notification> getAllNotificationsByUserId(int userId) throws NotificationNotFoundException, UserNotFoundException;
+
+    // Keyset-paginated getAllNotificationsByUserId; an empty page instead of an exception when there are none
+    CursorPage<Notification> getAllNotificationsByUserIdPaged(int userId, String cursor, int limit) throws UserNotFoundException;
     
 
     List<Notification> getAllNotificationsByEventId(int eventId) throws NotificationNotFoundException, EventNotFoundException;
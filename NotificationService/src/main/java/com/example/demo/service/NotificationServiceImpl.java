@@ -2,12 +2,14 @@ package com.example.demo.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.Event;
 import com.example.demo.dto.User;
 import com.example.demo.exception.EventNotFoundException;
@@ -34,6 +36,12 @@ public class NotificationServiceImpl implements NotificationService {
     
     private EmailService emailService;
 
+    private EmailTemplateRenderer templateRenderer;
+
+    private NotificationDigestBuffer digestBuffer;
+
+    private NotificationDedupFilter dedupFilter;
+
     @Override
     public Notification sendNotification(Notification notification) {
         logger.info("Attempting to send notification for user ID: {} and event ID: {}", 
@@ -68,8 +76,12 @@ public class NotificationServiceImpl implements NotificationService {
 
         // Check for duplicate notification
         logger.debug("Checking for duplicate notifications");
-        if (notificationRepository.existsByUserIdAndEventIdAndMessage(
-                notification.getUserId(), notification.getEventId(), notification.getMessage())) {
+        // The filter rules out most new messages without a query
+        if ((dedupFilter.mightContain(notification.getUserId(), notification.getEventId(), notification.getMessage())
+                && notificationRepository.existsByUserIdAndEventIdAndMessage(
+                        notification.getUserId(), notification.getEventId(), notification.getMessage()))
+                || (digestBuffer.isEnabled() && digestBuffer.contains(
+                        notification.getUserId(), notification.getEventId(), notification.getMessage()))) {
             logger.warn("Duplicate notification detected for user ID: {} and event ID: {}", 
                     notification.getUserId(), notification.getEventId());
             throw new IllegalArgumentException("Duplicate notification already exists for user ID: " + 
@@ -78,35 +90,37 @@ public class NotificationServiceImpl implements NotificationService {
 
         // Add timestamp and save the notification
         notification.setTimestamp(LocalDateTime.now());
+        if (digestBuffer.isEnabled()) {
+            // Saved and emailed with the user's other pending notifications when the digest flushes
+            if (digestBuffer.offer(user, event, notification)) {
+                logger.info("Notification for user ID: {} and event ID: {} buffered for the next digest",
+                        notification.getUserId(), notification.getEventId());
+                return notification;
+            }
+            logger.debug("Digest buffer full, sending notification immediately");
+        }
         logger.debug("Saving notification to database");
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification;
+        try {
+            savedNotification = notificationRepository.save(notification);
+        } catch (DataIntegrityViolationException e) {
+            // Another request or replica saved the same notification after the check above
+            logger.warn("Duplicate notification rejected by unique index for user ID: {} and event ID: {}",
+                    notification.getUserId(), notification.getEventId());
+            throw new IllegalArgumentException("Duplicate notification already exists for user ID: " +
+                                               notification.getUserId() + ", event ID: " + notification.getEventId());
+        }
+        dedupFilter.put(savedNotification);
         logger.info("Notification sent successfully, ID: {}, user ID: {}, event ID: {}", 
                 savedNotification.getNotificationId(), savedNotification.getUserId(), savedNotification.getEventId());
         
         try {
-            // We already fetched the user above
-            User user1 = userClient.getUserById(notification.getUserId());
-            Event event1 = eventClient.getEventById(notification.getEventId());
-            
-            if (user1.getEmail() != null && !user1.getEmail().isEmpty()) {
-                String subject = "Event Notification: " + event1.getName();
+            if (user.getEmail() != null && !user.getEmail().isEmpty()) {
+                String subject = templateRenderer.renderSubject(event);
+                String htmlContent = templateRenderer.renderNotification(user, event, notification.getMessage());
                 
-                // Create HTML content with more details
-                String htmlContent = "<div style='font-family: Arial, sans-serif;'>" +
-                    "<h2>Event Notification</h2>" +
-                    "<p>Hello " + user1.getName() + ",</p>" +
-                    "<p>" + notification.getMessage() + "</p>" +
-                    "<h3>Event Details:</h3>" +
-                    "<p><strong>Name:</strong> " + event1.getName() + "</p>" +
-                    "<p><strong>Date:</strong> " + event1.getDate() + "</p>" +
-                    "<p><strong>Location:</strong> " + event1.getLocation() + "</p>" +
-                    "<p>Thank you for using our service.</p>" +
-                    "</div>";
-                
-                // Send email asynchronously to prevent blocking
-                CompletableFuture.runAsync(() -> {
-                    emailService.sendEmail(user.getEmail(), subject, htmlContent);
-                });
+                // Queued on the bounded email dispatcher; does not block on SMTP
+                emailService.sendEmail(user.getEmail(), subject, htmlContent);
             } else {
                 logger.warn("User with ID: {} has no email address, notification sent to database only", 
                     notification.getUserId());
@@ -147,6 +161,27 @@ public class NotificationServiceImpl implements NotificationService {
         return notifications;
     }
 
+    @Override
+    public CursorPage<Notification> getAllNotificationsByUserIdPaged(int userId, String cursor, int limit) {
+        if (userId <= 0) {
+            logger.warn("Invalid user ID provided: {}", userId);
+            throw new IllegalArgumentException("Invalid user ID: " + userId);
+        }
+        CursorPage.checkLimit(limit);
+        int afterNotificationId = CursorPage.decodeCursor(cursor);
+
+        // The user was checked when the first page was served; later pages only read the table
+        if (afterNotificationId == 0 && userClient.getUserById(userId) == null) {
+            logger.error("User not found with ID: {}", userId);
+            throw new UserNotFoundException("User not found with ID: " + userId);
+        }
+
+        logger.debug("Fetching up to {} notifications for user ID: {} after ID: {}", limit, userId, afterNotificationId);
+        List<Notification> notifications = notificationRepository.findByUserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(
+                userId, afterNotificationId, Limit.of(limit + 1));
+        return CursorPage.of(notifications, limit, Notification::getNotificationId);
+    }
+
     @Override
     public List<Notification> getAllNotificationsByEventId(int eventId) throws NotificationNotFoundException, EventNotFoundException {
         logger.info("Retrieving all notifications for event ID: {}", eventId);
@@ -1,115 +1,446 @@
 package com.example.demo.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.dto.Ticket;
 import com.example.demo.dto.Event;
 import com.example.demo.model.Notification;
+import com.example.demo.model.ReminderSchedule;
+import com.example.demo.repository.NotificationBatchRepository;
 import com.example.demo.repository.NotificationRepository;
-
-import lombok.AllArgsConstructor;
+import com.example.demo.repository.NotificationRepository.Recipient;
+import com.example.demo.repository.ReminderScheduleRepository;
 
 import com.example.demo.feignclient.EventClient;
 import com.example.demo.feignclient.TicketClient;
 
+/**
+ * Sends one reminder per booked (user, event) pair at each configured lead time before the event.
+ *
+ * Triggers are kept per (event, lead time) in a hierarchical timing wheel, so each tick only
+ * touches the triggers that are due. The recipients are resolved when a trigger fires, from
+ * the event's BOOKED tickets, which means bookings and cancellations made in the meantime need
+ * no wheel update. Event changes are applied incrementally through {@link #rescheduleEvent} and
+ * {@link #cancelEvent}; a slow resync against the event service catches anything missed and
+ * rebuilds the wheel on startup. Reminders already stored are never sent twice, so a trigger
+ * that fires again after a restart or resync is harmless.
+ *
+ * With several replicas each one only schedules the events of the partitions it leases from
+ * {@link ReminderLeaseService}, and resyncs whenever that set changes. Event pushes can land on
+ * any replica, so they are written to {@code reminder_schedule} and applied by the owner when it
+ * polls that table.
+ */
 @Service
-@AllArgsConstructor
-public class RemainderScheduler { 
+public class RemainderScheduler {
 
-    private static final String REMINDER_MESSAGE = "Reminder: Your event is coming up soon!";
+    private static final String REMINDER_MESSAGE = "Reminder: Your event starts within %s!";
+    private static final int EVENT_CHUNK_SIZE = 100;
+    private static final int TICKET_PAGE_SIZE = 500;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int CHANGE_BATCH_SIZE = 1000;
+    // Re-read a little behind the watermark to cover commit order and clock skew between replicas
+    private static final Duration CHANGE_OVERLAP = Duration.ofSeconds(30);
+    private static final Duration CHANGE_RETENTION = Duration.ofDays(1);
     private static final Logger logger = Logger.getLogger(RemainderScheduler.class.getName());
 
-    private TicketClient ticketClient;
-    private EventClient eventClient;
-    private NotificationRepository repository;
+    private final TicketClient ticketClient;
+    private final EventClient eventClient;
+    private final NotificationRepository repository;
+    private final NotificationBatchRepository batchRepository;
+    private final ReminderLeaseService leaseService;
+    private final ReminderScheduleRepository scheduleRepository;
+
+    // Longest lead first
+    private final List<Duration> leadTimes;
+    private final Duration horizon;
+    private final TimingWheel<Trigger> wheel;
+    private final Map<Integer, LocalDateTime> scheduledEvents = new HashMap<>();
+    // Triggers whose time passed before they could be scheduled; fired on the next tick
+    private final List<Trigger> overdue = new ArrayList<>();
+    private LocalDateTime changeWatermark = LocalDateTime.now().minus(CHANGE_OVERLAP);
+
+    private record Trigger(int eventId, Duration leadTime) {
+    }
+
+    public RemainderScheduler(TicketClient ticketClient, EventClient eventClient, NotificationRepository repository,
+            NotificationBatchRepository batchRepository, ReminderLeaseService leaseService,
+            ReminderScheduleRepository scheduleRepository,
+            @Value("${reminder.lead-times:7d,24h,1h}") String leadTimes,
+            @Value("${reminder.tick-ms:1000}") long tickMillis,
+            @Value("${reminder.resync-interval-ms:900000}") long resyncIntervalMillis) {
+        this.ticketClient = ticketClient;
+        this.eventClient = eventClient;
+        this.repository = repository;
+        this.batchRepository = batchRepository;
+        this.leaseService = leaseService;
+        this.scheduleRepository = scheduleRepository;
+        this.leadTimes = Arrays.stream(leadTimes.split(","))
+                .map(String::trim)
+                .filter(lead -> !lead.isEmpty())
+                .map(DurationStyle::detectAndParse)
+                .filter(lead -> !lead.isNegative() && !lead.isZero())
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        if (this.leadTimes.isEmpty()) {
+            throw new IllegalArgumentException("At least one positive reminder lead time is required");
+        }
+        // Events are loaded a little ahead of the longest lead so its trigger is in the wheel before it is due
+        this.horizon = this.leadTimes.get(0).plusMillis(2 * resyncIntervalMillis);
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+    }
 
-    // Scheduled to run every minute
-    @Scheduled(fixedRate = 60000)
-    public void sendReminderForUpcomingEvents() {
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
         try {
-            List<Ticket> allTickets = ticketClient.getAllTickets();
+            leaseService.rebalance();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not claim reminder partitions on startup", e);
+        }
+        int events = resync();
+        logger.info(() -> "Reminder wheel rebuilt with " + events + " upcoming events");
+    }
 
-            if (allTickets == null || allTickets.isEmpty()) {
-                logger.info("No tickets found for sending reminders.");
-                return;
+    /**
+     * Keeps this replica's partition leases alive, resyncs when they change and applies event
+     * changes pushed to any replica since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${reminder.lease.renew-interval-ms:5000}", initialDelayString = "${reminder.lease.renew-interval-ms:5000}")
+    public void maintainOwnership() {
+        try {
+            if (leaseService.rebalance()) {
+                resync();
             }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not renew reminder partition leases", e);
+        }
+        try {
+            applyPushedChanges();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not apply pushed event changes to reminders", e);
+        }
+    }
 
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime reminderTime = now.plusHours(24);
+    /**
+     * Reconciles the wheel with the events starting within the horizon: new and moved events are
+     * (re)scheduled, events that are gone are dropped. Costs one call and O(events in horizon).
+     */
+    @Scheduled(fixedDelayString = "${reminder.resync-interval-ms:900000}", initialDelayString = "${reminder.resync-interval-ms:900000}")
+    public int resync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(horizon);
+        List<Event> events;
+        try {
+            events = eventClient.getEventsStartingBetween(now, until);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not load upcoming events for reminders; keeping current schedule", e);
+            return scheduledEvents.size();
+        }
 
-            allTickets.forEach(ticket -> {
-                try {
-                    processTicket(ticket, now, reminderTime);
-                } catch (Exception e) {
-                    logger.log(Level.WARNING, 
-                        "Error processing ticket ID: " + ticket.getTicketId(), e);
+        Map<Integer, LocalDateTime> upcoming = new LinkedHashMap<>();
+        if (events != null) {
+            for (Event event : events) {
+                if (event.getEventId() > 0 && event.getDate() != null && leaseService.ownsEvent(event.getEventId())) {
+                    upcoming.put(event.getEventId(), event.getDate());
+                }
+            }
+        }
+
+        synchronized (this) {
+            for (Integer eventId : new ArrayList<>(scheduledEvents.keySet())) {
+                LocalDateTime date = scheduledEvents.get(eventId);
+                // Events past the horizon were scheduled by an explicit update and are not in this window
+                if (!leaseService.ownsEvent(eventId) || (!upcoming.containsKey(eventId) && !date.isAfter(until))) {
+                    unschedule(eventId);
+                }
+            }
+            upcoming.forEach((eventId, date) -> {
+                if (!date.equals(scheduledEvents.get(eventId))) {
+                    schedule(eventId, date, now);
                 }
             });
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error in reminder scheduler job", e);
+        }
+        cleanUpChanges(now);
+        synchronized (this) {
+            return scheduledEvents.size();
         }
     }
 
-    private void processTicket(Ticket ticket, LocalDateTime now, LocalDateTime reminderTime) {
-        // Validate ticket
-        if (ticket.getEventId() <= 0 || ticket.getUserId() <= 0) {
-            logger.warning(() -> "Invalid ticket data for ticket ID: " + ticket.getTicketId());
-            return;  
+    /**
+     * Schedules or moves the reminders of one event; called when an event is created or updated.
+     */
+    public void rescheduleEvent(int eventId, LocalDateTime eventDate) {
+        if (eventId <= 0 || eventDate == null) {
+            throw new IllegalArgumentException("Event ID must be greater than 0 and the event date is required.");
         }
+        recordChange(new ReminderSchedule(eventId, eventDate, LocalDateTime.now()));
+        logger.fine(() -> "Reminders for event ID: " + eventId + " scheduled for " + eventDate);
+    }
 
-        try {
-            Event event = eventClient.getEventById(ticket.getEventId());
-            if (event == null) {
-                logger.warning(() -> "Event not found for ticket ID: " + ticket.getTicketId());
-                return;  
+    /**
+     * Drops all pending reminders of one event; called when an event is deleted.
+     */
+    public void cancelEvent(int eventId) {
+        if (eventId <= 0) {
+            throw new IllegalArgumentException("Event ID must be greater than 0.");
+        }
+        recordChange(new ReminderSchedule(eventId, null, LocalDateTime.now()));
+        logger.fine(() -> "Reminders for event ID: " + eventId + " cancelled");
+    }
+
+    /**
+     * Applies the event changes pushed since the last poll to the events this replica owns.
+     */
+    public int applyPushedChanges() {
+        LocalDateTime since;
+        synchronized (this) {
+            since = changeWatermark.minus(CHANGE_OVERLAP);
+        }
+        List<ReminderSchedule> changes = scheduleRepository.findByUpdatedAtGreaterThanEqualOrderByUpdatedAtAsc(
+                since, Limit.of(CHANGE_BATCH_SIZE));
+        int applied = 0;
+        synchronized (this) {
+            for (ReminderSchedule change : changes) {
+                if (apply(change)) {
+                    applied++;
+                }
+                if (change.getUpdatedAt().isAfter(changeWatermark)) {
+                    changeWatermark = change.getUpdatedAt();
+                }
+            }
+        }
+        return applied;
+    }
+
+    public synchronized int getScheduledTriggerCount() {
+        return wheel.size();
+    }
+
+    @Scheduled(fixedDelayString = "${reminder.tick-ms:1000}")
+    public void tick() {
+        fireDue(LocalDateTime.now());
+    }
+
+    /**
+     * Fires every trigger due by {@code now} and returns the number of reminders stored.
+     */
+    public int fireDue(LocalDateTime now) {
+        List<Trigger> due;
+        synchronized (this) {
+            due = new ArrayList<>(overdue);
+            overdue.clear();
+            // Fired events stay in scheduledEvents until they start, so a resync does not re-add them
+            due.addAll(wheel.advance(toMillis(now)));
+        }
+        // A partition lost since the last resync must not be sent from here as well
+        due.removeIf(trigger -> !leaseService.ownsEvent(trigger.eventId()));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        // One fan-out per lead time and chunk of events, rather than per trigger
+        Map<Duration, List<Integer>> eventsByLead = new LinkedHashMap<>();
+        for (Trigger trigger : due) {
+            eventsByLead.computeIfAbsent(trigger.leadTime(), lead -> new ArrayList<>()).add(trigger.eventId());
+        }
+
+        int sent = 0;
+        for (Map.Entry<Duration, List<Integer>> entry : eventsByLead.entrySet()) {
+            String message = String.format(REMINDER_MESSAGE, describe(entry.getKey()));
+            List<Integer> eventIds = entry.getValue().stream().distinct().toList();
+            for (int from = 0; from < eventIds.size(); from += EVENT_CHUNK_SIZE) {
+                List<Integer> chunk = new ArrayList<>(
+                        eventIds.subList(from, Math.min(from + EVENT_CHUNK_SIZE, eventIds.size())));
+                try {
+                    sent += remindChunk(chunk, message);
+                } catch (Exception e) {
+                    // Reminders already stored are skipped when the chunk fires again
+                    logger.log(Level.WARNING, "Error sending reminders for events " + chunk + ", retrying on the next tick", e);
+                    requeue(chunk, entry.getKey());
+                }
             }
+        }
 
-            LocalDateTime eventDateTime = event.getDate();
-            if (eventDateTime == null) {
-                logger.warning(() -> "Event date is null for event ID: " + ticket.getEventId());
-                return;
+        if (sent > 0) {
+            int total = sent;
+            logger.info(() -> "Sent " + total + " reminder notifications for " + due.size() + " due triggers");
+        }
+        return sent;
+    }
+
+    // Puts a failed chunk's triggers back for the next tick, unless the event was dropped in the meantime
+    private synchronized void requeue(List<Integer> eventIds, Duration leadTime) {
+        for (Integer eventId : eventIds) {
+            Trigger trigger = new Trigger(eventId, leadTime);
+            if (scheduledEvents.containsKey(eventId) && !overdue.contains(trigger)) {
+                overdue.add(trigger);
             }
+        }
+    }
 
-            if (eventDateTime.isAfter(now) && eventDateTime.isBefore(reminderTime)) {
-                sendNotificationIfNotExists(ticket);
+    private void recordChange(ReminderSchedule change) {
+        scheduleRepository.save(change);
+        if (leaseService.ownsEvent(change.getEventId())) {
+            synchronized (this) {
+                apply(change);
             }
+        }
+    }
+
+    // Returns true if the wheel changed
+    private boolean apply(ReminderSchedule change) {
+        int eventId = change.getEventId();
+        LocalDateTime eventDate = change.getEventDate();
+        if (!leaseService.ownsEvent(eventId)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (eventDate == null || !eventDate.isAfter(now)) {
+            boolean scheduled = scheduledEvents.containsKey(eventId);
+            unschedule(eventId);
+            return scheduled;
+        }
+        if (eventDate.equals(scheduledEvents.get(eventId))) {
+            return false;
+        }
+        schedule(eventId, eventDate, now);
+        return true;
+    }
+
+    private void cleanUpChanges(LocalDateTime now) {
+        try {
+            scheduleRepository.deleteExpired(now.minus(CHANGE_RETENTION));
         } catch (Exception e) {
-            logger.log(Level.WARNING, 
-                "Error retrieving event for ticket ID: " + ticket.getTicketId(), e);
+            logger.log(Level.FINE, "Could not clean up old reminder schedule changes", e);
+        }
+    }
+
+    private void schedule(int eventId, LocalDateTime eventDate, LocalDateTime now) {
+        unschedule(eventId);
+        scheduledEvents.put(eventId, eventDate);
+        Trigger latestPassed = null;
+        for (Duration lead : leadTimes) {
+            Trigger trigger = new Trigger(eventId, lead);
+            LocalDateTime dueAt = eventDate.minus(lead);
+            if (dueAt.isAfter(now) && wheel.schedule(trigger, toMillis(dueAt))) {
+                continue;
+            }
+            // Only the closest missed lead time is worth sending late; earlier ones would be stale
+            latestPassed = trigger;
+        }
+        if (latestPassed != null) {
+            overdue.add(latestPassed);
+        }
+    }
+
+    private void unschedule(int eventId) {
+        scheduledEvents.remove(eventId);
+        for (Duration lead : leadTimes) {
+            Trigger trigger = new Trigger(eventId, lead);
+            wheel.cancel(trigger);
+            overdue.remove(trigger);
         }
     }
 
-    private void sendNotificationIfNotExists(Ticket ticket) {
+    private int remindChunk(List<Integer> eventIds, String message) {
+        Set<Long> reminded = new HashSet<>();
+        for (Recipient recipient : repository.findRecipientsByEventIdsAndMessage(eventIds, message)) {
+            reminded.add(key(recipient.getUserId(), recipient.getEventId()));
+        }
+
+        int sent = 0;
+        int afterTicketId = 0;
+        List<Ticket> page;
+        do {
+            page = ticketClient.getBookedTicketsByEventIds(eventIds, afterTicketId, TICKET_PAGE_SIZE);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+
+            List<Notification> notifications = new ArrayList<>();
+            for (Ticket ticket : page) {
+                afterTicketId = Math.max(afterTicketId, ticket.getTicketId());
+                if (ticket.getEventId() <= 0 || ticket.getUserId() <= 0) {
+                    logger.warning(() -> "Invalid ticket data for ticket ID: " + ticket.getTicketId());
+                    continue;
+                }
+                // Several tickets for the same user and event still get a single reminder
+                if (reminded.add(key(ticket.getUserId(), ticket.getEventId()))) {
+                    notifications.add(Notification.builder()
+                            .userId(ticket.getUserId())
+                            .eventId(ticket.getEventId())
+                            .message(message)
+                            .timestamp(LocalDateTime.now())
+                            .build());
+                }
+            }
+
+            if (!notifications.isEmpty()) {
+                sent += save(notifications);
+            }
+        } while (page.size() == TICKET_PAGE_SIZE);
+        return sent;
+    }
+
+    // A retried chunk, or a replica that lost the partition mid-send, may have stored some of these already
+    private int save(List<Notification> notifications) {
         try {
-            boolean exists = repository.existsByUserIdAndEventIdAndMessage(
-                    ticket.getUserId(),
-                    ticket.getEventId(),
-                    REMINDER_MESSAGE
-            );
-
-            if (!exists) {
-                Notification notification = Notification.builder()
-                        .userId(ticket.getUserId())
-                        .eventId(ticket.getEventId())
-                        .message(REMINDER_MESSAGE)
-                        .timestamp(LocalDateTime.now())
-                        .build();
-                repository.save(notification);
-                logger.info(() -> "Reminder notification sent for user ID: " + ticket.getUserId() + 
-                           " and event ID: " + ticket.getEventId());
-            } else {
-                logger.fine(() -> "Notification already exists for user ID: " + ticket.getUserId() +
-                           " and event ID: " + ticket.getEventId());
+            repository.saveAll(notifications);
+            return notifications.size();
+        } catch (DataIntegrityViolationException e) {
+            logger.fine(() -> "Some of " + notifications.size() + " reminders already exist, saving one by one");
+        }
+        int saved = 0;
+        for (Notification notification : notifications) {
+            if (batchRepository.insertIfAbsent(notification)) {
+                saved++;
             }
-        } catch (Exception e) {
-            logger.log(Level.WARNING, 
-                "Error sending notification for ticket ID: " + ticket.getTicketId(), e);
         }
+        return saved;
+    }
+
+    private static String describe(Duration lead) {
+        if (lead.toDaysPart() > 0 && lead.toHoursPart() == 0 && lead.toMinutesPart() == 0) {
+            return plural(lead.toDays(), "day");
+        }
+        if (lead.toMinutesPart() == 0 && lead.toSecondsPart() == 0) {
+            return plural(lead.toHours(), "hour");
+        }
+        return plural(Math.max(1, lead.toMinutes()), "minute");
+    }
+
+    private static String plural(long amount, String unit) {
+        return amount + " " + unit + (amount == 1 ? "" : "s");
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long key(int userId, int eventId) {
+        return ((long) userId << 32) | (eventId & 0xFFFFFFFFL);
     }
 }
@@ -0,0 +1,22 @@
+package com.example.demo.service;
+
+import java.util.Set;
+
+public interface ReminderLeaseService {
+
+    /**
+     * Heartbeats this replica, renews its leases and claims or releases partitions towards its
+     * fair share. Returns true if the set of owned partitions changed.
+     */
+    boolean rebalance();
+
+    boolean ownsEvent(int eventId);
+
+    int partitionOf(int eventId);
+
+    Set<Integer> getOwnedPartitions();
+
+    String getNodeId();
+
+    void releaseAll();
+}
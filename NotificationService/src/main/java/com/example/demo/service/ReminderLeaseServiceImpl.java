@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.ReminderNode;
+import com.example.demo.repository.ReminderNodeRepository;
+import com.example.demo.repository.ReminderPartitionLeaseRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Splits reminder work across replicas by hashing event IDs into a fixed number of partitions
+ * and leasing each partition to one replica through conditional updates on a shared table.
+ *
+ * Every replica heartbeats into {@code reminder_node}; from the live count it works out its
+ * fair share, gives back partitions above it so a new replica can pick them up, and claims
+ * free or expired ones below it. Ownership is only trusted locally for half the lease TTL
+ * after the last successful renewal, so a replica that loses the database stops sending
+ * before its leases can be taken over.
+ */
+@Service
+public class ReminderLeaseServiceImpl implements ReminderLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderLeaseServiceImpl.class);
+
+    private final ReminderPartitionLeaseRepository leaseRepository;
+    private final ReminderNodeRepository nodeRepository;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Set<Integer> ownedPartitions = Set.of();
+    private volatile LocalDateTime ownershipValidUntil = LocalDateTime.MIN;
+    private boolean partitionsCreated;
+
+    public ReminderLeaseServiceImpl(ReminderPartitionLeaseRepository leaseRepository, ReminderNodeRepository nodeRepository,
+            @Value("${reminder.partitions:64}") int partitions,
+            @Value("${reminder.lease.ttl-ms:15000}") long leaseTtlMillis) {
+        if (partitions <= 0 || leaseTtlMillis <= 0) {
+            throw new IllegalArgumentException("Reminder partitions and lease TTL must be greater than 0");
+        }
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.partitions = partitions;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+    }
+
+    @Override
+    public synchronized boolean rebalance() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseTtl);
+        LocalDateTime liveCutoff = now.minus(leaseTtl);
+        createPartitions();
+
+        nodeRepository.save(new ReminderNode(nodeId, now));
+        nodeRepository.deleteStale(liveCutoff);
+        long liveNodes = Math.max(1, nodeRepository.countByLastSeenAtGreaterThanEqual(liveCutoff));
+        int fairShare = (int) ((partitions + liveNodes - 1) / liveNodes);
+
+        leaseRepository.renew(nodeId, expiresAt, now);
+        List<Integer> owned = new ArrayList<>(leaseRepository.findOwnedPartitionIds(nodeId, now).stream()
+                .filter(partitionId -> partitionId < partitions)
+                .toList());
+
+        if (owned.size() > fairShare) {
+            List<Integer> surplus = new ArrayList<>(owned.subList(fairShare, owned.size()));
+            leaseRepository.release(nodeId, surplus);
+            owned = new ArrayList<>(owned.subList(0, fairShare));
+            logger.info("Released {} reminder partitions for {} live replicas", surplus.size(), liveNodes);
+        } else if (owned.size() < fairShare) {
+            for (Integer partitionId : leaseRepository.findClaimablePartitionIds(now)) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (partitionId < partitions && leaseRepository.tryAcquire(partitionId, nodeId, expiresAt, now) == 1) {
+                    owned.add(partitionId);
+                }
+            }
+        }
+
+        Set<Integer> current = Set.copyOf(owned);
+        boolean changed = !current.equals(ownedPartitions);
+        ownedPartitions = current;
+        ownershipValidUntil = now.plus(leaseTtl.dividedBy(2));
+        if (changed) {
+            logger.info("Replica {} now owns {} of {} reminder partitions ({} live replicas)",
+                    nodeId, current.size(), partitions, liveNodes);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean ownsEvent(int eventId) {
+        return LocalDateTime.now().isBefore(ownershipValidUntil) && ownedPartitions.contains(partitionOf(eventId));
+    }
+
+    @Override
+    public int partitionOf(int eventId) {
+        // Spread sequential IDs evenly over the partitions
+        int hash = eventId * 0x9E3779B1;
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    @Override
+    public Set<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Hand partitions over right away on shutdown instead of making others wait for the TTL
+    @Override
+    @PreDestroy
+    public synchronized void releaseAll() {
+        Set<Integer> owned = ownedPartitions;
+        ownedPartitions = Set.of();
+        try {
+            if (!owned.isEmpty()) {
+                leaseRepository.release(nodeId, owned);
+            }
+            nodeRepository.deleteById(nodeId);
+            logger.info("Replica {} released {} reminder partitions", nodeId, owned.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not release reminder partitions, they expire after {}: {}", leaseTtl, e.getMessage());
+        }
+    }
+
+    private void createPartitions() {
+        if (partitionsCreated) {
+            return;
+        }
+        if (leaseRepository.count() < partitions) {
+            for (int partitionId = 0; partitionId < partitions; partitionId++) {
+                if (leaseRepository.existsById(partitionId)) {
+                    continue;
+                }
+                try {
+                    leaseRepository.insertPartition(partitionId);
+                } catch (DataIntegrityViolationException e) {
+                    // Another replica created it at the same time
+                    logger.debug("Reminder partition {} already created", partitionId);
+                }
+            }
+        }
+        partitionsCreated = true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by trigger.
+ *
+ * Level 0 has one slot per tick; every higher level has slots as wide as a full turn of the
+ * level below. A trigger sits in the lowest level whose range covers its delay and is moved
+ * down one level each time the wheel reaches its slot, so scheduling, cancelling and
+ * rescheduling are O(1) and advancing costs O(elapsed ticks + due triggers). Triggers beyond
+ * the top level wait in an overflow set that is re-checked once per top-level slot.
+ *
+ * Not thread-safe on its own; callers synchronise.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] slotMillis;
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final Set<K> overflow = new LinkedHashSet<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    // Start of the next tick to fire; every trigger due before it has been returned
+    private long currentTime;
+
+    private record Entry<K>(K key, long dueMillis, Set<K> bucket) {
+    }
+
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Tick must be positive, wheel size at least 2 and at least one level");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slotMillis = new long[levelCount];
+        long span = tickMillis;
+        for (int level = 0; level < levelCount; level++) {
+            slotMillis[level] = span;
+            List<Set<K>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            levels.add(slots);
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the trigger, replacing any earlier schedule for the same key.
+     *
+     * @return false if the trigger is already overdue; it is then not stored and the caller fires it
+     */
+    public boolean schedule(K key, long dueMillis) {
+        cancel(key);
+        return place(key, dueMillis);
+    }
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket().remove(key);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and returns the triggers that came due, in due order per tick.
+     */
+    public List<K> advance(long nowMillis) {
+        List<K> due = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            // Cascade from the top so a trigger can fall through several levels in one tick
+            for (int level = slotMillis.length - 1; level >= 1; level--) {
+                if (currentTime % slotMillis[level] == 0) {
+                    if (level == slotMillis.length - 1) {
+                        redistribute(drain(overflow), due);
+                    }
+                    redistribute(drain(levels.get(level).get(slotIndex(level, currentTime))), due);
+                }
+            }
+            for (K key : drain(levels.get(0).get(slotIndex(0, currentTime)))) {
+                entries.remove(key);
+                due.add(key);
+            }
+            currentTime += tickMillis;
+        }
+        return due;
+    }
+
+    private void redistribute(List<K> keys, List<K> due) {
+        for (K key : keys) {
+            Entry<K> entry = entries.get(key);
+            entry.bucket().remove(key);
+            entries.remove(key);
+            if (!place(key, entry.dueMillis())) {
+                due.add(key);
+            }
+        }
+    }
+
+    private boolean place(K key, long dueMillis) {
+        if (dueMillis < currentTime) {
+            return false;
+        }
+        // Lowest level whose turn still reaches the due slot; above level 0 that is never the current slot
+        Set<K> bucket = overflow;
+        for (int level = 0; level < slotMillis.length; level++) {
+            long slotDistance = Math.floorDiv(dueMillis, slotMillis[level]) - Math.floorDiv(currentTime, slotMillis[level]);
+            if (slotDistance < wheelSize) {
+                bucket = levels.get(level).get(slotIndex(level, dueMillis));
+                break;
+            }
+        }
+        bucket.add(key);
+        entries.put(key, new Entry<>(key, dueMillis, bucket));
+        return true;
+    }
+
+    private List<K> drain(Set<K> bucket) {
+        List<K> keys = new ArrayList<>(bucket);
+        bucket.clear();
+        return keys;
+    }
+
+    private int slotIndex(int level, long timeMillis) {
+        return (int) Math.floorMod(Math.floorDiv(timeMillis, slotMillis[level]), (long) wheelSize);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Minimal in-process SMTP server for dispatcher tests: speaks just enough of the protocol for
+ * Jakarta Mail, counts connections and accepted messages, and answers each DATA with the reply
+ * chosen by {@code dataReply} (given the 1-based number of the DATA command) so tests can
+ * simulate temporary and permanent rejections.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final IntFunction<String> dataReply;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger dataCommands = new AtomicInteger();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final Queue<String> recipients = new ConcurrentLinkedQueue<>();
+
+    FakeSmtpServer() throws IOException {
+        this(attempt -> "250 OK");
+    }
+
+    FakeSmtpServer(IntFunction<String> dataReply) throws IOException {
+        this.dataReply = dataReply;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    int getAccepted() {
+        return accepted.get();
+    }
+
+    Queue<String> getRecipients() {
+        return recipients;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                executor.execute(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost fake ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "RCPT" -> {
+                        recipients.add(line.substring(line.indexOf(':') + 1).trim());
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Message body is not needed
+                        }
+                        String result = dataReply.apply(dataCommands.incrementAndGet());
+                        if (result.startsWith("250")) {
+                            accepted.incrementAndGet();
+                        }
+                        reply(out, result);
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "500 Unknown command");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
@@ -8,7 +8,12 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -18,23 +23,60 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EmailDispatchStats;
 import com.example.demo.dto.Event;
+import com.example.demo.dto.Ticket;
 import com.example.demo.dto.User;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.NotificationNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.feignclient.EventClient;
+import com.example.demo.feignclient.EventClientFallbackFactory;
+import com.example.demo.feignclient.TicketClient;
+import com.example.demo.feignclient.TicketClientFallbackFactory;
 import com.example.demo.feignclient.UserClient;
+import com.example.demo.model.EmailDeadLetter;
 import com.example.demo.model.Notification;
+import com.example.demo.model.ReminderNode;
+import com.example.demo.model.ReminderSchedule;
+import com.example.demo.repository.EmailDeadLetterRepository;
+import com.example.demo.repository.NotificationBatchRepository;
 import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.NotificationRepository.DedupKey;
+import com.example.demo.repository.ReminderNodeRepository;
+import com.example.demo.repository.ReminderPartitionLeaseRepository;
+import com.example.demo.repository.ReminderScheduleRepository;
+import com.example.demo.service.EmailDispatcher;
+import com.example.demo.service.EmailService;
+import com.example.demo.service.EmailTemplate;
+import com.example.demo.service.EmailTemplateRenderer;
+import com.example.demo.service.NotificationDedupFilter;
+import com.example.demo.service.NotificationDigestBuffer;
+import com.example.demo.service.NotificationHashBackfill;
 import com.example.demo.service.NotificationServiceImpl;
+import com.example.demo.service.RemainderScheduler;
+import com.example.demo.service.ReminderLeaseService;
+import com.example.demo.service.ReminderLeaseServiceImpl;
+import com.example.demo.service.TimingWheel;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
 @ExtendWith(MockitoExtension.class)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -51,6 +93,39 @@ class NotificationServiceApplicationTests {
     @Mock
     private EventClient eventClient;
     
+    @Mock
+    private TicketClient ticketClient;
+    
+    @Mock
+    private ReminderLeaseService leaseService;
+    
+    @Mock
+    private ReminderScheduleRepository scheduleRepository;
+    
+    @Mock
+    private ReminderPartitionLeaseRepository leaseRepository;
+    
+    @Mock
+    private ReminderNodeRepository nodeRepository;
+    
+    @Mock
+    private EmailDeadLetterRepository deadLetterRepository;
+    
+    @Mock
+    private EmailService emailService;
+    
+    @Mock
+    private NotificationDigestBuffer digestBuffer;
+    
+    @Mock
+    private NotificationBatchRepository batchRepository;
+    
+    @Spy
+    private EmailTemplateRenderer templateRenderer = new EmailTemplateRenderer(16);
+    
+    @Spy
+    private NotificationDedupFilter dedupFilter = new NotificationDedupFilter(1000, 0.01);
+    
     @InjectMocks
     private NotificationServiceImpl notificationService;
     
@@ -66,6 +141,9 @@ class NotificationServiceApplicationTests {
     
     @BeforeEach
     void setup() {
+        // Fresh spied filter per test; the class instance is shared and the filter keeps state
+        dedupFilter = new NotificationDedupFilter(1000, 0.01);
+        
         // Initialize mocks
         closeable = MockitoAnnotations.openMocks(this);
         
@@ -304,6 +382,30 @@ class NotificationServiceApplicationTests {
         verify(notificationRepository).findByUserId(1);
     }
     
+    @Test
+    @DisplayName("Get All Notifications By User ID Paged - Checks User Only On First Page")
+    void testGetAllNotificationsByUserIdPaged() {
+        Notification second = Notification.builder().notificationId(7).userId(1).eventId(1).message("Second").build();
+        when(userClient.getUserById(1)).thenReturn(testUser);
+        when(notificationRepository.findByUserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(1, 0, Limit.of(2)))
+            .thenReturn(Arrays.asList(testNotification, second));
+        when(notificationRepository.findByUserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(1, 1, Limit.of(2)))
+            .thenReturn(List.of(second));
+        
+        CursorPage<Notification> first = notificationService.getAllNotificationsByUserIdPaged(1, null, 1);
+        assertEquals(List.of(testNotification), first.getItems());
+        assertTrue(first.isHasMore());
+        
+        CursorPage<Notification> last = notificationService.getAllNotificationsByUserIdPaged(1, first.getNextCursor(), 1);
+        assertEquals(List.of(second), last.getItems());
+        assertFalse(last.isHasMore());
+        verify(userClient, times(1)).getUserById(1);
+        
+        when(userClient.getUserById(2)).thenReturn(null);
+        assertThrows(UserNotFoundException.class, () -> notificationService.getAllNotificationsByUserIdPaged(2, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getAllNotificationsByUserIdPaged(1, "bogus", 1));
+    }
+    
     @Test
     @DisplayName("Get All Notifications By Event ID - No Notifications Found")
     void testGetAllNotificationsByEventId_NotFound() {
@@ -366,4 +468,630 @@ class NotificationServiceApplicationTests {
         verify(eventClient, never()).getEventById(anyInt());
         verify(notificationRepository, never()).save(any(Notification.class));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Timing Wheel - Fires Across Levels, Cancels And Reschedules")
+    void testTimingWheel() {
+        // Arrange - 10 ms ticks, 4 slots per level, 3 levels: 10, 40 and 160 ms slots, overflow beyond 640 ms
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        assertTrue(wheel.schedule("level0", 25));
+        assertTrue(wheel.schedule("level1", 95));
+        assertTrue(wheel.schedule("level2", 300));
+        assertTrue(wheel.schedule("overflow", 2000));
+        assertTrue(wheel.schedule("cancelled", 50));
+        assertTrue(wheel.schedule("moved", 60));
+        assertTrue(wheel.cancel("cancelled"));
+        assertTrue(wheel.schedule("moved", 700));
+        assertFalse(wheel.schedule("late", -1));
+        
+        // Act & Assert - each trigger fires in the tick that contains its due time, never earlier
+        assertEquals(List.of(), wheel.advance(29));
+        assertEquals(List.of("level0"), wheel.advance(30));
+        assertEquals(List.of(), wheel.advance(99));
+        assertEquals(List.of("level1"), wheel.advance(100));
+        assertEquals(List.of("level2"), wheel.advance(310));
+        assertEquals(List.of("moved"), wheel.advance(710));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(1999));
+        assertEquals(List.of("overflow"), wheel.advance(2010));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    @DisplayName("Reminder Scheduler - Lead Times, Late Catch-Up And Cancellation")
+    @SuppressWarnings("unchecked")
+    void testReminderScheduler_LeadTimes() {
+        // Arrange - event 25 hours away: the 7 day reminder is already overdue, 24h and 1h are in the wheel
+        when(leaseService.ownsEvent(anyInt())).thenReturn(true);
+        RemainderScheduler scheduler = new RemainderScheduler(ticketClient, eventClient, notificationRepository,
+                batchRepository, leaseService, scheduleRepository, "7d,24h,1h", 1000, 900000);
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.rescheduleEvent(1, now.plusHours(25));
+        assertEquals(2, scheduler.getScheduledTriggerCount());
+        
+        NotificationRepository.Recipient alreadyReminded = mock(NotificationRepository.Recipient.class);
+        when(alreadyReminded.getUserId()).thenReturn(2);
+        when(alreadyReminded.getEventId()).thenReturn(1);
+        when(notificationRepository.findRecipientsByEventIdsAndMessage(eq(List.of(1)), anyString()))
+                .thenReturn(List.of(alreadyReminded));
+        when(ticketClient.getBookedTicketsByEventIds(eq(List.of(1)), eq(0), anyInt())).thenReturn(List.of(
+                new Ticket(10, 1, 1, "BOOKED", now, 0),
+                new Ticket(11, 2, 1, "BOOKED", now, 0),
+                new Ticket(12, 3, 1, "BOOKED", now, 0),
+                new Ticket(13, 3, 1, "BOOKED", now, 0)));
+        
+        // Act - the overdue lead is sent on the next tick, one reminder per user
+        assertEquals(2, scheduler.fireDue(now));
+        
+        // Assert
+        ArgumentCaptor<List<Notification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(saved.capture());
+        assertEquals(List.of(1, 3), saved.getValue().stream().map(Notification::getUserId).toList());
+        assertEquals("Reminder: Your event starts within 7 days!", saved.getValue().get(0).getMessage());
+        
+        // Nothing else is due until the 24 hour mark
+        assertEquals(0, scheduler.fireDue(now.plusMinutes(59)));
+        assertEquals(2, scheduler.fireDue(now.plusHours(1).plusSeconds(2)));
+        verify(notificationRepository).findRecipientsByEventIdsAndMessage(List.of(1), "Reminder: Your event starts within 1 day!");
+        
+        // Cancelling the event drops the 1 hour reminder
+        scheduler.cancelEvent(1);
+        assertEquals(0, scheduler.getScheduledTriggerCount());
+        assertEquals(0, scheduler.fireDue(now.plusHours(25)));
+        verify(ticketClient, times(2)).getBookedTicketsByEventIds(anyList(), anyInt(), anyInt());
+        verify(ticketClient, never()).getAllTickets();
+    }
+    
+    @Test
+    @DisplayName("Reminder Scheduler - Failed Chunk Fires Again And Skips Stored Reminders")
+    void testReminderScheduler_FailedChunkRetried() {
+        // Arrange - the 1 hour reminder of an event 30 minutes away is overdue
+        when(leaseService.ownsEvent(anyInt())).thenReturn(true);
+        RemainderScheduler scheduler = new RemainderScheduler(ticketClient, eventClient, notificationRepository,
+                batchRepository, leaseService, scheduleRepository, "1h", 1000, 900000);
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.rescheduleEvent(1, now.plusMinutes(30));
+        when(ticketClient.getBookedTicketsByEventIds(eq(List.of(1)), eq(0), anyInt()))
+                .thenThrow(new RuntimeException("Ticket service unavailable"))
+                .thenReturn(List.of(new Ticket(10, 1, 1, "BOOKED", now, 0), new Ticket(11, 2, 1, "BOOKED", now, 0)));
+        // Another replica stored user 2's reminder while this one was failing
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("uk_notification_user_event_message"));
+        when(batchRepository.insertIfAbsent(any(Notification.class)))
+                .thenAnswer(inv -> ((Notification) inv.getArgument(0)).getUserId() == 1);
+        
+        // Act & Assert - the failed chunk is not lost, and the retry stores only what is missing
+        assertEquals(0, scheduler.fireDue(now));
+        assertEquals(1, scheduler.fireDue(now.plusSeconds(1)));
+        verify(batchRepository, times(2)).insertIfAbsent(any(Notification.class));
+        assertEquals(0, scheduler.fireDue(now.plusSeconds(2)));
+        verify(ticketClient, times(2)).getBookedTicketsByEventIds(anyList(), anyInt(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Reminder Scheduler - Resync Rebuilds And Prunes The Wheel")
+    void testReminderScheduler_Resync() {
+        // Arrange - the horizon is the longest lead plus two resync intervals
+        RemainderScheduler scheduler = new RemainderScheduler(ticketClient, eventClient, notificationRepository,
+                batchRepository, leaseService, scheduleRepository, "24h,1h", 1000, 900000);
+        when(leaseService.ownsEvent(anyInt())).thenReturn(true);
+        Event upcoming = new Event(1, "Test Event", "Music", "Hall", LocalDateTime.now().plusHours(30), 1, 10);
+        Event moved = new Event(1, "Test Event", "Music", "Hall", LocalDateTime.now().plusHours(20), 1, 10);
+        when(eventClient.getEventsStartingBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(upcoming))
+                .thenReturn(List.of(moved))
+                .thenReturn(List.of());
+        
+        // Act & Assert - startup load, then a moved event, then a deleted one
+        assertEquals(1, scheduler.resync());
+        assertEquals(2, scheduler.getScheduledTriggerCount());
+        // Moved inside 24 hours: that lead is now overdue and only the 1 hour trigger stays in the wheel
+        assertEquals(1, scheduler.resync());
+        assertEquals(1, scheduler.getScheduledTriggerCount());
+        assertEquals(0, scheduler.resync());
+        assertEquals(0, scheduler.getScheduledTriggerCount());
+        verifyNoInteractions(ticketClient);
+    }
+    
+    @Test
+    @DisplayName("Reminder Scheduler - Invalid Lead Times")
+    void testReminderScheduler_InvalidLeadTimes() {
+        assertThrows(IllegalArgumentException.class, () -> new RemainderScheduler(ticketClient, eventClient,
+                notificationRepository, batchRepository, leaseService, scheduleRepository, " , ", 1000, 900000));
+    }
+    
+    @Test
+    @DisplayName("Reminder Scheduler - Only The Partition Owner Schedules And Sends")
+    void testReminderScheduler_PartitionOwnership() {
+        // Arrange - this replica owns event 1 but not event 2
+        RemainderScheduler scheduler = new RemainderScheduler(ticketClient, eventClient, notificationRepository,
+                batchRepository, leaseService, scheduleRepository, "1h", 1000, 900000);
+        AtomicBoolean ownsEventOne = new AtomicBoolean(true);
+        when(leaseService.ownsEvent(anyInt())).thenAnswer(inv -> (int) inv.getArgument(0) == 1 && ownsEventOne.get());
+        LocalDateTime soon = LocalDateTime.now().plusMinutes(30);
+        
+        // Act - pushes for both land on this replica
+        scheduler.rescheduleEvent(1, soon);
+        scheduler.rescheduleEvent(2, soon);
+        
+        // Assert - both are recorded for the owners, only event 1 is queued here
+        verify(scheduleRepository, times(2)).save(any(ReminderSchedule.class));
+        ownsEventOne.set(false);
+        assertEquals(0, scheduler.fireDue(LocalDateTime.now()));
+        verifyNoInteractions(ticketClient);
+        
+        // Picking the partition up later applies the stored change from the table
+        ownsEventOne.set(true);
+        when(scheduleRepository.findByUpdatedAtGreaterThanEqualOrderByUpdatedAtAsc(any(LocalDateTime.class), any()))
+                .thenReturn(List.of(new ReminderSchedule(1, soon.plusHours(2), LocalDateTime.now()),
+                        new ReminderSchedule(2, soon, LocalDateTime.now())));
+        assertEquals(1, scheduler.applyPushedChanges());
+        assertEquals(1, scheduler.getScheduledTriggerCount());
+    }
+    
+    @Test
+    @DisplayName("Reminder Leases - Claims Fair Share, Skips Taken Partitions, Releases Surplus")
+    void testReminderLeases_Rebalance() {
+        // Arrange - 4 partitions, 2 live replicas
+        ReminderLeaseServiceImpl leases = new ReminderLeaseServiceImpl(leaseRepository, nodeRepository, 4, 15000);
+        when(leaseRepository.count()).thenReturn(4L);
+        when(nodeRepository.countByLastSeenAtGreaterThanEqual(any(LocalDateTime.class))).thenReturn(2L, 2L, 4L);
+        when(leaseRepository.findOwnedPartitionIds(eq(leases.getNodeId()), any(LocalDateTime.class)))
+                .thenReturn(List.of(), List.of(0, 2), List.of(0, 1, 2, 3));
+        when(leaseRepository.findClaimablePartitionIds(any(LocalDateTime.class))).thenReturn(List.of(0, 1, 2, 3));
+        // Partition 1 is claimed by another replica in between
+        when(leaseRepository.tryAcquire(anyInt(), eq(leases.getNodeId()), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(inv -> (int) inv.getArgument(0) == 1 ? 0 : 1);
+        
+        // Act & Assert - first round claims 0 and 2 and stops at the fair share of 2
+        assertTrue(leases.rebalance());
+        assertEquals(Set.of(0, 2), leases.getOwnedPartitions());
+        verify(leaseRepository, never()).tryAcquire(eq(3), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        int eventInOwnedPartition = IntStream.rangeClosed(1, 100)
+                .filter(eventId -> leases.partitionOf(eventId) == 0).findFirst().getAsInt();
+        assertTrue(leases.ownsEvent(eventInOwnedPartition));
+        
+        // Second round renews without change
+        assertFalse(leases.rebalance());
+        
+        // Two more replicas joined: keep one partition, hand the rest back
+        assertTrue(leases.rebalance());
+        assertEquals(Set.of(0), leases.getOwnedPartitions());
+        verify(leaseRepository).release(leases.getNodeId(), List.of(1, 2, 3));
+        verify(nodeRepository, times(3)).save(any(ReminderNode.class));
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Throughput Against Fake SMTP Server Reuses Connections")
+    void testEmailDispatcher_ThroughputAndConnectionReuse() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            // Arrange - 4 workers, generous domain limit so only the pipeline is measured
+            EmailDispatcher dispatcher = newDispatcher(server, 1000, 4, 3, 1000);
+            dispatcher.start();
+            int messages = 400;
+            long started = System.nanoTime();
+            
+            // Act
+            for (int i = 0; i < messages; i++) {
+                assertTrue(dispatcher.submit("user" + i + "@domain" + (i % 4) + ".test", "Subject " + i, "<p>Body " + i + "</p>"));
+            }
+            awaitCondition(() -> dispatcher.getStats().getSent() == messages, 30000);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            // Once the domains go quiet their refilled buckets are dropped
+            Map<?, ?> limiters = (Map<?, ?>) ReflectionTestUtils.getField(dispatcher, "limiters");
+            assertEquals(4, limiters.size());
+            awaitCondition(() -> {
+                ReflectionTestUtils.invokeMethod(dispatcher, "expireIdleLimiters");
+                return limiters.isEmpty();
+            }, 5000);
+            dispatcher.stop();
+            
+            // Assert - every message delivered over a handful of reused connections
+            EmailDispatchStats stats = dispatcher.getStats();
+            logger.info("Dispatched {} emails in {} ms ({} msg/s) over {} connections",
+                    messages, elapsedMillis, messages * 1000L / elapsedMillis, stats.getConnectionsOpened());
+            assertEquals(messages, server.getAccepted());
+            assertTrue(stats.getConnectionsOpened() <= 8, "connections: " + stats.getConnectionsOpened());
+            assertEquals(0, stats.getDeadLettered());
+            verifyNoInteractions(deadLetterRepository);
+        }
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Temporary Failures Are Retried")
+    void testEmailDispatcher_RetriesTemporaryFailure() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(attempt -> attempt <= 2 ? "451 Try again later" : "250 OK")) {
+            EmailDispatcher dispatcher = newDispatcher(server, 10, 1, 5, 1000);
+            dispatcher.start();
+            
+            dispatcher.submit("test@example.com", "Subject", "<p>Body</p>");
+            awaitCondition(() -> dispatcher.getStats().getSent() == 1, 10000);
+            dispatcher.stop();
+            
+            assertEquals(1, server.getAccepted());
+            assertEquals(2, dispatcher.getStats().getRetried());
+            verifyNoInteractions(deadLetterRepository);
+        }
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Exhausted Retries Go To Dead Letters")
+    void testEmailDispatcher_DeadLettersPermanentFailure() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(attempt -> "554 Rejected")) {
+            EmailDispatcher dispatcher = newDispatcher(server, 10, 1, 3, 1000);
+            dispatcher.start();
+            
+            dispatcher.submit("test@example.com", "Subject", "<p>Body</p>");
+            awaitCondition(() -> dispatcher.getStats().getDeadLettered() == 1, 10000);
+            dispatcher.stop();
+            
+            ArgumentCaptor<EmailDeadLetter> deadLetter = ArgumentCaptor.forClass(EmailDeadLetter.class);
+            verify(deadLetterRepository).save(deadLetter.capture());
+            assertEquals("test@example.com", deadLetter.getValue().getRecipient());
+            assertEquals(3, deadLetter.getValue().getAttempts());
+            assertEquals(0, server.getAccepted());
+        }
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Per-Domain Rate Limit")
+    void testEmailDispatcher_DomainRateLimit() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            // 20 per second with a burst of 20: the next 10 take about half a second
+            EmailDispatcher dispatcher = newDispatcher(server, 100, 2, 3, 20);
+            dispatcher.start();
+            long started = System.nanoTime();
+            
+            for (int i = 0; i < 30; i++) {
+                dispatcher.submit("user" + i + "@busy.test", "Subject", "<p>Body</p>");
+            }
+            awaitCondition(() -> dispatcher.getStats().getSent() == 30, 10000);
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            dispatcher.stop();
+            
+            assertTrue(elapsedMillis >= 400, "elapsed: " + elapsedMillis);
+            assertTrue(dispatcher.getStats().getThrottled() > 0);
+            assertEquals(30, server.getAccepted());
+        }
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Full Queue Pushes Back And Dead-Letters")
+    void testEmailDispatcher_FullQueue() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            // Not started, so nothing drains the queue of 2
+            EmailDispatcher dispatcher = newDispatcher(server, 2, 1, 3, 10);
+            
+            assertTrue(dispatcher.submit("a@example.com", "Subject", "Body"));
+            assertTrue(dispatcher.submit("b@example.com", "Subject", "Body"));
+            assertFalse(dispatcher.submit("c@example.com", "Subject", "Body"));
+            
+            ArgumentCaptor<EmailDeadLetter> deadLetter = ArgumentCaptor.forClass(EmailDeadLetter.class);
+            verify(deadLetterRepository).save(deadLetter.capture());
+            assertEquals("c@example.com", deadLetter.getValue().getRecipient());
+            assertEquals(2, dispatcher.getStats().getQueued());
+        }
+    }
+    
+    @Test
+    @DisplayName("Email Dispatcher - Messages Waiting For A Retry Keep Their Slot")
+    void testEmailDispatcher_DelayedMessagesHoldSlots() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(attempt -> attempt == 1 ? "451 Try again later" : "250 OK")) {
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost("localhost");
+            mailSender.setPort(server.getPort());
+            // Room for one message and a long backoff, so the retry is still waiting when the next one arrives
+            EmailDispatcher dispatcher = new EmailDispatcher(mailSender, deadLetterRepository, "noreply@example.com",
+                    1, 1, 3, 2000, 1000, 1000);
+            dispatcher.start();
+            
+            assertTrue(dispatcher.submit("a@example.com", "Subject", "Body"));
+            awaitCondition(() -> dispatcher.getStats().getRetried() == 1, 10000);
+            assertFalse(dispatcher.submit("b@example.com", "Subject", "Body"));
+            awaitCondition(() -> dispatcher.getStats().getSent() == 1, 10000);
+            assertTrue(dispatcher.submit("c@example.com", "Subject", "Body"));
+            awaitCondition(() -> dispatcher.getStats().getSent() == 2, 10000);
+            dispatcher.stop();
+            
+            // Only the rejected submit is dead-lettered; the retried message was never pushed out
+            ArgumentCaptor<EmailDeadLetter> deadLetter = ArgumentCaptor.forClass(EmailDeadLetter.class);
+            verify(deadLetterRepository).save(deadLetter.capture());
+            assertEquals("b@example.com", deadLetter.getValue().getRecipient());
+            assertEquals(2, server.getAccepted());
+        }
+    }
+    
+    @Test
+    @DisplayName("Send Notification - Renders Email From Templates")
+    void testSendNotification_RendersTemplate() {
+        testUser.setName("<b>Ann</b>");
+        testEvent.setDate(LocalDateTime.of(2030, 6, 1, 18, 0));
+        testEvent.setLocation("Hall A & B");
+        Notification inputNotification = new Notification();
+        inputNotification.setUserId(1);
+        inputNotification.setEventId(1);
+        inputNotification.setMessage("Doors open at 5");
+        
+        when(userClient.getUserById(1)).thenReturn(testUser);
+        when(eventClient.getEventById(1)).thenReturn(testEvent);
+        when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
+        
+        notificationService.sendNotification(inputNotification);
+        
+        ArgumentCaptor<String> html = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendEmail(eq("test@example.com"), eq("Event Notification: Test Event"), html.capture());
+        assertEquals("<div style='font-family: Arial, sans-serif;'><h2>Event Notification</h2>"
+                + "<p>Hello &lt;b&gt;Ann&lt;/b&gt;,</p><p>Doors open at 5</p><h3>Event Details:</h3>"
+                + "<p><strong>Name:</strong> Test Event</p><p><strong>Date:</strong> 2030-06-01T18:00</p>"
+                + "<p><strong>Location:</strong> Hall A &amp; B</p><p>Thank you for using our service.</p></div>",
+                html.getValue());
+    }
+    
+    @Test
+    @DisplayName("Email Template - Compile And Render")
+    void testEmailTemplate_CompileAndRender() {
+        EmailTemplate template = EmailTemplate.compile("<p>{{ name }} said {{{quote}}}</p>{{missing}}!");
+        
+        assertEquals(List.of("name", "quote", "missing"), template.getPlaceholders());
+        assertEquals("<p>&quot;O&#39;Neil&quot; said <em>hi</em></p>!",
+                template.render(Map.of("name", "\"O'Neil\"", "quote", "<em>hi</em>")));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("Hello {{name"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("Hello {{ }}"));
+    }
+    
+    @Test
+    @DisplayName("Email Template Renderer - Event Section Cached Until Event Changes")
+    void testEmailTemplateRenderer_EventSectionCache() {
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer(2);
+        testEvent.setDate(LocalDateTime.of(2030, 6, 1, 18, 0));
+        testEvent.setLocation("Hall A");
+        User other = new User(2, "Other", "other@example.com", "USER");
+        
+        String first = renderer.renderNotification(testUser, testEvent, "Hi");
+        String second = renderer.renderNotification(other, testEvent, "Hi");
+        assertTrue(first.contains("Hello Test User,"));
+        assertTrue(second.contains("Hello Other,"));
+        assertEquals(first.substring(first.indexOf("<h3>")), second.substring(second.indexOf("<h3>")));
+        assertEquals(1, renderer.getCachedEventCount());
+        
+        // Ticket count changes do not touch the section; a new location does
+        testEvent.setTicketCount(5);
+        assertTrue(renderer.renderNotification(testUser, testEvent, "Hi").contains("Hall A</p>"));
+        testEvent.setLocation("Hall B");
+        assertTrue(renderer.renderNotification(testUser, testEvent, "Hi").contains("Hall B</p>"));
+        
+        // Bounded: adding events beyond the size drops older sections
+        renderer.renderNotification(testUser, new Event(2, "Two", "Music", "X", LocalDateTime.now(), 1, 1), "Hi");
+        renderer.renderNotification(testUser, new Event(3, "Three", "Music", "Y", LocalDateTime.now(), 1, 1), "Hi");
+        assertEquals(2, renderer.getCachedEventCount());
+    }
+    
+    @Test
+    @DisplayName("Send Notification - Digest Mode Buffers Instead Of Saving")
+    void testSendNotification_DigestModeBuffers() {
+        Notification inputNotification = new Notification();
+        inputNotification.setUserId(1);
+        inputNotification.setEventId(1);
+        inputNotification.setMessage("Test notification");
+        
+        when(userClient.getUserById(1)).thenReturn(testUser);
+        when(eventClient.getEventById(1)).thenReturn(testEvent);
+        when(digestBuffer.isEnabled()).thenReturn(true);
+        when(digestBuffer.offer(testUser, testEvent, inputNotification)).thenReturn(true);
+        
+        Notification result = notificationService.sendNotification(inputNotification);
+        
+        assertSame(inputNotification, result);
+        assertNotNull(result.getTimestamp());
+        verify(notificationRepository, never()).save(any());
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+        
+        // The same notification still waiting in the digest is a duplicate
+        when(digestBuffer.contains(1, 1, "Test notification")).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () -> notificationService.sendNotification(inputNotification));
+    }
+    
+    @Test
+    @DisplayName("Notification Digest - One Batch Insert And One Email Per User")
+    void testNotificationDigest_FlushBatchesPerUser() {
+        NotificationDigestBuffer buffer = new NotificationDigestBuffer(batchRepository, emailService,
+                templateRenderer, dedupFilter, true, 60_000, 20, 100);
+        Event otherEvent = new Event(2, "Other Event", "Music", "Hall B", LocalDateTime.of(2030, 7, 1, 20, 0), 1, 10);
+        User otherUser = new User(2, "Other", "other@example.com", "USER");
+        
+        assertTrue(buffer.offer(testUser, testEvent, digestNotification(1, 1, "Booked 2 tickets")));
+        assertTrue(buffer.offer(testUser, otherEvent, digestNotification(1, 2, "Booked 1 ticket")));
+        assertTrue(buffer.offer(testUser, otherEvent, digestNotification(1, 2, "Starts tomorrow")));
+        assertTrue(buffer.offer(otherUser, otherEvent, digestNotification(2, 2, "Booked 1 ticket")));
+        assertTrue(buffer.contains(1, 2, "Starts tomorrow"));
+        assertFalse(buffer.contains(2, 2, "Starts tomorrow"));
+        
+        // Window still open
+        assertEquals(0, buffer.flushDue(System.currentTimeMillis()));
+        verifyNoInteractions(batchRepository);
+        
+        assertEquals(4, buffer.flushDue(System.currentTimeMillis() + 60_000));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> rows = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository).insertAll(rows.capture());
+        assertEquals(4, rows.getValue().size());
+        
+        ArgumentCaptor<String> html = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendEmail(eq("test@example.com"), eq("Event Notifications: 3 updates"), html.capture());
+        assertTrue(html.getValue().contains("You have 3 new notifications."));
+        assertTrue(html.getValue().contains("<p>Starts tomorrow</p>"));
+        assertTrue(html.getValue().contains("Hall B"));
+        verify(emailService).sendEmail(eq("other@example.com"), eq("Event Notification: Other Event"), anyString());
+        assertEquals(0, buffer.getBufferedCount());
+    }
+    
+    @Test
+    @DisplayName("Notification Digest - Limits And Per-Row Fallback")
+    void testNotificationDigest_LimitsAndFallback() {
+        NotificationDigestBuffer buffer = new NotificationDigestBuffer(batchRepository, emailService,
+                templateRenderer, dedupFilter, true, 60_000, 2, 2);
+        User second = new User(2, "Second", "second@example.com", "USER");
+        User third = new User(3, "Third", "third@example.com", "USER");
+        
+        assertTrue(buffer.offer(testUser, testEvent, digestNotification(1, 1, "One")));
+        assertTrue(buffer.offer(testUser, testEvent, digestNotification(1, 1, "Two")));
+        assertFalse(buffer.offer(testUser, testEvent, digestNotification(1, 1, "Three")));
+        assertTrue(buffer.offer(second, testEvent, digestNotification(2, 1, "One")));
+        assertFalse(buffer.offer(third, testEvent, digestNotification(3, 1, "One")));
+        
+        // The full digest flushes before its window closes; the batch hits a duplicate and is retried per row,
+        // so the duplicate is skipped and only the saved notification is emailed
+        when(batchRepository.insertAll(anyList()))
+            .thenThrow(new DuplicateKeyException("uk_notification_user_event_message"))
+            .thenReturn(List.of());
+        when(batchRepository.insertIfAbsent(any(Notification.class)))
+            .thenAnswer(inv -> "One".equals(((Notification) inv.getArgument(0)).getMessage()));
+        assertEquals(1, buffer.flushDue(System.currentTimeMillis()));
+        verify(batchRepository, times(2)).insertIfAbsent(any(Notification.class));
+        verify(emailService).sendEmail(eq("test@example.com"), eq("Event Notification: Test Event"), anyString());
+        verify(emailService, never()).sendEmail(eq("test@example.com"), eq("Event Notifications: 2 updates"), anyString());
+        assertEquals(1, buffer.getBufferedCount());
+        
+        // Shutdown flushes whatever is left
+        buffer.flushAll();
+        verify(emailService).sendEmail(eq("second@example.com"), anyString(), anyString());
+        assertEquals(0, buffer.getBufferedCount());
+    }
+    
+    @Test
+    @DisplayName("Send Notification - Dedup Filter Skips Probe For New Messages")
+    void testSendNotification_DedupFilterSkipsProbe() {
+        dedupFilter.markReady();
+        Notification inputNotification = new Notification();
+        inputNotification.setUserId(1);
+        inputNotification.setEventId(1);
+        inputNotification.setMessage("Test notification");
+        
+        when(userClient.getUserById(1)).thenReturn(testUser);
+        when(eventClient.getEventById(1)).thenReturn(testEvent);
+        when(notificationRepository.save(any(Notification.class))).thenReturn(inputNotification);
+        
+        notificationService.sendNotification(inputNotification);
+        verify(notificationRepository, never()).existsByUserIdAndEventIdAndMessage(anyInt(), anyInt(), anyString());
+        
+        // Once saved, the same message (ignoring case and spaces) goes to the database check
+        Notification again = Notification.builder().userId(1).eventId(1).message("  TEST Notification ").build();
+        when(notificationRepository.existsByUserIdAndEventIdAndMessage(1, 1, "  TEST Notification ")).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () -> notificationService.sendNotification(again));
+        verify(notificationRepository, times(1)).save(any(Notification.class));
+    }
+    
+    @Test
+    @DisplayName("Send Notification - Unique Index Violation Reported As Duplicate")
+    void testSendNotification_UniqueIndexRace() {
+        when(userClient.getUserById(1)).thenReturn(testUser);
+        when(eventClient.getEventById(1)).thenReturn(testEvent);
+        when(notificationRepository.save(any(Notification.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_notification_user_event_message"));
+        
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> notificationService.sendNotification(testNotification));
+        assertTrue(exception.getMessage().startsWith("Duplicate notification"));
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+    }
+    
+    @Test
+    @DisplayName("Notification Message Hash - Normalised And Stable")
+    void testNotification_MessageHash() {
+        assertEquals(Notification.hashMessage("Doors open at 5"), Notification.hashMessage("  doors OPEN at 5\n"));
+        assertNotEquals(Notification.hashMessage("Doors open at 5"), Notification.hashMessage("Doors open at 6"));
+        
+        NotificationDedupFilter filter = new NotificationDedupFilter(10_000, 0.01);
+        assertTrue(filter.mightContain(1, 1, "anything"));
+        filter.markReady();
+        for (int userId = 1; userId <= 10_000; userId++) {
+            filter.put(userId, 7, Notification.hashMessage("Booked"));
+        }
+        for (int userId = 1; userId <= 10_000; userId++) {
+            assertTrue(filter.mightContain(userId, 7, " booked"));
+        }
+        long falsePositives = IntStream.rangeClosed(1, 10_000)
+                .filter(userId -> filter.mightContain(userId, 8, "Booked"))
+                .count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+    
+    @Test
+    @DisplayName("Notification Hash Backfill - Hashes Legacy Rows And Warms Filter")
+    void testNotificationHashBackfill() {
+        NotificationHashBackfill backfill = new NotificationHashBackfill(notificationRepository, dedupFilter, 2);
+        Notification first = Notification.builder().notificationId(1).userId(1).eventId(1).message("One").build();
+        Notification second = Notification.builder().notificationId(2).userId(1).eventId(1).message("one ").build();
+        Notification third = Notification.builder().notificationId(5).userId(2).eventId(1).message("Two").build();
+        when(notificationRepository.findByMessageHashIsNullAndNotificationIdGreaterThanOrderByNotificationIdAsc(0, Limit.of(2)))
+            .thenReturn(List.of(first, second));
+        when(notificationRepository.findByMessageHashIsNullAndNotificationIdGreaterThanOrderByNotificationIdAsc(2, Limit.of(2)))
+            .thenReturn(List.of(third));
+        when(notificationRepository.setMessageHash(anyInt(), anyLong())).thenReturn(1);
+        // The second row duplicates the first once normalised
+        when(notificationRepository.setMessageHash(2, Notification.hashMessage("One")))
+            .thenThrow(new DataIntegrityViolationException("uk_notification_user_event_message"));
+        
+        assertEquals(2, backfill.backfill());
+        verify(notificationRepository).setMessageHash(5, Notification.hashMessage("Two"));
+        
+        DedupKey key = mock(DedupKey.class);
+        when(key.getNotificationId()).thenReturn(1);
+        when(key.getUserId()).thenReturn(1);
+        when(key.getEventId()).thenReturn(1);
+        when(key.getMessageHash()).thenReturn(Notification.hashMessage("One"));
+        when(notificationRepository.findDedupKeysAfter(0, Limit.of(2))).thenReturn(List.of(key));
+        
+        assertEquals(1, backfill.warmFilter());
+        assertTrue(dedupFilter.isReady());
+        assertTrue(dedupFilter.mightContain(1, 1, "ONE"));
+        assertFalse(dedupFilter.mightContain(1, 1, "Three"));
+    }
+    
+    @Test
+    @DisplayName("Feign Fallback - Open Circuit Fails Fast As Service Unavailable")
+    void testFeignFallback_OpenCircuitIsServiceUnavailable() {
+        // Arrange
+        EventClient fallback = new EventClientFallbackFactory().create(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("EVENTSERVICE")));
+
+        // Act & Assert
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> fallback.getEventById(1));
+        assertTrue(exception.getMessage().startsWith("EVENTSERVICE is unavailable"));
+    }
+
+    @Test
+    @DisplayName("Feign Fallback - Remote Errors Are Rethrown Unchanged")
+    void testFeignFallback_RemoteErrorRethrown() {
+        // Arrange
+        RuntimeException remoteError = new IllegalStateException("connection refused");
+        TicketClient fallback = new TicketClientFallbackFactory().create(remoteError);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> fallback.getAllTickets());
+        assertSame(remoteError, exception);
+    }
+    
+    private static Notification digestNotification(int userId, int eventId, String message) {
+        return Notification.builder().userId(userId).eventId(eventId).message(message).build();
+    }
+    
+    private EmailDispatcher newDispatcher(FakeSmtpServer server, int queueCapacity, int workers, int maxAttempts,
+            double domainRatePerSecond) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(server.getPort());
+        return new EmailDispatcher(mailSender, deadLetterRepository, "noreply@example.com", queueCapacity, workers,
+                maxAttempts, 5, domainRatePerSecond, 1000);
+    }
+    
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + timeoutMillis + " ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.User;
+import com.example.demo.service.EmailTemplateRenderer;
+
+/**
+ * Compares building the notification email body by string concatenation, as
+ * {@code NotificationServiceImpl.sendNotification} used to, with rendering it through
+ * {@link EmailTemplateRenderer}, where the event section comes from the per-event cache and only
+ * the greeting and message are spliced in per recipient.
+ *
+ * Sends are spread over a few events and many users, like a reminder fan-out. The plain
+ * concatenation baseline does no escaping, so it is unsafe for user-supplied names and
+ * messages; the escaped variant is what concatenation costs once it is made safe, and is the
+ * fair comparison. Not run by the build; start {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+
+    private static final int EVENTS = 16;
+    private static final int USERS = 1024;
+    private static final String MESSAGE = "Reminder: Your event starts within 1 day!";
+
+    @State(Scope.Thread)
+    public static class Recipients {
+
+        Event[] events;
+        User[] users;
+        EmailTemplateRenderer renderer;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            events = new Event[EVENTS];
+            for (int i = 0; i < EVENTS; i++) {
+                events[i] = new Event(i + 1, "Summer Concert " + i, "Music", "City Arena, Hall " + i,
+                        LocalDateTime.of(2030, 6, 1, 18, 0).plusDays(i), 1, 500);
+            }
+            users = new User[USERS];
+            for (int i = 0; i < USERS; i++) {
+                users[i] = new User(i + 1, "Attendee Number " + i, "user" + i + "@example.com", "USER");
+            }
+            renderer = new EmailTemplateRenderer(EVENTS);
+        }
+
+        int nextIndex() {
+            return next++ & Integer.MAX_VALUE;
+        }
+    }
+
+    @Benchmark
+    public String stringConcatenation(Recipients recipients) {
+        int index = recipients.nextIndex();
+        User user = recipients.users[index % USERS];
+        Event event = recipients.events[index % EVENTS];
+        return "<div style='font-family: Arial, sans-serif;'>" +
+                "<h2>Event Notification</h2>" +
+                "<p>Hello " + user.getName() + ",</p>" +
+                "<p>" + MESSAGE + "</p>" +
+                "<h3>Event Details:</h3>" +
+                "<p><strong>Name:</strong> " + event.getName() + "</p>" +
+                "<p><strong>Date:</strong> " + event.getDate() + "</p>" +
+                "<p><strong>Location:</strong> " + event.getLocation() + "</p>" +
+                "<p>Thank you for using our service.</p>" +
+                "</div>";
+    }
+
+    @Benchmark
+    public String escapedStringConcatenation(Recipients recipients) {
+        int index = recipients.nextIndex();
+        User user = recipients.users[index % USERS];
+        Event event = recipients.events[index % EVENTS];
+        return "<div style='font-family: Arial, sans-serif;'>" +
+                "<h2>Event Notification</h2>" +
+                "<p>Hello " + escape(user.getName()) + ",</p>" +
+                "<p>" + escape(MESSAGE) + "</p>" +
+                "<h3>Event Details:</h3>" +
+                "<p><strong>Name:</strong> " + escape(event.getName()) + "</p>" +
+                "<p><strong>Date:</strong> " + event.getDate() + "</p>" +
+                "<p><strong>Location:</strong> " + escape(event.getLocation()) + "</p>" +
+                "<p>Thank you for using our service.</p>" +
+                "</div>";
+    }
+
+    @Benchmark
+    public String compiledTemplate(Recipients recipients) {
+        int index = recipients.nextIndex();
+        User user = recipients.users[index % USERS];
+        Event event = recipients.events[index % EVENTS];
+        return recipients.renderer.renderNotification(user, event, MESSAGE);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&#39;");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NotificationTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
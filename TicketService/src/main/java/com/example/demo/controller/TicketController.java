@@ -1,18 +1,38 @@
 package com.example.demo.controller;
 
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dto.BatchBookingRequest;
+import com.example.demo.dto.BatchBookingResponse;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ReferenceCacheStats;
+import com.example.demo.dto.SeatHoldRequest;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.TicketNotFoundException;
+import com.example.demo.model.SeatHold;
 import com.example.demo.model.Ticket;
+import com.example.demo.model.Ticket.Status;
+import com.example.demo.service.IdempotencyService;
+import com.example.demo.service.ReferenceDataCache;
+import com.example.demo.service.SeatHoldService;
+import com.example.demo.service.TicketExportService;
+import com.example.demo.service.TicketExportService.ExportFormat;
 import com.example.demo.service.TicketService;
 
 import jakarta.validation.Valid;
@@ -25,10 +45,23 @@ import lombok.AllArgsConstructor;
 public class TicketController {
 
     TicketService service;
+    SeatHoldService seatHoldService;
+    IdempotencyService idempotencyService;
+    ReferenceDataCache referenceCache;
+    TicketExportService exportService;
 
     @PostMapping("/book")
-    public Ticket bookTicket(@RequestBody @Valid Ticket ticket) {
-        return service.bookTicket(ticket);
+    public Ticket bookTicket(@RequestBody @Valid Ticket ticket,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "BOOK", ticket, Ticket.class,
+                () -> service.bookTicket(ticket));
+    }
+
+    @PostMapping("/bookBatch")
+    public BatchBookingResponse bookTickets(@RequestBody @Valid BatchBookingRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "BOOK_BATCH", request, BatchBookingResponse.class,
+                () -> service.bookTickets(request));
     }
 
     @GetMapping("/getTicketById/{tid}")
@@ -45,6 +78,20 @@ public class TicketController {
         return tickets;
     }
 
+    // Pass the returned nextCursor back to get the following page
+    @GetMapping("/getAllTicketsPaged")
+    public CursorPage<Ticket> getAllTicketsPaged(@RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return service.getAllTicketsPaged(cursor, limit);
+    }
+
+    @GetMapping("/getTicketsByStatusPaged")
+    public CursorPage<Ticket> getTicketsByStatusPaged(@RequestParam("status") Status status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return service.getTicketsByStatusPaged(status, cursor, limit);
+    }
+
     @GetMapping("/getTicketByUserId/{uid}")
     public List<Ticket> getTicketsByUserId(@PathVariable("uid") @Min(value = 1, message = "User ID must be greater than 0") int userId) {
         List<Ticket> tickets = service.getTicketsByUserId(userId);
@@ -63,9 +110,79 @@ public class TicketController {
         return tickets;
     }
 
+    // Streams the attendee list as NDJSON or CSV without loading it into memory; use this for large events
+    @GetMapping("/export/{eid}")
+    public ResponseEntity<StreamingResponseBody> exportTicketsByEventId(
+            @PathVariable("eid") @Min(value = 1, message = "Event ID must be greater than 0") int eventId,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = exportService.exportTicketsByEventId(eventId, status, format);
+        String filename = "event-" + eventId + "-tickets." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Paged by ticket ID for the reminder job: pass the last ticket ID of the previous page as afterTicketId
+    @GetMapping("/getBookedTicketsByEventIds")
+    public List<Ticket> getBookedTicketsByEventIds(@RequestParam("eventIds") Set<Integer> eventIds,
+            @RequestParam(value = "afterTicketId", defaultValue = "0") int afterTicketId,
+            @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return service.getBookedTicketsByEventIds(eventIds, afterTicketId, limit);
+    }
+
     @DeleteMapping("/cancel/{id}")
-    public String cancelTicket(@PathVariable("id") @Min(value = 1, message = "Ticket ID must be greater than 0") int ticketId) {
-        service.cancelTicket(ticketId);
-        return "Ticket cancelled successfully";
+    public String cancelTicket(@PathVariable("id") @Min(value = 1, message = "Ticket ID must be greater than 0") int ticketId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "CANCEL", ticketId, String.class, () -> {
+            service.cancelTicket(ticketId);
+            return "Ticket cancelled successfully";
+        });
+    }
+
+    @PostMapping("/hold")
+    public SeatHold holdSeats(@RequestBody @Valid SeatHoldRequest request) {
+        return seatHoldService.holdSeats(request);
+    }
+
+    @GetMapping("/hold/{holdId}")
+    public SeatHold getHoldById(@PathVariable("holdId") String holdId) {
+        return seatHoldService.getHoldById(holdId);
+    }
+
+    @PostMapping("/hold/{holdId}/confirm")
+    public Ticket confirmHold(@PathVariable("holdId") String holdId) {
+        return seatHoldService.confirmHold(holdId);
+    }
+
+    @DeleteMapping("/hold/{holdId}")
+    public String releaseHold(@PathVariable("holdId") String holdId) {
+        seatHoldService.releaseHold(holdId);
+        return "Hold released successfully";
+    }
+
+    @GetMapping("/cache/stats")
+    public List<ReferenceCacheStats> getCacheStats() {
+        return referenceCache.getStats();
+    }
+
+    // Only clear the instance that receives the request: UserService and EventService call every instance in turn
+    @DeleteMapping("/cache/user/{uid}")
+    public String invalidateCachedUser(@PathVariable("uid") int userId) {
+        referenceCache.invalidateUser(userId);
+        return "Cached user invalidated";
+    }
+
+    @DeleteMapping("/cache/event/{eid}")
+    public String invalidateCachedEvent(@PathVariable("eid") int eventId) {
+        referenceCache.invalidateEvent(eventId);
+        return "Cached event invalidated";
+    }
+
+    @DeleteMapping("/cache")
+    public String invalidateCache() {
+        referenceCache.invalidateAll();
+        return "Lookup caches cleared";
     }
 }
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingItemResult {
+
+    // Position of the item in the request
+    private int index;
+    private int userId;
+    private int eventId;
+    private int quantity;
+    private boolean booked;
+    private Integer ticketId;
+    private String error;
+}
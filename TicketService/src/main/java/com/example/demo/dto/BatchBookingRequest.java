@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import com.example.demo.model.Ticket;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingRequest {
+
+    // Items are checked one by one so a bad item fails alone instead of rejecting the batch
+    @NotEmpty(message = "At least one ticket is required")
+    @Size(max = 500, message = "At most 500 tickets can be booked in one batch")
+    private List<Ticket> tickets;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingResponse {
+
+    private int bookedCount;
+    private int failedCount;
+    private List<BatchBookingItemResult> results;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatHoldRequest {
+
+    @Min(value = 1, message = "Event ID must be greater than 0")
+    private int eventId;
+
+    @Min(value = 1, message = "User ID must be greater than 0")
+    private int userId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private int quantity = 1;
+}
@@ -1,5 +1,8 @@
 package com.example.demo.feignclient;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -8,19 +11,31 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.demo.dto.Event;
 
-@FeignClient(name = "EVENTSERVICE", path = "/event")
+// Not primary: callers get CoalescingEventClient, which wraps this one
+@FeignClient(name = "EVENTSERVICE", path = "/event", qualifiers = "eventFeignClient", primary = false,
+        fallbackFactory = EventClientFallbackFactory.class)
 public interface EventClient {
 
     @GetMapping("/getEventById/{id}")
     public Event getEventById(@PathVariable("id") int eventId);
 
+    @GetMapping("/getEventsByIds")
+    public Map<Integer, Event> getEventsByIds(@RequestParam("ids") Collection<Integer> eventIds);
+
+    // A non-null reservation token makes the call safe to repeat: the event service applies it at most once
     @PutMapping("/decreaseTicketCount/{eventId}")
     public void decreaseTicketCount(
             @PathVariable("eventId") int eventId,
-            @RequestParam("quantity") int quantity);
+            @RequestParam("quantity") int quantity,
+            @RequestParam(value = "reservationToken", required = false) String reservationToken);
 
     @PutMapping("/increaseTicketCount/{eventId}")
     public void increaseTicketCount(
             @PathVariable("eventId") int eventId,
-            @RequestParam("quantity") int quantity);
+            @RequestParam("quantity") int quantity,
+            @RequestParam(value = "reservationToken", required = false) String reservationToken);
+
+    // APPLIED if a call with the token took effect, otherwise VOIDED: no call with it can take effect any more
+    @PutMapping("/reservations/{token}/settle")
+    public String settleReservation(@PathVariable("token") String reservationToken, @RequestParam("eventId") int eventId);
 }
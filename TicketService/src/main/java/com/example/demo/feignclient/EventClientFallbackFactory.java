@@ -0,0 +1,44 @@
+package com.example.demo.feignclient;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.Event;
+
+@Component
+public class EventClientFallbackFactory implements FallbackFactory<EventClient> {
+
+    @Override
+    public EventClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("EVENTSERVICE", cause);
+        return new EventClient() {
+            @Override
+            public Event getEventById(int eventId) {
+                throw failure;
+            }
+
+            @Override
+            public Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds) {
+                throw failure;
+            }
+
+            @Override
+            public void decreaseTicketCount(int eventId, int quantity, String reservationToken) {
+                throw failure;
+            }
+
+            @Override
+            public void increaseTicketCount(int eventId, int quantity, String reservationToken) {
+                throw failure;
+            }
+
+            @Override
+            public String settleReservation(String reservationToken, int eventId) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 
 import com.example.demo.dto.NotificationRequest;
 
-@FeignClient(name = "NOTIFICATIONSERVICE", path = "/notification")
+@FeignClient(name = "NOTIFICATIONSERVICE", path = "/notification", fallbackFactory = NotificationClientFallbackFactory.class)
 public interface NotificationClient {
 
     @PostMapping("/sendNotification")
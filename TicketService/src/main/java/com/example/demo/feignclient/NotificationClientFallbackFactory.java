@@ -0,0 +1,21 @@
+package com.example.demo.feignclient;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.NotificationRequest;
+
+@Component
+public class NotificationClientFallbackFactory implements FallbackFactory<NotificationClient> {
+
+    @Override
+    public NotificationClient create(Throwable cause) {
+        RuntimeException failure = FeignResilienceConfig.fallbackFailure("NOTIFICATIONSERVICE", cause);
+        return new NotificationClient() {
+            @Override
+            public void sendNotification(NotificationRequest notificationRequest) {
+                throw failure;
+            }
+        };
+    }
+}
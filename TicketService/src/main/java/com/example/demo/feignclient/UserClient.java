@@ -1,16 +1,24 @@
 package com.example.demo.feignclient;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.demo.dto.User;
 
-@FeignClient(name="USERSERVICE",path="/user")
+// Not primary: callers get CoalescingUserClient, which wraps this one
+@FeignClient(name="USERSERVICE",path="/user",qualifiers="userFeignClient",primary=false,fallbackFactory=UserClientFallbackFactory.class)
 public interface UserClient
 {
 	@GetMapping("/getUserById/{id}")
 	public User getUserById(@PathVariable("id") int userId);
+
+	@GetMapping("/getUsersByIds")
+	public Map<Integer, User> getUsersByIds(@RequestParam("ids") Collection<Integer> userIds);
 	
 
 }
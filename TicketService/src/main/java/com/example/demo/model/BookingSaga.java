@@ -0,0 +1,70 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Durable progress of one booking or cancellation, so a crash between the local ticket
+ * write and the remote inventory call can be resumed or compensated afterwards.
+ *
+ * PENDING: started, the inventory call may or may not have happened; the event service
+ * can tell which from the saga's reservation token.
+ * INVENTORY_RESERVED: the inventory call succeeded (tickets taken for BOOK, returned for CANCEL).
+ * CONFIRMED: the ticket change is committed. COMPENSATED: the saga was rolled back.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_booking_saga_state", columnList = "state, saga_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long sagaId;
+
+    @Enumerated(EnumType.STRING)
+    private SagaType sagaType;
+
+    @Enumerated(EnumType.STRING)
+    private SagaState state;
+
+    private int ticketId;
+
+    private int eventId;
+
+    private int userId;
+
+    private int quantity;
+
+    // Sent with the inventory call; the event service applies each token at most once and can be asked about it
+    @Column(length = 64)
+    private String reservationToken;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public enum SagaType {
+        BOOK, CANCEL
+    }
+
+    public enum SagaState {
+        PENDING, INVENTORY_RESERVED, CONFIRMED, COMPENSATED
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key} header, kept so that a
+ * retry with the same key gets the original response instead of running again.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    // Operation and client key, e.g. "BOOK:3f2a..."
+    @Id
+    @Column(length = 150)
+    private String recordKey;
+
+    // SHA-256 of the request body, so a key cannot be reused for a different request
+    @Column(length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    private RecordStatus status;
+
+    @Lob
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    // New records are always inserted, so a concurrent duplicate fails on the primary key instead of overwriting
+    @Transient
+    @JsonIgnore
+    private boolean newRecord = true;
+
+    public enum RecordStatus {
+        IN_PROGRESS, COMPLETED
+    }
+
+    @Override
+    public String getId() {
+        return recordKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRecord = false;
+    }
+}
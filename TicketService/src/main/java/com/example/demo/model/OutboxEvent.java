@@ -0,0 +1,65 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A notification written in the same transaction as the ticket change that caused it,
+ * and delivered to NotificationService afterwards by the outbox relay.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    private EventType eventType;
+
+    private int ticketId;
+
+    private int userId;
+
+    private int eventId;
+
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public enum EventType {
+        TICKET_BOOKED, TICKET_CANCELLED
+    }
+
+    public enum OutboxStatus {
+        PENDING, SENT, FAILED
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inventory taken from an event for a checkout in progress. The hold either becomes a
+ * {@link Ticket} when it is confirmed before {@code expiresAt}, or its tickets are
+ * given back to the event when it is released or expires.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_seat_hold_status", columnList = "status, inventory_released"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+
+    @Id
+    private String holdId;
+
+    @Min(value = 1, message = "Event ID must be greater than 0")
+    private int eventId;
+
+    @Min(value = 1, message = "User ID must be greater than 0")
+    private int userId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private HoldStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    // Set once the hold has been confirmed into a ticket
+    private Integer ticketId;
+
+    // Whether the held tickets have been given back to the event after a release or expiry
+    private boolean inventoryReleased;
+
+    // PENDING holds are saved before their tickets are taken and become HELD once the event service has counted them
+    public enum HoldStatus {
+        PENDING, HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+}
@@ -2,13 +2,19 @@ package com.example.demo.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -16,6 +22,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+// Every TicketRepository filter is a prefix of one of these: eventId and (eventId, status) use
+// idx_ticket_event_status, userId and (userId, status) use idx_ticket_user_status, and
+// (userId, eventId) and its existence check use idx_ticket_user_event
+@Table(indexes = {
+        @Index(name = "idx_ticket_event_status", columnList = "event_id, status, ticket_id"),
+        @Index(name = "idx_ticket_status", columnList = "status, ticket_id"),
+        @Index(name = "idx_ticket_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_ticket_user_event", columnList = "user_id, event_id") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,14 +49,19 @@ public class Ticket {
 
     private LocalDateTime bookingDate;
 
+    // A plain VARCHAR rather than a MySQL ENUM, so adding a status needs no column change; databases created
+    // before PENDING existed still have enum('BOOKED','CANCELLED') and need db/alter-ticket-status-varchar.sql
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
     private Status status;
 
     @Min(value = 1, message = "Quantity must be at least 1")
     private int quantity = 1; // Default to 1 if not specified
 
     public enum Status {
-        BOOKED, CANCELLED
+        // PENDING: saved while the booking saga is still taking inventory from the event
+        PENDING, BOOKED, CANCELLED
     }
     
     @PrePersist
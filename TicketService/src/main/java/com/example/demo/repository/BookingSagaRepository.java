@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.BookingSaga;
+import com.example.demo.model.BookingSaga.SagaState;
+
+public interface BookingSagaRepository extends JpaRepository<BookingSaga, Long> {
+
+    // Next page of unfinished sagas that have not moved since the cutoff, in ID order
+    List<BookingSaga> findBySagaIdGreaterThanAndStateInAndUpdatedAtBeforeOrderBySagaIdAsc(long sagaId,
+            Collection<SagaState> states, LocalDateTime cutoff, Limit limit);
+
+    // Advance a saga only from the expected state; returns 0 if another worker already moved it
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookingSaga s SET s.state = :to, s.updatedAt = :now, s.lastError = :lastError "
+            + "WHERE s.sagaId = :sagaId AND s.state = :from")
+    int transition(@Param("sagaId") long sagaId, @Param("from") SagaState from, @Param("to") SagaState to,
+            @Param("now") LocalDateTime now, @Param("lastError") String lastError);
+
+    // Advance a batch group's sagas in one statement; returns how many were still in the expected state
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookingSaga s SET s.state = :to, s.updatedAt = :now, s.lastError = :lastError "
+            + "WHERE s.sagaId IN :sagaIds AND s.state = :from")
+    int transitionAll(@Param("sagaIds") Collection<Long> sagaIds, @Param("from") SagaState from,
+            @Param("to") SagaState to, @Param("now") LocalDateTime now, @Param("lastError") String lastError);
+}
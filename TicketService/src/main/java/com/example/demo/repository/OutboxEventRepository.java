@@ -0,0 +1,48 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.model.OutboxEvent.OutboxStatus;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest entries that are due for a delivery attempt
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByOutboxIdAsc(OutboxStatus status,
+            LocalDateTime now, Limit limit);
+
+    // Take an entry for one delivery attempt; fails (returns 0) if another relay got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :leaseUntil "
+            + "WHERE o.outboxId = :outboxId AND o.status = :status AND o.attempts = :attempts")
+    int claim(@Param("outboxId") long outboxId, @Param("status") OutboxStatus status,
+            @Param("attempts") int attempts, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.status = :status, o.sentAt = :sentAt, o.lastError = null WHERE o.outboxId = :outboxId")
+    int markSent(@Param("outboxId") long outboxId, @Param("status") OutboxStatus status,
+            @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.status = :status, o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError "
+            + "WHERE o.outboxId = :outboxId")
+    int markAttemptFailed(@Param("outboxId") long outboxId, @Param("status") OutboxStatus status,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+
+    // Delivered entries are only kept for a while for troubleshooting
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.status = :status AND o.sentAt < :before")
+    int deleteSentBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
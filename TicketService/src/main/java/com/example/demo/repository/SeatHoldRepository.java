@@ -0,0 +1,53 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.SeatHold;
+import com.example.demo.model.SeatHold.HoldStatus;
+
+public interface SeatHoldRepository extends JpaRepository<SeatHold, String> {
+
+    // Open holds, used to rebuild the in-memory expiry queue on startup
+    List<SeatHold> findByStatus(HoldStatus status);
+
+    // Holds left PENDING by a request that never finished taking their tickets
+    List<SeatHold> findByStatusAndCreatedAtBefore(HoldStatus status, LocalDateTime cutoff);
+
+    // Released or expired holds whose tickets have not been given back to the event yet
+    List<SeatHold> findByStatusInAndInventoryReleasedFalse(Collection<HoldStatus> statuses);
+
+    // Move a hold out of its current status only if nobody else did first; returns the number of rows updated (0 or 1)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SeatHold h SET h.status = :to WHERE h.holdId = :holdId AND h.status = :from")
+    int transitionHold(@Param("holdId") String holdId, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    // Confirm a hold only while it is still open and has not run out
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SeatHold h SET h.status = :to WHERE h.holdId = :holdId AND h.status = :from AND h.expiresAt > :now")
+    int confirmHold(@Param("holdId") String holdId, @Param("from") HoldStatus from, @Param("to") HoldStatus to,
+            @Param("now") LocalDateTime now);
+
+    // Drop a hold whose tickets were never taken, unless it has already moved on
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM SeatHold h WHERE h.holdId = :holdId AND h.status = :status")
+    int deleteByHoldIdAndStatus(@Param("holdId") String holdId, @Param("status") HoldStatus status);
+
+    // Claim a closed hold's tickets for returning to the event, once; returns 0 if another run already claimed them
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SeatHold h SET h.inventoryReleased = true WHERE h.holdId = :holdId AND h.inventoryReleased = false")
+    int claimInventoryRelease(@Param("holdId") String holdId);
+
+    // Hand claimed holds back when their tickets could not be returned, so a later run can claim them again
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SeatHold h SET h.inventoryReleased = false WHERE h.holdId IN :holdIds")
+    int unclaimInventoryRelease(@Param("holdIds") Collection<String> holdIds);
+}
@@ -0,0 +1,103 @@
+package com.example.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.BookingSaga;
+import com.example.demo.model.Ticket;
+
+/**
+ * Plain JDBC writes for bulk bookings. Hibernate cannot batch inserts of
+ * IDENTITY-keyed entities, so a group order would otherwise cost one round trip per
+ * ticket and another per saga.
+ */
+@Repository
+public class TicketBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ticket (event_id, user_id, booking_date, status, quantity) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SAGA_SQL =
+            "INSERT INTO booking_saga (saga_type, state, ticket_id, event_id, user_id, quantity, reservation_token, "
+            + "last_error, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts all tickets in one JDBC batch and sets their generated IDs; joins the caller's transaction
+    public List<Ticket> insertAll(List<Ticket> tickets) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] { "ticket_id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Ticket ticket = tickets.get(i);
+                        statement.setInt(1, ticket.getEventId());
+                        statement.setInt(2, ticket.getUserId());
+                        statement.setTimestamp(3, Timestamp.valueOf(ticket.getBookingDate()));
+                        statement.setString(4, ticket.getStatus().name());
+                        statement.setInt(5, ticket.getQuantity());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return tickets.size();
+                    }
+                },
+                keyHolder);
+
+        // Key column names differ between drivers, so take the single generated value of each row
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < tickets.size(); i++) {
+            tickets.get(i).setTicketId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        return tickets;
+    }
+
+    // Inserts all sagas in one JDBC batch and sets their generated IDs; joins the caller's transaction
+    public List<BookingSaga> insertSagas(List<BookingSaga> sagas) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SAGA_SQL, new String[] { "saga_id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        BookingSaga saga = sagas.get(i);
+                        statement.setString(1, saga.getSagaType().name());
+                        statement.setString(2, saga.getState().name());
+                        statement.setInt(3, saga.getTicketId());
+                        statement.setInt(4, saga.getEventId());
+                        statement.setInt(5, saga.getUserId());
+                        statement.setInt(6, saga.getQuantity());
+                        statement.setString(7, saga.getReservationToken());
+                        statement.setString(8, saga.getLastError());
+                        statement.setTimestamp(9, Timestamp.valueOf(saga.getCreatedAt()));
+                        statement.setTimestamp(10, Timestamp.valueOf(saga.getUpdatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sagas.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < sagas.size(); i++) {
+            sagas.get(i).setSagaId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        return sagas;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.Ticket.Status;
+
+/**
+ * Forward-only reads of an event's tickets for exports. Rows are handed to the callback as the
+ * driver fetches them, {@code fetch-size} at a time, so no list of the whole event is built.
+ * MySQL only honours the fetch size with {@code useCursorFetch=true} on the connection URL;
+ * without it the driver reads the full result into memory first.
+ */
+@Repository
+public class TicketExportRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT ticket_id, event_id, user_id, booking_date, status, quantity FROM ticket ";
+    private static final String SELECT_BY_EVENT_SQL =
+            SELECT_COLUMNS + "WHERE event_id = ? ORDER BY ticket_id";
+    private static final String SELECT_BY_EVENT_AND_STATUS_SQL =
+            SELECT_COLUMNS + "WHERE event_id = ? AND status = ? ORDER BY ticket_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public TicketExportRepository(JdbcTemplate jdbcTemplate, @Value("${ticket.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Export fetch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    // Streams the event's tickets in ID order, optionally only those with the given status; served by idx_ticket_event_status
+    public void streamByEventId(int eventId, Status status, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    status == null ? SELECT_BY_EVENT_SQL : SELECT_BY_EVENT_AND_STATUS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setInt(1, eventId);
+            if (status != null) {
+                statement.setString(2, status.name());
+            }
+            return statement;
+        }, handler);
+    }
+}
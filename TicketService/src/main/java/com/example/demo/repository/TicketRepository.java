@@ -1,8 +1,11 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -17,9 +20,8 @@ public interface TicketRepository extends JpaRepository<Ticket, Integer> {
     // Find tickets by eventId
     List<Ticket> findByEventId(int eventId);
 
-    // Check if a ticket exists for a specific user and event
-    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Ticket t WHERE t.userId = :userId AND t.eventId = :eventId")
-    boolean existsByUserIdAndEventId(@Param("userId") int userId, @Param("eventId") int eventId);
+    // Check if a ticket exists for a specific user and event; derived exists queries stop at the first match (LIMIT 1)
+    boolean existsByUserIdAndEventId(int userId, int eventId);
 
     // Find tickets by userId and eventId
     List<Ticket> findByUserIdAndEventId(int userId, int eventId);
@@ -32,4 +34,19 @@ public interface TicketRepository extends JpaRepository<Ticket, Integer> {
     
     // Find tickets by eventId and status
     List<Ticket> findByEventIdAndStatus(int eventId, Status status);
+    
+    // Keyset page of tickets for a set of events: tickets after the given ID, in ID order
+    List<Ticket> findByEventIdInAndStatusAndTicketIdGreaterThanOrderByTicketIdAsc(Collection<Integer> eventIds,
+            Status status, int ticketId, Limit limit);
+
+    // Keyset page of all tickets after the given ID, in ID order
+    List<Ticket> findByTicketIdGreaterThanOrderByTicketIdAsc(int ticketId, Limit limit);
+
+    // Keyset page of tickets with a status after the given ID, in ID order; served by idx_ticket_status
+    List<Ticket> findByStatusAndTicketIdGreaterThanOrderByTicketIdAsc(Status status, int ticketId, Limit limit);
+
+    // Set the status of a group of tickets in one statement; joins the caller's transaction
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ticket t SET t.status = :status WHERE t.ticketId IN :ticketIds")
+    int updateStatus(@Param("ticketIds") Collection<Integer> ticketIds, @Param("status") Status status);
 }
@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.model.BookingSaga;
+import com.example.demo.model.Ticket;
+
+public interface BookingSagaService {
+
+    // Saves the ticket as PENDING together with a new BOOK saga
+    BookingSaga beginBooking(Ticket ticket);
+
+    BookingSaga beginCancellation(Ticket ticket);
+
+    // Records that the remote inventory call succeeded
+    void markInventoryReserved(BookingSaga saga);
+
+    Ticket completeBooking(BookingSaga saga);
+
+    Ticket completeCancellation(BookingSaga saga);
+
+    // Undoes the local side of a booking whose inventory call failed
+    void compensateBooking(BookingSaga saga, String reason);
+
+    void abortCancellation(BookingSaga saga, String reason);
+
+    // Whether the inventory call made under the saga's reservation token took effect; once this returns false
+    // no call with the token can take effect any more. Throws when the event service cannot be asked
+    boolean settleInventory(BookingSaga saga);
+
+    // Batch bookings: one saga per ticket, each step applied to the whole group in one transaction
+
+    // Saves the tickets as PENDING in one batch, each with a new BOOK saga
+    List<BookingSaga> beginBookings(List<Ticket> tickets);
+
+    void markInventoryReserved(List<BookingSaga> sagas);
+
+    // Marks the tickets BOOKED; joins the caller's transaction so it can queue the notifications with it
+    void confirmBookings(List<BookingSaga> sagas);
+
+    void compensateBookings(List<BookingSaga> sagas, String reason);
+
+    int recoverStuckSagas();
+}
@@ -0,0 +1,327 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.exception.TicketNotFoundException;
+import com.example.demo.feignclient.EventClient;
+import com.example.demo.model.BookingSaga;
+import com.example.demo.model.BookingSaga.SagaState;
+import com.example.demo.model.BookingSaga.SagaType;
+import com.example.demo.model.OutboxEvent.EventType;
+import com.example.demo.model.Ticket;
+import com.example.demo.model.Ticket.Status;
+import com.example.demo.repository.BookingSagaRepository;
+import com.example.demo.repository.TicketBatchRepository;
+import com.example.demo.repository.TicketRepository;
+
+import feign.FeignException;
+
+/**
+ * Step log for the book/cancel flows, which span a local ticket write and a remote
+ * inventory call that cannot share one transaction.
+ *
+ * Each step commits on its own and moves the saga with a conditional update, so a
+ * step is applied at most once even when the recovery worker of another instance
+ * looks at the same saga. Sagas that stop moving are picked up by the recovery
+ * worker in ID-ordered batches. Every inventory call carries the saga's reservation
+ * token, which the event service applies at most once, so recovery finds out what
+ * happened instead of guessing: a booking whose decrement was applied is rolled
+ * forward and one whose decrement was not is voided and compensated, and a
+ * cancellation repeats its increment, which changes nothing if it was already applied.
+ */
+@Service
+public class BookingSagaServiceImpl implements BookingSagaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSagaServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Set<SagaState> OPEN_STATES = EnumSet.of(SagaState.PENDING, SagaState.INVENTORY_RESERVED);
+
+    // Error message constants
+    private static final String ERR_SAGA_MOVED = "Saga %d is no longer in state %s";
+    private static final String ERR_SAGAS_MOVED = "Only %d of %d sagas were still in state %s";
+    private static final String ERR_TICKET_NOT_FOUND = "Ticket not found with ID: %d";
+    private static final String RESERVATION_APPLIED = "APPLIED";
+
+    // Notification message constants
+    private static final String MSG_TICKET_BOOKED = "Your ticket has been successfully booked";
+    private static final String MSG_TICKET_CANCELLED = "Your ticket has been successfully canceled";
+
+    private final BookingSagaRepository sagaRepository;
+    private final TicketRepository ticketRepository;
+    private final TicketBatchRepository batchRepository;
+    private final OutboxService outboxService;
+    private final EventClient eventClient;
+    private final TransactionTemplate transactionTemplate;
+
+    // A saga idle for this long is assumed to have lost its request thread
+    @Value("${saga.stale-after-seconds:120}")
+    private long staleAfterSeconds = 120;
+
+    @Value("${saga.recovery-batch-size:200}")
+    private int recoveryBatchSize = 200;
+
+    public BookingSagaServiceImpl(BookingSagaRepository sagaRepository, TicketRepository ticketRepository,
+            TicketBatchRepository batchRepository, OutboxService outboxService, EventClient eventClient,
+            PlatformTransactionManager transactionManager) {
+        this.sagaRepository = sagaRepository;
+        this.ticketRepository = ticketRepository;
+        this.batchRepository = batchRepository;
+        this.outboxService = outboxService;
+        this.eventClient = eventClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public BookingSaga beginBooking(Ticket ticket) {
+        return transactionTemplate.execute(status -> {
+            ticket.setStatus(Status.PENDING);
+            Ticket saved = ticketRepository.save(ticket);
+            BookingSaga saga = sagaRepository.save(newSaga(SagaType.BOOK, saved, newReservationToken()));
+            logger.debug("Started booking saga {} for ticket ID: {}", saga.getSagaId(), saved.getTicketId());
+            return saga;
+        });
+    }
+
+    @Override
+    public BookingSaga beginCancellation(Ticket ticket) {
+        BookingSaga saga = sagaRepository.save(newSaga(SagaType.CANCEL, ticket, newReservationToken()));
+        logger.debug("Started cancellation saga {} for ticket ID: {}", saga.getSagaId(), ticket.getTicketId());
+        return saga;
+    }
+
+    @Override
+    public void markInventoryReserved(BookingSaga saga) {
+        move(saga, SagaState.PENDING, SagaState.INVENTORY_RESERVED, null);
+    }
+
+    @Override
+    public Ticket completeBooking(BookingSaga saga) {
+        return transactionTemplate.execute(status -> {
+            move(saga, SagaState.INVENTORY_RESERVED, SagaState.CONFIRMED, null);
+            Ticket ticket = loadTicket(saga);
+            ticket.setStatus(Status.BOOKED);
+            Ticket saved = ticketRepository.save(ticket);
+            outboxService.enqueue(EventType.TICKET_BOOKED, saved, MSG_TICKET_BOOKED);
+            logger.info("Booking saga {} confirmed ticket ID: {}", saga.getSagaId(), saved.getTicketId());
+            return saved;
+        });
+    }
+
+    @Override
+    public Ticket completeCancellation(BookingSaga saga) {
+        return transactionTemplate.execute(status -> {
+            move(saga, SagaState.INVENTORY_RESERVED, SagaState.CONFIRMED, null);
+            Ticket ticket = loadTicket(saga);
+            ticket.setStatus(Status.CANCELLED);
+            Ticket saved = ticketRepository.save(ticket);
+            outboxService.enqueue(EventType.TICKET_CANCELLED, saved, MSG_TICKET_CANCELLED);
+            logger.info("Cancellation saga {} cancelled ticket ID: {}", saga.getSagaId(), saved.getTicketId());
+            return saved;
+        });
+    }
+
+    @Override
+    public void compensateBooking(BookingSaga saga, String reason) {
+        transactionTemplate.executeWithoutResult(status -> {
+            move(saga, SagaState.PENDING, SagaState.COMPENSATED, reason);
+            ticketRepository.deleteById(saga.getTicketId());
+            logger.info("Booking saga {} compensated, removed ticket ID: {}", saga.getSagaId(), saga.getTicketId());
+        });
+    }
+
+    @Override
+    public void abortCancellation(BookingSaga saga, String reason) {
+        move(saga, SagaState.PENDING, SagaState.COMPENSATED, reason);
+        logger.info("Cancellation saga {} aborted, ticket ID: {} stays booked", saga.getSagaId(), saga.getTicketId());
+    }
+
+    @Override
+    public boolean settleInventory(BookingSaga saga) {
+        String outcome = eventClient.settleReservation(saga.getReservationToken(), saga.getEventId());
+        logger.info("Reservation of saga {} for event ID: {} settled as {}", saga.getSagaId(), saga.getEventId(), outcome);
+        return RESERVATION_APPLIED.equals(outcome);
+    }
+
+    @Override
+    public List<BookingSaga> beginBookings(List<Ticket> tickets) {
+        return transactionTemplate.execute(status -> {
+            tickets.forEach(ticket -> ticket.setStatus(Status.PENDING));
+            batchRepository.insertAll(tickets);
+            // The group is reserved with one decrement, so its sagas share one token
+            String reservationToken = newReservationToken();
+            List<BookingSaga> sagas = new ArrayList<>(tickets.size());
+            for (Ticket ticket : tickets) {
+                sagas.add(newSaga(SagaType.BOOK, ticket, reservationToken));
+            }
+            batchRepository.insertSagas(sagas);
+            logger.debug("Started {} booking sagas for event ID: {}", sagas.size(), tickets.get(0).getEventId());
+            return sagas;
+        });
+    }
+
+    @Override
+    public void markInventoryReserved(List<BookingSaga> sagas) {
+        transactionTemplate.executeWithoutResult(status ->
+                moveAll(sagas, SagaState.PENDING, SagaState.INVENTORY_RESERVED, null));
+    }
+
+    @Override
+    public void confirmBookings(List<BookingSaga> sagas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            moveAll(sagas, SagaState.INVENTORY_RESERVED, SagaState.CONFIRMED, null);
+            ticketRepository.updateStatus(ticketIds(sagas), Status.BOOKED);
+            logger.info("Confirmed {} batch-booked tickets", sagas.size());
+        });
+    }
+
+    @Override
+    public void compensateBookings(List<BookingSaga> sagas, String reason) {
+        transactionTemplate.executeWithoutResult(status -> {
+            moveAll(sagas, SagaState.PENDING, SagaState.COMPENSATED, reason);
+            ticketRepository.deleteAllByIdInBatch(ticketIds(sagas));
+            logger.info("Compensated {} booking sagas, removed their tickets", sagas.size());
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        int recovered = recoverStuckSagas();
+        logger.info("Resolved {} interrupted booking sagas on startup", recovered);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${saga.recovery-interval-ms:60000}", initialDelayString = "${saga.recovery-interval-ms:60000}")
+    public int recoverStuckSagas() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        long lastSagaId = 0;
+        int recovered = 0;
+        List<BookingSaga> batch;
+        do {
+            // Keyset paging: resolved sagas leave the result set, failed ones are skipped by ID
+            batch = sagaRepository.findBySagaIdGreaterThanAndStateInAndUpdatedAtBeforeOrderBySagaIdAsc(
+                    lastSagaId, OPEN_STATES, cutoff, Limit.of(recoveryBatchSize));
+            for (BookingSaga saga : batch) {
+                lastSagaId = saga.getSagaId();
+                try {
+                    recover(saga);
+                    recovered++;
+                } catch (RuntimeException e) {
+                    logger.error("Could not recover saga {}: {}", saga.getSagaId(), e.getMessage());
+                }
+            }
+        } while (batch.size() == recoveryBatchSize);
+
+        if (recovered > 0) {
+            logger.info("Recovered {} stuck booking sagas", recovered);
+        }
+        return recovered;
+    }
+
+    private void recover(BookingSaga saga) {
+        if (saga.getSagaType() == SagaType.BOOK) {
+            if (saga.getState() == SagaState.PENDING) {
+                if (saga.getReservationToken() == null) {
+                    // Started before sagas carried tokens: never oversell, so drop the ticket
+                    logger.warn("Booking saga {} has no reservation token; event ID: {} may be short {} tickets",
+                            saga.getSagaId(), saga.getEventId(), saga.getQuantity());
+                    compensateBooking(saga, "Interrupted before inventory was confirmed");
+                    return;
+                }
+                if (!settleInventory(saga)) {
+                    compensateBooking(saga, "Interrupted before inventory was taken");
+                    return;
+                }
+                move(saga, SagaState.PENDING, SagaState.INVENTORY_RESERVED, "Interrupted after inventory was taken");
+            }
+            completeBooking(saga);
+            return;
+        }
+
+        if (saga.getState() == SagaState.PENDING) {
+            if (saga.getReservationToken() == null) {
+                logger.warn("Cancellation saga {} has no reservation token; event ID: {} may be short {} tickets",
+                        saga.getSagaId(), saga.getEventId(), saga.getQuantity());
+            } else if (!resumeIncrease(saga)) {
+                return;
+            }
+            move(saga, SagaState.PENDING, SagaState.INVENTORY_RESERVED, "Interrupted before inventory was confirmed");
+        }
+        completeCancellation(saga);
+    }
+
+    // Repeats the cancellation's increment, which the event service ignores if it was already applied
+    private boolean resumeIncrease(BookingSaga saga) {
+        try {
+            eventClient.increaseTicketCount(saga.getEventId(), saga.getQuantity(), saga.getReservationToken());
+            return true;
+        } catch (FeignException.NotFound e) {
+            // The event is gone, there is nothing to return the tickets to; the cancellation still stands
+            logger.warn("Event ID: {} of cancellation saga {} no longer exists", saga.getEventId(), saga.getSagaId());
+            return true;
+        } catch (FeignException.BadRequest e) {
+            // The request that started the saga settled the token as voided and gave up on the cancellation
+            abortCancellation(saga, e.getMessage());
+            return false;
+        }
+    }
+
+    private void move(BookingSaga saga, SagaState from, SagaState to, String reason) {
+        if (sagaRepository.transition(saga.getSagaId(), from, to, LocalDateTime.now(), truncate(reason)) == 0) {
+            throw new IllegalStateException(String.format(ERR_SAGA_MOVED, saga.getSagaId(), from));
+        }
+        saga.setState(to);
+    }
+
+    // Moves a group with one statement; if any saga already moved, the caller's transaction rolls the rest back
+    private void moveAll(List<BookingSaga> sagas, SagaState from, SagaState to, String reason) {
+        List<Long> sagaIds = sagas.stream().map(BookingSaga::getSagaId).toList();
+        int moved = sagaRepository.transitionAll(sagaIds, from, to, LocalDateTime.now(), truncate(reason));
+        if (moved != sagas.size()) {
+            throw new IllegalStateException(String.format(ERR_SAGAS_MOVED, moved, sagas.size(), from));
+        }
+        sagas.forEach(saga -> saga.setState(to));
+    }
+
+    private Ticket loadTicket(BookingSaga saga) {
+        return ticketRepository.findById(saga.getTicketId())
+                .orElseThrow(() -> new TicketNotFoundException(String.format(ERR_TICKET_NOT_FOUND, saga.getTicketId())));
+    }
+
+    private static List<Integer> ticketIds(List<BookingSaga> sagas) {
+        return sagas.stream().map(BookingSaga::getTicketId).toList();
+    }
+
+    private static BookingSaga newSaga(SagaType type, Ticket ticket, String reservationToken) {
+        LocalDateTime now = LocalDateTime.now();
+        return new BookingSaga(0, type, SagaState.PENDING, ticket.getTicketId(), ticket.getEventId(),
+                ticket.getUserId(), ticket.getQuantity(), reservationToken, null, now, now);
+    }
+
+    private static String newReservationToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import java.util.function.Supplier;
+
+import com.example.demo.exception.IdempotencyConflictException;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs {@code action} once per idempotency key and operation. Later calls with the
+     * same key get the stored response back; calls arriving while the first one is
+     * still running wait for it instead of running again. Without a key the action
+     * simply runs.
+     */
+    <T> T execute(String idempotencyKey, String operation, Object request, Class<T> responseType, Supplier<T> action)
+            throws IdempotencyConflictException;
+
+    void purgeExpiredRecords();
+}
@@ -0,0 +1,261 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.exception.IdempotencyConflictException;
+import com.example.demo.model.IdempotencyRecord;
+import com.example.demo.model.IdempotencyRecord.RecordStatus;
+import com.example.demo.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Request-key deduplication for booking and cancellation.
+ *
+ * Completed responses are served from a bounded in-memory cache with TTL eviction and
+ * fall back to the idempotency table, so replays survive restarts and work across
+ * instances. Duplicates that arrive while the first request is still running on this
+ * instance wait for its result; on another instance they are rejected by the
+ * IN_PROGRESS row and the client retries.
+ *
+ * An IN_PROGRESS row is never taken over before it expires. Past the in-progress
+ * timeout its request has died, but the booking may already have gone through, so
+ * running it again could book twice; duplicates get a 409 saying the outcome is unknown.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int COMPLETE_ATTEMPTS = 3;
+
+    // Error message constants
+    private static final String ERR_KEY_TOO_LONG = "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters";
+    private static final String ERR_KEY_REUSED = "Idempotency-Key %s was already used for a different request";
+    private static final String ERR_IN_PROGRESS = "A request with Idempotency-Key %s is still being processed";
+    private static final String ERR_OUTCOME_UNKNOWN = "The request with Idempotency-Key %s stopped before its outcome was recorded; check whether it took effect before retrying with a new key";
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, IdempotencyRecord> completedCache;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+
+    // Requests currently running on this instance, keyed like the records
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+            @Value("${idempotency.cache-size:10000}") long cacheSize,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.in-progress-timeout-seconds:60}") long inProgressTimeoutSeconds) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.completedCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public <T> T execute(String idempotencyKey, String operation, Object request, Class<T> responseType,
+            Supplier<T> action) throws IdempotencyConflictException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(ERR_KEY_TOO_LONG);
+        }
+
+        String recordKey = operation + ":" + idempotencyKey.trim();
+        // Fingerprint before running: the action may modify the request object
+        String requestHash = fingerprint(request);
+
+        IdempotencyRecord completed = findCompleted(recordKey);
+        if (completed != null) {
+            logger.info("Replaying stored response for {}", recordKey);
+            return replay(completed, requestHash, idempotencyKey, responseType);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(recordKey, mine);
+        if (running != null) {
+            logger.info("Waiting for in-flight request with the same key: {}", recordKey);
+            return replay(await(running, idempotencyKey), requestHash, idempotencyKey, responseType);
+        }
+
+        try {
+            // The previous owner may have finished between the lookup and taking ownership
+            completed = findCompleted(recordKey);
+            if (completed != null) {
+                mine.complete(completed);
+                return replay(completed, requestHash, idempotencyKey, responseType);
+            }
+
+            IdempotencyRecord record = claim(recordKey, requestHash, idempotencyKey);
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                // Failures are not stored so the client can retry with the same key
+                repository.delete(record);
+                throw e;
+            }
+
+            record.setStatus(RecordStatus.COMPLETED);
+            record.setResponseBody(toJson(response));
+            storeOutcome(record);
+            completedCache.put(recordKey, record);
+            mine.complete(record);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(recordKey, mine);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredRecords() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    private IdempotencyRecord findCompleted(String recordKey) {
+        IdempotencyRecord cached = completedCache.getIfPresent(recordKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<IdempotencyRecord> stored = repository.findById(recordKey);
+        if (stored.isPresent() && stored.get().getStatus() == RecordStatus.COMPLETED
+                && stored.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+            completedCache.put(recordKey, stored.get());
+            return stored.get();
+        }
+        return null;
+    }
+
+    private IdempotencyRecord claim(String recordKey, String requestHash, String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = repository.findById(recordKey);
+        if (existing.isPresent()) {
+            IdempotencyRecord previous = existing.get();
+            if (!previous.getExpiresAt().isBefore(now)) {
+                if (previous.getCreatedAt().plus(inProgressTimeout).isBefore(now)) {
+                    logger.warn("Request with key {} stopped without recording its outcome", recordKey);
+                    throw new IdempotencyConflictException(String.format(ERR_OUTCOME_UNKNOWN, idempotencyKey));
+                }
+                logger.warn("Request with key {} is already running on another instance", recordKey);
+                throw new IdempotencyConflictException(String.format(ERR_IN_PROGRESS, idempotencyKey));
+            }
+            logger.warn("Taking over expired idempotency record {}", recordKey);
+            repository.delete(previous);
+        }
+
+        try {
+            return repository.saveAndFlush(new IdempotencyRecord(recordKey, requestHash, RecordStatus.IN_PROGRESS,
+                    null, now, now.plus(ttl), true));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Lost the race for idempotency key {}", recordKey);
+            throw new IdempotencyConflictException(String.format(ERR_IN_PROGRESS, idempotencyKey));
+        }
+    }
+
+    /**
+     * Marks the record COMPLETED once the action has succeeded, retrying a failed write.
+     * The response is returned even if every attempt fails: the booking happened, and the
+     * record left IN_PROGRESS only stops the key from being used again.
+     */
+    private void storeOutcome(IdempotencyRecord record) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                repository.save(record);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == COMPLETE_ATTEMPTS) {
+                    logger.error("Failed to record the outcome of {} after {} attempts: {}",
+                            record.getRecordKey(), attempt, e.getMessage());
+                    return;
+                }
+                logger.warn("Failed to record the outcome of {}, retrying: {}", record.getRecordKey(), e.getMessage());
+            }
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running, String idempotencyKey) {
+        try {
+            return running.get(inProgressTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            // Duplicates of a failed request fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(String.format(ERR_IN_PROGRESS, idempotencyKey));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(String.format(ERR_IN_PROGRESS, idempotencyKey));
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, String idempotencyKey, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            logger.warn("Idempotency key {} reused with a different request", record.getRecordKey());
+            throw new IdempotencyConflictException(String.format(ERR_KEY_REUSED, idempotencyKey));
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored response for " + record.getRecordKey(), e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent request or response", e);
+        }
+    }
+}
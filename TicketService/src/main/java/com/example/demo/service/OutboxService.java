@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import com.example.demo.model.OutboxEvent.EventType;
+import com.example.demo.model.Ticket;
+
+public interface OutboxService {
+
+    // Must be called inside the transaction that changes the ticket
+    void enqueue(EventType eventType, Ticket ticket, String message);
+
+    void relayPending();
+
+    void purgeSent();
+}
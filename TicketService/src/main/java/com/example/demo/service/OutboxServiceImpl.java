@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.NotificationRequest;
+import com.example.demo.feignclient.NotificationClient;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.model.OutboxEvent.EventType;
+import com.example.demo.model.OutboxEvent.OutboxStatus;
+import com.example.demo.model.Ticket;
+import com.example.demo.repository.OutboxEventRepository;
+
+import feign.FeignException;
+
+/**
+ * Transactional outbox for booking and cancellation notifications.
+ *
+ * Entries are written in the caller's transaction, so a notification exists exactly
+ * when the ticket change committed. The relay drains due entries in batches,
+ * retrying with exponential backoff; client errors (4xx) are not retried.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository repository;
+    private final NotificationClient notificationClient;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${outbox.base-backoff-ms:1000}")
+    private long baseBackoffMs = 1000;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs = 300000;
+
+    // How long a claimed entry is reserved for this relay before another one may retry it
+    @Value("${outbox.lease-seconds:30}")
+    private long leaseSeconds = 30;
+
+    @Value("${outbox.retention-days:7}")
+    private long retentionDays = 7;
+
+    public OutboxServiceImpl(OutboxEventRepository repository, NotificationClient notificationClient) {
+        this.repository = repository;
+        this.notificationClient = notificationClient;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EventType eventType, Ticket ticket, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = new OutboxEvent(0, eventType, ticket.getTicketId(), ticket.getUserId(),
+                ticket.getEventId(), message, OutboxStatus.PENDING, 0, now, null, now, null);
+        repository.save(event);
+        logger.debug("Queued {} notification for ticket ID: {}", eventType, ticket.getTicketId());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.relay-interval-ms:500}")
+    public void relayPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = repository.findByStatusAndNextAttemptAtLessThanEqualOrderByOutboxIdAsc(
+                OutboxStatus.PENDING, now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        int sent = 0;
+        for (OutboxEvent event : due) {
+            if (repository.claim(event.getOutboxId(), OutboxStatus.PENDING, event.getAttempts(),
+                    now.plusSeconds(leaseSeconds)) == 0) {
+                continue;
+            }
+            if (deliver(event, event.getAttempts() + 1)) {
+                sent++;
+            }
+        }
+        logger.info("Outbox relay delivered {} of {} due notifications", sent, due.size());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        int deleted = repository.deleteSentBefore(OutboxStatus.SENT, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            logger.info("Purged {} delivered outbox entries", deleted);
+        }
+    }
+
+    private boolean deliver(OutboxEvent event, int attempt) {
+        try {
+            notificationClient.sendNotification(
+                    new NotificationRequest(event.getUserId(), event.getEventId(), event.getMessage()));
+            repository.markSent(event.getOutboxId(), OutboxStatus.SENT, LocalDateTime.now());
+            return true;
+        } catch (Exception e) {
+            // A 4xx means the request itself is bad, retrying will not help
+            boolean clientError = e instanceof FeignException feignException
+                    && feignException.status() >= 400 && feignException.status() < 500;
+            if (clientError || attempt >= maxAttempts) {
+                logger.error("Giving up on outbox entry {} after {} attempts: {}",
+                        event.getOutboxId(), attempt, e.getMessage());
+                repository.markAttemptFailed(event.getOutboxId(), OutboxStatus.FAILED, null, truncate(e.getMessage()));
+            } else {
+                scheduleRetry(event, attempt, e);
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRetry(OutboxEvent event, int attempt, Exception e) {
+        // Exponential backoff with jitter so a NotificationService outage is not hammered in lockstep
+        long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos(delay * 1_000_000);
+        logger.warn("Outbox entry {} attempt {} failed, retrying at {}: {}",
+                event.getOutboxId(), attempt, nextAttemptAt, e.getMessage());
+        repository.markAttemptFailed(event.getOutboxId(), OutboxStatus.PENDING, nextAttemptAt, truncate(e.getMessage()));
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.ReferenceCacheStats;
+import com.example.demo.dto.User;
+
+public interface ReferenceDataCache {
+
+    // Returns null when the user does not exist
+    User getUser(int userId);
+
+    // Returns null when the event does not exist
+    Event getEvent(int eventId);
+
+    // Skips the cache, for checks that must see the current ticket count
+    Event refreshEvent(int eventId);
+
+    void invalidateUser(int userId);
+
+    void invalidateEvent(int eventId);
+
+    void invalidateAll();
+
+    List<ReferenceCacheStats> getStats();
+}
@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.ReferenceCacheStats;
+import com.example.demo.dto.User;
+import com.example.demo.feignclient.EventClient;
+import com.example.demo.feignclient.UserClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import feign.FeignException;
+
+/**
+ * Bounded near-cache for the user and event lookups TicketService makes before
+ * touching its own tables.
+ *
+ * Misses are cached as empty entries with a shorter TTL, so repeated requests for an
+ * unknown ID do not each go to the owning service. Concurrent misses for the same ID
+ * share one remote call. Only existence checks should rely on cached data; the event
+ * ticket count is advisory and the event service's conditional update stays the
+ * authority for inventory.
+ *
+ * UserService and EventService call every TicketService instance they find in the
+ * discovery server when a user or event is updated or deleted, so those changes show up
+ * within a round trip. The calls are best effort: an instance that misses one, or was not
+ * registered yet, keeps the old entry until it expires, up to {@code user-ttl-seconds}
+ * (300s) for users and {@code event-ttl-seconds} (30s) for events. New IDs are not pushed,
+ * so an ID looked up before it existed stays missing for {@code negative-ttl-seconds} (10s).
+ * TicketService's own inventory calls invalidate the event they touch.
+ */
+@Service
+public class ReferenceDataCacheImpl implements ReferenceDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCacheImpl.class);
+
+    private static final String USERS = "users";
+    private static final String EVENTS = "events";
+
+    private final UserClient userClient;
+    private final EventClient eventClient;
+    private final Cache<Integer, Optional<User>> users;
+    private final Cache<Integer, Optional<Event>> events;
+
+    public ReferenceDataCacheImpl(UserClient userClient, EventClient eventClient,
+            @Value("${lookup-cache.max-size:10000}") long maxSize,
+            @Value("${lookup-cache.user-ttl-seconds:300}") long userTtlSeconds,
+            @Value("${lookup-cache.event-ttl-seconds:30}") long eventTtlSeconds,
+            @Value("${lookup-cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this.userClient = userClient;
+        this.eventClient = eventClient;
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.users = build(maxSize, Duration.ofSeconds(userTtlSeconds), negativeTtl);
+        this.events = build(maxSize, Duration.ofSeconds(eventTtlSeconds), negativeTtl);
+    }
+
+    @Override
+    public User getUser(int userId) {
+        return users.get(userId, id -> load(USERS, id, userClient::getUserById)).orElse(null);
+    }
+
+    @Override
+    public Event getEvent(int eventId) {
+        return events.get(eventId, id -> load(EVENTS, id, eventClient::getEventById)).orElse(null);
+    }
+
+    @Override
+    public Event refreshEvent(int eventId) {
+        Optional<Event> event = load(EVENTS, eventId, eventClient::getEventById);
+        events.put(eventId, event);
+        return event.orElse(null);
+    }
+
+    @Override
+    public void invalidateUser(int userId) {
+        users.invalidate(userId);
+        logger.debug("Invalidated cached user ID: {}", userId);
+    }
+
+    @Override
+    public void invalidateEvent(int eventId) {
+        events.invalidate(eventId);
+        logger.debug("Invalidated cached event ID: {}", eventId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        users.invalidateAll();
+        events.invalidateAll();
+        logger.info("Cleared user and event lookup caches");
+    }
+
+    @Override
+    public List<ReferenceCacheStats> getStats() {
+        return List.of(toStats(USERS, users), toStats(EVENTS, events));
+    }
+
+    private static <T> Optional<T> load(String cacheName, int id, IntFunction<T> remoteLookup) {
+        logger.debug("Lookup cache miss in {} for ID: {}", cacheName, id);
+        try {
+            return Optional.ofNullable(remoteLookup.apply(id));
+        } catch (FeignException.NotFound e) {
+            // Remembered as a miss; any other failure propagates and is not cached
+            return Optional.empty();
+        }
+    }
+
+    private static <T> Cache<Integer, Optional<T>> build(long maxSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Integer, Optional<T>>() {
+                    @Override
+                    public long expireAfterCreate(Integer id, Optional<T> value, long currentTime) {
+                        return (value.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    // A refreshed entry gets the full TTL for its new value
+                    @Override
+                    public long expireAfterUpdate(Integer id, Optional<T> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer id, Optional<T> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private static ReferenceCacheStats toStats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new ReferenceCacheStats(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.loadFailureCount(), stats.evictionCount());
+    }
+}
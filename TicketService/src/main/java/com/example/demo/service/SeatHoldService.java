@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SeatHoldRequest;
+import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.exception.HoldNotFoundException;
+import com.example.demo.exception.UserNotFoundException;
+import com.example.demo.model.SeatHold;
+import com.example.demo.model.Ticket;
+
+public interface SeatHoldService {
+
+    SeatHold holdSeats(SeatHoldRequest request) throws UserNotFoundException, EventNotFoundException;
+
+    Ticket confirmHold(String holdId) throws HoldNotFoundException;
+
+    SeatHold releaseHold(String holdId) throws HoldNotFoundException;
+
+    SeatHold getHoldById(String holdId) throws HoldNotFoundException;
+
+    void expireHolds();
+
+    int recoverPendingHolds();
+}
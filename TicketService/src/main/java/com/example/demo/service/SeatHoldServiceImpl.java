@@ -0,0 +1,430 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.Event;
+import com.example.demo.dto.SeatHoldRequest;
+import com.example.demo.dto.User;
+import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.exception.HoldNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.exception.UserNotFoundException;
+import com.example.demo.feignclient.EventClient;
+import com.example.demo.model.OutboxEvent.EventType;
+import com.example.demo.model.SeatHold;
+import com.example.demo.model.SeatHold.HoldStatus;
+import com.example.demo.model.Ticket;
+import com.example.demo.model.Ticket.Status;
+import com.example.demo.repository.SeatHoldRepository;
+import com.example.demo.repository.TicketRepository;
+
+import feign.FeignException;
+
+/**
+ * Time-bounded seat holds for checkouts that still have to go through payment.
+ *
+ * A hold is saved as PENDING and then takes its tickets from the event, using its ID as
+ * the reservation token, so a hold interrupted in between can be settled with the event
+ * service and either opened or given back by recovery. Open holds are tracked in an
+ * in-memory priority queue ordered by expiry, so the expiry job only looks at the
+ * head of the queue instead of sweeping the database. Every state change is a
+ * conditional update on the hold row, which makes confirm, release and expiry safe
+ * to race against each other and across instances.
+ */
+@Service
+public class SeatHoldServiceImpl implements SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldServiceImpl.class);
+
+    // Log message constants
+    private static final String LOG_HOLD_ATTEMPT = "Attempting to hold {} tickets for user ID: {} and event ID: {}";
+    private static final String LOG_HOLD_NOT_FOUND = "Hold not found with ID: {}";
+    private static final String LOG_USER_NOT_FOUND = "User not found with ID: {}";
+    private static final String LOG_EVENT_NOT_FOUND = "Event not found with ID: {}";
+
+    // Error message constants
+    private static final String ERR_HOLD_NOT_FOUND = "Hold not found with ID: %s";
+    private static final String ERR_HOLD_NOT_OPEN = "Hold with ID %s is no longer open";
+    private static final String ERR_USER_NOT_FOUND = "User not found with ID: %d";
+    private static final String ERR_EVENT_NOT_FOUND = "Event not found with ID: %d";
+    private static final String ERR_NO_TICKETS = "No tickets available for event ID: %d";
+    private static final String ERR_QUANTITY_INVALID = "Quantity must be at least 1";
+    private static final String ERR_INVENTORY_UNKNOWN = "Ticket count change for event ID: %d could not be confirmed; it will be completed or undone shortly";
+    private static final String RESERVATION_APPLIED = "APPLIED";
+    private static final String MSG_TICKET_BOOKED = "Your ticket has been successfully booked";
+
+    private final SeatHoldRepository holdRepository;
+    private final TicketRepository ticketRepository;
+    private final EventClient eventClient;
+    private final ReferenceDataCache referenceCache;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Open holds ordered by expiry; confirmed or released holds are left in place and skipped when they reach the head
+    private final PriorityBlockingQueue<HoldExpiry> expiryQueue = new PriorityBlockingQueue<>();
+
+    // Closed holds whose tickets could not be given back to the event yet
+    private final ConcurrentLinkedQueue<SeatHold> pendingReleases = new ConcurrentLinkedQueue<>();
+
+    @Value("${ticket.hold.ttl-seconds:600}")
+    private long holdTtlSeconds = 600;
+
+    @Value("${ticket.hold.expiry-batch-size:500}")
+    private int expiryBatchSize = 500;
+
+    @Value("${ticket.hold.pending-stale-seconds:120}")
+    private long pendingStaleSeconds = 120;
+
+    public SeatHoldServiceImpl(SeatHoldRepository holdRepository, TicketRepository ticketRepository,
+            EventClient eventClient, ReferenceDataCache referenceCache, OutboxService outboxService,
+            PlatformTransactionManager transactionManager) {
+        this.holdRepository = holdRepository;
+        this.ticketRepository = ticketRepository;
+        this.eventClient = eventClient;
+        this.referenceCache = referenceCache;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public SeatHold holdSeats(SeatHoldRequest request) throws UserNotFoundException, EventNotFoundException {
+        logger.info(LOG_HOLD_ATTEMPT, request.getQuantity(), request.getUserId(), request.getEventId());
+
+        if (request.getQuantity() <= 0) {
+            logger.warn("Invalid hold quantity: {}", request.getQuantity());
+            throw new IllegalArgumentException(ERR_QUANTITY_INVALID);
+        }
+
+        User user = referenceCache.getUser(request.getUserId());
+        if (user == null) {
+            logger.error(LOG_USER_NOT_FOUND, request.getUserId());
+            throw new UserNotFoundException(String.format(ERR_USER_NOT_FOUND, request.getUserId()));
+        }
+
+        Event event = referenceCache.getEvent(request.getEventId());
+        if (event == null) {
+            logger.error(LOG_EVENT_NOT_FOUND, request.getEventId());
+            throw new EventNotFoundException(String.format(ERR_EVENT_NOT_FOUND, request.getEventId()));
+        }
+        if (event.getTicketCount() < request.getQuantity()) {
+            // The cached count may be stale; only reject on the current one
+            event = referenceCache.refreshEvent(request.getEventId());
+        }
+        if (event == null || event.getTicketCount() < request.getQuantity()) {
+            logger.warn("Not enough tickets to hold for event ID: {}, available: {}",
+                    request.getEventId(), event == null ? 0 : event.getTicketCount());
+            throw new IllegalArgumentException(String.format(ERR_NO_TICKETS, request.getEventId()));
+        }
+
+        // Record the hold before taking its tickets, so an interrupted request leaves a row recovery can settle
+        LocalDateTime now = LocalDateTime.now();
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), request.getEventId(), request.getUserId(),
+                request.getQuantity(), HoldStatus.PENDING, now, now.plusSeconds(holdTtlSeconds), null, false);
+        try {
+            hold = holdRepository.save(hold);
+        } catch (Exception e) {
+            logger.error("Failed to save hold for event ID: {}: {}", request.getEventId(), e.getMessage());
+            throw new RuntimeException("Failed to save seat hold", e);
+        }
+
+        // The event service rejects the call if someone else got the tickets in the meantime
+        try {
+            eventClient.decreaseTicketCount(request.getEventId(), request.getQuantity(), hold.getHoldId());
+        } catch (Exception e) {
+            logger.error("Failed to reserve tickets for event ID: {}: {}", request.getEventId(), e.getMessage());
+            if (!inventoryTaken(hold, e)) {
+                discardPendingHold(hold.getHoldId());
+                throw new RuntimeException(
+                        String.format("Failed to decrease ticket count for event ID: %d", request.getEventId()), e);
+            }
+        }
+        referenceCache.invalidateEvent(request.getEventId());
+
+        String holdId = hold.getHoldId();
+        Integer opened = transactionTemplate.execute(
+                status -> holdRepository.transitionHold(holdId, HoldStatus.PENDING, HoldStatus.HELD));
+        if (opened == null || opened == 0) {
+            // Recovery settled this hold as stale while the call was in flight, and gives its tickets back
+            logger.warn("Hold {} was closed by recovery before it opened", holdId);
+            throw new IllegalArgumentException(String.format(ERR_HOLD_NOT_OPEN, holdId));
+        }
+        hold.setStatus(HoldStatus.HELD);
+
+        expiryQueue.offer(new HoldExpiry(hold.getExpiresAt(), hold.getHoldId()));
+        logger.info("Hold {} created for event ID: {}, expires at {}", hold.getHoldId(), hold.getEventId(), hold.getExpiresAt());
+        return hold;
+    }
+
+    @Override
+    public Ticket confirmHold(String holdId) throws HoldNotFoundException {
+        logger.info("Attempting to confirm hold: {}", holdId);
+
+        Ticket savedTicket = transactionTemplate.execute(status -> {
+            if (holdRepository.confirmHold(holdId, HoldStatus.HELD, HoldStatus.CONFIRMED, LocalDateTime.now()) == 0) {
+                SeatHold existing = getHoldById(holdId);
+                logger.warn("Hold {} cannot be confirmed, status: {}, expires at: {}",
+                        holdId, existing.getStatus(), existing.getExpiresAt());
+                throw new IllegalArgumentException(String.format(ERR_HOLD_NOT_OPEN, holdId));
+            }
+
+            SeatHold hold = getHoldById(holdId);
+            Ticket ticket = new Ticket();
+            ticket.setEventId(hold.getEventId());
+            ticket.setUserId(hold.getUserId());
+            ticket.setQuantity(hold.getQuantity());
+            ticket.setBookingDate(LocalDateTime.now());
+            ticket.setStatus(Status.BOOKED);
+            Ticket saved = ticketRepository.save(ticket);
+
+            hold.setTicketId(saved.getTicketId());
+            holdRepository.save(hold);
+            outboxService.enqueue(EventType.TICKET_BOOKED, saved, MSG_TICKET_BOOKED);
+            return saved;
+        });
+        logger.info("Hold {} confirmed as ticket ID: {}", holdId, savedTicket.getTicketId());
+        return savedTicket;
+    }
+
+    @Override
+    public SeatHold releaseHold(String holdId) throws HoldNotFoundException {
+        logger.info("Attempting to release hold: {}", holdId);
+
+        SeatHold released = transactionTemplate.execute(status -> {
+            if (holdRepository.transitionHold(holdId, HoldStatus.HELD, HoldStatus.RELEASED) == 0) {
+                SeatHold existing = getHoldById(holdId);
+                logger.warn("Hold {} cannot be released, status: {}", holdId, existing.getStatus());
+                throw new IllegalArgumentException(String.format(ERR_HOLD_NOT_OPEN, holdId));
+            }
+            return getHoldById(holdId);
+        });
+
+        returnInventory(List.of(released));
+        logger.info("Hold {} released", holdId);
+        return released;
+    }
+
+    @Override
+    public SeatHold getHoldById(String holdId) throws HoldNotFoundException {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> {
+                    logger.error(LOG_HOLD_NOT_FOUND, holdId);
+                    return new HoldNotFoundException(String.format(ERR_HOLD_NOT_FOUND, holdId));
+                });
+    }
+
+    /**
+     * Expires every hold at the head of the queue whose time is up, then gives the
+     * tickets back with one call per event.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${ticket.hold.expiry-interval-ms:1000}")
+    public void expireHolds() {
+        retryPendingReleases();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> dueHoldIds = new ArrayList<>();
+        HoldExpiry head;
+        while (dueHoldIds.size() < expiryBatchSize
+                && (head = expiryQueue.peek()) != null
+                && !head.expiresAt().isAfter(now)) {
+            HoldExpiry due = expiryQueue.poll();
+            if (due != null) {
+                dueHoldIds.add(due.holdId());
+            }
+        }
+        if (dueHoldIds.isEmpty()) {
+            return;
+        }
+
+        List<SeatHold> expired;
+        try {
+            expired = transactionTemplate.execute(status -> {
+                List<SeatHold> closed = new ArrayList<>();
+                for (SeatHold hold : holdRepository.findAllById(dueHoldIds)) {
+                    // Holds confirmed or released since they were queued simply fail the conditional update
+                    if (hold.getStatus() == HoldStatus.HELD
+                            && holdRepository.transitionHold(hold.getHoldId(), HoldStatus.HELD, HoldStatus.EXPIRED) == 1) {
+                        hold.setStatus(HoldStatus.EXPIRED);
+                        closed.add(hold);
+                    }
+                }
+                return closed;
+            });
+        } catch (Exception e) {
+            logger.error("Failed to expire {} holds, requeueing: {}", dueHoldIds.size(), e.getMessage());
+            dueHoldIds.forEach(holdId -> expiryQueue.offer(new HoldExpiry(now, holdId)));
+            return;
+        }
+
+        if (!expired.isEmpty()) {
+            logger.info("Expired {} of {} due holds", expired.size(), dueHoldIds.size());
+            returnInventory(expired);
+        }
+    }
+
+    /**
+     * Loads open holds and unreturned inventory left by a previous run, then settles the
+     * holds it left PENDING.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildExpiryQueue() {
+        List<SeatHold> openHolds = holdRepository.findByStatus(HoldStatus.HELD);
+        openHolds.forEach(hold -> expiryQueue.offer(new HoldExpiry(hold.getExpiresAt(), hold.getHoldId())));
+        pendingReleases.addAll(holdRepository.findByStatusInAndInventoryReleasedFalse(
+                List.of(HoldStatus.RELEASED, HoldStatus.EXPIRED)));
+        logger.info("Rebuilt hold expiry queue with {} open holds and {} pending releases",
+                openHolds.size(), pendingReleases.size());
+        recoverPendingHolds();
+    }
+
+    /**
+     * Settles holds that stayed PENDING past {@code ticket.hold.pending-stale-seconds}
+     * because their request died while taking the tickets. A hold whose tickets the event
+     * service counted is expired and its tickets are given back; any other hold is
+     * dropped, and settling voids its token so a late call can no longer take them.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${ticket.hold.recovery-interval-ms:60000}", initialDelayString = "${ticket.hold.recovery-interval-ms:60000}")
+    public int recoverPendingHolds() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(pendingStaleSeconds);
+        List<SeatHold> taken = new ArrayList<>();
+        int recovered = 0;
+        for (SeatHold hold : holdRepository.findByStatusAndCreatedAtBefore(HoldStatus.PENDING, cutoff)) {
+            try {
+                if (settle(hold)) {
+                    Integer expired = transactionTemplate.execute(status -> holdRepository.transitionHold(
+                            hold.getHoldId(), HoldStatus.PENDING, HoldStatus.EXPIRED));
+                    if (expired != null && expired == 1) {
+                        hold.setStatus(HoldStatus.EXPIRED);
+                        taken.add(hold);
+                    }
+                } else {
+                    discardPendingHold(hold.getHoldId());
+                }
+                recovered++;
+            } catch (RuntimeException e) {
+                logger.error("Could not settle pending hold {} for event ID: {}: {}",
+                        hold.getHoldId(), hold.getEventId(), e.getMessage());
+            }
+        }
+
+        if (!taken.isEmpty()) {
+            returnInventory(taken);
+        }
+        if (recovered > 0) {
+            logger.info("Settled {} interrupted holds, {} of which had taken tickets", recovered, taken.size());
+        }
+        return recovered;
+    }
+
+    // Whether a failed decrease was counted anyway; client errors and an open circuit never reached the count
+    private boolean inventoryTaken(SeatHold hold, Exception failure) {
+        if (failure instanceof FeignException.FeignClientException || failure instanceof ServiceUnavailableException) {
+            return false;
+        }
+        try {
+            return settle(hold);
+        } catch (RuntimeException e) {
+            // The hold stays PENDING and recovery settles it later
+            logger.error("Could not settle the reservation of hold {} for event ID: {}: {}",
+                    hold.getHoldId(), hold.getEventId(), e.getMessage());
+            throw new RuntimeException(String.format(ERR_INVENTORY_UNKNOWN, hold.getEventId()), failure);
+        }
+    }
+
+    private boolean settle(SeatHold hold) {
+        String outcome = eventClient.settleReservation(hold.getHoldId(), hold.getEventId());
+        logger.info("Reservation of hold {} for event ID: {} settled as {}", hold.getHoldId(), hold.getEventId(), outcome);
+        return RESERVATION_APPLIED.equals(outcome);
+    }
+
+    private void discardPendingHold(String holdId) {
+        try {
+            transactionTemplate.execute(status -> holdRepository.deleteByHoldIdAndStatus(holdId, HoldStatus.PENDING));
+        } catch (Exception e) {
+            // Recovery finds the row again and settles it as voided
+            logger.error("Failed to drop pending hold {}: {}", holdId, e.getMessage());
+        }
+    }
+
+    private void retryPendingReleases() {
+        List<SeatHold> retry = new ArrayList<>();
+        SeatHold hold;
+        while ((hold = pendingReleases.poll()) != null) {
+            retry.add(hold);
+        }
+        if (!retry.isEmpty()) {
+            logger.info("Retrying ticket return for {} closed holds", retry.size());
+            returnInventory(retry);
+        }
+    }
+
+    /**
+     * Gives closed holds' tickets back to their events, one call per event. Each hold is
+     * claimed with a conditional update before its tickets are counted, so a retry, a
+     * restart or another instance can never return the same hold twice.
+     */
+    private void returnInventory(List<SeatHold> holds) {
+        Map<Integer, List<SeatHold>> byEvent = holds.stream()
+                .collect(Collectors.groupingBy(SeatHold::getEventId));
+
+        byEvent.forEach((eventId, eventHolds) -> {
+            List<SeatHold> claimed;
+            try {
+                claimed = transactionTemplate.execute(status -> eventHolds.stream()
+                        .filter(hold -> holdRepository.claimInventoryRelease(hold.getHoldId()) == 1)
+                        .toList());
+            } catch (Exception e) {
+                logger.error("Failed to claim {} closed holds for event ID: {}, will retry: {}",
+                        eventHolds.size(), eventId, e.getMessage());
+                pendingReleases.addAll(eventHolds);
+                return;
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            int quantity = claimed.stream().mapToInt(SeatHold::getQuantity).sum();
+            List<String> holdIds = claimed.stream().map(SeatHold::getHoldId).toList();
+            try {
+                eventClient.increaseTicketCount(eventId, quantity, null);
+                referenceCache.invalidateEvent(eventId);
+            } catch (Exception e) {
+                logger.error("Failed to return {} held tickets to event ID: {}, will retry: {}",
+                        quantity, eventId, e.getMessage());
+                try {
+                    holdRepository.unclaimInventoryRelease(holdIds);
+                    pendingReleases.addAll(claimed);
+                } catch (Exception unclaimFailure) {
+                    // The holds stay claimed, so nothing returns them; log them so the count can be reconciled
+                    logger.error("Failed to unclaim holds {} after {} tickets for event ID: {} were not returned: {}",
+                            holdIds, quantity, eventId, unclaimFailure.getMessage());
+                }
+            }
+        });
+    }
+
+    private record HoldExpiry(LocalDateTime expiresAt, String holdId) implements Comparable<HoldExpiry> {
+        @Override
+        public int compareTo(HoldExpiry other) {
+            return expiresAt.compareTo(other.expiresAt);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.model.Ticket.Status;
+
+public interface TicketExportService {
+
+    enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Checks the event up front, so a missing event is a normal error response rather than a cut-off download
+    StreamingResponseBody exportTicketsByEventId(int eventId, Status status, ExportFormat format) throws EventNotFoundException;
+}
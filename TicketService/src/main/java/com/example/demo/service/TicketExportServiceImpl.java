@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.dto.Event;
+import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.model.Ticket.Status;
+import com.example.demo.repository.TicketExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Attendee exports for organizers. Each row goes from the JDBC result set straight into a
+ * fixed-size output buffer without building a {@code Ticket}, so memory use does not grow
+ * with the size of the event; the servlet container sends the buffer whenever it fills.
+ *
+ * The response is already committed once rows are being written, so a database error halfway
+ * through can only cut the download short; it is logged and the connection is closed.
+ */
+@Service
+public class TicketExportServiceImpl implements TicketExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketExportServiceImpl.class);
+
+    // Log message constants
+    private static final String LOG_INVALID_EVENT_ID = "Invalid event ID: {}";
+    private static final String LOG_EVENT_NOT_FOUND = "Event not found with ID: {}";
+
+    // Error message constants
+    private static final String ERR_EVENT_ID_INVALID = "Event ID must be greater than 0";
+    private static final String ERR_EVENT_NOT_FOUND = "Event not found with ID: %d";
+    private static final String ERR_FORMAT_NULL = "Export format cannot be null";
+
+    private static final String CSV_HEADER = "ticketId,eventId,userId,bookingDate,status,quantity\n";
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private final TicketExportRepository exportRepository;
+    private final ReferenceDataCache referenceCache;
+    private final ObjectMapper objectMapper;
+
+    public TicketExportServiceImpl(TicketExportRepository exportRepository, ReferenceDataCache referenceCache,
+            ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.referenceCache = referenceCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public StreamingResponseBody exportTicketsByEventId(int eventId, Status status, ExportFormat format) {
+        if (eventId <= 0) {
+            logger.warn(LOG_INVALID_EVENT_ID, eventId);
+            throw new IllegalArgumentException(ERR_EVENT_ID_INVALID);
+        }
+        if (format == null) {
+            throw new IllegalArgumentException(ERR_FORMAT_NULL);
+        }
+        Event event = referenceCache.getEvent(eventId);
+        if (event == null) {
+            logger.error(LOG_EVENT_NOT_FOUND, eventId);
+            throw new EventNotFoundException(String.format(ERR_EVENT_NOT_FOUND, eventId));
+        }
+
+        return out -> {
+            long started = System.nanoTime();
+            long rows = format == ExportFormat.CSV
+                    ? writeCsv(eventId, status, out)
+                    : writeNdjson(eventId, status, out);
+            logger.info("Exported {} tickets for event ID: {} as {} in {} ms", rows, eventId, format,
+                    (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+
+    private long writeNdjson(int eventId, Status status, OutputStream out) throws IOException {
+        long[] rows = { 0 };
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Records are separated by the newline written after each one, not by Jackson
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            exportRepository.streamByEventId(eventId, status, resultSet -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("ticketId", resultSet.getInt("ticket_id"));
+                    generator.writeNumberField("eventId", resultSet.getInt("event_id"));
+                    generator.writeNumberField("userId", resultSet.getInt("user_id"));
+                    generator.writeStringField("bookingDate", formatBookingDate(resultSet));
+                    generator.writeStringField("status", resultSet.getString("status"));
+                    generator.writeNumberField("quantity", resultSet.getInt("quantity"));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private long writeCsv(int eventId, Status status, OutputStream out) throws IOException {
+        long[] rows = { 0 };
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        try {
+            writer.write(CSV_HEADER);
+            // Every column is a number, an enum name or an ISO timestamp, so nothing needs quoting
+            exportRepository.streamByEventId(eventId, status, resultSet -> {
+                try {
+                    String bookingDate = formatBookingDate(resultSet);
+                    writer.write(Integer.toString(resultSet.getInt("ticket_id")));
+                    writer.write(',');
+                    writer.write(Integer.toString(resultSet.getInt("event_id")));
+                    writer.write(',');
+                    writer.write(Integer.toString(resultSet.getInt("user_id")));
+                    writer.write(',');
+                    writer.write(bookingDate == null ? "" : bookingDate);
+                    writer.write(',');
+                    writer.write(resultSet.getString("status"));
+                    writer.write(',');
+                    writer.write(Integer.toString(resultSet.getInt("quantity")));
+                    writer.write('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    // Same ISO-8601 form the JSON endpoints use for LocalDateTime
+    private static String formatBookingDate(ResultSet resultSet) throws SQLException {
+        Timestamp bookingDate = resultSet.getTimestamp("booking_date");
+        return bookingDate == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(bookingDate.toLocalDateTime());
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.demo.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import com.example.demo.dto.BatchBookingRequest;
+import com.example.demo.dto.BatchBookingResponse;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.EventNotFoundException;
 import com.example.demo.exception.TicketNotFoundException;
 import com.example.demo.exception.UserNotFoundException;
@@ -12,10 +16,16 @@ public interface TicketService {
 
     Ticket bookTicket(Ticket ticket) throws UserNotFoundException, EventNotFoundException;
 
+    // Books every item it can and reports a result per item
+    BatchBookingResponse bookTickets(BatchBookingRequest request);
+
     Ticket getTicketById(int ticketId) throws TicketNotFoundException;
 
     List<Ticket> getAllTickets();
 
+    // Keyset-paginated getAllTickets; an empty page instead of an exception when there are no tickets
+    CursorPage<Ticket> getAllTicketsPaged(String cursor, int limit);
+
     List<Ticket> getTicketsByUserId(int userId) throws UserNotFoundException;
 
     List<Ticket> getTicketsByEventId(int eventId) throws EventNotFoundException;
@@ -23,10 +33,15 @@ public interface TicketService {
     Ticket cancelTicket(int ticketId) throws TicketNotFoundException;
     
     List<Ticket> getTicketsByStatus(Status status);
+
+    CursorPage<Ticket> getTicketsByStatusPaged(Status status, String cursor, int limit);
     
     List<Ticket> getTicketsByUserIdAndStatus(int userId, Status status) throws UserNotFoundException;
     
     List<Ticket> getTicketsByEventIdAndStatus(int eventId, Status status) throws EventNotFoundException;
     
+    // Page of BOOKED tickets for the given events, starting after afterTicketId
+    List<Ticket> getBookedTicketsByEventIds(Collection<Integer> eventIds, int afterTicketId, int limit);
+    
     boolean hasUserBookedEvent(int userId, int eventId);
 }
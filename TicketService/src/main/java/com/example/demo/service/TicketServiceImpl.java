@@ -1,26 +1,39 @@
 package com.example.demo.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.dto.BatchBookingItemResult;
+import com.example.demo.dto.BatchBookingRequest;
+import com.example.demo.dto.BatchBookingResponse;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.Event;
-import com.example.demo.dto.NotificationRequest;
 import com.example.demo.dto.User;
 import com.example.demo.exception.EventNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
 import com.example.demo.exception.TicketNotFoundException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.feignclient.EventClient;
-import com.example.demo.feignclient.NotificationClient;
-import com.example.demo.feignclient.UserClient;
+import com.example.demo.model.BookingSaga;
+import com.example.demo.model.OutboxEvent.EventType;
 import com.example.demo.model.Ticket;
 import com.example.demo.model.Ticket.Status;
 import com.example.demo.repository.TicketRepository;
 
+import feign.FeignException;
 import lombok.AllArgsConstructor;
 
 @Service
@@ -29,6 +42,9 @@ public class TicketServiceImpl implements TicketService {
     
     private static final Logger logger = LoggerFactory.getLogger(TicketServiceImpl.class);
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_EVENT_IDS = 500;
+    
     // Log message constants
     private static final String LOG_VERIFY_USER_EXISTS = "Verifying user exists with ID: {}";
     private static final String LOG_VERIFY_EVENT_EXISTS = "Verifying event exists with ID: {}";
@@ -39,6 +55,7 @@ public class TicketServiceImpl implements TicketService {
     private static final String LOG_TICKET_SAVED = "Ticket saved successfully with ID: {}";
     private static final String LOG_USER_NOT_FOUND = "User not found with ID: {}";
     private static final String LOG_EVENT_NOT_FOUND = "Event not found with ID: {}";
+    private static final String LOG_BATCH_ATTEMPT = "Attempting to book a batch of {} tickets";
     
     // Error message constants
     private static final String ERR_USER_ID_INVALID = "User ID must be greater than 0";
@@ -50,16 +67,29 @@ public class TicketServiceImpl implements TicketService {
     private static final String ERR_DUPLICATE_TICKET = "Ticket already booked for user ID: %d and event ID: %d";
     private static final String ERR_TICKET_ALREADY_CANCELLED = "Ticket with ID %d is already canceled";
     private static final String ERR_TICKET_ID_INVALID = "Ticket ID must be greater than 0";
+    private static final String ERR_TICKET_NOT_CONFIRMED = "Ticket with ID %d is still being booked";
+    private static final String ERR_PAGE_LIMIT_INVALID = "Limit must be between 1 and %d";
+    private static final String ERR_TOO_MANY_EVENT_IDS = "At most %d event IDs can be requested at once";
+    private static final String ERR_QUANTITY_INVALID = "Quantity must be at least 1";
+    private static final String ERR_BATCH_ITEM_MISSING = "Ticket entry is empty";
+    private static final String ERR_DECREASE_FAILED = "Failed to decrease ticket count for event ID: %d";
+    private static final String ERR_BATCH_SAVE_FAILED = "Failed to save tickets; no tickets were taken from the event";
+    private static final String ERR_INVENTORY_UNKNOWN = "Ticket count change for event ID: %d could not be confirmed; it will be completed or undone shortly";
+    private static final String ERR_BATCH_CONFIRM_PENDING = "Tickets were reserved but not confirmed yet; check the user's tickets later for the outcome";
+    
+    // Notification message constants
+    private static final String MSG_BATCH_BOOKED = "Your %d tickets have been successfully booked (ticket IDs: %s)";
     
     // Dependencies
     private final TicketRepository repository;
     private final EventClient eventClient;
-    private final UserClient userClient;
-    private final NotificationClient notificationClient;
+    private final ReferenceDataCache referenceCache;
+    private final BookingSagaService sagaService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Override
-    @Transactional
     public Ticket bookTicket(Ticket ticket) throws UserNotFoundException, EventNotFoundException {
         logger.info(LOG_BOOKING_ATTEMPT, ticket.getUserId(), ticket.getEventId());
         
@@ -75,7 +105,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Check if the user exists
         logger.debug(LOG_VERIFY_USER_EXISTS, ticket.getUserId());
-        User user = userClient.getUserById(ticket.getUserId());
+        User user = referenceCache.getUser(ticket.getUserId());
         if (user == null) {
             logger.error(LOG_USER_NOT_FOUND, ticket.getUserId());
             throw new UserNotFoundException(String.format(ERR_USER_NOT_FOUND, ticket.getUserId()));
@@ -83,7 +113,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Check if the event exists 
         logger.debug(LOG_VERIFY_EVENT_EXISTS, ticket.getEventId());
-        Event event = eventClient.getEventById(ticket.getEventId());
+        Event event = referenceCache.getEvent(ticket.getEventId());
         if (event == null) {
             logger.error(LOG_EVENT_NOT_FOUND, ticket.getEventId());
             throw new EventNotFoundException(String.format(ERR_EVENT_NOT_FOUND, ticket.getEventId()));
@@ -93,57 +123,210 @@ public class TicketServiceImpl implements TicketService {
         logger.debug("Checking ticket availability for event ID: {}, available: {}", 
                 ticket.getEventId(), event.getTicketCount());
         if (event.getTicketCount() <= 0) {
+            // The cached count may be stale; only reject on the current one
+            event = referenceCache.refreshEvent(ticket.getEventId());
+        }
+        if (event == null || event.getTicketCount() <= 0) {
             logger.warn("No tickets available for event ID: {}", ticket.getEventId());
             throw new IllegalArgumentException(String.format(ERR_NO_TICKETS, ticket.getEventId()));
         }
 
         // Set ticket details
         ticket.setBookingDate(LocalDateTime.now());
-        ticket.setStatus(Status.BOOKED);
         int quantity =ticket.getQuantity();
         
-        // Save the ticket first - if this fails, we won't decrease the ticket count
+        // Save the ticket as PENDING together with its saga - if this fails, we won't decrease the ticket count
         logger.debug("Saving ticket to database");
-        Ticket savedTicket = repository.save(ticket);
-        logger.info(LOG_TICKET_SAVED, savedTicket.getTicketId());
+        BookingSaga saga = sagaService.beginBooking(ticket);
+        logger.info(LOG_TICKET_SAVED, saga.getTicketId());
         
         try {
             // Now decrease ticket count
             logger.debug("Decreasing ticket count for event ID: {}", ticket.getEventId());
-            eventClient.decreaseTicketCount(ticket.getEventId(),quantity);
+            eventClient.decreaseTicketCount(ticket.getEventId(), quantity, saga.getReservationToken());
+            referenceCache.invalidateEvent(ticket.getEventId());
             logger.info("Ticket count decreased successfully for event ID: {}", ticket.getEventId());
         } catch (Exception e) {
-            // If decreasing ticket count fails, delete the saved ticket to maintain consistency
             logger.error("Failed to decrease ticket count for event ID: {}: {}", 
                     ticket.getEventId(), e.getMessage(), e);
-            logger.debug("Deleting ticket ID: {} to maintain consistency", savedTicket.getTicketId());
-            repository.delete(savedTicket);
-            throw new RuntimeException(
-                    String.format("Failed to decrease ticket count for event ID: %d", ticket.getEventId()), e);
+            if (!inventoryApplied(saga, e)) {
+                // The decrease took nothing, compensate: the saga removes the pending ticket
+                logger.debug("Deleting ticket ID: {} to maintain consistency", saga.getTicketId());
+                sagaService.compensateBooking(saga, e.getMessage());
+                throw new RuntimeException(
+                        String.format("Failed to decrease ticket count for event ID: %d", ticket.getEventId()), e);
+            }
+            referenceCache.invalidateEvent(ticket.getEventId());
+            logger.info("Ticket count decrease for event ID: {} was applied despite the error", ticket.getEventId());
         }
 
-        // Only send notification if everything else succeeded
-        try {
-            logger.debug("Sending booking notification to user ID: {}", ticket.getUserId());
-            NotificationRequest notificationRequest = new NotificationRequest(
-                ticket.getUserId(),
-                ticket.getEventId(),
-                "Your ticket has been successfully booked"
-            );
-            notificationClient.sendNotification(notificationRequest);
-            logger.info("Booking notification sent to user ID: {}", ticket.getUserId());
-        } catch (Exception e) {
-            // Log the notification failure but don't roll back the transaction
-            logger.warn("Failed to send booking notification to user ID: {}: {}", 
-                    ticket.getUserId(), e.getMessage(), e);
-            // Non-critical operation, don't rethrow
-        }
+        // Record the reservation before confirming, so a crash from here on is rolled forward by recovery
+        sagaService.markInventoryReserved(saga);
+        // Confirms the ticket and queues the notification in one transaction
+        Ticket savedTicket = sagaService.completeBooking(saga);
 
         logger.info("Ticket booking completed successfully - ticket ID: {}, user ID: {}, event ID: {}", 
                 savedTicket.getTicketId(), ticket.getUserId(), ticket.getEventId());
         return savedTicket;
     }
 
+    @Override
+    public BatchBookingResponse bookTickets(BatchBookingRequest request) {
+        List<Ticket> items = request.getTickets();
+        logger.info(LOG_BATCH_ATTEMPT, items.size());
+        BatchBookingItemResult[] results = new BatchBookingItemResult[items.size()];
+
+        // Validate every item, looking up each distinct user and event only once
+        Map<Integer, Boolean> knownUsers = new HashMap<>();
+        Map<Integer, Event> knownEvents = new HashMap<>();
+        Map<Integer, List<Integer>> itemsByEvent = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Ticket item = items.get(i);
+            String error = validateBatchItem(item, knownUsers, knownEvents);
+            if (error != null) {
+                results[i] = failedItem(i, item, error);
+                continue;
+            }
+            itemsByEvent.computeIfAbsent(item.getEventId(), id -> new ArrayList<>()).add(i);
+        }
+
+        // Book each event's group with a single decrement, so a group gets all its seats or none. The group's
+        // tickets and sagas are saved first, so a crash after the decrement is resolved by saga recovery
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, List<Integer>> entry : itemsByEvent.entrySet()) {
+            int eventId = entry.getKey();
+            List<Ticket> tickets = new ArrayList<>(entry.getValue().size());
+            for (int i : entry.getValue()) {
+                Ticket ticket = items.get(i);
+                ticket.setBookingDate(now);
+                tickets.add(ticket);
+            }
+            int quantity = tickets.stream().mapToInt(Ticket::getQuantity).sum();
+
+            List<BookingSaga> sagas;
+            try {
+                sagas = sagaService.beginBookings(tickets);
+            } catch (RuntimeException e) {
+                logger.error("Failed to save {} tickets for event ID: {}: {}", tickets.size(), eventId, e.getMessage(), e);
+                failGroup(results, items, entry.getValue(), ERR_BATCH_SAVE_FAILED);
+                continue;
+            }
+
+            try {
+                logger.debug("Decreasing ticket count for event ID: {} by {}", eventId, quantity);
+                eventClient.decreaseTicketCount(eventId, quantity, sagas.get(0).getReservationToken());
+                referenceCache.invalidateEvent(eventId);
+            } catch (Exception e) {
+                logger.error("Failed to reserve {} tickets for event ID: {}: {}", quantity, eventId, e.getMessage());
+                boolean applied;
+                try {
+                    applied = inventoryApplied(sagas.get(0), e);
+                } catch (RuntimeException unknown) {
+                    failGroup(results, items, entry.getValue(), String.format(ERR_INVENTORY_UNKNOWN, eventId));
+                    continue;
+                }
+                if (!applied) {
+                    sagaService.compensateBookings(sagas, e.getMessage());
+                    failGroup(results, items, entry.getValue(), String.format(ERR_DECREASE_FAILED, eventId));
+                    continue;
+                }
+                referenceCache.invalidateEvent(eventId);
+            }
+
+            try {
+                sagaService.markInventoryReserved(sagas);
+                // Tickets and their notifications commit together, as in the single booking flow
+                transactionTemplate.executeWithoutResult(status -> {
+                    sagaService.confirmBookings(sagas);
+                    tickets.forEach(ticket -> ticket.setStatus(Status.BOOKED));
+                    notifyBatchUsers(tickets);
+                });
+            } catch (RuntimeException e) {
+                // The seats are taken; saga recovery confirms the tickets or records the event as short
+                logger.error("Reserved {} tickets for event ID: {} but failed to confirm them: {}",
+                        quantity, eventId, e.getMessage(), e);
+                failGroup(results, items, entry.getValue(), ERR_BATCH_CONFIRM_PENDING);
+                continue;
+            }
+            for (int i : entry.getValue()) {
+                Ticket ticket = items.get(i);
+                results[i] = new BatchBookingItemResult(i, ticket.getUserId(), ticket.getEventId(),
+                        ticket.getQuantity(), true, ticket.getTicketId(), null);
+            }
+        }
+
+        int booked = (int) Arrays.stream(results).filter(BatchBookingItemResult::isBooked).count();
+        logger.info("Batch booking completed - booked: {}, failed: {}", booked, results.length - booked);
+        return new BatchBookingResponse(booked, results.length - booked, List.of(results));
+    }
+
+    private String validateBatchItem(Ticket item, Map<Integer, Boolean> knownUsers, Map<Integer, Event> knownEvents) {
+        if (item == null) {
+            return ERR_BATCH_ITEM_MISSING;
+        }
+        if (item.getUserId() <= 0) {
+            return ERR_USER_ID_INVALID;
+        }
+        if (item.getEventId() <= 0) {
+            return ERR_EVENT_ID_INVALID;
+        }
+        if (item.getQuantity() <= 0) {
+            return ERR_QUANTITY_INVALID;
+        }
+        if (!knownUsers.computeIfAbsent(item.getUserId(), id -> referenceCache.getUser(id) != null)) {
+            return String.format(ERR_USER_NOT_FOUND, item.getUserId());
+        }
+        if (knownEvents.computeIfAbsent(item.getEventId(), referenceCache::getEvent) == null) {
+            return String.format(ERR_EVENT_NOT_FOUND, item.getEventId());
+        }
+        return null;
+    }
+
+    // One notification per user instead of one per ticket
+    private void notifyBatchUsers(List<Ticket> tickets) {
+        Map<Integer, List<Ticket>> byUser = tickets.stream()
+                .collect(Collectors.groupingBy(Ticket::getUserId, LinkedHashMap::new, Collectors.toList()));
+        for (List<Ticket> userTickets : byUser.values()) {
+            String ticketIds = userTickets.stream()
+                    .map(ticket -> String.valueOf(ticket.getTicketId()))
+                    .collect(Collectors.joining(", "));
+            int count = userTickets.stream().mapToInt(Ticket::getQuantity).sum();
+            outboxService.enqueue(EventType.TICKET_BOOKED, userTickets.get(0),
+                    String.format(MSG_BATCH_BOOKED, count, ticketIds));
+        }
+    }
+
+    // After a failed inventory call: false when it certainly took no effect (refused, or never sent), otherwise the
+    // event service is asked, which also makes sure a call still in flight can no longer take effect. If that
+    // fails too the saga stays PENDING and recovery settles it later
+    private boolean inventoryApplied(BookingSaga saga, Exception failure) {
+        if (failure instanceof FeignException.FeignClientException || failure instanceof ServiceUnavailableException) {
+            return false;
+        }
+        try {
+            return sagaService.settleInventory(saga);
+        } catch (RuntimeException e) {
+            logger.error("Could not settle the reservation of saga {} for event ID: {}: {}",
+                    saga.getSagaId(), saga.getEventId(), e.getMessage());
+            throw new RuntimeException(String.format(ERR_INVENTORY_UNKNOWN, saga.getEventId()), failure);
+        }
+    }
+
+    private static void failGroup(BatchBookingItemResult[] results, List<Ticket> items, List<Integer> group,
+            String error) {
+        for (int i : group) {
+            results[i] = failedItem(i, items.get(i), error);
+        }
+    }
+
+    private static BatchBookingItemResult failedItem(int index, Ticket item, String error) {
+        if (item == null) {
+            return new BatchBookingItemResult(index, 0, 0, 0, false, null, error);
+        }
+        return new BatchBookingItemResult(index, item.getUserId(), item.getEventId(), item.getQuantity(),
+                false, null, error);
+    }
+
     @Override
     public Ticket getTicketById(int ticketId) throws TicketNotFoundException {
         logger.debug("Fetching ticket with ID: {}", ticketId);
@@ -175,6 +358,16 @@ public class TicketServiceImpl implements TicketService {
         return tickets;
     }
 
+    @Override
+    public CursorPage<Ticket> getAllTicketsPaged(String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        int afterTicketId = CursorPage.decodeCursor(cursor);
+        logger.debug("Retrieving up to {} tickets after ID: {}", limit, afterTicketId);
+
+        List<Ticket> tickets = repository.findByTicketIdGreaterThanOrderByTicketIdAsc(afterTicketId, Limit.of(limit + 1));
+        return CursorPage.of(tickets, limit, Ticket::getTicketId);
+    }
+
     @Override
     public List<Ticket> getTicketsByUserId(int userId) throws UserNotFoundException {
         logger.debug("Retrieving tickets for user ID: {}", userId);
@@ -186,7 +379,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Verify user exists
         logger.debug(LOG_VERIFY_USER_EXISTS, userId);
-        User user = userClient.getUserById(userId);
+        User user = referenceCache.getUser(userId);
         if (user == null) {
             logger.error(LOG_USER_NOT_FOUND, userId);
             throw new UserNotFoundException(String.format(ERR_USER_NOT_FOUND, userId));
@@ -212,7 +405,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Verify event exists
         logger.debug(LOG_VERIFY_EVENT_EXISTS, eventId);
-        Event event = eventClient.getEventById(eventId);
+        Event event = referenceCache.getEvent(eventId);
         if (event == null) {
             logger.error(LOG_EVENT_NOT_FOUND, eventId);
             throw new EventNotFoundException(String.format(ERR_EVENT_NOT_FOUND, eventId));
@@ -228,7 +421,6 @@ public class TicketServiceImpl implements TicketService {
     }
 
     @Override
-    @Transactional
     public Ticket cancelTicket(int ticketId) throws TicketNotFoundException {
         logger.info("Attempting to cancel ticket with ID: {}", ticketId);
         
@@ -242,44 +434,38 @@ public class TicketServiceImpl implements TicketService {
             logger.warn("Ticket ID: {} is already canceled", ticketId);
             throw new IllegalArgumentException(String.format(ERR_TICKET_ALREADY_CANCELLED, ticketId));
         }
+        if (ticket.getStatus() == Status.PENDING) {
+            logger.warn("Ticket ID: {} is still being booked", ticketId);
+            throw new IllegalArgumentException(String.format(ERR_TICKET_NOT_CONFIRMED, ticketId));
+        }
         int quantity =ticket.getQuantity();
+        BookingSaga saga = sagaService.beginCancellation(ticket);
 
 
         // Try to increase ticket count BEFORE marking ticket as cancelled
         try {
             logger.debug("Increasing ticket count for event ID: {}", ticket.getEventId());
             // Increase ticket count in event service first
-            eventClient.increaseTicketCount(ticket.getEventId(),quantity);
+            eventClient.increaseTicketCount(ticket.getEventId(), quantity, saga.getReservationToken());
+            referenceCache.invalidateEvent(ticket.getEventId());
             logger.info("Ticket count increased successfully for event ID: {}", ticket.getEventId());
         } catch (Exception e) {
             // Log the error with contextual information and rethrow
             String errorMessage = String.format("Failed to increase event ticket count for event ID: %d", 
                     ticket.getEventId());
             logger.error("{}: {}", errorMessage, e.getMessage(), e);
-            throw new RuntimeException(errorMessage, e);
+            if (!inventoryApplied(saga, e)) {
+                sagaService.abortCancellation(saga, e.getMessage());
+                throw new RuntimeException(errorMessage, e);
+            }
+            referenceCache.invalidateEvent(ticket.getEventId());
         }
 
         // Now that ticket count is increased, mark ticket as cancelled
         logger.debug("Setting ticket ID: {} status to CANCELLED", ticket.getTicketId());
-        ticket.setStatus(Status.CANCELLED);
-        Ticket savedTicket = repository.save(ticket);
+        sagaService.markInventoryReserved(saga);
+        Ticket savedTicket = sagaService.completeCancellation(saga);
         logger.info("Ticket ID: {} canceled successfully", ticket.getTicketId());
-
-        // Send notification 
-        try {
-            logger.debug("Sending cancellation notification to user ID: {}", ticket.getUserId());
-            NotificationRequest notificationRequest = new NotificationRequest(
-                ticket.getUserId(),
-                ticket.getEventId(),
-                "Your ticket has been successfully canceled"
-            );
-            notificationClient.sendNotification(notificationRequest);
-            logger.info("Cancellation notification sent to user ID: {}", ticket.getUserId());
-        } catch (Exception e) {
-            // Log notification failure but don't fail the cancellation
-            logger.warn("Failed to send cancellation notification to user ID: {}: {}", 
-                    ticket.getUserId(), e.getMessage(), e);
-        }
         
         return savedTicket;
     }
@@ -298,6 +484,21 @@ public class TicketServiceImpl implements TicketService {
         return tickets;
     }
     
+    @Override
+    public CursorPage<Ticket> getTicketsByStatusPaged(Status status, String cursor, int limit) {
+        if (status == null) {
+            logger.warn(LOG_INVALID_STATUS);
+            throw new IllegalArgumentException(ERR_STATUS_NULL);
+        }
+        CursorPage.checkLimit(limit);
+        int afterTicketId = CursorPage.decodeCursor(cursor);
+        logger.debug("Retrieving up to {} tickets with status: {} after ID: {}", limit, status, afterTicketId);
+
+        List<Ticket> tickets = repository.findByStatusAndTicketIdGreaterThanOrderByTicketIdAsc(
+                status, afterTicketId, Limit.of(limit + 1));
+        return CursorPage.of(tickets, limit, Ticket::getTicketId);
+    }
+    
     @Override
     public List<Ticket> getTicketsByUserIdAndStatus(int userId, Status status) throws UserNotFoundException {
         logger.debug("Retrieving tickets for user ID: {} with status: {}", userId, status);
@@ -314,7 +515,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Verify user exists
         logger.debug(LOG_VERIFY_USER_EXISTS, userId);
-        User user = userClient.getUserById(userId);
+        User user = referenceCache.getUser(userId);
         if (user == null) {
             logger.error(LOG_USER_NOT_FOUND, userId);
             throw new UserNotFoundException(String.format(ERR_USER_NOT_FOUND, userId));
@@ -341,7 +542,7 @@ public class TicketServiceImpl implements TicketService {
         
         // Verify event exists
         logger.debug(LOG_VERIFY_EVENT_EXISTS, eventId);
-        Event event = eventClient.getEventById(eventId);
+        Event event = referenceCache.getEvent(eventId);
         if (event == null) {
             logger.error(LOG_EVENT_NOT_FOUND, eventId);
             throw new EventNotFoundException(String.format(ERR_EVENT_NOT_FOUND, eventId));
@@ -352,6 +553,26 @@ public class TicketServiceImpl implements TicketService {
         return tickets;
     }
     
+    @Override
+    public List<Ticket> getBookedTicketsByEventIds(Collection<Integer> eventIds, int afterTicketId, int limit) {
+        logger.debug("Retrieving booked tickets for {} events after ticket ID: {}", eventIds.size(), afterTicketId);
+        
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format(ERR_PAGE_LIMIT_INVALID, MAX_PAGE_SIZE));
+        }
+        if (eventIds.size() > MAX_EVENT_IDS) {
+            throw new IllegalArgumentException(String.format(ERR_TOO_MANY_EVENT_IDS, MAX_EVENT_IDS));
+        }
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Ticket> tickets = repository.findByEventIdInAndStatusAndTicketIdGreaterThanOrderByTicketIdAsc(
+                eventIds, Status.BOOKED, afterTicketId, Limit.of(limit));
+        logger.info("Found {} booked tickets for {} events after ticket ID: {}", tickets.size(), eventIds.size(), afterTicketId);
+        return tickets;
+    }
+    
     @Override
     public boolean hasUserBookedEvent(int userId, int eventId) {
         logger.debug("Checking if user ID: {} has booked event ID: {}", userId, eventId);
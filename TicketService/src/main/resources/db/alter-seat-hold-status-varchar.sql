@@ -0,0 +1,4 @@
+-- Run once against ticket databases created before the PENDING hold status existed.
+-- Hibernate's ddl-auto=update never changes an existing column's type, so the old
+-- enum('HELD','CONFIRMED','RELEASED','EXPIRED') column would reject the PENDING rows a new hold starts as.
+ALTER TABLE seat_hold MODIFY COLUMN status VARCHAR(16);
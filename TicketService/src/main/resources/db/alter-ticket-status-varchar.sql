@@ -0,0 +1,4 @@
+-- Run once against ticket databases created before the PENDING status existed.
+-- Hibernate's ddl-auto=update never changes an existing column's type, so the old
+-- enum('BOOKED','CANCELLED') column would reject the PENDING rows the booking saga writes.
+ALTER TABLE ticket MODIFY COLUMN status VARCHAR(16);
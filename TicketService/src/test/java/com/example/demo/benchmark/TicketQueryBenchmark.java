@@ -0,0 +1,282 @@
+package com.example.demo.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Latency of each {@code TicketRepository} lookup against a ticket table of {@code rows} rows,
+ * without secondary indexes ({@code NONE}, the original schema) and with the composite indexes
+ * declared on {@code Ticket} ({@code COMPOSITE}). The existence check is measured both as the
+ * old COUNT query and as the LIMIT 1 probe Spring Data derives now.
+ *
+ * Statements are the ones Hibernate generates for the repository methods, run over plain JDBC
+ * on an embedded H2 database, so the numbers show plan differences without network latency.
+ * {@code findByStatus} is left out: it returns most of the table and no index changes that.
+ * Loading a million rows takes a few seconds per trial; pass {@code -p rows=...} to change it.
+ * Not run by the build; start {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class TicketQueryBenchmark {
+
+    private static final String DB_URL = "jdbc:h2:mem:ticketquerybench;DB_CLOSE_DELAY=-1";
+    private static final int EVENTS = 2000;
+    private static final int TICKETS_PER_USER = 10;
+    private static final int INSERT_BATCH = 10_000;
+
+    // Keep in step with the @Index list on Ticket
+    private static final String[] COMPOSITE_INDEXES = {
+            "CREATE INDEX idx_ticket_event_status ON ticket (event_id, status, ticket_id)",
+            "CREATE INDEX idx_ticket_status ON ticket (status, ticket_id)",
+            "CREATE INDEX idx_ticket_user_status ON ticket (user_id, status)",
+            "CREATE INDEX idx_ticket_user_event ON ticket (user_id, event_id)" };
+
+    private static final String SELECT_COLUMNS =
+            "SELECT t1_0.ticket_id, t1_0.booking_date, t1_0.event_id, t1_0.quantity, t1_0.status, t1_0.user_id FROM ticket t1_0 ";
+    private static final String FIND_BY_USER_SQL = SELECT_COLUMNS + "WHERE t1_0.user_id = ?";
+    private static final String FIND_BY_EVENT_SQL = SELECT_COLUMNS + "WHERE t1_0.event_id = ?";
+    private static final String FIND_BY_USER_AND_STATUS_SQL = SELECT_COLUMNS + "WHERE t1_0.user_id = ? AND t1_0.status = ?";
+    private static final String FIND_BY_EVENT_AND_STATUS_SQL = SELECT_COLUMNS + "WHERE t1_0.event_id = ? AND t1_0.status = ?";
+    private static final String FIND_BY_USER_AND_EVENT_SQL = SELECT_COLUMNS + "WHERE t1_0.user_id = ? AND t1_0.event_id = ?";
+    private static final String EXISTS_BY_COUNT_SQL =
+            "SELECT CASE WHEN COUNT(t1_0.ticket_id) > 0 THEN TRUE ELSE FALSE END FROM ticket t1_0 WHERE t1_0.user_id = ? AND t1_0.event_id = ?";
+    private static final String EXISTS_BY_LIMIT_SQL =
+            "SELECT t1_0.ticket_id FROM ticket t1_0 WHERE t1_0.user_id = ? AND t1_0.event_id = ? FETCH FIRST 1 ROWS ONLY";
+
+    @State(Scope.Benchmark)
+    public static class TicketTable {
+
+        @Param({ "1000000" })
+        int rows;
+
+        @Param({ "NONE", "COMPOSITE" })
+        String indexes;
+
+        Connection schemaConnection;
+        int users;
+        // (userId, eventId) of every 64th row, so half the existence probes hit
+        int[][] bookedPairs;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            // Keep one connection open so the in-memory database lives for the whole trial
+            schemaConnection = DriverManager.getConnection(DB_URL);
+            users = Math.max(1, rows / TICKETS_PER_USER);
+            bookedPairs = new int[Math.max(1, rows / 64)][];
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS ticket");
+                statement.execute("CREATE TABLE ticket (ticket_id INT AUTO_INCREMENT PRIMARY KEY, event_id INT NOT NULL, "
+                        + "user_id INT NOT NULL, booking_date TIMESTAMP, status VARCHAR(16), quantity INT NOT NULL)");
+            }
+            load();
+            // Building the indexes after the load is faster than maintaining them on every insert
+            if ("COMPOSITE".equals(indexes)) {
+                try (Statement statement = schemaConnection.createStatement()) {
+                    for (String ddl : COMPOSITE_INDEXES) {
+                        statement.execute(ddl);
+                    }
+                }
+            }
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+
+        private void load() throws SQLException {
+            SplittableRandom random = new SplittableRandom(42);
+            Timestamp bookingDate = Timestamp.valueOf(LocalDateTime.of(2030, 1, 1, 12, 0));
+            schemaConnection.setAutoCommit(false);
+            try (PreparedStatement insert = schemaConnection.prepareStatement(
+                    "INSERT INTO ticket (event_id, user_id, booking_date, status, quantity) VALUES (?, ?, ?, ?, 1)")) {
+                for (int i = 0; i < rows; i++) {
+                    int eventId = 1 + random.nextInt(EVENTS);
+                    int userId = 1 + random.nextInt(users);
+                    insert.setInt(1, eventId);
+                    insert.setInt(2, userId);
+                    insert.setTimestamp(3, bookingDate);
+                    insert.setString(4, randomStatus(random));
+                    insert.addBatch();
+                    if (i % 64 == 0 && i / 64 < bookedPairs.length) {
+                        bookedPairs[i / 64] = new int[] { userId, eventId };
+                    }
+                    if ((i + 1) % INSERT_BATCH == 0) {
+                        insert.executeBatch();
+                        schemaConnection.commit();
+                    }
+                }
+                insert.executeBatch();
+                schemaConnection.commit();
+            }
+            schemaConnection.setAutoCommit(true);
+        }
+
+        // Roughly the mix of a live system: mostly booked, some cancelled, a few mid-saga
+        private static String randomStatus(SplittableRandom random) {
+            int roll = random.nextInt(100);
+            return roll < 80 ? "BOOKED" : roll < 95 ? "CANCELLED" : "PENDING";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Statement statement = schemaConnection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS ticket");
+            }
+            schemaConnection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lookups {
+
+        Connection connection;
+        PreparedStatement findByUser;
+        PreparedStatement findByEvent;
+        PreparedStatement findByUserAndStatus;
+        PreparedStatement findByEventAndStatus;
+        PreparedStatement findByUserAndEvent;
+        PreparedStatement existsByCount;
+        PreparedStatement existsByLimit;
+        SplittableRandom random = new SplittableRandom(7);
+        int users;
+        int[][] bookedPairs;
+        int probes;
+
+        @Setup(Level.Trial)
+        public void setUp(TicketTable table) throws SQLException {
+            connection = DriverManager.getConnection(DB_URL);
+            findByUser = connection.prepareStatement(FIND_BY_USER_SQL);
+            findByEvent = connection.prepareStatement(FIND_BY_EVENT_SQL);
+            findByUserAndStatus = connection.prepareStatement(FIND_BY_USER_AND_STATUS_SQL);
+            findByEventAndStatus = connection.prepareStatement(FIND_BY_EVENT_AND_STATUS_SQL);
+            findByUserAndEvent = connection.prepareStatement(FIND_BY_USER_AND_EVENT_SQL);
+            existsByCount = connection.prepareStatement(EXISTS_BY_COUNT_SQL);
+            existsByLimit = connection.prepareStatement(EXISTS_BY_LIMIT_SQL);
+            users = table.users;
+            bookedPairs = table.bookedPairs;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        int userId() {
+            return 1 + random.nextInt(users);
+        }
+
+        int eventId() {
+            return 1 + random.nextInt(EVENTS);
+        }
+
+        // Alternates a (user, event) pair that has a ticket with a random, almost always empty, one
+        int[] probePair() {
+            if ((probes++ & 1) == 0) {
+                return bookedPairs[random.nextInt(bookedPairs.length)];
+            }
+            return new int[] { userId(), eventId() };
+        }
+    }
+
+    @Benchmark
+    public int findByUserId(Lookups lookups) throws SQLException {
+        lookups.findByUser.setInt(1, lookups.userId());
+        return drain(lookups.findByUser);
+    }
+
+    @Benchmark
+    public int findByEventId(Lookups lookups) throws SQLException {
+        lookups.findByEvent.setInt(1, lookups.eventId());
+        return drain(lookups.findByEvent);
+    }
+
+    @Benchmark
+    public int findByUserIdAndStatus(Lookups lookups) throws SQLException {
+        lookups.findByUserAndStatus.setInt(1, lookups.userId());
+        lookups.findByUserAndStatus.setString(2, "BOOKED");
+        return drain(lookups.findByUserAndStatus);
+    }
+
+    @Benchmark
+    public int findByEventIdAndStatus(Lookups lookups) throws SQLException {
+        lookups.findByEventAndStatus.setInt(1, lookups.eventId());
+        lookups.findByEventAndStatus.setString(2, "CANCELLED");
+        return drain(lookups.findByEventAndStatus);
+    }
+
+    @Benchmark
+    public int findByUserIdAndEventId(Lookups lookups) throws SQLException {
+        int[] pair = lookups.probePair();
+        lookups.findByUserAndEvent.setInt(1, pair[0]);
+        lookups.findByUserAndEvent.setInt(2, pair[1]);
+        return drain(lookups.findByUserAndEvent);
+    }
+
+    @Benchmark
+    public boolean existsByUserIdAndEventIdCount(Lookups lookups) throws SQLException {
+        int[] pair = lookups.probePair();
+        lookups.existsByCount.setInt(1, pair[0]);
+        lookups.existsByCount.setInt(2, pair[1]);
+        try (ResultSet resultSet = lookups.existsByCount.executeQuery()) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    @Benchmark
+    public boolean existsByUserIdAndEventIdLimit(Lookups lookups) throws SQLException {
+        int[] pair = lookups.probePair();
+        lookups.existsByLimit.setInt(1, pair[0]);
+        lookups.existsByLimit.setInt(2, pair[1]);
+        try (ResultSet resultSet = lookups.existsByLimit.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    // Reads every column of every row, as mapping the entities would
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int checksum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                checksum += resultSet.getInt(1) + resultSet.getInt(3) + resultSet.getInt(4) + resultSet.getInt(6);
+                resultSet.getTimestamp(2);
+                resultSet.getString(5);
+            }
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TicketQueryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.User;
 import com.example.demo.service.UserService;
@@ -50,12 +53,25 @@ public class UserController {
         return ResponseEntity.ok(service.getUser(userId));
     }
 
+    // Multi-get for other services; unknown IDs are left out of the map
+    @GetMapping("/getUsersByIds")
+    public ResponseEntity<Map<Integer, User>> getUsersByIds(@RequestParam("ids") Set<Integer> userIds) {
+        return ResponseEntity.ok(service.getUsersByIds(userIds));
+    }
+
     @GetMapping("/getAllUsers")
     public ResponseEntity<List<User>> getAllUsers() {
         // Removed redundant check - service will throw exception if empty
         return ResponseEntity.ok(service.getAllUsers());
     }
 
+    // Pass the returned nextCursor back to get the following page
+    @GetMapping("/getAllUsersPaged")
+    public ResponseEntity<CursorPage<User>> getAllUsersPaged(@RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.getAllUsersPaged(cursor, limit));
+    }
+
     @DeleteMapping("/deleteUserById/{userId}")
     public ResponseEntity<String> deleteUser(@PathVariable("userId") int userId) {
         if (userId <= 0) {
@@ -3,6 +3,7 @@ package com.example.demo.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.example.demo.model.User;
@@ -20,4 +21,7 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     
     // Find users by name containing (case-insensitive)
     List<User> findByNameContainingIgnoreCase(String name);
+
+    // Keyset page: users after the given ID, in ID order
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(int userId, Limit limit);
 }
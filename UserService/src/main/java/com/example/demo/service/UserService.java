@@ -1,7 +1,10 @@
 package com.example.demo.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.User;
 
@@ -10,8 +13,14 @@ public interface UserService {
     String saveUser(User user);
     
     User getUser(int userId) throws UserNotFoundException;
+
+    // Unknown IDs are left out of the result
+    Map<Integer, User> getUsersByIds(Collection<Integer> userIds);
     
     List<User> getAllUsers() throws UserNotFoundException;
+
+    // Keyset-paginated getAllUsers; an empty page instead of an exception when there are no users
+    CursorPage<User> getAllUsersPaged(String cursor, int limit);
     
     String deleteUser(int userId) throws UserNotFoundException;
 
@@ -1,10 +1,16 @@
 package com.example.demo.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
@@ -17,7 +23,10 @@ public class UserServiceImpl implements UserService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+    private static final int MAX_IDS_PER_LOOKUP = 500;
+
     private UserRepository repository;
+    private TicketCacheInvalidator ticketCacheInvalidator;
 
     @Override
     public String saveUser(User user) {
@@ -59,6 +68,7 @@ public class UserServiceImpl implements UserService {
         existingUser.setRoles(user.getRoles());
         
         repository.save(existingUser);
+        ticketCacheInvalidator.invalidateUser(userId);
         logger.info("User updated successfully: ID={}, Name={}", userId, existingUser.getName());
         return "User updated successfully!";
     }
@@ -74,6 +84,21 @@ public class UserServiceImpl implements UserService {
                 });
     }
 
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) {
+        logger.debug("Fetching {} users by ID", userIds.size());
+        if (userIds.size() > MAX_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_IDS_PER_LOOKUP + " user IDs can be requested at once");
+        }
+
+        Map<Integer, User> users = new LinkedHashMap<>();
+        for (User user : repository.findAllById(userIds)) {
+            users.put(user.getUserId(), user);
+        }
+        logger.info("Found {} of {} requested users", users.size(), userIds.size());
+        return users;
+    }
+
     @Override
     public List<User> getAllUsers() throws UserNotFoundException {
         logger.debug("Fetching all users");
@@ -88,6 +113,16 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
+    @Override
+    public CursorPage<User> getAllUsersPaged(String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        int afterUserId = CursorPage.decodeCursor(cursor);
+        logger.debug("Fetching up to {} users after ID: {}", limit, afterUserId);
+
+        List<User> users = repository.findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, Limit.of(limit + 1));
+        return CursorPage.of(users, limit, User::getUserId);
+    }
+
     @Override
     public String deleteUser(int userId) throws UserNotFoundException {
         logger.info("Attempting to delete user with ID: {}", userId);
@@ -99,6 +134,7 @@ public class UserServiceImpl implements UserService {
                 });
                 
         repository.delete(user);
+        ticketCacheInvalidator.invalidateUser(userId);
         logger.info("User deleted successfully: ID={}, Email={}", userId, user.getEmail());
         return "User deleted successfully!";
     }
@@ -7,6 +7,8 @@ import static org.mockito.Mockito.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 
 import org.junit.jupiter.api.AfterAll;
@@ -23,10 +25,13 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TicketCacheInvalidator;
 import com.example.demo.service.UserServiceImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +43,9 @@ class UserServiceApplicationTests {
     @Mock
     private UserRepository repository;
     
+    @Mock
+    private TicketCacheInvalidator ticketCacheInvalidator;
+    
     @InjectMocks
     private UserServiceImpl userService;
     
@@ -132,6 +140,7 @@ class UserServiceApplicationTests {
         verify(repository).findById(1);
         verify(repository).findByEmailIgnoreCase(testUser.getEmail());
         verify(repository).save(any(User.class));
+        verify(ticketCacheInvalidator).invalidateUser(1);
     }
     
     @Test
@@ -148,6 +157,7 @@ class UserServiceApplicationTests {
         assertEquals("User not found with ID: 1", exception.getMessage());
         verify(repository).findById(1);
         verify(repository, never()).save(any(User.class));
+        verify(ticketCacheInvalidator, never()).invalidateUser(anyInt());
     }
 
     @Test
@@ -182,6 +192,21 @@ class UserServiceApplicationTests {
         verify(repository).findById(100);
     }
 
+    @Test
+    @DisplayName("Get Users By IDs - Skips Unknown IDs")
+    void testGetUsersByIds() {
+        // Arrange
+        when(repository.findAllById(Set.of(1, 100))).thenReturn(List.of(testUser));
+        
+        // Act
+        Map<Integer, User> result = userService.getUsersByIds(Set.of(1, 100));
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("John Doe", result.get(1).getName());
+        assertFalse(result.containsKey(100));
+    }
+
     @Test
     @DisplayName("Get All Users - Success")
     void testGetAllUsers() {
@@ -214,6 +239,35 @@ class UserServiceApplicationTests {
         verify(repository).findAll();
     }
 
+    @Test
+    @DisplayName("Get All Users Paged - Walks Pages With Cursor")
+    void testGetAllUsersPaged() {
+        User second = new User(2, "Jane Doe", "jane@example.com", "password", null, "user");
+        User third = new User(5, "Max Doe", "max@example.com", "password", null, "user");
+        when(repository.findByUserIdGreaterThanOrderByUserIdAsc(0, Limit.of(3))).thenReturn(List.of(testUser, second, third));
+        
+        CursorPage<User> first = userService.getAllUsersPaged(null, 2);
+        assertEquals(List.of(testUser, second), first.getItems());
+        assertTrue(first.isHasMore());
+        assertNotNull(first.getNextCursor());
+        
+        when(repository.findByUserIdGreaterThanOrderByUserIdAsc(2, Limit.of(3))).thenReturn(List.of(third));
+        CursorPage<User> last = userService.getAllUsersPaged(first.getNextCursor(), 2);
+        assertEquals(List.of(third), last.getItems());
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+    
+    @Test
+    @DisplayName("Get All Users Paged - Invalid Cursor And Limit")
+    void testGetAllUsersPaged_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsersPaged("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsersPaged(CursorPage.encodeCursor(-1), 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsersPaged(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsersPaged(null, CursorPage.MAX_LIMIT + 1));
+        verifyNoInteractions(repository);
+    }
+    
     @Test
     @DisplayName("Delete User - Success")
     void testDeleteUserById() {
@@ -228,6 +282,7 @@ class UserServiceApplicationTests {
         assertEquals("User deleted successfully!", result);
         verify(repository).findById(1);
         verify(repository).delete(testUser);
+        verify(ticketCacheInvalidator).invalidateUser(1);
     }
     
     @Test
@@ -0,0 +1,15 @@
+package com.config;
+
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignResilienceConfig {
+
+    // One circuit breaker per Feign client (USERSERVICE) rather than one per method
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+}
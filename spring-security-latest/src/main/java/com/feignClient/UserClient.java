@@ -8,7 +8,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 
 import com.entity.UserInfo;
 
-@FeignClient(name="USERSERVICE",path="/user")
+@FeignClient(name="USERSERVICE",path="/user",fallbackFactory=UserClientFallbackFactory.class)
 public interface UserClient
 {
 	@PostMapping("/save")
@@ -0,0 +1,35 @@
+package com.feignClient;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.entity.UserInfo;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+/**
+ * Registration fails fast with 503 while USERSERVICE's circuit breaker is open or its bulkhead is
+ * full; any other failure is rethrown unchanged.
+ */
+@Component
+public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
+
+    @Override
+    public UserClient create(Throwable cause) {
+        RuntimeException failure;
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            failure = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "USERSERVICE is unavailable: " + cause.getMessage());
+        } else if (cause instanceof RuntimeException runtimeException) {
+            failure = runtimeException;
+        } else {
+            failure = new IllegalStateException(cause);
+        }
+        return userInfo -> {
+            throw failure;
+        };
+    }
+}